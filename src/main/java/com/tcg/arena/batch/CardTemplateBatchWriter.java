@@ -0,0 +1,141 @@
+package com.tcg.arena.batch;
+
+import com.tcg.arena.model.CardTemplate;
+import com.tcg.arena.model.TCGType;
+import com.tcg.arena.service.CardPrices;
+import com.tcg.arena.service.ImportStatsCollector;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.batch.item.Chunk;
+import org.springframework.batch.item.ItemWriter;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.sql.Timestamp;
+import java.sql.Types;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Writes a chunk of card templates with two JDBC batches instead of one
+ * lookup + save per card: an INSERT ... ON CONFLICT DO NOTHING on the
+ * (name, set_code, card_number) unique key, then a price UPDATE for the rows
+ * the insert found already present. Prices missing from the API keep their
+ * stored value, like the full import.
+ */
+public class CardTemplateBatchWriter implements ItemWriter<CardTemplate> {
+
+    private static final Logger logger = LoggerFactory.getLogger(CardTemplateBatchWriter.class);
+
+    private static final String INSERT_SQL = "INSERT INTO card_templates (name, tcg_type, set_code, expansion_id, "
+            + "card_number, rarity, description, image_url, tcgplayer_id, " + String.join(", ", CardPrices.COLUMNS)
+            + ", last_price_update, likes_count, dislikes_count, date_created) VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, "
+            + "?, ".repeat(CardPrices.FIELDS) + "?, 0, 0, ?) ON CONFLICT (name, set_code, card_number) DO NOTHING";
+
+    private static final String UPDATE_PRICES_SQL = "UPDATE card_templates SET " + priceAssignments()
+            + "last_price_update = ? WHERE name = ? AND set_code = ? AND card_number = ?";
+
+    private static final int[] INSERT_TYPES = insertTypes();
+    private static final int[] UPDATE_TYPES = updateTypes();
+
+    private final JdbcTemplate jdbcTemplate;
+    private final ImportStatsCollector statsCollector;
+    private final TCGType tcgType;
+    private final Long expansionId;
+
+    public CardTemplateBatchWriter(JdbcTemplate jdbcTemplate, ImportStatsCollector statsCollector,
+            TCGType tcgType, Long expansionId) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.statsCollector = statsCollector;
+        this.tcgType = tcgType;
+        this.expansionId = expansionId;
+    }
+
+    @Override
+    public void write(Chunk<? extends CardTemplate> chunk) {
+        List<? extends CardTemplate> templates = chunk.getItems();
+        if (templates.isEmpty()) {
+            return;
+        }
+
+        List<Object[]> inserts = new ArrayList<>(templates.size());
+        for (CardTemplate template : templates) {
+            inserts.add(insertArgs(template));
+        }
+        int[] inserted = jdbcTemplate.batchUpdate(INSERT_SQL, inserts, INSERT_TYPES);
+
+        // Rows skipped by ON CONFLICT already exist: refresh their prices only
+        List<Object[]> updates = new ArrayList<>();
+        for (int i = 0; i < inserted.length; i++) {
+            if (inserted[i] == 0) {
+                updates.add(updateArgs(templates.get(i)));
+            }
+        }
+        if (!updates.isEmpty()) {
+            jdbcTemplate.batchUpdate(UPDATE_PRICES_SQL, updates, UPDATE_TYPES);
+        }
+
+        int added = templates.size() - updates.size();
+        statsCollector.recordCardsWritten(tcgType, added, updates.size());
+        logger.debug("[BATCH] [{}] Chunk written: {} new, {} prices updated", tcgType, added, updates.size());
+    }
+
+    private Object[] insertArgs(CardTemplate template) {
+        double[] prices = CardPrices.of(template);
+        Object[] args = new Object[INSERT_TYPES.length];
+        args[0] = template.getName();
+        args[1] = template.getTcgType().name();
+        args[2] = template.getSetCode();
+        args[3] = expansionId;
+        args[4] = template.getCardNumber();
+        args[5] = template.getRarity().name();
+        args[6] = template.getDescription();
+        args[7] = template.getImageUrl();
+        args[8] = template.getTcgplayerId();
+        for (int i = 0; i < CardPrices.FIELDS; i++) {
+            args[9 + i] = CardPrices.toObject(prices[i]);
+        }
+        args[9 + CardPrices.FIELDS] = Timestamp.valueOf(template.getLastPriceUpdate());
+        args[10 + CardPrices.FIELDS] = Timestamp.valueOf(template.getDateCreated());
+        return args;
+    }
+
+    private Object[] updateArgs(CardTemplate template) {
+        double[] prices = CardPrices.of(template);
+        Object[] args = new Object[UPDATE_TYPES.length];
+        for (int i = 0; i < CardPrices.FIELDS; i++) {
+            args[i] = CardPrices.toObject(prices[i]);
+        }
+        args[CardPrices.FIELDS] = Timestamp.valueOf(template.getLastPriceUpdate());
+        args[CardPrices.FIELDS + 1] = template.getName();
+        args[CardPrices.FIELDS + 2] = template.getSetCode();
+        args[CardPrices.FIELDS + 3] = template.getCardNumber();
+        return args;
+    }
+
+    private static String priceAssignments() {
+        StringBuilder sql = new StringBuilder();
+        for (String column : CardPrices.COLUMNS) {
+            sql.append(column).append(" = COALESCE(?, ").append(column).append("), ");
+        }
+        return sql.toString();
+    }
+
+    private static int[] insertTypes() {
+        int[] types = new int[11 + CardPrices.FIELDS];
+        Arrays.fill(types, 0, 9, Types.VARCHAR);
+        types[3] = Types.BIGINT;
+        Arrays.fill(types, 9, 9 + CardPrices.FIELDS, Types.DOUBLE);
+        types[9 + CardPrices.FIELDS] = Types.TIMESTAMP;
+        types[10 + CardPrices.FIELDS] = Types.TIMESTAMP;
+        return types;
+    }
+
+    private static int[] updateTypes() {
+        int[] types = new int[CardPrices.FIELDS + 4];
+        Arrays.fill(types, 0, CardPrices.FIELDS, Types.DOUBLE);
+        types[CardPrices.FIELDS] = Types.TIMESTAMP;
+        Arrays.fill(types, CardPrices.FIELDS + 1, types.length, Types.VARCHAR);
+        return types;
+    }
+}
@@ -0,0 +1,41 @@
+package com.tcg.arena.batch;
+
+import com.tcg.arena.model.TCGType;
+import com.tcg.arena.service.ImportStatsCollector;
+import org.springframework.batch.core.ChunkListener;
+import org.springframework.batch.core.StepExecution;
+import org.springframework.batch.core.scope.context.ChunkContext;
+
+/**
+ * Forwards the read/write/skip counts of each committed chunk of a set
+ * partition to the {@link ImportStatsCollector}. One instance per step
+ * execution (step scoped), it only reports the delta since its last chunk.
+ */
+public class ImportStatsChunkListener implements ChunkListener {
+
+    private final ImportStatsCollector statsCollector;
+    private final TCGType tcgType;
+
+    private long lastRead;
+    private long lastWritten;
+    private long lastSkipped;
+
+    public ImportStatsChunkListener(ImportStatsCollector statsCollector, TCGType tcgType) {
+        this.statsCollector = statsCollector;
+        this.tcgType = tcgType;
+    }
+
+    @Override
+    public void afterChunk(ChunkContext context) {
+        StepExecution stepExecution = context.getStepContext().getStepExecution();
+        long read = stepExecution.getReadCount();
+        long written = stepExecution.getWriteCount();
+        // Nameless cards are filtered by the processor, they count as skipped like in the reactive import
+        long skipped = stepExecution.getSkipCount() + stepExecution.getFilterCount();
+
+        statsCollector.recordChunkProgress(tcgType, read - lastRead, written - lastWritten, skipped - lastSkipped);
+        lastRead = read;
+        lastWritten = written;
+        lastSkipped = skipped;
+    }
+}
@@ -1,6 +1,9 @@
 package com.tcg.arena.batch;
 
+import com.tcg.arena.model.CardTemplate;
 import com.tcg.arena.model.TCGType;
+import com.tcg.arena.service.CardNameDictionary;
+import com.tcg.arena.service.ImportLookupCache;
 import com.tcg.arena.service.ImportStatsCollector;
 import com.tcg.arena.service.TCGApiClient;
 import org.slf4j.Logger;
@@ -8,21 +11,41 @@ import org.slf4j.LoggerFactory;
 import org.springframework.batch.core.Job;
 import org.springframework.batch.core.Step;
 import org.springframework.batch.core.configuration.annotation.StepScope;
+import org.springframework.batch.core.explore.JobExplorer;
 import org.springframework.batch.core.job.builder.JobBuilder;
+import org.springframework.batch.core.job.flow.FlowExecutionStatus;
+import org.springframework.batch.core.job.flow.JobExecutionDecider;
+import org.springframework.batch.core.partition.support.Partitioner;
 import org.springframework.batch.core.repository.JobRepository;
 import org.springframework.batch.core.step.builder.StepBuilder;
 import org.springframework.batch.core.step.tasklet.Tasklet;
 import org.springframework.batch.repeat.RepeatStatus;
+import org.springframework.batch.support.transaction.ResourcelessTransactionManager;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Qualifier;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.core.task.SimpleAsyncTaskExecutor;
+import org.springframework.core.task.TaskExecutor;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.jdbc.core.JdbcTemplate;
 import org.springframework.transaction.PlatformTransactionManager;
 
+import java.util.List;
+
 /**
  * Spring Batch configuration for TCG API import
- * Uses Tasklet approach for simple API-to-DB import
+ *
+ * JustTCG games are imported by a partitioned step: one partition per set to
+ * import, run concurrently (see tcgImportTaskExecutor). Each partition pages
+ * through its set with {@link TCGSetCardReader} and writes chunks with
+ * {@link CardTemplateBatchWriter} (JDBC batches). Reader position and step
+ * status live in the batch metadata, so a failed job launched again with the
+ * same parameters only re-runs the unfinished partitions, from their last
+ * committed chunk (see BatchService).
+ *
+ * Magic still goes through Scryfall with a tasklet.
  */
 @Configuration
 public class TCGBatchConfiguration {
@@ -31,71 +54,202 @@ public class TCGBatchConfiguration {
 
     @Autowired
     private TCGApiClient tcgApiClient;
-    
+
     @Autowired
     private ImportStatsCollector statsCollector;
 
+    @Autowired
+    private ImportLookupCache importLookups;
+
+    @Autowired
+    private CardNameDictionary cardNameDictionary;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private JobExplorer jobExplorer;
+
+    // Cards per transaction, written as one JDBC batch (two API pages)
+    @Value("${tcg.batch.chunk-size:200}")
+    private int chunkSize;
+
+    // Cards rejected by the database before a partition fails
+    @Value("${tcg.batch.skip-limit:50}")
+    private int skipLimit;
+
+    // Sets imported at the same time; API calls still go through the request scheduler
+    @Value("${tcg.import.set-concurrency:3}")
+    private int setConcurrency;
+
+    /**
+     * TCG types of a tcgType job parameter; all supported types when absent
+     */
+    static List<TCGType> resolveTcgTypes(String tcgTypeParam, TCGApiClient tcgApiClient) {
+        if (tcgTypeParam == null || tcgTypeParam.isBlank()) {
+            return tcgApiClient.getSupportedTCGTypes();
+        }
+        return List.of(TCGType.valueOf(tcgTypeParam.trim()));
+    }
+
+    @Bean
+    public TCGImportJobListener tcgImportJobListener() {
+        return new TCGImportJobListener(statsCollector, tcgApiClient, cardNameDictionary, jobExplorer);
+    }
+
+    /**
+     * Import of a single TCG type (tcgType job parameter)
+     */
     @Bean
     public Job tcgImportJob(JobRepository jobRepository,
+            @Qualifier("tcgImportPartitionStep") Step tcgImportPartitionStep,
             @Qualifier("tcgImportStep") Step tcgImportStep) {
+        JobExecutionDecider byTcgType = (jobExecution, stepExecution) -> new FlowExecutionStatus(
+                TCGType.MAGIC.name().equals(jobExecution.getJobParameters().getString("tcgType")) ? "MAGIC" : "SETS");
+
         return new JobBuilder("tcgImportJob", jobRepository)
-                .start(tcgImportStep)
+                .listener(tcgImportJobListener())
+                .start(byTcgType)
+                    .on("MAGIC").to(tcgImportStep)
+                .from(byTcgType)
+                    .on("*").to(tcgImportPartitionStep)
+                .end()
+                .build();
+    }
+
+    /**
+     * Nightly import of every supported TCG type
+     */
+    @Bean
+    public Job importCardsJob(JobRepository jobRepository,
+            @Qualifier("tcgImportPartitionStep") Step tcgImportPartitionStep,
+            @Qualifier("tcgImportStep") Step tcgImportStep) {
+        return new JobBuilder("importCardsJob", jobRepository)
+                .listener(tcgImportJobListener())
+                .start(tcgImportPartitionStep)
+                .next(tcgImportStep)
                 .build();
     }
 
+    @Bean
+    @Qualifier("tcgImportPartitionStep")
+    public Step tcgImportPartitionStep(JobRepository jobRepository,
+            @Qualifier("tcgSetStep") Step tcgSetStep,
+            @Qualifier("tcgSetPartitioner") Partitioner partitioner) {
+        return new StepBuilder("tcgImportPartitionStep", jobRepository)
+                .partitioner("tcgSetStep", partitioner)
+                .step(tcgSetStep)
+                .gridSize(Math.max(1, setConcurrency))
+                .taskExecutor(tcgImportTaskExecutor())
+                .build();
+    }
+
+    @Bean
+    @Qualifier("tcgSetStep")
+    public Step tcgSetStep(JobRepository jobRepository,
+            PlatformTransactionManager transactionManager,
+            @Qualifier("tcgSetCardReader") TCGSetCardReader reader,
+            @Qualifier("tcgCardItemProcessor") TCGCardItemProcessor processor,
+            @Qualifier("cardTemplateBatchWriter") CardTemplateBatchWriter writer,
+            @Qualifier("importStatsChunkListener") ImportStatsChunkListener chunkListener) {
+        return new StepBuilder("tcgSetStep", jobRepository)
+                .<TCGApiClient.TCGCard, CardTemplate>chunk(chunkSize, transactionManager)
+                .reader(reader)
+                .processor(processor)
+                .writer(writer)
+                .faultTolerant()
+                .skip(DataIntegrityViolationException.class)
+                .skipLimit(skipLimit)
+                .listener(chunkListener)
+                .listener(new TCGSetCompletionListener(tcgApiClient))
+                .build();
+    }
+
+    /**
+     * Runs set partitions, at most setConcurrency at a time. Not a bean, so it
+     * cannot be picked up as the default @Async executor.
+     */
+    private TaskExecutor tcgImportTaskExecutor() {
+        SimpleAsyncTaskExecutor executor = new SimpleAsyncTaskExecutor("tcg-import-");
+        executor.setConcurrencyLimit(Math.max(1, setConcurrency));
+        return executor;
+    }
+
+    @Bean
+    @StepScope
+    @Qualifier("tcgSetPartitioner")
+    public TCGSetPartitioner tcgSetPartitioner(
+            @Value("#{jobParameters['tcgType']}") String tcgTypeParam) {
+        // Magic is imported from Scryfall by tcgImportStep
+        List<TCGType> tcgTypes = resolveTcgTypes(tcgTypeParam, tcgApiClient).stream()
+                .filter(tcgType -> tcgType != TCGType.MAGIC)
+                .toList();
+        return new TCGSetPartitioner(tcgApiClient, importLookups, tcgTypes);
+    }
+
+    @Bean
+    @StepScope
+    @Qualifier("tcgSetCardReader")
+    public TCGSetCardReader tcgSetCardReader(
+            @Value("#{stepExecutionContext['setId']}") String setId) {
+        return new TCGSetCardReader(tcgApiClient, setId);
+    }
+
+    @Bean
+    @StepScope
+    @Qualifier("tcgCardItemProcessor")
+    public TCGCardItemProcessor tcgCardItemProcessor(
+            @Value("#{stepExecutionContext['tcgType']}") String tcgType,
+            @Value("#{stepExecutionContext['setId']}") String setId) {
+        return new TCGCardItemProcessor(tcgApiClient, TCGType.valueOf(tcgType), setId);
+    }
+
+    @Bean
+    @StepScope
+    @Qualifier("cardTemplateBatchWriter")
+    public CardTemplateBatchWriter cardTemplateBatchWriter(
+            @Value("#{stepExecutionContext['tcgType']}") String tcgType,
+            @Value("#{stepExecutionContext['expansionId']}") Long expansionId) {
+        return new CardTemplateBatchWriter(jdbcTemplate, statsCollector, TCGType.valueOf(tcgType), expansionId);
+    }
+
+    @Bean
+    @StepScope
+    @Qualifier("importStatsChunkListener")
+    public ImportStatsChunkListener importStatsChunkListener(
+            @Value("#{stepExecutionContext['tcgType']}") String tcgType) {
+        return new ImportStatsChunkListener(statsCollector, TCGType.valueOf(tcgType));
+    }
+
+    /**
+     * Magic import from Scryfall. The client persists cards itself, so the
+     * tasklet does not need to hold a database transaction for hours.
+     */
     @Bean
     @Qualifier("tcgImportStep")
     public Step tcgImportStep(JobRepository jobRepository,
-            PlatformTransactionManager transactionManager,
             @Qualifier("tcgImportTasklet") Tasklet tasklet) {
         return new StepBuilder("tcgImportStep", jobRepository)
-                .tasklet(tasklet, transactionManager)
+                .tasklet(tasklet, new ResourcelessTransactionManager())
                 .build();
     }
 
     @Bean
-    @StepScope
     @Qualifier("tcgImportTasklet")
-    public Tasklet tcgImportTasklet(
-            @Value("#{jobParameters['tcgType']}") String tcgTypeParam) {
-
+    public Tasklet tcgImportTasklet() {
         return (contribution, chunkContext) -> {
-            logger.info("Starting TCG import tasklet with tcgType: {}", tcgTypeParam);
-
-            TCGType tcgType;
-            try {
-                tcgType = TCGType.valueOf(tcgTypeParam);
-            } catch (Exception e) {
-                logger.error("Invalid TCG type: {}", tcgTypeParam);
-                return RepeatStatus.FINISHED;
-            }
-
-            if (!tcgApiClient.isTCGSupported(tcgType)) {
-                logger.warn("TCG type {} is not supported by TCG API", tcgType);
-                statsCollector.recordImportFailure(tcgType, "TCG not supported by TCG API");
-                return RepeatStatus.FINISHED;
-            }
-
-            // Record import start
-            statsCollector.recordImportStart(tcgType);
-
-            try {
-                logger.info("Starting reactive import for {}", tcgType.getDisplayName());
-                Integer importedCount = tcgApiClient.importCardsForTCG(tcgType)
-                        .timeout(java.time.Duration.ofHours(4)) // 4 hour timeout
-                        .block();
-                
-                int imported = (importedCount != null) ? importedCount : 0;
-                logger.info("TCG import completed. Imported {} cards for {}",
-                        imported, tcgType.getDisplayName());
-                
-                // Record success
-                statsCollector.recordImportSuccess(tcgType, imported, imported, 0);
-            } catch (Exception e) {
-                logger.error("Error during TCG import: {}", e.getMessage(), e);
-                statsCollector.recordImportFailure(tcgType, e.getMessage());
-            }
+            logger.info("Starting reactive import for {}", TCGType.MAGIC.getDisplayName());
+            Integer importedCount = tcgApiClient.importMagicCards()
+                    .timeout(java.time.Duration.ofHours(4)) // 4 hour timeout
+                    .block();
+
+            int imported = (importedCount != null) ? importedCount : 0;
+            logger.info("TCG import completed. Imported {} cards for {}",
+                    imported, TCGType.MAGIC.getDisplayName());
 
+            contribution.incrementWriteCount(imported);
+            statsCollector.recordChunkProgress(TCGType.MAGIC, imported, imported, 0);
+            statsCollector.recordCardsWritten(TCGType.MAGIC, imported, 0);
             return RepeatStatus.FINISHED;
         };
     }
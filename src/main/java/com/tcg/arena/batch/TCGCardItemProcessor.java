@@ -0,0 +1,52 @@
+package com.tcg.arena.batch;
+
+import com.tcg.arena.model.CardTemplate;
+import com.tcg.arena.model.TCGType;
+import com.tcg.arena.service.CardPrices;
+import com.tcg.arena.service.TCGApiClient;
+import org.springframework.batch.item.ItemProcessor;
+
+import java.time.LocalDateTime;
+
+/**
+ * Maps an API card to an (unsaved) CardTemplate with the same rules as
+ * TCGApiClient.saveCardIfNotExists. Cards without a name are filtered out.
+ */
+public class TCGCardItemProcessor implements ItemProcessor<TCGApiClient.TCGCard, CardTemplate> {
+
+    private final TCGApiClient tcgApiClient;
+    private final TCGType tcgType;
+    private final String setId;
+
+    public TCGCardItemProcessor(TCGApiClient tcgApiClient, TCGType tcgType, String setId) {
+        this.tcgApiClient = tcgApiClient;
+        this.tcgType = tcgType;
+        this.setId = setId;
+    }
+
+    @Override
+    public CardTemplate process(TCGApiClient.TCGCard card) {
+        if (card == null || card.name == null) {
+            return null;
+        }
+
+        LocalDateTime now = LocalDateTime.now();
+        CardTemplate template = new CardTemplate();
+        template.setName(card.name);
+        template.setTcgType(tcgType);
+        template.setSetCode(card.set != null ? card.set : setId);
+        template.setCardNumber(card.number != null ? card.number : "N/A");
+        template.setRarity(tcgApiClient.mapRarity(card.rarity));
+        template.setDescription(card.details);
+        template.setImageUrl(card.imageUrl);
+        template.setTcgplayerId(card.tcgplayerId);
+        template.setDateCreated(now);
+
+        double[] prices = CardPrices.of(template);
+        if (CardPrices.applyVariants(prices, card.variants)) {
+            CardPrices.copyTo(prices, template);
+        }
+        template.setLastPriceUpdate(now);
+        return template;
+    }
+}
@@ -0,0 +1,89 @@
+package com.tcg.arena.batch;
+
+import com.tcg.arena.model.TCGType;
+import com.tcg.arena.service.CardNameDictionary;
+import com.tcg.arena.service.ImportStatsCollector;
+import com.tcg.arena.service.TCGApiClient;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.batch.core.BatchStatus;
+import org.springframework.batch.core.JobExecution;
+import org.springframework.batch.core.JobExecutionListener;
+import org.springframework.batch.core.explore.JobExplorer;
+
+import java.util.List;
+
+/**
+ * Opens and closes the {@link ImportStatsCollector} records of the TCG types
+ * imported by a job execution. On success the chunk counters summed over all
+ * partitions become the import result. A restarted execution keeps the
+ * counters of the partitions completed before it. The deck list name
+ * dictionary of each TCG is dropped so it is rebuilt with the new cards.
+ *
+ * The pending set checkpoint is left alone: each completed partition removes
+ * its own set (see {@link TCGSetCompletionListener}).
+ */
+public class TCGImportJobListener implements JobExecutionListener {
+
+    private static final Logger logger = LoggerFactory.getLogger(TCGImportJobListener.class);
+
+    private final ImportStatsCollector statsCollector;
+    private final TCGApiClient tcgApiClient;
+    private final CardNameDictionary cardNameDictionary;
+    private final JobExplorer jobExplorer;
+
+    public TCGImportJobListener(ImportStatsCollector statsCollector, TCGApiClient tcgApiClient,
+            CardNameDictionary cardNameDictionary, JobExplorer jobExplorer) {
+        this.statsCollector = statsCollector;
+        this.tcgApiClient = tcgApiClient;
+        this.cardNameDictionary = cardNameDictionary;
+        this.jobExplorer = jobExplorer;
+    }
+
+    @Override
+    public void beforeJob(JobExecution jobExecution) {
+        // Executions of the same instance before this one: it is a restart
+        boolean restart = jobExplorer.getJobExecutions(jobExecution.getJobInstance()).size() > 1;
+        for (TCGType tcgType : tcgTypesOf(jobExecution)) {
+            if (restart) {
+                statsCollector.recordImportResume(tcgType);
+            } else {
+                statsCollector.recordImportStart(tcgType);
+            }
+        }
+    }
+
+    @Override
+    public void afterJob(JobExecution jobExecution) {
+        boolean completed = jobExecution.getStatus() == BatchStatus.COMPLETED;
+
+        for (TCGType tcgType : tcgTypesOf(jobExecution)) {
+            ImportStatsCollector.ChunkCounters counters = statsCollector.getChunkCounters(tcgType);
+            logger.info("[BATCH] [{}] Job {} {} | Read: {} | Written: {} (new {}, updated {}) | Skipped: {}",
+                    tcgType, jobExecution.getJobInstance().getJobName(), jobExecution.getStatus(),
+                    counters.getRead(), counters.getWritten(), counters.getAdded(), counters.getUpdated(),
+                    counters.getSkipped());
+            cardNameDictionary.invalidate(tcgType);
+
+            if (completed) {
+                statsCollector.recordImportSuccess(tcgType, (int) counters.getRead(), (int) counters.getAdded(),
+                        (int) counters.getUpdated(), (int) counters.getSkipped());
+            } else {
+                statsCollector.recordImportFailure(tcgType, failureMessage(jobExecution));
+            }
+        }
+    }
+
+    private List<TCGType> tcgTypesOf(JobExecution jobExecution) {
+        return TCGBatchConfiguration.resolveTcgTypes(jobExecution.getJobParameters().getString("tcgType"),
+                tcgApiClient);
+    }
+
+    private String failureMessage(JobExecution jobExecution) {
+        List<Throwable> failures = jobExecution.getAllFailureExceptions();
+        if (!failures.isEmpty() && failures.get(0).getMessage() != null) {
+            return failures.get(0).getMessage();
+        }
+        return "Batch job ended with status " + jobExecution.getStatus();
+    }
+}
@@ -0,0 +1,50 @@
+package com.tcg.arena.batch;
+
+import com.tcg.arena.service.TCGApiClient;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.batch.item.data.AbstractPaginatedDataItemReader;
+
+import java.time.Duration;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.List;
+
+/**
+ * Paging reader over the cards of one set, one API page per request.
+ *
+ * Only the current page is held in memory. The read count is saved in the
+ * step ExecutionContext at every chunk commit, so a restarted partition
+ * resumes at the page of the last committed chunk instead of re-reading the
+ * whole set. A page that still fails after the client retries fails the
+ * partition.
+ */
+public class TCGSetCardReader extends AbstractPaginatedDataItemReader<TCGApiClient.TCGCard> {
+
+    private static final Logger logger = LoggerFactory.getLogger(TCGSetCardReader.class);
+
+    private final TCGApiClient tcgApiClient;
+    private final String setId;
+
+    public TCGSetCardReader(TCGApiClient tcgApiClient, String setId) {
+        this.tcgApiClient = tcgApiClient;
+        this.setId = setId;
+        setName("tcgSetCardReader");
+        setPageSize(TCGApiClient.PAGE_SIZE);
+    }
+
+    @Override
+    protected Iterator<TCGApiClient.TCGCard> doPageRead() {
+        int offset = page * pageSize;
+        TCGApiClient.TCGCardsResponse response = tcgApiClient.fetchCardsPageForSet(setId, offset)
+                .block(Duration.ofMinutes(15));
+        if (response == null) {
+            return Collections.emptyIterator();
+        }
+
+        // An empty page ends the set
+        List<TCGApiClient.TCGCard> cards = response.getCards();
+        logger.debug("[BATCH] Set {} page at offset {}: {} cards", setId, offset, cards.size());
+        return cards.iterator();
+    }
+}
@@ -0,0 +1,33 @@
+package com.tcg.arena.batch;
+
+import com.tcg.arena.model.TCGType;
+import com.tcg.arena.service.TCGApiClient;
+import org.springframework.batch.core.BatchStatus;
+import org.springframework.batch.core.ExitStatus;
+import org.springframework.batch.core.StepExecution;
+import org.springframework.batch.core.StepExecutionListener;
+import org.springframework.batch.item.ExecutionContext;
+
+/**
+ * Removes a set from the pending set checkpoint of its TCG once its
+ * partition step has completed. Failed or stopped partitions keep their set
+ * pending, so the next run (or restart) imports it again.
+ */
+public class TCGSetCompletionListener implements StepExecutionListener {
+
+    private final TCGApiClient tcgApiClient;
+
+    public TCGSetCompletionListener(TCGApiClient tcgApiClient) {
+        this.tcgApiClient = tcgApiClient;
+    }
+
+    @Override
+    public ExitStatus afterStep(StepExecution stepExecution) {
+        ExecutionContext context = stepExecution.getExecutionContext();
+        if (stepExecution.getStatus() == BatchStatus.COMPLETED && context.containsKey(TCGSetPartitioner.SET_ID_KEY)) {
+            tcgApiClient.removePendingSetCode(TCGType.valueOf(context.getString(TCGSetPartitioner.TCG_TYPE_KEY)),
+                    context.getString(TCGSetPartitioner.SET_ID_KEY));
+        }
+        return null;
+    }
+}
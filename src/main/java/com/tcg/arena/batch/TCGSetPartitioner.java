@@ -0,0 +1,90 @@
+package com.tcg.arena.batch;
+
+import com.tcg.arena.model.TCGType;
+import com.tcg.arena.service.ImportLookupCache;
+import com.tcg.arena.service.TCGApiClient;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.batch.core.partition.support.Partitioner;
+import org.springframework.batch.item.ExecutionContext;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * One partition per set to import (new, empty or left pending), for one or
+ * more TCG types. Each partition context carries what the worker step needs
+ * to page through the set's cards and write them: tcgType, setId, setName
+ * and expansionId.
+ *
+ * Sets and expansions are created here, before the workers start, so the
+ * writers only have to insert card templates.
+ *
+ * The partitioned sets are added to the pending set checkpoint of their TCG
+ * and each one leaves it when its partition completes (see
+ * {@link TCGSetCompletionListener}). A restart calls partition() again: a
+ * set that failed half way is still pending, so it gets the same partition
+ * name and resumes from the reader position of its last execution.
+ */
+public class TCGSetPartitioner implements Partitioner {
+
+    private static final Logger logger = LoggerFactory.getLogger(TCGSetPartitioner.class);
+
+    static final String TCG_TYPE_KEY = "tcgType";
+    static final String SET_ID_KEY = "setId";
+    static final String SET_NAME_KEY = "setName";
+    static final String EXPANSION_ID_KEY = "expansionId";
+
+    private final TCGApiClient tcgApiClient;
+    private final ImportLookupCache importLookups;
+    private final List<TCGType> tcgTypes;
+
+    public TCGSetPartitioner(TCGApiClient tcgApiClient, ImportLookupCache importLookups, List<TCGType> tcgTypes) {
+        this.tcgApiClient = tcgApiClient;
+        this.importLookups = importLookups;
+        this.tcgTypes = tcgTypes;
+    }
+
+    @Override
+    public Map<String, ExecutionContext> partition(int gridSize) {
+        Map<String, ExecutionContext> partitions = new LinkedHashMap<>();
+
+        for (TCGType tcgType : tcgTypes) {
+            importLookups.preload(tcgType);
+            List<TCGApiClient.TCGSet> sets = tcgApiClient.getSetsToImport(tcgType).block(Duration.ofMinutes(30));
+            if (sets == null || sets.isEmpty()) {
+                logger.info("[BATCH] [{}] No sets to import", tcgType);
+                continue;
+            }
+
+            List<String> setCodes = new ArrayList<>(sets.size());
+            for (TCGApiClient.TCGSet apiSet : sets) {
+                com.tcg.arena.model.TCGSet dbSet;
+                try {
+                    dbSet = tcgApiClient.prepareSetForImport(apiSet, tcgType);
+                } catch (Exception e) {
+                    logger.error("[BATCH] [{}] Failed to create set '{}': {}", tcgType, apiSet.name, e.getMessage());
+                    continue;
+                }
+
+                ExecutionContext context = new ExecutionContext();
+                context.putString(TCG_TYPE_KEY, tcgType.name());
+                context.putString(SET_ID_KEY, apiSet.id);
+                context.putString(SET_NAME_KEY, apiSet.name != null ? apiSet.name : apiSet.id);
+                if (dbSet.getExpansion() != null) {
+                    context.putLong(EXPANSION_ID_KEY, dbSet.getExpansion().getId());
+                }
+                // Partition names are the step execution names, keep them stable for restarts
+                partitions.put(tcgType.name() + ":" + apiSet.id, context);
+                setCodes.add(apiSet.id);
+            }
+            tcgApiClient.addPendingSetCodes(tcgType, setCodes);
+            logger.info("[BATCH] [{}] {} set partitions created", tcgType, setCodes.size());
+        }
+
+        return partitions;
+    }
+}
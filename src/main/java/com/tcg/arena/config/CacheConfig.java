@@ -62,6 +62,7 @@ public class CacheConfig {
     public static final String SHOP_BY_ID_CACHE = "shopById";
     public static final String SHOP_NEWS_CACHE = "shopNews";
     public static final String SHOP_REWARDS_CACHE = "shopRewards";
+    public static final String INVENTORY_STATS_CACHE = "inventoryStats";
     
     // Tournament Caches (TTL: 2-5 min)
     public static final String TOURNAMENTS_CACHE = "tournaments";
@@ -88,9 +89,6 @@ public class CacheConfig {
     public static final String COMMUNITY_THREADS_CACHE = "communityThreads";
     public static final String COMMUNITY_PULLS_CACHE = "communityPulls";
     
-    // Global Chat Cache (TTL: 15 sec)
-    public static final String GLOBAL_CHAT_CACHE = "globalChat";
-    
     // Public Content Cache (TTL: 5-30 min)
     public static final String PUBLIC_CONTENT_CACHE = "publicContent";
     
@@ -151,6 +149,9 @@ public class CacheConfig {
             buildCache(SHOP_NEWS_CACHE, Duration.ofMinutes(5), 500),
             buildCache(SHOP_REWARDS_CACHE, Duration.ofMinutes(10), 500),
             
+            // Merchant inventory stats - 1 min, evicted on inventory writes
+            buildCache(INVENTORY_STATS_CACHE, Duration.ofMinutes(1), 2000),
+            
             // Public Content - 5-30 min
             buildCache(PUBLIC_CONTENT_CACHE, Duration.ofMinutes(30), 1000),
             
@@ -174,15 +175,12 @@ public class CacheConfig {
             // Trade Listings - 2 min
             buildCache(TRADE_LISTINGS_CACHE, Duration.ofMinutes(2), 1000),
             
-            // ==================== VERY SHORT TTL CACHES (15 sec - 2 min) ====================
+            // ==================== VERY SHORT TTL CACHES (1-2 min) ====================
             
             // Community Content - 1-2 min
             buildCache(COMMUNITY_EVENTS_CACHE, Duration.ofMinutes(2), 500),
             buildCache(COMMUNITY_THREADS_CACHE, Duration.ofMinutes(2), 500),
-            buildCache(COMMUNITY_PULLS_CACHE, Duration.ofMinutes(1), 500),
-            
-            // Global Chat - 15 sec
-            buildCache(GLOBAL_CHAT_CACHE, Duration.ofSeconds(15), 200)
+            buildCache(COMMUNITY_PULLS_CACHE, Duration.ofMinutes(1), 500)
         ));
         
         return cacheManager;
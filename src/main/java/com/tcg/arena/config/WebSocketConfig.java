@@ -1,7 +1,22 @@
 package com.tcg.arena.config;
 
+import com.tcg.arena.service.ClusterBrokerBus;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Lazy;
+import org.springframework.messaging.Message;
+import org.springframework.messaging.MessageChannel;
+import org.springframework.messaging.MessageHeaders;
+import org.springframework.messaging.simp.SimpMessageHeaderAccessor;
+import org.springframework.messaging.simp.SimpMessageType;
 import org.springframework.messaging.simp.config.MessageBrokerRegistry;
+import org.springframework.messaging.support.ChannelInterceptor;
+import org.springframework.scheduling.TaskScheduler;
 import org.springframework.web.socket.config.annotation.EnableWebSocketMessageBroker;
 import org.springframework.web.socket.config.annotation.StompEndpointRegistry;
 import org.springframework.web.socket.config.annotation.WebSocketMessageBrokerConfigurer;
@@ -9,15 +24,87 @@ import org.springframework.web.socket.config.annotation.WebSocketMessageBrokerCo
 /**
  * WebSocket configuration for real-time Arena Chat.
  * Uses STOMP protocol over WebSocket with SockJS fallback.
+ *
+ * Broker mode (app.websocket.broker.mode):
+ * - simple:  in-process broker, single instance (default)
+ * - relay:   external STOMP broker (RabbitMQ/ActiveMQ) shared by all instances;
+ *            the cluster bus only keeps in-memory state of the peers in sync
+ * - cluster: in-process broker on every instance, /topic messages forwarded
+ *            to the peers through {@link ClusterBrokerBus}
  */
 @Configuration
 @EnableWebSocketMessageBroker
 public class WebSocketConfig implements WebSocketMessageBrokerConfigurer {
 
+    private static final Logger logger = LoggerFactory.getLogger(WebSocketConfig.class);
+
+    private static final String TOPIC_PREFIX = "/topic";
+
+    @Value("${app.websocket.broker.mode:simple}")
+    private String brokerMode;
+
+    // Heartbeats (ms): how often the server sends / expects client heartbeats
+    @Value("${app.websocket.heartbeat.send-interval-ms:10000}")
+    private long heartbeatSendInterval;
+
+    @Value("${app.websocket.heartbeat.receive-interval-ms:10000}")
+    private long heartbeatReceiveInterval;
+
+    @Value("${app.websocket.relay.host:localhost}")
+    private String relayHost;
+
+    @Value("${app.websocket.relay.port:61613}")
+    private int relayPort;
+
+    @Value("${app.websocket.relay.login:guest}")
+    private String relayLogin;
+
+    @Value("${app.websocket.relay.passcode:guest}")
+    private String relayPasscode;
+
+    @Value("${app.websocket.relay.virtual-host:}")
+    private String relayVirtualHost;
+
+    @Autowired
+    private ObjectProvider<ClusterBrokerBus> clusterBus;
+
+    private TaskScheduler messageBrokerTaskScheduler;
+
+    @Autowired
+    public void setMessageBrokerTaskScheduler(
+            @Lazy @Qualifier("messageBrokerTaskScheduler") TaskScheduler taskScheduler) {
+        this.messageBrokerTaskScheduler = taskScheduler;
+    }
+
     @Override
     public void configureMessageBroker(MessageBrokerRegistry config) {
-        // Enable simple broker for topic subscriptions
-        config.enableSimpleBroker("/topic");
+        long[] heartbeat = new long[] { heartbeatSendInterval, heartbeatReceiveInterval };
+        String mode = brokerMode.trim().toLowerCase();
+
+        if ("relay".equals(mode)) {
+            config.enableStompBrokerRelay(TOPIC_PREFIX)
+                    .setRelayHost(relayHost)
+                    .setRelayPort(relayPort)
+                    .setClientLogin(relayLogin)
+                    .setClientPasscode(relayPasscode)
+                    .setSystemLogin(relayLogin)
+                    .setSystemPasscode(relayPasscode)
+                    .setSystemHeartbeatSendInterval(heartbeatSendInterval)
+                    .setSystemHeartbeatReceiveInterval(heartbeatReceiveInterval)
+                    .setVirtualHost(relayVirtualHost.isBlank() ? null : relayVirtualHost);
+            config.configureBrokerChannel().interceptors(new ClusterForwardingInterceptor());
+        } else {
+            // Enable simple broker for topic subscriptions
+            config.enableSimpleBroker(TOPIC_PREFIX)
+                    .setHeartbeatValue(heartbeat)
+                    .setTaskScheduler(messageBrokerTaskScheduler);
+
+            if ("cluster".equals(mode)) {
+                config.configureBrokerChannel().interceptors(new ClusterForwardingInterceptor());
+            }
+        }
+        logger.info("WebSocket broker mode: {}", mode);
+
         // Prefix for messages from client to server
         config.setApplicationDestinationPrefixes("/app");
     }
@@ -33,4 +120,32 @@ public class WebSocketConfig implements WebSocketMessageBrokerConfigurer {
         registry.addEndpoint("/ws")
                 .setAllowedOriginPatterns("*");
     }
+
+    /**
+     * Copies locally published /topic messages to the cluster bus, which
+     * decides what the peers need. Messages replayed from other instances
+     * carry the origin header and are skipped.
+     */
+    private class ClusterForwardingInterceptor implements ChannelInterceptor {
+
+        @Override
+        public Message<?> preSend(Message<?> message, MessageChannel channel) {
+            MessageHeaders headers = message.getHeaders();
+            if (headers.containsKey(ClusterBrokerBus.ORIGIN_HEADER)
+                    || SimpMessageHeaderAccessor.getMessageType(headers) != SimpMessageType.MESSAGE
+                    || !(message.getPayload() instanceof byte[] payload)) {
+                return message;
+            }
+
+            String destination = SimpMessageHeaderAccessor.getDestination(headers);
+            if (destination != null && destination.startsWith(TOPIC_PREFIX)) {
+                Object contentType = headers.get(MessageHeaders.CONTENT_TYPE);
+                ClusterBrokerBus bus = clusterBus.getIfAvailable();
+                if (bus != null) {
+                    bus.publish(destination, payload, contentType != null ? contentType.toString() : null);
+                }
+            }
+            return message;
+        }
+    }
 }
@@ -0,0 +1,99 @@
+package com.tcg.arena.config;
+
+import com.tcg.arena.service.ClusterBrokerBus;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.context.event.EventListener;
+import org.springframework.messaging.simp.SimpMessageHeaderAccessor;
+import org.springframework.core.task.TaskExecutor;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import org.springframework.stereotype.Component;
+import org.springframework.web.socket.messaging.SessionConnectedEvent;
+import org.springframework.web.socket.messaging.SessionDisconnectEvent;
+import org.springframework.web.socket.messaging.SessionSubscribeEvent;
+import org.springframework.web.socket.messaging.SessionUnsubscribeEvent;
+
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Micrometer gauges for the STOMP broker: connected sessions, active
+ * subscriptions, client outbound queue depth and cluster bus backlog.
+ */
+@Component
+public class WebSocketMetrics {
+
+    // sessionId -> subscription ids; a key exists for every connected session
+    private final Map<String, Set<String>> sessionSubscriptions = new ConcurrentHashMap<>();
+    private final AtomicInteger subscriptions = new AtomicInteger();
+
+    public WebSocketMetrics(MeterRegistry registry,
+            @Qualifier("clientOutboundChannelExecutor") TaskExecutor clientOutboundExecutor,
+            ClusterBrokerBus clusterBus) {
+        Gauge.builder("tcgarena.websocket.sessions", sessionSubscriptions, Map::size)
+                .description("Connected STOMP sessions")
+                .register(registry);
+        Gauge.builder("tcgarena.websocket.subscriptions", subscriptions, AtomicInteger::get)
+                .description("Active STOMP subscriptions")
+                .register(registry);
+        Gauge.builder("tcgarena.websocket.outbound.queue", clientOutboundExecutor,
+                executor -> executor instanceof ThreadPoolTaskExecutor pool
+                        ? pool.getThreadPoolExecutor().getQueue().size()
+                        : 0)
+                .description("Messages waiting to be written to WebSocket clients")
+                .register(registry);
+        Gauge.builder("tcgarena.websocket.cluster.pending", clusterBus, ClusterBrokerBus::getPendingCount)
+                .description("Broker messages waiting to be forwarded to cluster peers")
+                .register(registry);
+        FunctionCounter.builder("tcgarena.websocket.cluster.dropped", clusterBus, ClusterBrokerBus::getDroppedCount)
+                .description("Broker messages dropped because the cluster bus queue was full")
+                .register(registry);
+    }
+
+    @EventListener
+    public void onConnected(SessionConnectedEvent event) {
+        String sessionId = SimpMessageHeaderAccessor.getSessionId(event.getMessage().getHeaders());
+        if (sessionId != null) {
+            sessionSubscriptions.putIfAbsent(sessionId, ConcurrentHashMap.newKeySet());
+        }
+    }
+
+    @EventListener
+    public void onDisconnect(SessionDisconnectEvent event) {
+        // May be published more than once per session, remove() makes it idempotent
+        Set<String> removed = sessionSubscriptions.remove(event.getSessionId());
+        if (removed != null) {
+            subscriptions.addAndGet(-removed.size());
+        }
+    }
+
+    @EventListener
+    public void onSubscribe(SessionSubscribeEvent event) {
+        SimpMessageHeaderAccessor accessor = SimpMessageHeaderAccessor.wrap(event.getMessage());
+        String sessionId = accessor.getSessionId();
+        String subscriptionId = accessor.getSubscriptionId();
+        if (sessionId == null || subscriptionId == null) {
+            return;
+        }
+        Set<String> sessionSubs = sessionSubscriptions.computeIfAbsent(sessionId, key -> ConcurrentHashMap.newKeySet());
+        if (sessionSubs.add(subscriptionId)) {
+            subscriptions.incrementAndGet();
+        }
+    }
+
+    @EventListener
+    public void onUnsubscribe(SessionUnsubscribeEvent event) {
+        SimpMessageHeaderAccessor accessor = SimpMessageHeaderAccessor.wrap(event.getMessage());
+        Set<String> sessionSubs = accessor.getSessionId() != null
+                ? sessionSubscriptions.get(accessor.getSessionId())
+                : null;
+        if (sessionSubs != null && accessor.getSubscriptionId() != null
+                && sessionSubs.remove(accessor.getSubscriptionId())) {
+            subscriptions.decrementAndGet();
+        }
+    }
+}
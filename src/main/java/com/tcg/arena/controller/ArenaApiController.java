@@ -3,6 +3,7 @@ package com.tcg.arena.controller;
 import com.tcg.arena.dto.ArenaCardDTO;
 import com.tcg.arena.model.*;
 import com.tcg.arena.repository.*;
+import com.tcg.arena.service.PriceHistoryService;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
@@ -36,6 +37,9 @@ public class ArenaApiController {
     @Autowired
     private ArenaCardVariantRepository variantRepository;
 
+    @Autowired
+    private PriceHistoryService priceHistoryService;
+
     // ==================== Games ====================
 
     /**
@@ -257,6 +261,47 @@ public class ArenaApiController {
                 "requested", request.ids.size()));
     }
 
+    /**
+     * GET /api/arena/cards/{id}/history - Price history of the card's variants
+     * Optional: variantId, from/to (ISO-8601 instants, default last 90 days), points
+     */
+    @GetMapping("/cards/{id}/history")
+    public ResponseEntity<?> getCardPriceHistory(
+            @PathVariable String id,
+            @RequestParam(required = false) String variantId,
+            @RequestParam(required = false) java.time.Instant from,
+            @RequestParam(required = false) java.time.Instant to,
+            @RequestParam(defaultValue = "200") int points) {
+        if (!cardRepository.existsById(id)) {
+            return ResponseEntity.notFound().build();
+        }
+
+        java.time.Instant end = to != null ? to : java.time.Instant.now();
+        java.time.Instant start = from != null ? from : end.minus(90, java.time.temporal.ChronoUnit.DAYS);
+
+        List<Map<String, Object>> series = variantRepository.findByCardId(id).stream()
+                .filter(v -> variantId == null || variantId.equals(v.getId()))
+                .map(v -> {
+                    long seriesKey = PriceHistoryService.arenaVariantSeries(v.getId());
+                    PriceHistoryService.SeriesType type = PriceHistoryService.SeriesType.ARENA_VARIANT;
+                    Map<String, Object> map = new LinkedHashMap<>();
+                    map.put("variantId", v.getId());
+                    map.put("condition", v.getCondition());
+                    map.put("printing", v.getPrinting());
+                    map.put("points", priceHistoryService.getSeries(type, seriesKey, start, end, points));
+                    map.put("stats", priceHistoryService.getRollingStats(type, seriesKey));
+                    return map;
+                }).collect(Collectors.toList());
+
+        return ResponseEntity.ok()
+                .cacheControl(CacheControl.maxAge(1, TimeUnit.HOURS).cachePublic())
+                .body(Map.of(
+                        "cardId", id,
+                        "from", start,
+                        "to", end,
+                        "data", series));
+    }
+
     // ==================== Lookup by external IDs ====================
 
     /**
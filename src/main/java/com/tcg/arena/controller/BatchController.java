@@ -31,6 +31,12 @@ public class BatchController {
     @Autowired
     private com.tcg.arena.service.AsyncImportService asyncImportService;
 
+    @Autowired
+    private com.tcg.arena.service.JustTcgRequestScheduler requestScheduler;
+
+    @Autowired
+    private com.tcg.arena.service.TCGPriceRefreshService priceRefreshService;
+
     @PostMapping("/tcg/{tcgType}")
     @Operation(summary = "Trigger TCG import", description = "Triggers a TCG API import for a specific TCG type with real-time pricing (Async)")
     @ApiResponses(value = {
@@ -124,4 +130,56 @@ public class BatchController {
             return ResponseEntity.internalServerError().body(response);
         }
     }
+
+    @GetMapping("/tcg/api-keys")
+    @Operation(summary = "Get TCG API key quota status", description = "Returns per-key token bucket and daily quota usage of the TCG API request scheduler")
+    @ApiResponse(responseCode = "200", description = "Quota status per API key")
+    public ResponseEntity<Map<String, Object>> getApiKeyStatus() {
+        Map<String, Object> response = new HashMap<>();
+        response.put("keys", requestScheduler.getKeyStatus());
+        response.put("available", requestScheduler.hasAvailableKey());
+        return ResponseEntity.ok(response);
+    }
+
+    @PostMapping("/tcg/{tcgType}/prices")
+    @Operation(summary = "Trigger price refresh", description = "Refreshes prices of existing cards for a TCG type without importing new cards (Async)")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Price refresh started successfully"),
+            @ApiResponse(responseCode = "400", description = "Invalid or unsupported TCG type")
+    })
+    public ResponseEntity<Map<String, Object>> triggerPriceRefresh(
+            @Parameter(description = "TCG type to refresh") @PathVariable String tcgType) {
+        Map<String, Object> response = new HashMap<>();
+
+        try {
+            TCGType type = TCGType.valueOf(tcgType.toUpperCase());
+
+            if (!tcgApiClient.isTCGSupported(type)) {
+                response.put("success", false);
+                response.put("message", type.getDisplayName() + " is not supported by TCG API");
+                response.put("supportedTypes", tcgApiClient.getSupportedTCGTypes());
+                return ResponseEntity.badRequest().body(response);
+            }
+
+            priceRefreshService.refreshPricesAsync(type);
+
+            response.put("success", true);
+            response.put("message", "Price refresh started async for " + type.getDisplayName());
+            response.put("tcgType", type.name());
+            return ResponseEntity.ok(response);
+        } catch (IllegalArgumentException e) {
+            response.put("success", false);
+            response.put("message", "Invalid TCG type: " + tcgType);
+            return ResponseEntity.badRequest().body(response);
+        }
+    }
+
+    @GetMapping("/tcg/prices/runs")
+    @Operation(summary = "Get price refresh runs", description = "Returns the most recent price refresh runs with their change counts")
+    @ApiResponse(responseCode = "200", description = "Recent price refresh runs")
+    public ResponseEntity<Map<String, Object>> getPriceRefreshRuns() {
+        Map<String, Object> response = new HashMap<>();
+        response.put("runs", priceRefreshService.getRecentRuns());
+        return ResponseEntity.ok(response);
+    }
 }
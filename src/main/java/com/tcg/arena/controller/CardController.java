@@ -5,6 +5,7 @@ import com.tcg.arena.model.Rarity;
 import com.tcg.arena.model.TCGType;
 import com.tcg.arena.repository.CardTemplateRepository;
 import com.tcg.arena.service.CardTemplateService;
+import com.tcg.arena.service.PriceHistoryService;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.Parameter;
 import io.swagger.v3.oas.annotations.responses.ApiResponse;
@@ -17,7 +18,11 @@ import org.springframework.data.domain.Pageable;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 
 @RestController
 @RequestMapping("/api/cards/templates")
@@ -33,6 +38,9 @@ public class CardController {
         @Autowired
         private com.tcg.arena.service.ExpansionService expansionService;
 
+        @Autowired
+        private PriceHistoryService priceHistoryService;
+
         @GetMapping
         @Operation(summary = "Get all card templates", description = "Retrieves a paginated list of all available card templates in the system")
         @ApiResponses(value = {
@@ -258,4 +266,40 @@ public class CardController {
                 List<CardTemplate> cards = cardTemplateService.getRandomRecentCards(years, limit);
                 return ResponseEntity.ok(cards);
         }
-}
\ No newline at end of file
+
+        @GetMapping("/{id}/price-history")
+        @Operation(summary = "Get price history of a card template", description = "Returns the recorded price samples of a card template for one condition, downsampled to at most the requested number of points, plus rolling 7/30/90/365 day min/max/avg")
+        @ApiResponses(value = {
+                        @ApiResponse(responseCode = "200", description = "Price history retrieved successfully"),
+                        @ApiResponse(responseCode = "400", description = "Unknown condition"),
+                        @ApiResponse(responseCode = "404", description = "Card template not found")
+        })
+        public ResponseEntity<?> getPriceHistory(
+                        @Parameter(description = "Unique identifier of the card template") @PathVariable Long id,
+                        @Parameter(description = "Price condition (MARKET, NEAR_MINT, LIGHTLY_PLAYED, MODERATELY_PLAYED, HEAVILY_PLAYED, DAMAGED, FOIL, FOIL_NEAR_MINT)") @RequestParam(defaultValue = "MARKET") String condition,
+                        @Parameter(description = "Start of the range (ISO-8601 instant), defaults to 90 days ago") @RequestParam(required = false) Instant from,
+                        @Parameter(description = "End of the range (ISO-8601 instant), defaults to now") @RequestParam(required = false) Instant to,
+                        @Parameter(description = "Maximum number of points to return") @RequestParam(defaultValue = "200") int points) {
+                int field = com.tcg.arena.service.CardPrices.fieldOf(condition);
+                if (field < 0 || field >= com.tcg.arena.service.CardPrices.HISTORY_FIELDS) {
+                        return ResponseEntity.badRequest().body(Map.of("error", "Unknown condition: " + condition));
+                }
+                if (!cardTemplateRepository.existsById(id)) {
+                        return ResponseEntity.notFound().build();
+                }
+
+                Instant end = to != null ? to : Instant.now();
+                Instant start = from != null ? from : end.minus(90, ChronoUnit.DAYS);
+                long seriesKey = PriceHistoryService.templateSeries(id, field);
+                PriceHistoryService.SeriesType type = PriceHistoryService.SeriesType.CARD_TEMPLATE;
+
+                Map<String, Object> response = new LinkedHashMap<>();
+                response.put("templateId", id);
+                response.put("condition", com.tcg.arena.service.CardPrices.NAMES[field]);
+                response.put("from", start);
+                response.put("to", end);
+                response.put("points", priceHistoryService.getSeries(type, seriesKey, start, end, points));
+                response.put("stats", priceHistoryService.getRollingStats(type, seriesKey));
+                return ResponseEntity.ok(response);
+        }
+}
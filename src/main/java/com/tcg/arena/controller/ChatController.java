@@ -56,12 +56,22 @@ public class ChatController {
         return ResponseEntity.ok(chatService.sendMessage(userId, conversationId, sendRequest.getContent()));
     }
 
+    /**
+     * Without parameters returns the whole history (legacy clients).
+     * With before/after/limit returns a cursor page, oldest first.
+     */
     @GetMapping("/{conversationId}/messages")
     public ResponseEntity<List<ChatMessageDto>> getMessages(
             @PathVariable Long conversationId,
+            @RequestParam(required = false) Long before,
+            @RequestParam(required = false) Long after,
+            @RequestParam(required = false) Integer limit,
             HttpServletRequest request) {
         Long userId = getUserIdFromRequest(request);
-        return ResponseEntity.ok(chatService.getMessages(userId, conversationId));
+        if (before == null && after == null && limit == null) {
+            return ResponseEntity.ok(chatService.getMessages(userId, conversationId));
+        }
+        return ResponseEntity.ok(chatService.getMessagesPage(userId, conversationId, before, after, limit));
     }
 
     @PostMapping("/{conversationId}/complete")
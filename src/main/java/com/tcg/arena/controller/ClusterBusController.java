@@ -0,0 +1,39 @@
+package com.tcg.arena.controller;
+
+import com.tcg.arena.service.ClusterBrokerBus;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestHeader;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.util.List;
+
+/**
+ * Internal endpoint receiving broker messages forwarded by other instances
+ * when the WebSocket broker runs in "cluster" mode.
+ */
+@RestController
+@RequestMapping("/api/internal/cluster-bus")
+public class ClusterBusController {
+
+    @Autowired
+    private ClusterBrokerBus clusterBus;
+
+    @PostMapping("/publish")
+    public ResponseEntity<Void> publish(
+            @RequestHeader(value = ClusterBrokerBus.SECRET_HEADER, required = false) String secret,
+            @RequestBody List<ClusterBrokerBus.Batch> batches) {
+        if (!clusterBus.isEnabled()) {
+            return ResponseEntity.notFound().build();
+        }
+        if (!clusterBus.isValidSecret(secret)) {
+            return ResponseEntity.status(HttpStatus.FORBIDDEN).build();
+        }
+        clusterBus.receive(batches);
+        return ResponseEntity.accepted().build();
+    }
+}
@@ -1,10 +1,13 @@
 package com.tcg.arena.controller;
 
 import com.tcg.arena.dto.DeckCardUpdateDTO;
+import com.tcg.arena.dto.DeckDiffDTO;
+import com.tcg.arena.dto.DeckListDTO;
 import com.tcg.arena.model.CardCondition;
 import com.tcg.arena.model.Deck;
 import com.tcg.arena.model.DeckType;
 import com.tcg.arena.model.TCGType;
+import com.tcg.arena.service.DeckListService;
 import com.tcg.arena.service.DeckService;
 import com.tcg.arena.service.NotificationService;
 import com.tcg.arena.repository.UserRepository;
@@ -14,9 +17,13 @@ import io.swagger.v3.oas.annotations.responses.ApiResponse;
 import io.swagger.v3.oas.annotations.responses.ApiResponses;
 import io.swagger.v3.oas.annotations.tags.Tag;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import java.io.OutputStreamWriter;
+import java.nio.charset.StandardCharsets;
 import java.util.List;
 
 @RestController
@@ -27,6 +34,9 @@ public class DeckController {
     @Autowired
     private DeckService deckService;
 
+    @Autowired
+    private DeckListService deckListService;
+
     @Autowired
     private NotificationService notificationService;
 
@@ -62,6 +72,17 @@ public class DeckController {
         return deckService.getPopularDecks(java.util.Optional.ofNullable(tcgType));
     }
 
+    @GetMapping("/trending")
+    @Operation(summary = "Get trending decks", description = "Retrieves the visible decks with the most recent likes (older likes count less), optionally filtered by TCG type")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Successfully retrieved list of trending decks")
+    })
+    public List<Deck> getTrendingDecks(
+            @Parameter(description = "Optional TCG type to filter by") @RequestParam(required = false) TCGType tcgType,
+            @Parameter(description = "Maximum number of decks to return (max 50)") @RequestParam(defaultValue = "10") int limit) {
+        return deckService.getTrendingDecks(java.util.Optional.ofNullable(tcgType), limit);
+    }
+
     @GetMapping("/{id}")
     @Operation(summary = "Get deck by ID", description = "Retrieves a specific deck by its unique ID")
     @ApiResponses(value = {
@@ -145,6 +166,59 @@ public class DeckController {
         }
     }
 
+    @PutMapping("/{id}/cards")
+    @Operation(summary = "Apply card list to deck", description = "Applies a full (replace=true) or partial card list to a deck in one transaction: cards are added, removed or have their quantity changed to match the list")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Deck updated, with the number of rows added, updated and removed"),
+            @ApiResponse(responseCode = "400", description = "Invalid card list, deck not found or not owned by the user")
+    })
+    public ResponseEntity<DeckDiffDTO.Response> applyDeckDiff(
+            @Parameter(description = "Unique identifier of the deck") @PathVariable Long id,
+            @Parameter(description = "Unique identifier of the user performing the action") @RequestParam Long userId,
+            @RequestBody DeckDiffDTO.Request request) {
+        try {
+            return ResponseEntity.ok(deckService.applyDeckDiff(id, request, userId));
+        } catch (RuntimeException e) {
+            return ResponseEntity.badRequest().build();
+        }
+    }
+
+    @PostMapping(value = "/import", consumes = MediaType.TEXT_PLAIN_VALUE)
+    @Operation(summary = "Import deck list", description = "Creates a deck from a pasted text deck list (MTG Arena/MTGO or Pokemon TCG Live format). Lines that cannot be matched to a card are returned in 'unresolved'")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Deck created from the list"),
+            @ApiResponse(responseCode = "400", description = "No card of the list could be matched")
+    })
+    public ResponseEntity<DeckListDTO.ImportResponse> importDeckList(
+            @Parameter(description = "Name of the new deck") @RequestParam String name,
+            @Parameter(description = "TCG type of the deck") @RequestParam TCGType tcgType,
+            @Parameter(description = "Type of the deck") @RequestParam(required = false, defaultValue = "DECK") DeckType deckType,
+            @Parameter(description = "Unique identifier of the user performing the action") @RequestParam Long userId,
+            @RequestBody String deckList) {
+        try {
+            return ResponseEntity.ok(deckListService.importDeckList(deckList, name, tcgType, deckType, userId));
+        } catch (RuntimeException e) {
+            return ResponseEntity.badRequest().build();
+        }
+    }
+
+    @GetMapping(value = "/{id}/export", produces = MediaType.TEXT_PLAIN_VALUE)
+    @Operation(summary = "Export deck list", description = "Streams the deck as a text deck list, in the same formats accepted by the import")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Deck list text"),
+            @ApiResponse(responseCode = "404", description = "Deck not found")
+    })
+    public ResponseEntity<StreamingResponseBody> exportDeckList(
+            @Parameter(description = "Unique identifier of the deck") @PathVariable Long id) {
+        DeckListService.DeckListExport export = deckListService.exportDeckList(id);
+        if (export == null) {
+            return ResponseEntity.notFound().build();
+        }
+        return ResponseEntity.ok()
+                .contentType(new MediaType(MediaType.TEXT_PLAIN, StandardCharsets.UTF_8))
+                .body(out -> export.writeTo(new OutputStreamWriter(out, StandardCharsets.UTF_8)));
+    }
+
     @PostMapping("/{id}/add-card-template")
     @Operation(summary = "Add card template to deck", description = "Adds a card to deck from a card template (used in discover new card flow)")
     @ApiResponses(value = {
@@ -144,7 +144,8 @@ class GlobalChatRestController {
      * Get messages after a specific ID (for reconnection sync).
      */
     @GetMapping("/messages/after")
-    public ResponseEntity<List<GlobalChatMessageDto>> getMessagesAfter(@RequestParam Long afterId) {
+    public ResponseEntity<List<GlobalChatMessageDto>> getMessagesAfter(
+            @RequestParam(required = false) Long afterId) {
         return ResponseEntity.ok(chatService.getMessagesAfterId(afterId));
     }
 
@@ -1,17 +1,25 @@
 package com.tcg.arena.controller;
 
 import com.tcg.arena.dto.MerchantDashboardStatsDTO;
+import com.tcg.arena.model.InventoryImportJob;
 import com.tcg.arena.model.Shop;
 import com.tcg.arena.model.User;
+import com.tcg.arena.service.InventoryBulkImportService;
+import com.tcg.arena.service.InventoryCsvImportService;
 import com.tcg.arena.service.MerchantDashboardService;
 import com.tcg.arena.service.ShopService;
 import com.tcg.arena.service.UserService;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.core.Authentication;
 import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.multipart.MultipartFile;
 
+import java.io.IOException;
 import java.util.HashMap;
 import java.util.Map;
 import java.util.Optional;
@@ -29,6 +37,12 @@ public class MerchantBackofficeController {
     @Autowired
     private MerchantDashboardService merchantDashboardService;
 
+    @Autowired
+    private InventoryBulkImportService inventoryBulkImportService;
+
+    @Autowired
+    private InventoryCsvImportService inventoryCsvImportService;
+
     /**
      * Get merchant shop status
      * Returns shop info and active status for the logged merchant
@@ -277,4 +291,103 @@ public class MerchantBackofficeController {
 
         return ResponseEntity.ok(response);
     }
+
+    /**
+     * Start a CSV inventory import (standard template) in the background
+     * Returns the job to poll with GET /inventory/import/{jobId}
+     */
+    @PostMapping("/inventory/import")
+    public ResponseEntity<?> startInventoryImport(@RequestParam("file") MultipartFile file) {
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        String username = authentication.getName();
+
+        Optional<User> userOpt = userService.getUserByUsername(username);
+        if (userOpt.isEmpty()) {
+            return ResponseEntity.badRequest().body("User not found");
+        }
+
+        User user = userOpt.get();
+        if (!user.getIsMerchant()) {
+            return ResponseEntity.badRequest().body("User is not a merchant");
+        }
+
+        if (user.getShopId() == null) {
+            return ResponseEntity.badRequest().body("No shop associated with this merchant");
+        }
+
+        if (file.isEmpty()) {
+            return ResponseEntity.badRequest().body("File is required");
+        }
+
+        try {
+            InventoryImportJob job = inventoryBulkImportService.startCSVImport(user.getShopId(), file);
+            return ResponseEntity.accepted().body(job);
+        } catch (IOException e) {
+            return ResponseEntity.internalServerError().body("Error reading import file: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Get progress of a CSV inventory import
+     */
+    @GetMapping("/inventory/import/{jobId}")
+    public ResponseEntity<?> getInventoryImportStatus(@PathVariable String jobId) {
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        String username = authentication.getName();
+
+        Optional<User> userOpt = userService.getUserByUsername(username);
+        if (userOpt.isEmpty()) {
+            return ResponseEntity.badRequest().body("User not found");
+        }
+
+        User user = userOpt.get();
+        if (!user.getIsMerchant()) {
+            return ResponseEntity.badRequest().body("User is not a merchant");
+        }
+
+        if (user.getShopId() == null) {
+            return ResponseEntity.badRequest().body("No shop associated with this merchant");
+        }
+
+        InventoryImportJob job = inventoryCsvImportService.getJob(jobId, user.getShopId());
+        if (job == null) {
+            return ResponseEntity.notFound().build();
+        }
+        return ResponseEntity.ok(job);
+    }
+
+    /**
+     * Download the rejected rows of a CSV inventory import, with the reason
+     */
+    @GetMapping("/inventory/import/{jobId}/errors")
+    public ResponseEntity<?> downloadInventoryImportErrors(@PathVariable String jobId) {
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        String username = authentication.getName();
+
+        Optional<User> userOpt = userService.getUserByUsername(username);
+        if (userOpt.isEmpty()) {
+            return ResponseEntity.badRequest().body("User not found");
+        }
+
+        User user = userOpt.get();
+        if (!user.getIsMerchant()) {
+            return ResponseEntity.badRequest().body("User is not a merchant");
+        }
+
+        if (user.getShopId() == null) {
+            return ResponseEntity.badRequest().body("No shop associated with this merchant");
+        }
+
+        InventoryImportJob job = inventoryCsvImportService.getJob(jobId, user.getShopId());
+        if (job == null) {
+            return ResponseEntity.notFound().build();
+        }
+
+        byte[] report = inventoryCsvImportService.buildErrorReport(job);
+        HttpHeaders headers = new HttpHeaders();
+        headers.setContentType(MediaType.parseMediaType("text/csv"));
+        headers.setContentDispositionFormData("attachment", "inventory_import_errors_" + jobId + ".csv");
+        headers.setContentLength(report.length);
+        return new ResponseEntity<>(report, headers, HttpStatus.OK);
+    }
 }
@@ -1,8 +1,13 @@
 package com.tcg.arena.controller;
 
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.tcg.arena.dto.CollectionValueDTO;
+import com.tcg.arena.dto.UserCollectionDTO;
 import com.tcg.arena.model.CardCondition;
 import com.tcg.arena.model.Deck;
 import com.tcg.arena.model.GradeService;
+import com.tcg.arena.model.Rarity;
+import com.tcg.arena.model.TCGType;
 import com.tcg.arena.model.User;
 import com.tcg.arena.model.UserCard;
 import com.tcg.arena.model.UserCardDeck;
@@ -11,6 +16,8 @@ import com.tcg.arena.repository.UserCardDeckRepository;
 import com.tcg.arena.model.DeckCard;
 import java.util.Iterator;
 import com.tcg.arena.service.CardTemplateService;
+import com.tcg.arena.service.CollectionQueryService;
+import com.tcg.arena.service.CollectionValuationService;
 import com.tcg.arena.service.UserCardService;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.Parameter;
@@ -18,14 +25,28 @@ import io.swagger.v3.oas.annotations.responses.ApiResponse;
 import io.swagger.v3.oas.annotations.responses.ApiResponses;
 import io.swagger.v3.oas.annotations.tags.Tag;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.format.annotation.DateTimeFormat;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.core.annotation.AuthenticationPrincipal;
 import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.transaction.annotation.Transactional;
 import org.springframework.web.bind.annotation.*;
-
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 import java.util.stream.Collectors;
 
@@ -140,6 +161,15 @@ public class UserCardController {
     @Autowired
     private UserCardDeckRepository userCardDeckRepository;
 
+    @Autowired
+    private CollectionValuationService collectionValuationService;
+
+    @Autowired
+    private CollectionQueryService collectionQueryService;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
     @GetMapping("/collection")
     @Operation(summary = "Get current user's card collection", description = "Retrieves all user cards owned by the currently authenticated user")
     @ApiResponses(value = {
@@ -158,6 +188,122 @@ public class UserCardController {
         return ResponseEntity.notFound().build();
     }
 
+    @GetMapping("/collection/page")
+    @Operation(summary = "Get a page of current user's collection", description = "Returns flat card rows of the authenticated user's collection, filtered and sorted server-side, with keyset pagination: pass next_cursor of a page to get the following one")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Collection page retrieved successfully"),
+            @ApiResponse(responseCode = "400", description = "Invalid cursor")
+    })
+    public ResponseEntity<UserCollectionDTO.Page> getUserCollectionPage(
+            @Parameter(description = "Filter by TCG type") @RequestParam(required = false) TCGType tcgType,
+            @Parameter(description = "Filter by set code") @RequestParam(required = false) String setCode,
+            @Parameter(description = "Filter by rarity") @RequestParam(required = false) Rarity rarity,
+            @Parameter(description = "Minimum market price") @RequestParam(required = false) Double minValue,
+            @Parameter(description = "Maximum market price") @RequestParam(required = false) Double maxValue,
+            @Parameter(description = "Only cards modified after this time (ISO-8601)") @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime modifiedSince,
+            @Parameter(description = "Sort field (DATE_ADDED, LAST_MODIFIED, NAME, VALUE)") @RequestParam(defaultValue = "DATE_ADDED") CollectionQueryService.Sort sort,
+            @Parameter(description = "Sort direction (asc, desc)") @RequestParam(defaultValue = "desc") String direction,
+            @Parameter(description = "Cursor returned by the previous page") @RequestParam(required = false) String cursor,
+            @Parameter(description = "Page size (max 200)") @RequestParam(required = false) Integer limit,
+            @AuthenticationPrincipal UserDetails userDetails) {
+        if (userDetails == null) {
+            return ResponseEntity.status(HttpStatus.UNAUTHORIZED).build();
+        }
+        Optional<User> userOpt = userCardService.getUserByUsername(userDetails.getUsername());
+        if (userOpt.isEmpty()) {
+            return ResponseEntity.notFound().build();
+        }
+
+        CollectionQueryService.Filter filter = new CollectionQueryService.Filter(tcgType, setCode, rarity,
+                minValue, maxValue, modifiedSince);
+        try {
+            return ResponseEntity.ok(collectionQueryService.getCollectionPage(userOpt.get().getId(), filter, sort,
+                    !"asc".equalsIgnoreCase(direction), cursor, limit));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().build();
+        }
+    }
+
+    @GetMapping(value = "/collection/export", produces = "application/x-ndjson")
+    @Operation(summary = "Export current user's collection as NDJSON", description = "Streams the authenticated user's collection, one JSON card row per line, oldest modification first. Pass the last seen last_modified as modifiedSince to sync incrementally")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Collection stream")
+    })
+    public ResponseEntity<StreamingResponseBody> exportUserCollection(
+            @Parameter(description = "Filter by TCG type") @RequestParam(required = false) TCGType tcgType,
+            @Parameter(description = "Only cards modified after this time (ISO-8601)") @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime modifiedSince,
+            @AuthenticationPrincipal UserDetails userDetails) {
+        if (userDetails == null) {
+            return ResponseEntity.status(HttpStatus.UNAUTHORIZED).build();
+        }
+        Optional<User> userOpt = userCardService.getUserByUsername(userDetails.getUsername());
+        if (userOpt.isEmpty()) {
+            return ResponseEntity.notFound().build();
+        }
+
+        Long userId = userOpt.get().getId();
+        CollectionQueryService.Filter filter = new CollectionQueryService.Filter(tcgType, null, null, null, null,
+                modifiedSince);
+        StreamingResponseBody body = out -> {
+            Writer writer = new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8));
+            collectionQueryService.streamCollection(userId, filter, card -> {
+                try {
+                    writer.write(objectMapper.writeValueAsString(card));
+                    writer.write('\n');
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            });
+            writer.flush();
+        };
+        return ResponseEntity.ok()
+                .contentType(MediaType.parseMediaType("application/x-ndjson"))
+                .body(body);
+    }
+
+    @GetMapping("/collection/value")
+    @Operation(summary = "Get current user's collection value", description = "Returns the card count and market value of the authenticated user's collection, in total and per TCG")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Collection value retrieved successfully")
+    })
+    public ResponseEntity<CollectionValueDTO> getCollectionValue(@AuthenticationPrincipal UserDetails userDetails) {
+        if (userDetails == null) {
+            return ResponseEntity.status(HttpStatus.UNAUTHORIZED).build();
+        }
+        Optional<User> userOpt = userCardService.getUserByUsername(userDetails.getUsername());
+        if (userOpt.isEmpty()) {
+            return ResponseEntity.notFound().build();
+        }
+        return ResponseEntity.ok(collectionValuationService.getCollectionValue(userOpt.get().getId()));
+    }
+
+    @GetMapping("/collection/value/history")
+    @Operation(summary = "Get current user's collection value history", description = "Returns the total market value of the authenticated user's collection recorded after each price refresh, downsampled to at most the requested number of points")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Collection value history retrieved successfully")
+    })
+    public ResponseEntity<?> getCollectionValueHistory(
+            @Parameter(description = "Start of the range (ISO-8601 instant), defaults to 90 days ago") @RequestParam(required = false) Instant from,
+            @Parameter(description = "End of the range (ISO-8601 instant), defaults to now") @RequestParam(required = false) Instant to,
+            @Parameter(description = "Maximum number of points to return") @RequestParam(defaultValue = "200") int points,
+            @AuthenticationPrincipal UserDetails userDetails) {
+        if (userDetails == null) {
+            return ResponseEntity.status(HttpStatus.UNAUTHORIZED).build();
+        }
+        Optional<User> userOpt = userCardService.getUserByUsername(userDetails.getUsername());
+        if (userOpt.isEmpty()) {
+            return ResponseEntity.notFound().build();
+        }
+
+        Instant end = to != null ? to : Instant.now();
+        Instant start = from != null ? from : end.minus(90, ChronoUnit.DAYS);
+        Map<String, Object> response = new LinkedHashMap<>();
+        response.put("from", start);
+        response.put("to", end);
+        response.put("points", collectionValuationService.getValueHistory(userOpt.get().getId(), start, end, points));
+        return ResponseEntity.ok(response);
+    }
+
     @PostMapping("/{cardTemplateId}/add-to-collection")
     @Operation(summary = "Add card template to user's collection", description = "Adds a specific card template to the authenticated user's collection as a user card")
     @ApiResponses(value = {
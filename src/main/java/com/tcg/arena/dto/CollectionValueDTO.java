@@ -0,0 +1,64 @@
+package com.tcg.arena.dto;
+
+import com.fasterxml.jackson.annotation.JsonProperty;
+import com.tcg.arena.model.TCGType;
+
+import java.math.BigDecimal;
+import java.util.List;
+
+/**
+ * Card count and market value of a user's collection, in total and per TCG
+ */
+public class CollectionValueDTO {
+    @JsonProperty("card_count")
+    private long cardCount;
+    @JsonProperty("market_value")
+    private BigDecimal marketValue;
+    @JsonProperty("by_tcg")
+    private List<TcgValue> byTcg;
+
+    public CollectionValueDTO(long cardCount, BigDecimal marketValue, List<TcgValue> byTcg) {
+        this.cardCount = cardCount;
+        this.marketValue = marketValue;
+        this.byTcg = byTcg;
+    }
+
+    public long getCardCount() {
+        return cardCount;
+    }
+
+    public BigDecimal getMarketValue() {
+        return marketValue;
+    }
+
+    public List<TcgValue> getByTcg() {
+        return byTcg;
+    }
+
+    public static class TcgValue {
+        @JsonProperty("tcg_type")
+        private TCGType tcgType;
+        @JsonProperty("card_count")
+        private int cardCount;
+        @JsonProperty("market_value")
+        private BigDecimal marketValue;
+
+        public TcgValue(TCGType tcgType, int cardCount, BigDecimal marketValue) {
+            this.tcgType = tcgType;
+            this.cardCount = cardCount;
+            this.marketValue = marketValue;
+        }
+
+        public TCGType getTcgType() {
+            return tcgType;
+        }
+
+        public int getCardCount() {
+            return cardCount;
+        }
+
+        public BigDecimal getMarketValue() {
+            return marketValue;
+        }
+    }
+}
@@ -0,0 +1,112 @@
+package com.tcg.arena.dto;
+
+import com.fasterxml.jackson.annotation.JsonProperty;
+import com.tcg.arena.model.Deck;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * DTOs for bulk deck editing: a card list applied to a deck as one diff
+ */
+public class DeckDiffDTO {
+
+    /**
+     * Target quantities per card template and section. With replace=true the
+     * list is the whole deck (cards not listed are removed), otherwise only
+     * the listed cards change and quantity 0 removes a card.
+     */
+    public static class Request {
+        private Boolean replace = false;
+        private List<CardEntry> cards = new ArrayList<>();
+
+        public Boolean getReplace() {
+            return replace;
+        }
+
+        public void setReplace(Boolean replace) {
+            this.replace = replace;
+        }
+
+        public List<CardEntry> getCards() {
+            return cards;
+        }
+
+        public void setCards(List<CardEntry> cards) {
+            this.cards = cards;
+        }
+    }
+
+    public static class CardEntry {
+        @JsonProperty("card_id")
+        private Long cardId; // card template id, as in DeckCard
+        private Integer quantity;
+        private String section;
+
+        public CardEntry() {
+        }
+
+        public CardEntry(Long cardId, Integer quantity, String section) {
+            this.cardId = cardId;
+            this.quantity = quantity;
+            this.section = section;
+        }
+
+        public Long getCardId() {
+            return cardId;
+        }
+
+        public void setCardId(Long cardId) {
+            this.cardId = cardId;
+        }
+
+        public Integer getQuantity() {
+            return quantity;
+        }
+
+        public void setQuantity(Integer quantity) {
+            this.quantity = quantity;
+        }
+
+        public String getSection() {
+            return section;
+        }
+
+        public void setSection(String section) {
+            this.section = section;
+        }
+    }
+
+    /**
+     * Updated deck and the number of deck rows added, changed and removed
+     */
+    public static class Response {
+        private Deck deck;
+        private int added;
+        private int updated;
+        private int removed;
+
+        public Response(Deck deck, int added, int updated, int removed) {
+            this.deck = deck;
+            this.added = added;
+            this.updated = updated;
+            this.removed = removed;
+        }
+
+        public Deck getDeck() {
+            return deck;
+        }
+
+        public int getAdded() {
+            return added;
+        }
+
+        public int getUpdated() {
+            return updated;
+        }
+
+        public int getRemoved() {
+            return removed;
+        }
+    }
+}
@@ -0,0 +1,66 @@
+package com.tcg.arena.dto;
+
+import com.fasterxml.jackson.annotation.JsonProperty;
+import com.tcg.arena.model.Deck;
+
+import java.util.List;
+
+/**
+ * DTOs for deck list text import/export
+ */
+public class DeckListDTO {
+
+    /**
+     * Deck created from a pasted list, with the lines that could not be
+     * imported (unknown card, quantity over the maximum)
+     */
+    public static class ImportResponse {
+        private Deck deck;
+        @JsonProperty("card_count")
+        private int cardCount;
+        private List<UnresolvedLine> unresolved;
+
+        public ImportResponse(Deck deck, int cardCount, List<UnresolvedLine> unresolved) {
+            this.deck = deck;
+            this.cardCount = cardCount;
+            this.unresolved = unresolved;
+        }
+
+        public Deck getDeck() {
+            return deck;
+        }
+
+        public int getCardCount() {
+            return cardCount;
+        }
+
+        public List<UnresolvedLine> getUnresolved() {
+            return unresolved;
+        }
+    }
+
+    public static class UnresolvedLine {
+        @JsonProperty("line_number")
+        private int lineNumber;
+        private String line;
+        private String reason;
+
+        public UnresolvedLine(int lineNumber, String line, String reason) {
+            this.lineNumber = lineNumber;
+            this.line = line;
+            this.reason = reason;
+        }
+
+        public int getLineNumber() {
+            return lineNumber;
+        }
+
+        public String getLine() {
+            return line;
+        }
+
+        public String getReason() {
+            return reason;
+        }
+    }
+}
@@ -20,6 +20,9 @@ public class InventoryBulkImportDTO {
         private int errorCount;
         private List<String> errors;
         private String message;
+        // Bulk add only: new inventory rows and existing rows whose quantity was increased
+        private Integer createdCount;
+        private Integer mergedCount;
 
         public BulkImportResponse() {
         }
@@ -73,6 +76,22 @@ public class InventoryBulkImportDTO {
         public void setMessage(String message) {
             this.message = message;
         }
+
+        public Integer getCreatedCount() {
+            return createdCount;
+        }
+
+        public void setCreatedCount(Integer createdCount) {
+            this.createdCount = createdCount;
+        }
+
+        public Integer getMergedCount() {
+            return mergedCount;
+        }
+
+        public void setMergedCount(Integer mergedCount) {
+            this.mergedCount = mergedCount;
+        }
     }
 
     /**
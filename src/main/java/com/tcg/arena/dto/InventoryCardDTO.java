@@ -5,6 +5,8 @@ import com.tcg.arena.model.InventoryCard;
 import com.fasterxml.jackson.annotation.JsonProperty;
 import jakarta.validation.constraints.*;
 
+import java.util.ArrayList;
+import java.util.List;
 import java.util.Objects;
 
 /**
@@ -423,6 +425,9 @@ public class InventoryCardDTO {
         @JsonProperty("low_stock_count")
         private long lowStockCount;
         
+        @JsonProperty("value_by_tcg")
+        private List<TcgValueBreakdown> valueByTcg = new ArrayList<>();
+        
         public InventoryStatsResponse() {
         }
 
@@ -466,6 +471,14 @@ public class InventoryCardDTO {
             this.lowStockCount = lowStockCount;
         }
         
+        public List<TcgValueBreakdown> getValueByTcg() {
+            return valueByTcg;
+        }
+        
+        public void setValueByTcg(List<TcgValueBreakdown> valueByTcg) {
+            this.valueByTcg = valueByTcg;
+        }
+        
         @Override
         public boolean equals(Object o) {
             if (this == o) return true;
@@ -474,12 +487,13 @@ public class InventoryCardDTO {
             return totalItems == that.totalItems &&
                    totalQuantity == that.totalQuantity &&
                    Double.compare(that.totalValue, totalValue) == 0 &&
-                   lowStockCount == that.lowStockCount;
+                   lowStockCount == that.lowStockCount &&
+                   Objects.equals(valueByTcg, that.valueByTcg);
         }
         
         @Override
         public int hashCode() {
-            return Objects.hash(totalItems, totalQuantity, totalValue, lowStockCount);
+            return Objects.hash(totalItems, totalQuantity, totalValue, lowStockCount, valueByTcg);
         }
         
         @Override
@@ -489,6 +503,93 @@ public class InventoryCardDTO {
                     ", totalQuantity=" + totalQuantity +
                     ", totalValue=" + totalValue +
                     ", lowStockCount=" + lowStockCount +
+                    ", valueByTcg=" + valueByTcg +
+                    '}';
+        }
+    }
+    
+    /**
+     * Inventory totals of one TCG (tcgType null for cards whose template is gone)
+     */
+    public static class TcgValueBreakdown {
+        
+        @JsonProperty("tcg_type")
+        private String tcgType;
+        
+        @JsonProperty("total_items")
+        private long totalItems;
+        
+        @JsonProperty("total_quantity")
+        private long totalQuantity;
+        
+        @JsonProperty("total_value")
+        private double totalValue;
+        
+        public TcgValueBreakdown() {
+        }
+        
+        public TcgValueBreakdown(String tcgType, long totalItems, long totalQuantity, double totalValue) {
+            this.tcgType = tcgType;
+            this.totalItems = totalItems;
+            this.totalQuantity = totalQuantity;
+            this.totalValue = totalValue;
+        }
+        
+        public String getTcgType() {
+            return tcgType;
+        }
+        
+        public void setTcgType(String tcgType) {
+            this.tcgType = tcgType;
+        }
+        
+        public long getTotalItems() {
+            return totalItems;
+        }
+        
+        public void setTotalItems(long totalItems) {
+            this.totalItems = totalItems;
+        }
+        
+        public long getTotalQuantity() {
+            return totalQuantity;
+        }
+        
+        public void setTotalQuantity(long totalQuantity) {
+            this.totalQuantity = totalQuantity;
+        }
+        
+        public double getTotalValue() {
+            return totalValue;
+        }
+        
+        public void setTotalValue(double totalValue) {
+            this.totalValue = totalValue;
+        }
+        
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) return true;
+            if (o == null || getClass() != o.getClass()) return false;
+            TcgValueBreakdown that = (TcgValueBreakdown) o;
+            return totalItems == that.totalItems &&
+                   totalQuantity == that.totalQuantity &&
+                   Double.compare(that.totalValue, totalValue) == 0 &&
+                   Objects.equals(tcgType, that.tcgType);
+        }
+        
+        @Override
+        public int hashCode() {
+            return Objects.hash(tcgType, totalItems, totalQuantity, totalValue);
+        }
+        
+        @Override
+        public String toString() {
+            return "TcgValueBreakdown{" +
+                    "tcgType='" + tcgType + '\'' +
+                    ", totalItems=" + totalItems +
+                    ", totalQuantity=" + totalQuantity +
+                    ", totalValue=" + totalValue +
                     '}';
         }
     }
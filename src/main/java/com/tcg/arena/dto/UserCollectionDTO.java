@@ -0,0 +1,213 @@
+package com.tcg.arena.dto;
+
+import com.fasterxml.jackson.annotation.JsonProperty;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * DTOs for the paged and streamed collection API: one flat row per user
+ * card with the card template fields a collection list needs
+ */
+public class UserCollectionDTO {
+
+    public static class Card {
+        private Long id;
+        @JsonProperty("card_template_id")
+        private Long cardTemplateId;
+        private String name;
+        @JsonProperty("tcg_type")
+        private String tcgType;
+        @JsonProperty("set_code")
+        private String setCode;
+        @JsonProperty("card_number")
+        private String cardNumber;
+        private String rarity;
+        @JsonProperty("image_url")
+        private String imageUrl;
+        @JsonProperty("market_price")
+        private Double marketPrice;
+        private String condition;
+        @JsonProperty("is_graded")
+        private Boolean isGraded;
+        @JsonProperty("grade_service")
+        private String gradeService;
+        @JsonProperty("grade_score")
+        private Integer gradeScore;
+        @JsonProperty("purchase_price")
+        private Double purchasePrice;
+        private String nationality;
+        @JsonProperty("deck_id")
+        private Long deckId;
+        @JsonProperty("date_added")
+        private LocalDateTime dateAdded;
+        @JsonProperty("last_modified")
+        private LocalDateTime lastModified;
+
+        public Long getId() {
+            return id;
+        }
+
+        public void setId(Long id) {
+            this.id = id;
+        }
+
+        public Long getCardTemplateId() {
+            return cardTemplateId;
+        }
+
+        public void setCardTemplateId(Long cardTemplateId) {
+            this.cardTemplateId = cardTemplateId;
+        }
+
+        public String getName() {
+            return name;
+        }
+
+        public void setName(String name) {
+            this.name = name;
+        }
+
+        public String getTcgType() {
+            return tcgType;
+        }
+
+        public void setTcgType(String tcgType) {
+            this.tcgType = tcgType;
+        }
+
+        public String getSetCode() {
+            return setCode;
+        }
+
+        public void setSetCode(String setCode) {
+            this.setCode = setCode;
+        }
+
+        public String getCardNumber() {
+            return cardNumber;
+        }
+
+        public void setCardNumber(String cardNumber) {
+            this.cardNumber = cardNumber;
+        }
+
+        public String getRarity() {
+            return rarity;
+        }
+
+        public void setRarity(String rarity) {
+            this.rarity = rarity;
+        }
+
+        public String getImageUrl() {
+            return imageUrl;
+        }
+
+        public void setImageUrl(String imageUrl) {
+            this.imageUrl = imageUrl;
+        }
+
+        public Double getMarketPrice() {
+            return marketPrice;
+        }
+
+        public void setMarketPrice(Double marketPrice) {
+            this.marketPrice = marketPrice;
+        }
+
+        public String getCondition() {
+            return condition;
+        }
+
+        public void setCondition(String condition) {
+            this.condition = condition;
+        }
+
+        public Boolean getIsGraded() {
+            return isGraded;
+        }
+
+        public void setIsGraded(Boolean isGraded) {
+            this.isGraded = isGraded;
+        }
+
+        public String getGradeService() {
+            return gradeService;
+        }
+
+        public void setGradeService(String gradeService) {
+            this.gradeService = gradeService;
+        }
+
+        public Integer getGradeScore() {
+            return gradeScore;
+        }
+
+        public void setGradeScore(Integer gradeScore) {
+            this.gradeScore = gradeScore;
+        }
+
+        public Double getPurchasePrice() {
+            return purchasePrice;
+        }
+
+        public void setPurchasePrice(Double purchasePrice) {
+            this.purchasePrice = purchasePrice;
+        }
+
+        public String getNationality() {
+            return nationality;
+        }
+
+        public void setNationality(String nationality) {
+            this.nationality = nationality;
+        }
+
+        public Long getDeckId() {
+            return deckId;
+        }
+
+        public void setDeckId(Long deckId) {
+            this.deckId = deckId;
+        }
+
+        public LocalDateTime getDateAdded() {
+            return dateAdded;
+        }
+
+        public void setDateAdded(LocalDateTime dateAdded) {
+            this.dateAdded = dateAdded;
+        }
+
+        public LocalDateTime getLastModified() {
+            return lastModified;
+        }
+
+        public void setLastModified(LocalDateTime lastModified) {
+            this.lastModified = lastModified;
+        }
+    }
+
+    /**
+     * One page of cards; next_cursor is null on the last page
+     */
+    public static class Page {
+        private List<Card> cards;
+        @JsonProperty("next_cursor")
+        private String nextCursor;
+
+        public Page(List<Card> cards, String nextCursor) {
+            this.cards = cards;
+            this.nextCursor = nextCursor;
+        }
+
+        public List<Card> getCards() {
+            return cards;
+        }
+
+        public String getNextCursor() {
+            return nextCursor;
+        }
+    }
+}
@@ -0,0 +1,58 @@
+package com.tcg.arena.model;
+
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Per-user counters that achievements can be defined on. An achievement's
+ * criteria is "verb_threshold_noun", e.g. "win_5_tournaments" or
+ * "create_10_decks".
+ */
+public enum AchievementMetric {
+    DECKS_CREATED("create", "decks"),
+    CARDS_VOTED("vote", "cards"),
+    TOURNAMENTS_WON("win", "tournaments"),
+    POINTS_EARNED("earn", "points");
+
+    private static final Pattern CRITERIA = Pattern.compile("^([a-z]+)_(\\d+)_([a-z]+)$");
+
+    private final String verb;
+    private final String noun;
+
+    AchievementMetric(String verb, String noun) {
+        this.verb = verb;
+        this.noun = noun;
+    }
+
+    public String getVerb() {
+        return verb;
+    }
+
+    public String getNoun() {
+        return noun;
+    }
+
+    /**
+     * Metric of a criteria string, null when it does not name a known metric
+     */
+    public static AchievementMetric fromCriteria(String criteria) {
+        Matcher matcher = criteria != null ? CRITERIA.matcher(criteria.trim().toLowerCase()) : null;
+        if (matcher == null || !matcher.matches()) {
+            return null;
+        }
+        for (AchievementMetric metric : values()) {
+            if (metric.verb.equals(matcher.group(1)) && metric.noun.equals(matcher.group(3))) {
+                return metric;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Threshold of a criteria string; only meaningful when fromCriteria is not null
+     */
+    public static long thresholdOf(String criteria) {
+        Matcher matcher = CRITERIA.matcher(criteria.trim().toLowerCase());
+        return matcher.matches() ? Long.parseLong(matcher.group(2)) : -1;
+    }
+}
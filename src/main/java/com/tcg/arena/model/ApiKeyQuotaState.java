@@ -0,0 +1,92 @@
+package com.tcg.arena.model;
+
+import jakarta.persistence.*;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+
+/**
+ * Remaining daily quota of a JustTCG API key, persisted so restarts do not
+ * forget how much of the day's budget has already been spent.
+ * The key id is a fingerprint of the key, never the key itself.
+ */
+@Entity
+@Table(name = "tcg_api_key_quota")
+public class ApiKeyQuotaState {
+
+    @Id
+    @Column(name = "key_id", length = 32)
+    private String keyId;
+
+    @Column(name = "key_name", nullable = false, length = 32)
+    private String keyName;
+
+    @Column(name = "quota_day", nullable = false)
+    private LocalDate quotaDay;
+
+    @Column(name = "used_today", nullable = false)
+    private int usedToday;
+
+    @Column(nullable = false)
+    private boolean exhausted;
+
+    @Column(name = "updated_at", nullable = false)
+    private LocalDateTime updatedAt;
+
+    public ApiKeyQuotaState() {
+    }
+
+    public ApiKeyQuotaState(String keyId, String keyName) {
+        this.keyId = keyId;
+        this.keyName = keyName;
+    }
+
+    // Getters and Setters
+    public String getKeyId() {
+        return keyId;
+    }
+
+    public void setKeyId(String keyId) {
+        this.keyId = keyId;
+    }
+
+    public String getKeyName() {
+        return keyName;
+    }
+
+    public void setKeyName(String keyName) {
+        this.keyName = keyName;
+    }
+
+    public LocalDate getQuotaDay() {
+        return quotaDay;
+    }
+
+    public void setQuotaDay(LocalDate quotaDay) {
+        this.quotaDay = quotaDay;
+    }
+
+    public int getUsedToday() {
+        return usedToday;
+    }
+
+    public void setUsedToday(int usedToday) {
+        this.usedToday = usedToday;
+    }
+
+    public boolean isExhausted() {
+        return exhausted;
+    }
+
+    public void setExhausted(boolean exhausted) {
+        this.exhausted = exhausted;
+    }
+
+    public LocalDateTime getUpdatedAt() {
+        return updatedAt;
+    }
+
+    public void setUpdatedAt(LocalDateTime updatedAt) {
+        this.updatedAt = updatedAt;
+    }
+}
@@ -46,7 +46,8 @@ public class Deck {
     @JsonProperty("is_hidden")
     private Boolean isHidden = false; // Hide deck from public profile view
 
-    @Column(nullable = false)
+    // Written only at insert, likes change through DeckService.toggleLike
+    @Column(nullable = false, updatable = false)
     private Long likes = 0L;
 
     @Column(length = 1000)
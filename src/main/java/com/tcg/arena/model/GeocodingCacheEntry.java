@@ -0,0 +1,80 @@
+package com.tcg.arena.model;
+
+import jakarta.persistence.*;
+
+import java.time.LocalDateTime;
+
+/**
+ * Persistent reverse-geocoding result for a quantized coordinate cell.
+ * The cell key is produced by GeocodingService (e.g. "45123:9187").
+ */
+@Entity
+@Table(name = "geocoding_cache")
+public class GeocodingCacheEntry {
+
+    @Id
+    @Column(name = "cell_key", length = 64)
+    private String cellKey;
+
+    private String city;
+
+    private String country;
+
+    @Column(name = "full_address", length = 1000)
+    private String fullAddress;
+
+    @Column(name = "created_at", nullable = false)
+    private LocalDateTime createdAt;
+
+    public GeocodingCacheEntry() {
+    }
+
+    public GeocodingCacheEntry(String cellKey, String city, String country, String fullAddress) {
+        this.cellKey = cellKey;
+        this.city = city;
+        this.country = country;
+        this.fullAddress = fullAddress;
+        this.createdAt = LocalDateTime.now();
+    }
+
+    // Getters and Setters
+    public String getCellKey() {
+        return cellKey;
+    }
+
+    public void setCellKey(String cellKey) {
+        this.cellKey = cellKey;
+    }
+
+    public String getCity() {
+        return city;
+    }
+
+    public void setCity(String city) {
+        this.city = city;
+    }
+
+    public String getCountry() {
+        return country;
+    }
+
+    public void setCountry(String country) {
+        this.country = country;
+    }
+
+    public String getFullAddress() {
+        return fullAddress;
+    }
+
+    public void setFullAddress(String fullAddress) {
+        this.fullAddress = fullAddress;
+    }
+
+    public LocalDateTime getCreatedAt() {
+        return createdAt;
+    }
+
+    public void setCreatedAt(LocalDateTime createdAt) {
+        this.createdAt = createdAt;
+    }
+}
@@ -35,6 +35,10 @@ public class ImportProgress {
     @Column(name = "last_check_date")
     private LocalDateTime lastCheckDate;
 
+    // Comma separated set codes still to import in the current run (checkpoint)
+    @Column(name = "pending_set_codes", columnDefinition = "TEXT")
+    private String pendingSetCodes;
+
     // Constructors
     public ImportProgress() {
     }
@@ -115,4 +119,13 @@ public class ImportProgress {
     public void setLastCheckDate(LocalDateTime lastCheckDate) {
         this.lastCheckDate = lastCheckDate;
     }
+
+    public String getPendingSetCodes() {
+        return pendingSetCodes;
+    }
+
+    public void setPendingSetCodes(String pendingSetCodes) {
+        this.pendingSetCodes = pendingSetCodes;
+        this.lastUpdated = LocalDateTime.now();
+    }
 }
\ No newline at end of file
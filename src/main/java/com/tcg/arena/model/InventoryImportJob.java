@@ -0,0 +1,151 @@
+package com.tcg.arena.model;
+
+import com.fasterxml.jackson.annotation.JsonIgnore;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Progress of an asynchronous CSV inventory import, polled by the merchant
+ * backoffice. Written by the import thread only, read by the pollers.
+ */
+public class InventoryImportJob {
+    private final String id;
+    private final Long shopId;
+    private final String fileName;
+    private volatile JobStatus status;
+    private volatile int totalRows;
+    private volatile int processedRows;
+    private volatile int successCount;
+    private volatile int errorCount;
+    private volatile String message;
+    private final LocalDateTime startTime;
+    private volatile LocalDateTime endTime;
+
+    // Rejected rows, for the error report
+    private final List<RowError> rowErrors = Collections.synchronizedList(new ArrayList<>());
+
+    public InventoryImportJob(Long shopId, String fileName) {
+        this.id = UUID.randomUUID().toString();
+        this.shopId = shopId;
+        this.fileName = fileName;
+        this.status = JobStatus.PENDING;
+        this.message = "Job initialized";
+        this.startTime = LocalDateTime.now();
+    }
+
+    // Getters and Setters
+
+    public String getId() {
+        return id;
+    }
+
+    public Long getShopId() {
+        return shopId;
+    }
+
+    public String getFileName() {
+        return fileName;
+    }
+
+    public JobStatus getStatus() {
+        return status;
+    }
+
+    public void setStatus(JobStatus status) {
+        this.status = status;
+        if (status == JobStatus.COMPLETED || status == JobStatus.FAILED) {
+            this.endTime = LocalDateTime.now();
+        }
+    }
+
+    public int getTotalRows() {
+        return totalRows;
+    }
+
+    public void setTotalRows(int totalRows) {
+        this.totalRows = totalRows;
+    }
+
+    public int getProcessedRows() {
+        return processedRows;
+    }
+
+    public void setProcessedRows(int processedRows) {
+        this.processedRows = processedRows;
+    }
+
+    public int getSuccessCount() {
+        return successCount;
+    }
+
+    public void setSuccessCount(int successCount) {
+        this.successCount = successCount;
+    }
+
+    public int getErrorCount() {
+        return errorCount;
+    }
+
+    public String getMessage() {
+        return message;
+    }
+
+    public void setMessage(String message) {
+        this.message = message;
+    }
+
+    public LocalDateTime getStartTime() {
+        return startTime;
+    }
+
+    public LocalDateTime getEndTime() {
+        return endTime;
+    }
+
+    public boolean isFinished() {
+        return status == JobStatus.COMPLETED || status == JobStatus.FAILED;
+    }
+
+    public void addRowError(int lineNumber, String error, String line) {
+        rowErrors.add(new RowError(lineNumber, error, line));
+        errorCount++;
+    }
+
+    @JsonIgnore
+    public List<RowError> getRowErrors() {
+        synchronized (rowErrors) {
+            return new ArrayList<>(rowErrors);
+        }
+    }
+
+    /**
+     * A rejected CSV row: its line number, the reason and the row as uploaded
+     */
+    public static class RowError {
+        private final int lineNumber;
+        private final String error;
+        private final String line;
+
+        public RowError(int lineNumber, String error, String line) {
+            this.lineNumber = lineNumber;
+            this.error = error;
+            this.line = line;
+        }
+
+        public int getLineNumber() {
+            return lineNumber;
+        }
+
+        public String getError() {
+            return error;
+        }
+
+        public String getLine() {
+            return line;
+        }
+    }
+}
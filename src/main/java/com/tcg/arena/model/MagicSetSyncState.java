@@ -0,0 +1,79 @@
+package com.tcg.arena.model;
+
+import jakarta.persistence.*;
+
+import java.time.LocalDateTime;
+
+/**
+ * What the Magic delta import last synced for a Scryfall set: a hash of the
+ * set's Scryfall metadata (card count, release date, type...) and its card
+ * count. A set whose current fingerprint matches is skipped.
+ */
+@Entity
+@Table(name = "magic_set_sync_state")
+public class MagicSetSyncState {
+
+    @Id
+    @Column(name = "set_code", length = 16)
+    private String setCode;
+
+    @Column(name = "content_hash", nullable = false)
+    private long contentHash;
+
+    @Column(name = "card_count", nullable = false)
+    private int cardCount;
+
+    @Column(name = "imported_cards", nullable = false)
+    private int importedCards;
+
+    @Column(name = "last_synced_at", nullable = false)
+    private LocalDateTime lastSyncedAt;
+
+    public MagicSetSyncState() {
+    }
+
+    public MagicSetSyncState(String setCode) {
+        this.setCode = setCode;
+    }
+
+    // Getters and Setters
+    public String getSetCode() {
+        return setCode;
+    }
+
+    public void setSetCode(String setCode) {
+        this.setCode = setCode;
+    }
+
+    public long getContentHash() {
+        return contentHash;
+    }
+
+    public void setContentHash(long contentHash) {
+        this.contentHash = contentHash;
+    }
+
+    public int getCardCount() {
+        return cardCount;
+    }
+
+    public void setCardCount(int cardCount) {
+        this.cardCount = cardCount;
+    }
+
+    public int getImportedCards() {
+        return importedCards;
+    }
+
+    public void setImportedCards(int importedCards) {
+        this.importedCards = importedCards;
+    }
+
+    public LocalDateTime getLastSyncedAt() {
+        return lastSyncedAt;
+    }
+
+    public void setLastSyncedAt(LocalDateTime lastSyncedAt) {
+        this.lastSyncedAt = lastSyncedAt;
+    }
+}
@@ -0,0 +1,149 @@
+package com.tcg.arena.model;
+
+import jakarta.persistence.*;
+
+import java.time.LocalDateTime;
+
+/**
+ * One execution of the price-only refresh for a TCG, with its change counts.
+ */
+@Entity
+@Table(name = "price_refresh_runs", indexes = {
+        @Index(name = "idx_price_refresh_runs_started_at", columnList = "started_at")
+})
+public class PriceRefreshRun {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Enumerated(EnumType.STRING)
+    @Column(name = "tcg_type", nullable = false)
+    private TCGType tcgType;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false)
+    private JobStatus status;
+
+    @Column(name = "started_at", nullable = false)
+    private LocalDateTime startedAt;
+
+    @Column(name = "finished_at")
+    private LocalDateTime finishedAt;
+
+    @Column(name = "pages_fetched", nullable = false)
+    private int pagesFetched;
+
+    @Column(name = "cards_seen", nullable = false)
+    private int cardsSeen;
+
+    @Column(name = "cards_changed", nullable = false)
+    private int cardsChanged;
+
+    @Column(name = "cards_unchanged", nullable = false)
+    private int cardsUnchanged;
+
+    @Column(name = "cards_unmatched", nullable = false)
+    private int cardsUnmatched;
+
+    @Column(name = "error_message", length = 1000)
+    private String errorMessage;
+
+    public PriceRefreshRun() {
+    }
+
+    public PriceRefreshRun(TCGType tcgType) {
+        this.tcgType = tcgType;
+        this.status = JobStatus.RUNNING;
+        this.startedAt = LocalDateTime.now();
+    }
+
+    // Getters and Setters
+    public Long getId() {
+        return id;
+    }
+
+    public void setId(Long id) {
+        this.id = id;
+    }
+
+    public TCGType getTcgType() {
+        return tcgType;
+    }
+
+    public void setTcgType(TCGType tcgType) {
+        this.tcgType = tcgType;
+    }
+
+    public JobStatus getStatus() {
+        return status;
+    }
+
+    public void setStatus(JobStatus status) {
+        this.status = status;
+    }
+
+    public LocalDateTime getStartedAt() {
+        return startedAt;
+    }
+
+    public void setStartedAt(LocalDateTime startedAt) {
+        this.startedAt = startedAt;
+    }
+
+    public LocalDateTime getFinishedAt() {
+        return finishedAt;
+    }
+
+    public void setFinishedAt(LocalDateTime finishedAt) {
+        this.finishedAt = finishedAt;
+    }
+
+    public int getPagesFetched() {
+        return pagesFetched;
+    }
+
+    public void setPagesFetched(int pagesFetched) {
+        this.pagesFetched = pagesFetched;
+    }
+
+    public int getCardsSeen() {
+        return cardsSeen;
+    }
+
+    public void setCardsSeen(int cardsSeen) {
+        this.cardsSeen = cardsSeen;
+    }
+
+    public int getCardsChanged() {
+        return cardsChanged;
+    }
+
+    public void setCardsChanged(int cardsChanged) {
+        this.cardsChanged = cardsChanged;
+    }
+
+    public int getCardsUnchanged() {
+        return cardsUnchanged;
+    }
+
+    public void setCardsUnchanged(int cardsUnchanged) {
+        this.cardsUnchanged = cardsUnchanged;
+    }
+
+    public int getCardsUnmatched() {
+        return cardsUnmatched;
+    }
+
+    public void setCardsUnmatched(int cardsUnmatched) {
+        this.cardsUnmatched = cardsUnmatched;
+    }
+
+    public String getErrorMessage() {
+        return errorMessage;
+    }
+
+    public void setErrorMessage(String errorMessage) {
+        this.errorMessage = errorMessage;
+    }
+}
@@ -77,7 +77,8 @@ public class User {
 
     private Long shopId;
 
-    @Column(nullable = false)
+    // Written only at insert, balance changes go through PointsLedger
+    @Column(nullable = false, updatable = false)
     private Integer points = 0;
 
     @JsonProperty("favorite_game")
@@ -0,0 +1,46 @@
+package com.tcg.arena.model;
+
+import jakarta.persistence.*;
+import java.time.LocalDateTime;
+
+/**
+ * Persisted value of a per-user achievement counter. Kept up to date by
+ * AchievementEngine, which counts in memory and flushes periodically.
+ */
+@Entity
+@Table(name = "user_achievement_counters",
+    uniqueConstraints = @UniqueConstraint(columnNames = {"user_id", "metric"}))
+public class UserAchievementCounter {
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(name = "user_id", nullable = false)
+    private Long userId;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false, length = 30)
+    private AchievementMetric metric;
+
+    @Column(name = "counter_value", nullable = false)
+    private Long value = 0L;
+
+    @Column(nullable = false)
+    private LocalDateTime updatedAt;
+
+    // Getters and Setters
+    public Long getId() { return id; }
+    public void setId(Long id) { this.id = id; }
+
+    public Long getUserId() { return userId; }
+    public void setUserId(Long userId) { this.userId = userId; }
+
+    public AchievementMetric getMetric() { return metric; }
+    public void setMetric(AchievementMetric metric) { this.metric = metric; }
+
+    public Long getValue() { return value; }
+    public void setValue(Long value) { this.value = value; }
+
+    public LocalDateTime getUpdatedAt() { return updatedAt; }
+    public void setUpdatedAt(LocalDateTime updatedAt) { this.updatedAt = updatedAt; }
+}
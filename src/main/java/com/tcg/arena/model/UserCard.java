@@ -44,6 +44,16 @@ public class UserCard {
     @Column(nullable = true)
     private CardNationality nationality;
 
+    // Set on every insert and update, used by incremental collection sync
+    @Column(name = "last_modified")
+    private LocalDateTime lastModified;
+
+    @PrePersist
+    @PreUpdate
+    protected void onWrite() {
+        lastModified = LocalDateTime.now();
+    }
+
     public Long getId() {
         return id;
     }
@@ -139,4 +149,8 @@ public class UserCard {
     public void setNationality(CardNationality nationality) {
         this.nationality = nationality;
     }
-}
\ No newline at end of file
+
+    public LocalDateTime getLastModified() {
+        return lastModified;
+    }
+}
@@ -23,7 +23,8 @@ public class UserRatingStreak {
     @Column(nullable = false)
     private Integer totalRatingDays = 0;
 
-    @Column(nullable = false)
+    // Written only at insert, votes are added by StreakService in batches
+    @Column(nullable = false, updatable = false)
     private Integer totalVotes = 0;
 
     @Column(nullable = false)
@@ -0,0 +1,9 @@
+package com.tcg.arena.repository;
+
+import com.tcg.arena.model.ApiKeyQuotaState;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+@Repository
+public interface ApiKeyQuotaStateRepository extends JpaRepository<ApiKeyQuotaState, String> {
+}
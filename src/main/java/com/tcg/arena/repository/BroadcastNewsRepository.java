@@ -14,9 +14,16 @@ public interface BroadcastNewsRepository extends JpaRepository<BroadcastNews, Lo
     /**
      * Get all active broadcast news (started and not expired)
      */
-    @Query("SELECT n FROM BroadcastNews n WHERE n.startDate <= :now AND (n.expiryDate IS NULL OR n.expiryDate > :now) ORDER BY n.isPinned DESC, n.startDate DESC")
+    @Query("SELECT n FROM BroadcastNews n WHERE n.startDate <= :now AND (n.expiryDate IS NULL OR n.expiryDate > :now) ORDER BY COALESCE(n.isPinned, false) DESC, n.startDate DESC NULLS LAST")
     List<BroadcastNews> findActiveNews(LocalDateTime now);
 
+    /**
+     * Get broadcast news not expired yet (active and future), same order as
+     * findActiveNews
+     */
+    @Query("SELECT n FROM BroadcastNews n WHERE n.expiryDate IS NULL OR n.expiryDate > :now ORDER BY COALESCE(n.isPinned, false) DESC, n.startDate DESC NULLS LAST")
+    List<BroadcastNews> findLiveNews(LocalDateTime now);
+
     /**
      * Get all broadcast news ordered by creation date
      */
@@ -95,6 +95,13 @@ public interface CardTemplateRepository extends JpaRepository<CardTemplate, Long
         @Query("SELECT c.name, c.setCode, c.cardNumber FROM CardTemplate c WHERE c.tcgType = 'MAGIC'")
         List<Object[]> findAllCardKeys();
 
+        /**
+         * Natural key parts (name, setCode, cardNumber) of the cards of a set,
+         * loaded into a CardKeySet by the imports.
+         */
+        @Query("SELECT c.name, c.setCode, c.cardNumber FROM CardTemplate c WHERE c.setCode = :setCode")
+        List<Object[]> findCardKeyPartsBySetCode(@Param("setCode") String setCode);
+
         @Query(value = "SELECT * FROM card_templates ct WHERE " +
                         "LOWER(REPLACE(REPLACE(REPLACE(REPLACE(ct.name, ' ', ''), '-', ''), '''', ''), '/', '')) LIKE LOWER(CONCAT('%', :strippedName, '%')) AND "
                         +
@@ -171,6 +178,27 @@ public interface CardTemplateRepository extends JpaRepository<CardTemplate, Long
                         @Param("setCode") String setCode,
                         @Param("tcgType") String tcgType);
 
+        /**
+         * Candidates for CSV bulk import rows of several sets in one query.
+         * Returns Object[] {id (Long), name (String), setCode (String), tcgType
+         * (TCGType)}; names are matched in memory like
+         * findByNameLikeAndSetCodeAndTcgType.
+         */
+        @Query("SELECT c.id, c.name, c.setCode, c.tcgType FROM CardTemplate c WHERE " +
+                        "c.setCode IN :setCodes AND " +
+                        EXCLUDE_NA_CONDITION)
+        List<Object[]> findImportCandidatesBySetCodes(@Param("setCodes") java.util.Collection<String> setCodes);
+
+        /**
+         * Rows of the deck list name dictionary of a TCG. Returns Object[] {id
+         * (Long), name (String), setCode (String), cardNumber (String)}. Only
+         * sealed products (N/A numbers) are left out: the name filters of
+         * EXCLUDE_NA_CONDITION would also drop real cards.
+         */
+        @Query("SELECT c.id, c.name, c.setCode, c.cardNumber FROM CardTemplate c WHERE c.tcgType = :tcgType " +
+                        "AND c.cardNumber IS NOT NULL AND c.cardNumber <> 'N/A'")
+        List<Object[]> findNameDictionaryRows(@Param("tcgType") TCGType tcgType);
+
         /**
          * OPTIMIZED: Get all card counts grouped by setCode in a single query
          * Returns a list of Object[] where [0] = setCode (String), [1] = count (Long)
@@ -1,7 +1,9 @@
 package com.tcg.arena.repository;
 
 import com.tcg.arena.model.ChatMessage;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
@@ -14,6 +16,32 @@ public interface ChatMessageRepository extends JpaRepository<ChatMessage, Long>
 
     List<ChatMessage> findByConversationIdOrderByTimestampAsc(Long conversationId);
 
+    // Cursor paging over the (conversation_id, id) index: newest first, older than
+    // the given id
+    @Query("SELECT m FROM ChatMessage m JOIN FETCH m.sender WHERE m.conversation.id = :conversationId AND m.id < :beforeId ORDER BY m.id DESC")
+    List<ChatMessage> findPageBefore(@Param("conversationId") Long conversationId, @Param("beforeId") Long beforeId,
+            Pageable pageable);
+
+    // Cursor paging for sync: oldest first, newer than the given id
+    @Query("SELECT m FROM ChatMessage m JOIN FETCH m.sender WHERE m.conversation.id = :conversationId AND m.id > :afterId ORDER BY m.id ASC")
+    List<ChatMessage> findPageAfter(@Param("conversationId") Long conversationId, @Param("afterId") Long afterId,
+            Pageable pageable);
+
+    @Query("SELECT MAX(m.id) FROM ChatMessage m WHERE m.conversation.id = :conversationId")
+    Long findMaxIdByConversationId(@Param("conversationId") Long conversationId);
+
+    // Unread count from a read watermark (index range scan instead of is_read
+    // filter)
+    @Query("SELECT COUNT(m) FROM ChatMessage m WHERE m.conversation.id = :conversationId AND m.sender.id != :userId AND m.id > :lastReadId")
+    Long countFromOthersAfterId(@Param("conversationId") Long conversationId, @Param("userId") Long userId,
+            @Param("lastReadId") Long lastReadId);
+
+    // Bulk read-marking in a single UPDATE
+    @Modifying
+    @Query("UPDATE ChatMessage m SET m.isRead = true WHERE m.conversation.id = :conversationId AND m.sender.id != :userId AND m.id <= :upToId AND m.isRead = false")
+    int markReadUpTo(@Param("conversationId") Long conversationId, @Param("userId") Long userId,
+            @Param("upToId") Long upToId);
+
     // Count unread messages for a user in a conversation (messages not sent by them
     // and not read)
     @Query("SELECT COUNT(m) FROM ChatMessage m WHERE m.conversation.id = :conversationId AND m.sender.id != :userId AND m.isRead = false")
@@ -0,0 +1,31 @@
+package com.tcg.arena.repository;
+
+import com.tcg.arena.model.ChatReadMarker;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+import java.util.Optional;
+
+@Repository
+public interface ChatReadMarkerRepository extends JpaRepository<ChatReadMarker, Long> {
+
+    Optional<ChatReadMarker> findByConversationIdAndUserId(Long conversationId, Long userId);
+
+    List<ChatReadMarker> findByUserId(Long userId);
+
+    // Move the watermark forward only (never backwards on out-of-order requests)
+    @Modifying
+    @Query(value = "INSERT INTO chat_read_markers (conversation_id, user_id, last_read_message_id, updated_at) " +
+            "VALUES (:conversationId, :userId, :messageId, NOW()) " +
+            "ON CONFLICT (conversation_id, user_id) DO UPDATE SET " +
+            "last_read_message_id = GREATEST(chat_read_markers.last_read_message_id, EXCLUDED.last_read_message_id), " +
+            "updated_at = NOW()", nativeQuery = true)
+    int upsertWatermark(@Param("conversationId") Long conversationId, @Param("userId") Long userId,
+            @Param("messageId") Long messageId);
+
+    void deleteByConversationId(Long conversationId);
+}
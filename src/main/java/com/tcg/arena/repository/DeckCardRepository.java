@@ -2,6 +2,8 @@ package com.tcg.arena.repository;
 
 import com.tcg.arena.model.DeckCard;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.util.List;
@@ -9,4 +11,19 @@ import java.util.List;
 @Repository
 public interface DeckCardRepository extends JpaRepository<DeckCard, Long> {
     List<DeckCard> findByDeckId(Long deckId);
-}
\ No newline at end of file
+
+    /**
+     * Deck list export rows. Returns Object[] {quantity (Integer), section
+     * (String), name (String), setCode (String), cardNumber (String)}; set code
+     * and number are null when the template no longer exists.
+     */
+    @Query("SELECT dc.quantity, dc.section, COALESCE(ct.name, dc.cardName), ct.setCode, ct.cardNumber " +
+            "FROM DeckCard dc LEFT JOIN dc.cardTemplate ct WHERE dc.deck.id = :deckId ORDER BY dc.id")
+    List<Object[]> findExportRowsByDeckId(@Param("deckId") Long deckId);
+
+    /**
+     * Total quantity of the cards in all decks of a user
+     */
+    @Query("SELECT COALESCE(SUM(dc.quantity), 0) FROM DeckCard dc WHERE dc.deck.ownerId = :ownerId")
+    long sumQuantityByDeckOwnerId(@Param("ownerId") Long ownerId);
+}
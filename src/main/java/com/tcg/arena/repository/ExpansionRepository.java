@@ -17,6 +17,8 @@ public interface ExpansionRepository extends JpaRepository<Expansion, Long>,
 
     Expansion findByTitle(String title);
 
+    Optional<Expansion> findByTitleAndTcgType(String title, TCGType tcgType);
+
     @Query("SELECT e FROM Expansion e LEFT JOIN FETCH e.sets WHERE e.id = :id")
     Optional<Expansion> findByIdWithSets(@Param("id") Long id);
 
@@ -0,0 +1,9 @@
+package com.tcg.arena.repository;
+
+import com.tcg.arena.model.GeocodingCacheEntry;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+@Repository
+public interface GeocodingCacheRepository extends JpaRepository<GeocodingCacheEntry, String> {
+}
@@ -91,6 +91,39 @@ public interface InventoryCardRepository extends JpaRepository<InventoryCard, St
             """)
     List<InventoryCard> findLowStockItems(@Param("shopId") Long shopId, @Param("threshold") int threshold);
 
+    /**
+     * Inventory totals of a shop per TCG, computed in the database.
+     * Returns Object[] {tcgType (String, null for missing templates), items,
+     * quantity, value, lowStockItems}
+     */
+    @Query("""
+            SELECT CAST(ct.tcgType AS string), COUNT(i), COALESCE(SUM(i.quantity), 0),
+            COALESCE(SUM(i.price * i.quantity), 0),
+            SUM(CASE WHEN i.quantity > 0 AND i.quantity <= :threshold THEN 1 ELSE 0 END)
+            FROM InventoryCard i
+            LEFT JOIN CardTemplate ct ON ct.id = i.cardTemplateId
+            WHERE i.shopId = :shopId
+            GROUP BY ct.tcgType
+            """)
+    List<Object[]> aggregateStatsByTcgType(@Param("shopId") Long shopId, @Param("threshold") int threshold);
+
+    /**
+     * Existing rows a bulk add merges into, oldest first.
+     * Returns Object[] {cardTemplateId (Long), id (String)}
+     */
+    @Query("""
+            SELECT i.cardTemplateId, i.id FROM InventoryCard i
+            WHERE i.shopId = :shopId
+            AND i.condition = :condition
+            AND i.nationality = :nationality
+            AND i.cardTemplateId IN :cardTemplateIds
+            ORDER BY i.createdAt ASC
+            """)
+    List<Object[]> findMergeTargets(@Param("shopId") Long shopId,
+            @Param("condition") InventoryCard.CardCondition condition,
+            @Param("nationality") com.tcg.arena.model.CardNationality nationality,
+            @Param("cardTemplateIds") java.util.Collection<Long> cardTemplateIds);
+
     @Modifying
     @Transactional
     @Query("DELETE FROM InventoryCard ic WHERE ic.cardTemplate.setCode = :setCode")
@@ -0,0 +1,12 @@
+package com.tcg.arena.repository;
+
+import com.tcg.arena.model.PriceRefreshRun;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+
+@Repository
+public interface PriceRefreshRunRepository extends JpaRepository<PriceRefreshRun, Long> {
+    List<PriceRefreshRun> findTop50ByOrderByStartedAtDesc();
+}
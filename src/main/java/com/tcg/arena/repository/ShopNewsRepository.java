@@ -1,12 +1,14 @@
 package com.tcg.arena.repository;
 
 import com.tcg.arena.model.ShopNews;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
 
 @Repository
@@ -25,9 +27,25 @@ public interface ShopNewsRepository extends JpaRepository<ShopNews, Long> {
     @Query("SELECT n FROM ShopNews n WHERE n.shopId = :shopId " +
             "AND n.startDate <= :now " +
             "AND (n.expiryDate IS NULL OR n.expiryDate > :now) " +
-            "ORDER BY n.isPinned DESC, n.startDate DESC")
+            "ORDER BY COALESCE(n.isPinned, false) DESC, n.startDate DESC NULLS LAST")
     List<ShopNews> findActiveNewsByShopId(@Param("shopId") Long shopId, @Param("now") LocalDateTime now);
 
+    /**
+     * Find active news of several shops with their shop name (null if the shop
+     * is gone), optionally for one TCG type only.
+     * Ordered by pinned first, then by start date descending
+     */
+    @Query("SELECT n, s.name FROM ShopNews n LEFT JOIN Shop s ON s.id = n.shopId " +
+            "WHERE n.shopId IN :shopIds " +
+            "AND n.startDate <= :now " +
+            "AND (n.expiryDate IS NULL OR n.expiryDate > :now) " +
+            "AND (:tcgType IS NULL OR CAST(n.tcgType AS string) = :tcgType) " +
+            "ORDER BY COALESCE(n.isPinned, false) DESC, n.startDate DESC NULLS LAST")
+    List<Object[]> findActiveNewsWithShopNameByShopIds(@Param("shopIds") Collection<Long> shopIds,
+            @Param("now") LocalDateTime now,
+            @Param("tcgType") String tcgType,
+            Pageable pageable);
+
     /**
      * Find future news: startDate > now
      * Ordered by start date ascending (soonest first)
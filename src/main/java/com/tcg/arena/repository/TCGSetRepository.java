@@ -41,6 +41,12 @@ public interface TCGSetRepository extends JpaRepository<TCGSet, Long> {
 
        List<TCGSet> findAllByExpansionTcgType(TCGType tcgType);
 
+       /**
+        * Sets of a TCG type with their expansion, in one query (import lookup preload).
+        */
+       @Query("SELECT s FROM TCGSet s JOIN FETCH s.expansion e WHERE e.tcgType = :tcgType")
+       List<TCGSet> findAllWithExpansionByTcgType(@Param("tcgType") TCGType tcgType);
+
        @Query("SELECT DISTINCT CAST(EXTRACT(YEAR FROM s.releaseDate) AS int) FROM TCGSet s " +
                      "WHERE s.expansion.tcgType = :tcgType AND s.releaseDate IS NOT NULL " +
                      "ORDER BY CAST(EXTRACT(YEAR FROM s.releaseDate) AS int) DESC")
@@ -0,0 +1,15 @@
+package com.tcg.arena.repository;
+
+import com.tcg.arena.model.UserAchievementCounter;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+import java.util.Collection;
+import java.util.List;
+
+@Repository
+public interface UserAchievementCounterRepository extends JpaRepository<UserAchievementCounter, Long> {
+    List<UserAchievementCounter> findByUserId(Long userId);
+
+    List<UserAchievementCounter> findByUserIdIn(Collection<Long> userIds);
+}
@@ -2,6 +2,8 @@ package com.tcg.arena.repository;
 
 import com.tcg.arena.model.UserAchievement;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.util.List;
@@ -10,4 +12,7 @@ import java.util.List;
 public interface UserAchievementRepository extends JpaRepository<UserAchievement, Long> {
     List<UserAchievement> findByUserId(Long userId);
     boolean existsByUserIdAndAchievementId(Long userId, Long achievementId);
+
+    @Query("SELECT ua.achievementId FROM UserAchievement ua WHERE ua.userId = :userId")
+    List<Long> findAchievementIdsByUserId(@Param("userId") Long userId);
 }
\ No newline at end of file
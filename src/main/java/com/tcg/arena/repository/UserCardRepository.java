@@ -4,10 +4,12 @@ import com.tcg.arena.model.UserCard;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
 import java.util.List;
 
 @Repository
 public interface UserCardRepository extends JpaRepository<UserCard, Long> {
     List<UserCard> findByOwnerId(Long ownerId);
     List<UserCard> findByCardTemplateId(Long cardTemplateId);
+    List<UserCard> findByOwnerIdAndCardTemplateIdIn(Long ownerId, Collection<Long> cardTemplateIds);
 }
\ No newline at end of file
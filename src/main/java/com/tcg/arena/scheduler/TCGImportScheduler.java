@@ -4,6 +4,7 @@ import com.tcg.arena.model.TCGType;
 import com.tcg.arena.service.BatchService;
 import com.tcg.arena.service.ImportStatsCollector;
 import com.tcg.arena.service.TCGApiClient;
+import com.tcg.arena.service.TCGPriceRefreshService;
 import com.tcg.arena.service.SchedulerLockService;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -29,6 +30,8 @@ import java.util.List;
  * - Friday: Digimon, Pokemon Japan
  * - Saturday: Lorcana
  * - Sunday: Riftbound
+ *
+ * A price-only refresh of existing cards runs every day at 5 AM for all TCGs.
  */
 @Component
 public class TCGImportScheduler {
@@ -47,6 +50,9 @@ public class TCGImportScheduler {
     @Autowired
     private SchedulerLockService schedulerLockService;
 
+    @Autowired
+    private TCGPriceRefreshService priceRefreshService;
+
     /**
      * Returns the list of TCG types to import today based on the day of the week.
      */
@@ -89,9 +95,9 @@ public class TCGImportScheduler {
                 statsCollector.resetBatch();
 
                 if (tcgType == TCGType.MAGIC) {
-                    // Use delta import for Magic (fast, only new cards)
+                    // Use delta import for Magic (only sets changed on Scryfall are fetched)
                     logger.info("Starting nightly delta import for {}", tcgType.getDisplayName());
-                    Integer imported = tcgApiClient.importMagicDelta().block(Duration.ofMinutes(15));
+                    Integer imported = tcgApiClient.importMagicDelta().block(Duration.ofHours(2));
                     logger.info("Nightly delta import completed for {}: {} cards processed",
                             tcgType.getDisplayName(), imported);
                 } else {
@@ -109,4 +115,30 @@ public class TCGImportScheduler {
 
         logger.info("Completed nightly TCG import cycle for {}", dayOfWeek);
     }
+
+    /**
+     * Refresh prices of existing cards for every supported TCG at 5 AM.
+     * Only changed rows are written, so this is much cheaper than a full import.
+     */
+    @Scheduled(cron = "${tcg.price-refresh.cron:0 0 5 * * ?}")
+    public void runDailyPriceRefresh() {
+        String lockKey = "daily-tcg-price-refresh";
+        if (!schedulerLockService.acquireLock(lockKey, Duration.ofHours(6))) {
+            logger.warn("Daily price refresh is already running or was recently executed. Skipping.");
+            return;
+        }
+
+        try {
+            for (TCGType tcgType : tcgApiClient.getSupportedTCGTypes()) {
+                try {
+                    priceRefreshService.refreshPrices(tcgType);
+                } catch (Exception e) {
+                    logger.error("Error during price refresh for {}: {}",
+                            tcgType.getDisplayName(), e.getMessage(), e);
+                }
+            }
+        } finally {
+            schedulerLockService.releaseLock(lockKey);
+        }
+    }
 }
@@ -45,6 +45,7 @@ public class JwtRequestFilter extends OncePerRequestFilter {
                 path.startsWith("/api/auth/") ||
                 path.startsWith("/api/public/") ||
                 path.startsWith("/api/admin/") ||
+                path.startsWith("/api/internal/cluster-bus/") ||
                 path.startsWith("/health") ||
                 path.startsWith("/swagger-ui/") ||
                 path.startsWith("/v3/api-docs/");
@@ -77,6 +77,8 @@ public class SecurityConfig {
                         .permitAll()
                         // WebSocket endpoints
                         .requestMatchers("/ws/**", "/api/global-chat/**").permitAll()
+                        // Cluster bus (authenticated by shared secret in ClusterBusController)
+                        .requestMatchers("/api/internal/cluster-bus/**").permitAll()
                         // Protected card endpoints
                         .requestMatchers("/api/cards/collection").authenticated()
                         .requestMatchers("/api/cards/collection/**").authenticated()
@@ -0,0 +1,561 @@
+package com.tcg.arena.service;
+
+import com.tcg.arena.model.Achievement;
+import com.tcg.arena.model.AchievementMetric;
+import com.tcg.arena.model.UserAchievementCounter;
+import com.tcg.arena.repository.AchievementRepository;
+import com.tcg.arena.repository.UserAchievementCounterRepository;
+import com.tcg.arena.repository.UserAchievementRepository;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.sql.Statement;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+
+/**
+ * Achievement rule engine.
+ *
+ * Active achievements are compiled into threshold rules per
+ * {@link AchievementMetric}, sorted by threshold. Each user touched by an
+ * event gets its counters and unlocked achievements loaded once; after that
+ * an event is an in-memory increment plus a check of the user's next unmet
+ * threshold for that metric.
+ *
+ * The first time a user is seen the counters are seeded from existing data
+ * and stored as absolute values with INSERT ... ON CONFLICT DO NOTHING, so
+ * instances seeding the same user agree on one value. Events arrive after
+ * their transaction committed, so the seed already counts the event that
+ * triggered it and that amount is taken out of it.
+ *
+ * Unlocks are queued and written by the scheduled flush in batches (see
+ * {@link WriteBehindQueue}), then rewarded with points and a push
+ * notification from the flush thread. The unique (user_id, achievement_id)
+ * index makes the insert a no-op for an achievement already unlocked by a
+ * manual unlock or another instance, and only inserted rows are rewarded.
+ * Counter increments are flushed as deltas, so several instances can count
+ * the same user. After a flush, and before evaluating a user not synced for
+ * a flush interval, the stored counters (which include the increments of the
+ * other instances) are read back. Idle users are dropped from memory after
+ * a flush.
+ */
+@Service
+public class AchievementEngine {
+
+    private static final Logger logger = LoggerFactory.getLogger(AchievementEngine.class);
+
+    private static final int FLUSH_BATCH_SIZE = 500;
+
+    private static final AchievementMetric[] METRICS = AchievementMetric.values();
+
+    // Initial counter values from existing data, one column per AchievementMetric in declaration order.
+    // POINTS_EARNED comes from PointsLedger, which also counts the ledger rows still queued.
+    private static final String SEED_SQL = "SELECT "
+            + "(SELECT COUNT(*) FROM decks WHERE owner_id = ?), "
+            + "(SELECT COUNT(*) FROM card_votes WHERE user_id = ?), "
+            + "(SELECT COUNT(*) FROM tournament_participants WHERE user_id = ? AND placement = 1)";
+
+    private static final String SEED_COUNTER_SQL = "INSERT INTO user_achievement_counters "
+            + "(user_id, metric, counter_value, updated_at) VALUES (?, ?, ?, ?) "
+            + "ON CONFLICT (user_id, metric) DO NOTHING";
+
+    private static final String COUNTER_DELTA_SQL = "INSERT INTO user_achievement_counters "
+            + "(user_id, metric, counter_value, updated_at) VALUES (?, ?, ?, ?) "
+            + "ON CONFLICT (user_id, metric) DO UPDATE SET "
+            + "counter_value = user_achievement_counters.counter_value + EXCLUDED.counter_value, "
+            + "updated_at = EXCLUDED.updated_at";
+
+    private static final String INSERT_UNLOCK_SQL = "INSERT INTO user_achievements (user_id, achievement_id, unlocked_at) "
+            + "VALUES (?, ?, ?) ON CONFLICT (user_id, achievement_id) DO NOTHING";
+
+    private static final String UNLOCK_INDEX = "uk_user_achievements_user_achievement";
+
+    @Autowired
+    private AchievementRepository achievementRepository;
+
+    @Autowired
+    private UserAchievementRepository userAchievementRepository;
+
+    @Autowired
+    private UserAchievementCounterRepository counterRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private RewardService rewardService;
+
+    @Autowired
+    private NotificationService notificationService;
+
+    @Autowired
+    private PointsLedger pointsLedger;
+
+    @Value("${achievements.idle-user-minutes:30}")
+    private long idleUserMinutes;
+
+    @Value("${achievements.flush-interval-ms:5000}")
+    private long flushIntervalMs;
+
+    @Value("${achievements.write-behind.queue-capacity:10000}")
+    private int writeBehindCapacity;
+
+    private volatile RuleSet rules = new RuleSet(0, new Rule[METRICS.length][]);
+
+    private final Map<Long, UserProgress> progressByUser = new ConcurrentHashMap<>();
+    private WriteBehindQueue<Unlock> pendingUnlocks;
+    // Unlocks written by the queue, rewarded once the flush is done
+    private final ConcurrentLinkedQueue<Unlock> unlocksToReward = new ConcurrentLinkedQueue<>();
+
+    @PostConstruct
+    public void init() {
+        pendingUnlocks = new WriteBehindQueue<>("achievement unlock", writeBehindCapacity, FLUSH_BATCH_SIZE,
+                this::insertUnlocks);
+        createUnlockIndexIfNotExists();
+    }
+
+    // Same index as V44, for databases where migrations are not run. Older
+    // duplicate unlocks would fail it, the first one of each pair is kept.
+    private void createUnlockIndexIfNotExists() {
+        try {
+            Boolean missing = jdbcTemplate.queryForObject("SELECT to_regclass(?) IS NULL", Boolean.class,
+                    UNLOCK_INDEX);
+            if (!Boolean.TRUE.equals(missing)) {
+                return;
+            }
+            int removed = jdbcTemplate.update("DELETE FROM user_achievements a USING user_achievements b "
+                    + "WHERE a.user_id = b.user_id AND a.achievement_id = b.achievement_id AND a.id > b.id");
+            if (removed > 0) {
+                logger.warn("Removed {} duplicate achievement unlocks", removed);
+            }
+            jdbcTemplate.execute("CREATE UNIQUE INDEX IF NOT EXISTS " + UNLOCK_INDEX
+                    + " ON user_achievements (user_id, achievement_id)");
+        } catch (Exception e) {
+            logger.error("Failed to create user_achievements unique index", e);
+        }
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void onApplicationReady() {
+        reloadRules();
+    }
+
+    /**
+     * Compile the active achievements into threshold rules. Called at startup
+     * and whenever an achievement is saved; loaded users are re-evaluated on
+     * their next event, so new rules also unlock for progress already made.
+     */
+    public void reloadRules() {
+        List<List<Rule>> byMetric = new ArrayList<>(METRICS.length);
+        for (int i = 0; i < METRICS.length; i++) {
+            byMetric.add(new ArrayList<>());
+        }
+
+        int compiled = 0;
+        for (Achievement achievement : achievementRepository.findByIsActiveTrue()) {
+            AchievementMetric metric = AchievementMetric.fromCriteria(achievement.getCriteria());
+            if (metric == null) {
+                logger.warn("Achievement {} has unsupported criteria '{}', ignored", achievement.getId(),
+                        achievement.getCriteria());
+                continue;
+            }
+            byMetric.get(metric.ordinal()).add(new Rule(achievement.getId(),
+                    AchievementMetric.thresholdOf(achievement.getCriteria()), achievement.getName(),
+                    achievement.getPointsReward() != null ? achievement.getPointsReward() : 0));
+            compiled++;
+        }
+
+        Rule[][] rulesByMetric = new Rule[METRICS.length][];
+        for (int i = 0; i < METRICS.length; i++) {
+            List<Rule> metricRules = byMetric.get(i);
+            metricRules.sort(Comparator.comparingLong(rule -> rule.threshold));
+            rulesByMetric[i] = metricRules.toArray(new Rule[0]);
+        }
+        rules = new RuleSet(rules.version + 1, rulesByMetric);
+        logger.info("Achievement rules compiled: {}", compiled);
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onProgress(AchievementProgressEvent event) {
+        record(event.getUserId(), event.getMetric(), event.getAmount());
+    }
+
+    @EventListener
+    public void onPointsBalanceChanged(PointsBalanceChangedEvent event) {
+        if (event.getDelta() > 0) {
+            record(event.getUserId(), AchievementMetric.POINTS_EARNED, event.getDelta());
+        }
+    }
+
+    /**
+     * Add amount to a user's counter and queue the achievements it unlocks.
+     * The data behind the event must already be committed.
+     */
+    public void record(Long userId, AchievementMetric metric, long amount) {
+        try {
+            while (true) {
+                UserProgress progress = progressByUser.get(userId);
+                if (progress == null) {
+                    // Loaded outside the map: the queries must not hold a map bin lock. When
+                    // two events load the same user at once, the first one published wins.
+                    UserProgress loaded = loadProgress(userId, metric, amount);
+                    progress = progressByUser.putIfAbsent(userId, loaded);
+                    if (progress == null) {
+                        progress = loaded;
+                    }
+                }
+                synchronized (progress) {
+                    if (progress.evicted) {
+                        continue; // Dropped by the flush meanwhile, load again
+                    }
+                    long now = System.currentTimeMillis();
+                    if (now - progress.syncedAt > flushIntervalMs) {
+                        // Pick up what other instances counted while this one did not flush the user
+                        applyStored(progress, counterRepository.findByUserId(userId), now);
+                    }
+                    int m = metric.ordinal();
+                    progress.counters[m] += amount;
+                    progress.pendingDeltas[m] += amount;
+                    progress.lastAccess = now;
+                    evaluate(progress, metric);
+                    return;
+                }
+            }
+        } catch (Exception e) {
+            logger.warn("Failed to record achievement progress {} for user {}: {}", metric, userId, e.getMessage());
+        }
+    }
+
+    /**
+     * Keep a manual unlock in sync with the loaded state of the user
+     */
+    public void markUnlocked(Long userId, Long achievementId) {
+        UserProgress progress = progressByUser.get(userId);
+        if (progress != null) {
+            synchronized (progress) {
+                progress.unlocked.add(achievementId);
+            }
+        }
+    }
+
+    /**
+     * Load a user's counters, seeding them on first sight. metric and amount
+     * are the event being recorded, which record() adds on top.
+     */
+    private UserProgress loadProgress(Long userId, AchievementMetric metric, long amount) {
+        UserProgress progress = new UserProgress(userId);
+
+        List<UserAchievementCounter> stored = counterRepository.findByUserId(userId);
+        if (stored.isEmpty()) {
+            seedCounters(userId, metric, amount);
+            stored = counterRepository.findByUserId(userId);
+        }
+        long now = System.currentTimeMillis();
+        applyStored(progress, stored, now);
+        progress.unlocked.addAll(userAchievementRepository.findAchievementIdsByUserId(userId));
+        progress.lastAccess = now;
+        return progress;
+    }
+
+    /**
+     * Store the first counter values of a user from the existing data. The
+     * data already contains the event being recorded, so its amount is left
+     * out. Another instance may have seeded the user first, its values win.
+     */
+    private void seedCounters(Long userId, AchievementMetric metric, long amount) {
+        long[] seed = new long[METRICS.length];
+        jdbcTemplate.query(SEED_SQL, rs -> {
+            seed[AchievementMetric.DECKS_CREATED.ordinal()] = rs.getLong(1);
+            seed[AchievementMetric.CARDS_VOTED.ordinal()] = rs.getLong(2);
+            seed[AchievementMetric.TOURNAMENTS_WON.ordinal()] = rs.getLong(3);
+        }, userId, userId, userId);
+        seed[AchievementMetric.POINTS_EARNED.ordinal()] = pointsLedger.sumPointsEarned(userId);
+        seed[metric.ordinal()] = Math.max(0, seed[metric.ordinal()] - amount);
+
+        Timestamp now = Timestamp.valueOf(LocalDateTime.now());
+        jdbcTemplate.batchUpdate(SEED_COUNTER_SQL, Arrays.asList(METRICS), METRICS.length, (ps, seeded) -> {
+            ps.setLong(1, userId);
+            ps.setString(2, seeded.name());
+            ps.setLong(3, seed[seeded.ordinal()]);
+            ps.setTimestamp(4, now);
+        });
+    }
+
+    /**
+     * Counters become the stored values plus the increments not flushed yet;
+     * every metric is evaluated again since stored values may have grown.
+     * Caller holds the progress lock (or owns a progress not published yet).
+     */
+    private void applyStored(UserProgress progress, List<UserAchievementCounter> stored, long now) {
+        for (UserAchievementCounter counter : stored) {
+            int m = counter.getMetric().ordinal();
+            progress.counters[m] = counter.getValue() + progress.pendingDeltas[m];
+        }
+        progress.syncedAt = now;
+        if (progress.rulesVersion == rules.version) {
+            for (int m = 0; m < METRICS.length; m++) {
+                advance(progress, rules.byMetric[m], m);
+            }
+        }
+    }
+
+    // Caller holds the progress lock
+    private void evaluate(UserProgress progress, AchievementMetric metric) {
+        RuleSet ruleSet = rules;
+        if (progress.rulesVersion != ruleSet.version) {
+            // New user or new rules: check every metric from its first rule
+            progress.rulesVersion = ruleSet.version;
+            Arrays.fill(progress.nextRule, 0);
+            for (int m = 0; m < METRICS.length; m++) {
+                advance(progress, ruleSet.byMetric[m], m);
+            }
+            return;
+        }
+        advance(progress, ruleSet.byMetric[metric.ordinal()], metric.ordinal());
+    }
+
+    private void advance(UserProgress progress, Rule[] metricRules, int m) {
+        int next = progress.nextRule[m];
+        while (next < metricRules.length && metricRules[next].threshold <= progress.counters[m]) {
+            Rule rule = metricRules[next++];
+            if (progress.unlocked.add(rule.achievementId)) {
+                Unlock unlock = new Unlock(progress.userId, rule, LocalDateTime.now());
+                if (!pendingUnlocks.offer(unlock)) {
+                    logger.warn("Achievement unlock queue full, recording unlock for user {} synchronously",
+                            progress.userId);
+                    pendingUnlocks.writeNow(List.of(unlock));
+                }
+            }
+        }
+        progress.nextRule[m] = next;
+    }
+
+    /**
+     * Persist queued unlocks and counter deltas, then reward the new unlocks
+     */
+    @Scheduled(fixedDelayString = "${achievements.flush-interval-ms:5000}")
+    public void flush() {
+        flushUnlocks();
+        flushCounters();
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        flush();
+    }
+
+    private void flushUnlocks() {
+        pendingUnlocks.flush();
+        Unlock unlock;
+        while ((unlock = unlocksToReward.poll()) != null) {
+            reward(unlock);
+        }
+    }
+
+    // Writer of the unlock queue, throws on failure
+    private void insertUnlocks(List<Unlock> batch) {
+        int[][] counts = jdbcTemplate.batchUpdate(INSERT_UNLOCK_SQL, batch, batch.size(), (ps, u) -> {
+            ps.setLong(1, u.userId);
+            ps.setLong(2, u.rule.achievementId);
+            ps.setTimestamp(3, Timestamp.valueOf(u.unlockedAt));
+        });
+
+        int i = 0;
+        for (int[] chunk : counts) {
+            for (int count : chunk) {
+                // 0: already unlocked by a manual unlock or another instance
+                if (count > 0 || count == Statement.SUCCESS_NO_INFO) {
+                    unlocksToReward.add(batch.get(i));
+                }
+                i++;
+            }
+        }
+    }
+
+    private void reward(Unlock unlock) {
+        try {
+            if (unlock.rule.pointsReward > 0) {
+                rewardService.earnPoints(unlock.userId, unlock.rule.pointsReward,
+                        "Achievement sbloccato: " + unlock.rule.name);
+            }
+            notificationService.sendAchievementUnlockedNotification(unlock.userId, unlock.rule.name);
+        } catch (Exception e) {
+            logger.warn("Failed to reward achievement {} of user {}: {}", unlock.rule.achievementId, unlock.userId,
+                    e.getMessage());
+        }
+    }
+
+    private void flushCounters() {
+        long idleBefore = System.currentTimeMillis() - idleUserMinutes * 60_000L;
+        List<CounterDelta> deltas = new ArrayList<>();
+
+        for (UserProgress progress : progressByUser.values()) {
+            synchronized (progress) {
+                boolean pending = false;
+                for (int m = 0; m < METRICS.length; m++) {
+                    if (progress.pendingDeltas[m] != 0) {
+                        deltas.add(new CounterDelta(progress, m, progress.pendingDeltas[m]));
+                        pending = true;
+                    }
+                }
+                if (!pending && progress.lastAccess < idleBefore) {
+                    progress.evicted = true;
+                    progressByUser.remove(progress.userId, progress);
+                }
+            }
+        }
+        if (deltas.isEmpty()) {
+            return;
+        }
+
+        Timestamp now = Timestamp.valueOf(LocalDateTime.now());
+        for (int from = 0; from < deltas.size(); from += FLUSH_BATCH_SIZE) {
+            List<CounterDelta> batch = deltas.subList(from, Math.min(from + FLUSH_BATCH_SIZE, deltas.size()));
+            try {
+                jdbcTemplate.batchUpdate(COUNTER_DELTA_SQL, batch, batch.size(), (ps, delta) -> {
+                    ps.setLong(1, delta.progress.userId);
+                    ps.setString(2, METRICS[delta.metricIndex].name());
+                    ps.setLong(3, delta.amount);
+                    ps.setTimestamp(4, now);
+                });
+            } catch (Exception e) {
+                // Deltas stay pending and are retried by the next flush
+                logger.error("Failed to persist {} achievement counters: {}", batch.size(), e.getMessage());
+                return;
+            }
+            // Subtract what was written; increments made during the write stay pending
+            for (CounterDelta delta : batch) {
+                synchronized (delta.progress) {
+                    delta.progress.pendingDeltas[delta.metricIndex] -= delta.amount;
+                }
+            }
+        }
+        refreshFlushed(deltas);
+    }
+
+    /**
+     * Read back the stored counters of the users just flushed, so increments
+     * of other instances count towards their thresholds
+     */
+    private void refreshFlushed(List<CounterDelta> deltas) {
+        Map<Long, UserProgress> flushed = new HashMap<>();
+        for (CounterDelta delta : deltas) {
+            flushed.put(delta.progress.userId, delta.progress);
+        }
+
+        Map<Long, List<UserAchievementCounter>> storedByUser = new HashMap<>();
+        List<Long> userIds = new ArrayList<>(flushed.keySet());
+        try {
+            for (int from = 0; from < userIds.size(); from += FLUSH_BATCH_SIZE) {
+                for (UserAchievementCounter counter : counterRepository
+                        .findByUserIdIn(userIds.subList(from, Math.min(from + FLUSH_BATCH_SIZE, userIds.size())))) {
+                    storedByUser.computeIfAbsent(counter.getUserId(), id -> new ArrayList<>()).add(counter);
+                }
+            }
+        } catch (Exception e) {
+            logger.warn("Failed to read back achievement counters: {}", e.getMessage());
+            return;
+        }
+
+        long now = System.currentTimeMillis();
+        for (Map.Entry<Long, List<UserAchievementCounter>> entry : storedByUser.entrySet()) {
+            UserProgress progress = flushed.get(entry.getKey());
+            synchronized (progress) {
+                if (!progress.evicted) {
+                    applyStored(progress, entry.getValue(), now);
+                }
+            }
+        }
+    }
+
+    private static class CounterDelta {
+        private final UserProgress progress;
+        private final int metricIndex;
+        private final long amount;
+
+        CounterDelta(UserProgress progress, int metricIndex, long amount) {
+            this.progress = progress;
+            this.metricIndex = metricIndex;
+            this.amount = amount;
+        }
+    }
+
+    private static class RuleSet {
+        private final long version;
+        private final Rule[][] byMetric;
+
+        RuleSet(long version, Rule[][] byMetric) {
+            this.version = version;
+            for (int i = 0; i < byMetric.length; i++) {
+                if (byMetric[i] == null) {
+                    byMetric[i] = new Rule[0];
+                }
+            }
+            this.byMetric = byMetric;
+        }
+    }
+
+    private static class Rule {
+        private final Long achievementId;
+        private final long threshold;
+        private final String name;
+        private final int pointsReward;
+
+        Rule(Long achievementId, long threshold, String name, int pointsReward) {
+            this.achievementId = achievementId;
+            this.threshold = threshold;
+            this.name = name;
+            this.pointsReward = pointsReward;
+        }
+    }
+
+    private static class UserProgress {
+        private final Long userId;
+        private final long[] counters = new long[METRICS.length];
+        private final long[] pendingDeltas = new long[METRICS.length];
+        // Index of the first rule per metric not reached yet
+        private final int[] nextRule = new int[METRICS.length];
+        private final Set<Long> unlocked = new HashSet<>();
+        private long rulesVersion = -1;
+        private long lastAccess;
+        // When counters were last set from the stored values
+        private long syncedAt;
+        private boolean evicted;
+
+        UserProgress(Long userId) {
+            this.userId = userId;
+        }
+    }
+
+    private static class Unlock {
+        private final Long userId;
+        private final Rule rule;
+        private final LocalDateTime unlockedAt;
+
+        Unlock(Long userId, Rule rule, LocalDateTime unlockedAt) {
+            this.userId = userId;
+            this.rule = rule;
+            this.unlockedAt = unlockedAt;
+        }
+    }
+}
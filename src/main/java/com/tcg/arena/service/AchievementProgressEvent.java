@@ -0,0 +1,33 @@
+package com.tcg.arena.service;
+
+import com.tcg.arena.model.AchievementMetric;
+
+/**
+ * Published by domain services when a user action moves an achievement
+ * counter (deck created, card voted, tournament won). Consumed by
+ * {@link AchievementEngine} once the publishing transaction commits.
+ */
+public class AchievementProgressEvent {
+
+    private final Long userId;
+    private final AchievementMetric metric;
+    private final long amount;
+
+    public AchievementProgressEvent(Long userId, AchievementMetric metric, long amount) {
+        this.userId = userId;
+        this.metric = metric;
+        this.amount = amount;
+    }
+
+    public Long getUserId() {
+        return userId;
+    }
+
+    public AchievementMetric getMetric() {
+        return metric;
+    }
+
+    public long getAmount() {
+        return amount;
+    }
+}
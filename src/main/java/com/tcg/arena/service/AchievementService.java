@@ -26,6 +26,9 @@ public class AchievementService {
     @Autowired
     private RewardService rewardService;
 
+    @Autowired
+    private AchievementEngine achievementEngine;
+
     @Cacheable(value = CacheConfig.ACHIEVEMENTS_CACHE, key = "'active'")
     public List<Achievement> getAllActiveAchievements() {
         return achievementRepository.findByIsActiveTrue();
@@ -41,7 +44,9 @@ public class AchievementService {
         if (achievement.getCreatedAt() == null) {
             achievement.setCreatedAt(LocalDateTime.now());
         }
-        return achievementRepository.save(achievement);
+        Achievement saved = achievementRepository.save(achievement);
+        achievementEngine.reloadRules();
+        return saved;
     }
 
     public List<UserAchievement> getUserAchievements(Long userId) {
@@ -62,6 +67,7 @@ public class AchievementService {
             userAchievement.setAchievementId(achievementId);
             userAchievement.setUnlockedAt(LocalDateTime.now());
             userAchievementRepository.save(userAchievement);
+            achievementEngine.markUnlocked(userId, achievementId);
 
             // Award points
             rewardService.earnPoints(userId, achievement.getPointsReward(),
@@ -71,12 +77,4 @@ public class AchievementService {
         }
         return false;
     }
-
-    // Method to check and unlock achievements based on user actions
-    public void checkAchievements(Long userId, String action) {
-        // This would be called from other services when certain actions happen
-        // For example, when a user wins a tournament, call checkAchievements(userId, "tournament_win")
-        // Then check criteria and unlock if met
-        // For now, placeholder
-    }
 }
\ No newline at end of file
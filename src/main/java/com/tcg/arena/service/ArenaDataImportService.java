@@ -53,6 +53,9 @@ public class ArenaDataImportService {
     @Autowired
     private ArenaPriceStatisticsRepository arenaPriceStatisticsRepository;
 
+    @Autowired
+    private PriceHistoryService priceHistoryService;
+
     @Value("${tcg.api.key}")
     private String apiKey;
 
@@ -143,6 +146,10 @@ public class ArenaDataImportService {
         gameCache.clear();
         setCache.clear();
 
+        // One price history sample per variant for this import
+        PriceHistoryService.Batch history = priceHistoryService
+                .newBatch(PriceHistoryService.SeriesType.ARENA_VARIANT, java.time.Instant.now());
+
         return getOrCreateGame(gameId)
                 .flatMap(game ->
                 // Step 1: Import all sets
@@ -181,6 +188,16 @@ public class ArenaDataImportService {
                                                 savedCount++;
                                             } catch (Exception e) {
                                                 logger.warn("Error saving card {}: {}", card.name, e.getMessage());
+                                                continue;
+                                            }
+
+                                            if (card.variants != null) {
+                                                for (TCGApiClient.TCGVariant variant : card.variants) {
+                                                    if (variant.id != null && variant.price != null) {
+                                                        history.add(PriceHistoryService.arenaVariantSeries(variant.id),
+                                                                variant.price);
+                                                    }
+                                                }
                                             }
                                         }
 
@@ -191,6 +208,7 @@ public class ArenaDataImportService {
                                     .reduce(0, Integer::sum);
                         }))
                 .doOnSuccess(total -> {
+                    history.flush();
                     logger.info("Full import complete for {}: {} cards imported", gameId, total);
                     gameCache.clear();
                     setCache.clear();
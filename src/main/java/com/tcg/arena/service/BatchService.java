@@ -1,9 +1,15 @@
 package com.tcg.arena.service;
 
 import com.tcg.arena.model.TCGType;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.batch.core.BatchStatus;
 import org.springframework.batch.core.Job;
+import org.springframework.batch.core.JobExecution;
+import org.springframework.batch.core.JobInstance;
 import org.springframework.batch.core.JobParameters;
 import org.springframework.batch.core.JobParametersBuilder;
+import org.springframework.batch.core.explore.JobExplorer;
 import org.springframework.batch.core.launch.JobLauncher;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Qualifier;
@@ -12,22 +18,57 @@ import org.springframework.stereotype.Service;
 @Service
 public class BatchService {
 
+    private static final Logger logger = LoggerFactory.getLogger(BatchService.class);
+
+    // How many recent tcgImportJob instances to look through for a failed run
+    private static final int RESTART_LOOKBACK = 20;
+
     @Autowired
     private JobLauncher jobLauncher;
 
+    @Autowired
+    private JobExplorer jobExplorer;
+
     @Autowired
     @Qualifier("tcgImportJob")
     private Job tcgImportJob;
 
     /**
-     * Trigger TCG API import for a specific TCG type
+     * Trigger TCG API import for a specific TCG type.
+     * If the last import of this type failed or was stopped, that job instance
+     * is restarted instead: completed set partitions are skipped and the others
+     * resume from their last committed chunk.
      */
     public void triggerTCGImport(TCGType tcgType) throws Exception {
-        JobParameters jobParameters = new JobParametersBuilder()
-                .addLong("time", System.currentTimeMillis())
-                .addString("tcgType", tcgType.name())
-                .toJobParameters();
+        JobParameters jobParameters = findRestartableParameters(tcgType);
+        if (jobParameters != null) {
+            logger.info("Restarting last failed TCG import for {}", tcgType.getDisplayName());
+        } else {
+            jobParameters = new JobParametersBuilder()
+                    .addLong("time", System.currentTimeMillis())
+                    .addString("tcgType", tcgType.name())
+                    .toJobParameters();
+        }
 
         jobLauncher.run(tcgImportJob, jobParameters);
     }
-}
\ No newline at end of file
+
+    /**
+     * Parameters of the most recent tcgImportJob instance for this TCG type if
+     * its last execution FAILED or was STOPPED, null otherwise
+     */
+    private JobParameters findRestartableParameters(TCGType tcgType) {
+        for (JobInstance instance : jobExplorer.getJobInstances(tcgImportJob.getName(), 0, RESTART_LOOKBACK)) {
+            JobExecution lastExecution = jobExplorer.getLastJobExecution(instance);
+            if (lastExecution == null
+                    || !tcgType.name().equals(lastExecution.getJobParameters().getString("tcgType"))) {
+                continue;
+            }
+            BatchStatus status = lastExecution.getStatus();
+            return status == BatchStatus.FAILED || status == BatchStatus.STOPPED
+                    ? lastExecution.getJobParameters()
+                    : null;
+        }
+        return null;
+    }
+}
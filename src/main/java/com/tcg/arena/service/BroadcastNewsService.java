@@ -7,16 +7,27 @@ import com.tcg.arena.repository.BroadcastNewsRepository;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
 
+import java.time.Duration;
 import java.time.LocalDateTime;
+import java.util.ArrayList;
 import java.util.List;
 import java.util.Optional;
+import java.util.concurrent.atomic.AtomicLong;
 
 @Service
 public class BroadcastNewsService {
 
+    // How long the in-memory snapshot of live news is trusted without a write
+    private static final Duration LIVE_NEWS_TTL = Duration.ofMinutes(5);
+
     @Autowired
     private BroadcastNewsRepository broadcastNewsRepository;
 
+    // Not expired news (active and future), refreshed on writes and after the TTL
+    private volatile LiveNewsSnapshot liveNews;
+    // Bumped by writes, so a load racing with a write is not kept
+    private final AtomicLong writeVersion = new AtomicLong();
+
     /**
      * Get all broadcast news
      */
@@ -31,6 +42,32 @@ public class BroadcastNewsService {
         return broadcastNewsRepository.findActiveNews(LocalDateTime.now());
     }
 
+    /**
+     * Get active broadcast news from the in-memory snapshot, ordered by pinned
+     * first then start date descending. Used by the news feeds; the snapshot
+     * is dropped by every write in this service.
+     */
+    public List<BroadcastNews> getActiveNewsCached() {
+        LocalDateTime now = LocalDateTime.now();
+        LiveNewsSnapshot snapshot = liveNews;
+        if (snapshot == null || snapshot.loadedAt.plus(LIVE_NEWS_TTL).isBefore(now)) {
+            long version = writeVersion.get();
+            snapshot = new LiveNewsSnapshot(broadcastNewsRepository.findLiveNews(now), now);
+            if (writeVersion.get() == version) {
+                liveNews = snapshot;
+            }
+        }
+
+        List<BroadcastNews> active = new ArrayList<>(snapshot.news.size());
+        for (BroadcastNews news : snapshot.news) {
+            if (!news.getStartDate().isAfter(now)
+                    && (news.getExpiryDate() == null || news.getExpiryDate().isAfter(now))) {
+                active.add(news);
+            }
+        }
+        return active;
+    }
+
     /**
      * Get future broadcast news
      */
@@ -84,7 +121,9 @@ public class BroadcastNewsService {
         news.setLanguage(language);
         news.setIsGlobal(isGlobal != null ? isGlobal : false);
 
-        return broadcastNewsRepository.save(news);
+        BroadcastNews saved = broadcastNewsRepository.save(news);
+        invalidateLiveNews();
+        return saved;
     }
 
     /**
@@ -122,7 +161,9 @@ public class BroadcastNewsService {
             news.setIsGlobal(isGlobal);
         }
 
-        return broadcastNewsRepository.save(news);
+        BroadcastNews saved = broadcastNewsRepository.save(news);
+        invalidateLiveNews();
+        return saved;
     }
 
     /**
@@ -130,5 +171,21 @@ public class BroadcastNewsService {
      */
     public void deleteNews(Long id) {
         broadcastNewsRepository.deleteById(id);
+        invalidateLiveNews();
+    }
+
+    private void invalidateLiveNews() {
+        writeVersion.incrementAndGet();
+        liveNews = null;
+    }
+
+    private static class LiveNewsSnapshot {
+        private final List<BroadcastNews> news;
+        private final LocalDateTime loadedAt;
+
+        LiveNewsSnapshot(List<BroadcastNews> news, LocalDateTime loadedAt) {
+            this.news = news;
+            this.loadedAt = loadedAt;
+        }
     }
 }
@@ -0,0 +1,70 @@
+package com.tcg.arena.service;
+
+/**
+ * Set of card natural keys (name, setCode, cardNumber) stored as 64-bit
+ * hashes in a {@link LongIntHashMap}, for the "does this card already exist"
+ * checks of the imports.
+ *
+ * Hashing reads the three strings in place, so a lookup allocates nothing,
+ * unlike building a "name|set|number" string per card. With 64-bit hashes the
+ * odds of any collision among a million cards are below 1 in 10^7, and one
+ * would only skip a new card until the next import.
+ *
+ * Not thread-safe: each import fills and queries its own instance.
+ */
+public final class CardKeySet {
+
+    private final LongIntHashMap keys;
+
+    public CardKeySet(int expectedSize) {
+        keys = new LongIntHashMap(expectedSize);
+    }
+
+    /**
+     * 64-bit FNV-1a over the UTF-16 chars of the three parts, with a separator
+     * between them. Never 0, which the table does not accept as a key.
+     */
+    public static long hash(String name, String setCode, String cardNumber) {
+        long hash = 0xcbf29ce484222325L;
+        hash = fnv(hash, name);
+        hash = (hash ^ 0x1F) * 0x100000001b3L;
+        hash = fnv(hash, setCode);
+        hash = (hash ^ 0x1F) * 0x100000001b3L;
+        hash = fnv(hash, cardNumber);
+        return hash == 0L ? 1L : hash;
+    }
+
+    public boolean add(String name, String setCode, String cardNumber) {
+        return add(hash(name, setCode, cardNumber));
+    }
+
+    public boolean contains(String name, String setCode, String cardNumber) {
+        return contains(hash(name, setCode, cardNumber));
+    }
+
+    /**
+     * @return true if the key was not present
+     */
+    public boolean add(long key) {
+        return keys.putIfAbsent(key, 0);
+    }
+
+    public boolean contains(long key) {
+        return keys.containsKey(key);
+    }
+
+    public int size() {
+        return keys.size();
+    }
+
+    private static long fnv(long hash, String value) {
+        if (value == null) {
+            return hash;
+        }
+        for (int i = 0; i < value.length(); i++) {
+            hash ^= value.charAt(i);
+            hash *= 0x100000001b3L;
+        }
+        return hash;
+    }
+}
@@ -0,0 +1,165 @@
+package com.tcg.arena.service;
+
+import com.tcg.arena.model.TCGType;
+import com.tcg.arena.repository.CardTemplateRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import java.text.Normalizer;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.regex.Pattern;
+
+/**
+ * In-memory card name -> template dictionary per TCG, used to resolve deck
+ * lists without a query per line.
+ *
+ * A TCG's dictionary is built on first use with one projection query and
+ * kept until an import of that TCG invalidates it (the next lookup rebuilds
+ * it). Each dictionary records the TCG's generation from before its query,
+ * so a build still running when an import invalidates the TCG is replaced
+ * at the next lookup instead of being kept. Names are compared normalized: case, accents, apostrophe variants and
+ * repeated spaces are ignored.
+ */
+@Component
+public class CardNameDictionary {
+
+    private static final Logger logger = LoggerFactory.getLogger(CardNameDictionary.class);
+
+    private static final Pattern COMBINING_MARKS = Pattern.compile("\\p{M}+");
+    private static final Pattern SPACES = Pattern.compile("\\s+");
+
+    private final Map<TCGType, Dictionary> dictionaries = new ConcurrentHashMap<>();
+
+    // Bumped by every invalidate; filled for all TCGs up front, never modified afterwards
+    private final Map<TCGType, AtomicLong> generations = new EnumMap<>(TCGType.class);
+
+    public CardNameDictionary() {
+        for (TCGType tcgType : TCGType.values()) {
+            generations.put(tcgType, new AtomicLong());
+        }
+    }
+
+    @Autowired
+    private CardTemplateRepository cardTemplateRepository;
+
+    /**
+     * Template id for a card name, preferring the printing with the given set
+     * code and card number (both optional). Without a matching printing the
+     * most recently imported one is used. Null when the name is unknown.
+     */
+    public Long resolve(TCGType tcgType, String name, String setCode, String cardNumber) {
+        List<Printing> printings = dictionary(tcgType).printingsByName.get(normalize(name));
+        if (printings == null) {
+            return null;
+        }
+
+        Printing sameSet = null;
+        if (setCode != null) {
+            for (Printing printing : printings) {
+                if (setCode.equalsIgnoreCase(printing.setCode)) {
+                    if (cardNumber != null && sameNumber(cardNumber, printing.cardNumber)) {
+                        return printing.id;
+                    }
+                    if (sameSet == null) {
+                        sameSet = printing;
+                    }
+                }
+            }
+        }
+        if (sameSet != null) {
+            return sameSet.id;
+        }
+        // Rows are loaded in id order, the last one is the newest printing
+        return printings.get(printings.size() - 1).id;
+    }
+
+    /**
+     * Drop the dictionary of a TCG after its card templates changed
+     */
+    public void invalidate(TCGType tcgType) {
+        generations.get(tcgType).incrementAndGet();
+        if (dictionaries.remove(tcgType) != null) {
+            logger.info("[DECKLIST] [{}] Card name dictionary invalidated", tcgType);
+        }
+    }
+
+    private Dictionary dictionary(TCGType tcgType) {
+        Dictionary dictionary = dictionaries.get(tcgType);
+        if (dictionary != null && dictionary.generation == generations.get(tcgType).get()) {
+            return dictionary;
+        }
+        return dictionaries.compute(tcgType, (key, current) ->
+                current != null && current.generation == generations.get(key).get() ? current : build(key));
+    }
+
+    private Dictionary build(TCGType tcgType) {
+        long start = System.currentTimeMillis();
+        // Read before the query: an invalidate from here on makes this build stale
+        long generation = generations.get(tcgType).get();
+        List<Object[]> rows = cardTemplateRepository.findNameDictionaryRows(tcgType);
+        rows.sort((a, b) -> Long.compare((Long) a[0], (Long) b[0]));
+
+        Map<String, List<Printing>> printingsByName = new HashMap<>(rows.size() * 2);
+        for (Object[] row : rows) {
+            Printing printing = new Printing((Long) row[0], (String) row[2], (String) row[3]);
+            printingsByName.computeIfAbsent(normalize((String) row[1]), key -> new ArrayList<>(2)).add(printing);
+        }
+
+        logger.info("[DECKLIST] [{}] Card name dictionary built: {} names, {} templates in {}ms", tcgType,
+                printingsByName.size(), rows.size(), System.currentTimeMillis() - start);
+        return new Dictionary(printingsByName, generation);
+    }
+
+    static String normalize(String name) {
+        String folded = COMBINING_MARKS.matcher(Normalizer.normalize(name, Normalizer.Form.NFD)).replaceAll("");
+        folded = folded.replace('\u2019', '\'').replace('\u2018', '\'');
+        return SPACES.matcher(folded.trim()).replaceAll(" ").toLowerCase(Locale.ROOT);
+    }
+
+    // "057" and "57" are the same collector number
+    private static boolean sameNumber(String a, String b) {
+        if (b == null) {
+            return false;
+        }
+        return stripLeadingZeros(a).equalsIgnoreCase(stripLeadingZeros(b));
+    }
+
+    private static String stripLeadingZeros(String number) {
+        int i = 0;
+        while (i < number.length() - 1 && number.charAt(i) == '0') {
+            i++;
+        }
+        return number.substring(i);
+    }
+
+    private static class Dictionary {
+        private final Map<String, List<Printing>> printingsByName;
+        private final long generation;
+
+        Dictionary(Map<String, List<Printing>> printingsByName, long generation) {
+            this.printingsByName = printingsByName;
+            this.generation = generation;
+        }
+    }
+
+    private static class Printing {
+        private final Long id;
+        private final String setCode;
+        private final String cardNumber;
+
+        Printing(Long id, String setCode, String cardNumber) {
+            this.id = id;
+            this.setCode = setCode;
+            this.cardNumber = cardNumber;
+        }
+    }
+}
@@ -0,0 +1,170 @@
+package com.tcg.arena.service;
+
+import com.tcg.arena.model.CardTemplate;
+
+import java.util.List;
+
+/**
+ * Price columns of a CardTemplate as a flat double vector (NaN = no price).
+ * Shared by the full import and the price-only refresh so both derive
+ * prices from JustTCG variants with exactly the same rules.
+ */
+public final class CardPrices {
+
+    public static final int MARKET = 0;
+    public static final int NEAR_MINT = 1;
+    public static final int LIGHTLY_PLAYED = 2;
+    public static final int MODERATELY_PLAYED = 3;
+    public static final int HEAVILY_PLAYED = 4;
+    public static final int DAMAGED = 5;
+    public static final int FOIL = 6;
+    public static final int FOIL_NEAR_MINT = 7;
+    public static final int LOW = 8;
+    public static final int HIGH = 9;
+    public static final int FIELDS = 10;
+
+    // card_templates columns, in vector order
+    public static final String[] COLUMNS = {
+            "market_price", "price_near_mint", "price_lightly_played", "price_moderately_played",
+            "price_heavily_played", "price_damaged", "price_foil", "price_foil_near_mint",
+            "price_low", "price_high" };
+
+    // Public names of the fields (API parameters, price history conditions)
+    public static final String[] NAMES = {
+            "MARKET", "NEAR_MINT", "LIGHTLY_PLAYED", "MODERATELY_PLAYED", "HEAVILY_PLAYED", "DAMAGED",
+            "FOIL", "FOIL_NEAR_MINT", "LOW", "HIGH" };
+
+    // Fields tracked in price history; LOW/HIGH are derived from the others
+    public static final int HISTORY_FIELDS = LOW;
+
+    private CardPrices() {
+    }
+
+    /**
+     * Field index for a public name (case-insensitive), or -1 when unknown.
+     */
+    public static int fieldOf(String name) {
+        for (int i = 0; i < NAMES.length; i++) {
+            if (NAMES[i].equalsIgnoreCase(name)) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    public static double[] of(CardTemplate template) {
+        double[] prices = new double[FIELDS];
+        prices[MARKET] = toPrimitive(template.getMarketPrice());
+        prices[NEAR_MINT] = toPrimitive(template.getPriceNearMint());
+        prices[LIGHTLY_PLAYED] = toPrimitive(template.getPriceLightlyPlayed());
+        prices[MODERATELY_PLAYED] = toPrimitive(template.getPriceModeratelyPlayed());
+        prices[HEAVILY_PLAYED] = toPrimitive(template.getPriceHeavilyPlayed());
+        prices[DAMAGED] = toPrimitive(template.getPriceDamaged());
+        prices[FOIL] = toPrimitive(template.getPriceFoil());
+        prices[FOIL_NEAR_MINT] = toPrimitive(template.getPriceFoilNearMint());
+        prices[LOW] = toPrimitive(template.getPriceLow());
+        prices[HIGH] = toPrimitive(template.getPriceHigh());
+        return prices;
+    }
+
+    public static void copyTo(double[] prices, CardTemplate template) {
+        template.setMarketPrice(toObject(prices[MARKET]));
+        template.setPriceNearMint(toObject(prices[NEAR_MINT]));
+        template.setPriceLightlyPlayed(toObject(prices[LIGHTLY_PLAYED]));
+        template.setPriceModeratelyPlayed(toObject(prices[MODERATELY_PLAYED]));
+        template.setPriceHeavilyPlayed(toObject(prices[HEAVILY_PLAYED]));
+        template.setPriceDamaged(toObject(prices[DAMAGED]));
+        template.setPriceFoil(toObject(prices[FOIL]));
+        template.setPriceFoilNearMint(toObject(prices[FOIL_NEAR_MINT]));
+        template.setPriceLow(toObject(prices[LOW]));
+        template.setPriceHigh(toObject(prices[HIGH]));
+    }
+
+    /**
+     * Apply JustTCG variants on top of the current prices. Condition prices
+     * missing from the response keep their current value; FOIL, MARKET, LOW
+     * and HIGH are derived from the response alone.
+     * Returns false (and leaves the vector untouched) when there are no variants.
+     */
+    public static boolean applyVariants(double[] prices, List<TCGApiClient.TCGVariant> variants) {
+        if (variants == null || variants.isEmpty()) {
+            return false;
+        }
+
+        double lowPrice = Double.NaN;
+        double highPrice = Double.NaN;
+
+        // Derived below from this response only, the current vector may hold last refresh's values
+        prices[FOIL] = Double.NaN;
+        prices[MARKET] = Double.NaN;
+
+        for (TCGApiClient.TCGVariant variant : variants) {
+            if (variant.price == null)
+                continue;
+            double price = variant.price;
+
+            String condition = variant.condition != null ? variant.condition.toLowerCase() : "";
+            String printing = variant.printing != null ? variant.printing.toLowerCase() : "";
+            boolean isFoil = printing.contains("foil") || printing.contains("holo");
+
+            // Track price range
+            if (Double.isNaN(lowPrice) || price < lowPrice)
+                lowPrice = price;
+            if (Double.isNaN(highPrice) || price > highPrice)
+                highPrice = price;
+
+            // Set condition-specific prices
+            if (condition.contains("near mint") || condition.equals("nm")) {
+                if (isFoil) {
+                    prices[FOIL_NEAR_MINT] = price;
+                } else {
+                    prices[NEAR_MINT] = price;
+                    prices[MARKET] = price; // NM is market price
+                }
+            } else if (condition.contains("lightly") || condition.equals("lp")) {
+                prices[LIGHTLY_PLAYED] = price;
+            } else if (condition.contains("moderately") || condition.equals("mp")) {
+                prices[MODERATELY_PLAYED] = price;
+            } else if (condition.contains("heavily") || condition.equals("hp")) {
+                prices[HEAVILY_PLAYED] = price;
+            } else if (condition.contains("damaged") || condition.equals("dmg")) {
+                prices[DAMAGED] = price;
+            }
+
+            // Set foil price for any foil variant
+            if (isFoil && Double.isNaN(prices[FOIL])) {
+                prices[FOIL] = price;
+            }
+        }
+
+        // Set price range
+        prices[LOW] = lowPrice;
+        prices[HIGH] = highPrice;
+
+        // If no NM price found, use first available as market price
+        if (Double.isNaN(prices[MARKET]) && !Double.isNaN(lowPrice)) {
+            prices[MARKET] = lowPrice;
+        }
+        return true;
+    }
+
+    /**
+     * Field-wise comparison treating NaN == NaN (both "no price").
+     */
+    public static boolean differs(double[] a, int aOffset, double[] b) {
+        for (int i = 0; i < FIELDS; i++) {
+            if (Double.doubleToLongBits(a[aOffset + i]) != Double.doubleToLongBits(b[i])) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    public static double toPrimitive(Double value) {
+        return value != null ? value : Double.NaN;
+    }
+
+    public static Double toObject(double value) {
+        return Double.isNaN(value) ? null : value;
+    }
+}
@@ -2,6 +2,7 @@ package com.tcg.arena.service;
 
 import com.tcg.arena.dto.CardVoteRequest;
 import com.tcg.arena.dto.CardVoteStatsDTO;
+import com.tcg.arena.model.AchievementMetric;
 import com.tcg.arena.model.CardTemplate;
 import com.tcg.arena.model.CardVote;
 import com.tcg.arena.model.TCGType;
@@ -10,6 +11,7 @@ import com.tcg.arena.repository.CardTemplateRepository;
 import com.tcg.arena.repository.CardVoteRepository;
 import com.tcg.arena.repository.UserRepository;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
@@ -34,6 +36,9 @@ public class CardVoteService {
     @Autowired
     private StreakService streakService;
 
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
+
     @Transactional
     public CardVoteStatsDTO submitVote(Long cardTemplateId, CardVoteRequest request, Long userId) {
         // Record streak activity on every vote
@@ -80,6 +85,7 @@ public class CardVoteService {
                 vote.setVoteType(request.getVoteType());
                 vote.setVotedAt(LocalDateTime.now());
                 voteRepository.save(vote);
+                eventPublisher.publishEvent(new AchievementProgressEvent(userId, AchievementMetric.CARDS_VOTED, 1));
 
                 // Update counters
                 if (request.getVoteType() == CardVote.VoteType.LIKE) {
@@ -4,13 +4,17 @@ import com.tcg.arena.dto.*;
 import com.tcg.arena.model.*;
 import com.tcg.arena.repository.ChatConversationRepository;
 import com.tcg.arena.repository.ChatMessageRepository;
+import com.tcg.arena.repository.ChatReadMarkerRepository;
 import com.tcg.arena.repository.PendingReviewRepository;
 import com.tcg.arena.repository.UserRepository;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collections;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
@@ -19,18 +23,28 @@ import java.util.stream.Collectors;
 @Service
 public class ChatService {
 
+    // Message history paging
+    public static final int DEFAULT_PAGE_SIZE = 50;
+    public static final int MAX_PAGE_SIZE = 200;
+
     @Autowired
     private ChatConversationRepository conversationRepository;
 
     @Autowired
     private ChatMessageRepository messageRepository;
 
+    @Autowired
+    private ChatReadMarkerRepository readMarkerRepository;
+
     @Autowired
     private UserRepository userRepository;
 
     @Autowired
     private NotificationService notificationService;
 
+    @Autowired
+    private PointsLedger pointsLedger;
+
     // Quick helper to reuse Radar DTO mappings if needed, or implement simple
     // mapping
     @Autowired
@@ -42,8 +56,14 @@ public class ChatService {
     @Transactional(readOnly = true)
     public List<ChatConversationDto> getUserConversations(Long userId) {
         User user = userRepository.findById(userId).orElseThrow(() -> new RuntimeException("User not found"));
+
+        // Load all read watermarks of the user at once instead of one query per
+        // conversation
+        Map<Long, Long> watermarks = readMarkerRepository.findByUserId(userId).stream()
+                .collect(Collectors.toMap(ChatReadMarker::getConversationId, ChatReadMarker::getLastReadMessageId));
+
         return conversationRepository.findByUser(user).stream()
-                .map(c -> convertToDto(c, userId))
+                .map(c -> convertToDto(c, userId, watermarks.get(c.getId())))
                 .collect(Collectors.toList());
     }
 
@@ -140,6 +160,38 @@ public class ChatService {
                 .collect(Collectors.toList());
     }
 
+    /**
+     * Cursor-based history page, always returned oldest first.
+     * With afterId: messages newer than afterId (incremental sync).
+     * Otherwise: the latest messages older than beforeId (or the latest overall).
+     */
+    @Transactional(readOnly = true)
+    public List<ChatMessageDto> getMessagesPage(Long userId, Long conversationId, Long beforeId, Long afterId,
+            Integer limit) {
+        ChatConversation conversation = conversationRepository.findById(conversationId)
+                .orElseThrow(() -> new RuntimeException("Conversation not found"));
+
+        User user = userRepository.findById(userId).orElseThrow(() -> new RuntimeException("User not found"));
+        if (!conversation.getParticipants().contains(user)) {
+            throw new RuntimeException("User is not a participant");
+        }
+
+        int pageSize = limit != null ? Math.max(1, Math.min(limit, MAX_PAGE_SIZE)) : DEFAULT_PAGE_SIZE;
+
+        List<ChatMessage> messages;
+        if (afterId != null) {
+            messages = messageRepository.findPageAfter(conversationId, afterId, PageRequest.of(0, pageSize));
+        } else {
+            messages = new ArrayList<>(messageRepository.findPageBefore(conversationId,
+                    beforeId != null ? beforeId : Long.MAX_VALUE, PageRequest.of(0, pageSize)));
+            Collections.reverse(messages);
+        }
+
+        return messages.stream()
+                .map(this::convertToMessageDto)
+                .collect(Collectors.toList());
+    }
+
     @Transactional
     public void markConversationAsRead(Long userId, Long conversationId) {
         ChatConversation conversation = conversationRepository.findById(conversationId)
@@ -150,15 +202,26 @@ public class ChatService {
             throw new RuntimeException("User is not a participant");
         }
 
-        List<ChatMessage> unreadMessages = messageRepository.findUnreadByConversationAndRecipient(conversationId,
-                userId);
-        for (ChatMessage msg : unreadMessages) {
-            msg.setRead(true);
+        Long lastMessageId = messageRepository.findMaxIdByConversationId(conversationId);
+        if (lastMessageId == null) {
+            return;
         }
-        messageRepository.saveAll(unreadMessages);
+
+        readMarkerRepository.upsertWatermark(conversationId, userId, lastMessageId);
+
+        // Keep the per-message isRead flag (message DTOs, global unread badge) in sync
+        // with a single UPDATE
+        messageRepository.markReadUpTo(conversationId, userId, lastMessageId);
     }
 
     private ChatConversationDto convertToDto(ChatConversation conversation, Long currentUserId) {
+        Long watermark = readMarkerRepository.findByConversationIdAndUserId(conversation.getId(), currentUserId)
+                .map(ChatReadMarker::getLastReadMessageId)
+                .orElse(null);
+        return convertToDto(conversation, currentUserId, watermark);
+    }
+
+    private ChatConversationDto convertToDto(ChatConversation conversation, Long currentUserId, Long lastReadMessageId) {
         ChatConversationDto dto = new ChatConversationDto();
         dto.setId(conversation.getId());
         dto.setLastMessageAt(conversation.getLastMessageAt());
@@ -169,8 +232,11 @@ public class ChatService {
         dto.setAgreementReached(conversation.getAgreementReached()); // Can be null for active trades
         dto.setInitiatorId(conversation.getInitiatorId());
 
-        // Set unread count for current user
-        Long unreadCount = messageRepository.countUnreadByConversationAndRecipient(conversation.getId(), currentUserId);
+        // Set unread count for current user: compare against the read watermark,
+        // conversations never opened since watermarks exist fall back to the flags
+        Long unreadCount = lastReadMessageId != null
+                ? messageRepository.countFromOthersAfterId(conversation.getId(), currentUserId, lastReadMessageId)
+                : messageRepository.countUnreadByConversationAndRecipient(conversation.getId(), currentUserId);
         dto.setUnreadCount(unreadCount != null ? unreadCount.intValue() : 0);
 
         // Set last message preview
@@ -236,7 +302,7 @@ public class ChatService {
 
         if (otherUser != null && pointsToAssign > 0) {
             // Award points
-            otherUser.setPoints(otherUser.getPoints() + pointsToAssign);
+            pointsLedger.credit(otherUser.getId(), pointsToAssign, "Trade completato", null, null);
 
             // Add trade rating (points are used as rating 1-5)
             otherUser.addTradeRating(pointsToAssign);
@@ -321,6 +387,7 @@ public class ChatService {
 
         // Delete all messages first (due to foreign key constraints)
         messageRepository.deleteByConversationId(conversationId);
+        readMarkerRepository.deleteByConversationId(conversationId);
 
         // Delete the conversation
         conversationRepository.delete(conversation);
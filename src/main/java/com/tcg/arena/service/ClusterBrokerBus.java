@@ -0,0 +1,254 @@
+package com.tcg.arena.service;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Lazy;
+import org.springframework.messaging.Message;
+import org.springframework.messaging.MessageHeaders;
+import org.springframework.messaging.simp.SimpMessagingTemplate;
+import org.springframework.messaging.support.MessageBuilder;
+import org.springframework.stereotype.Service;
+import org.springframework.util.MimeTypeUtils;
+import org.springframework.web.reactive.function.client.WebClient;
+
+import jakarta.annotation.PreDestroy;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
+import java.util.stream.Collectors;
+
+/**
+ * Lightweight cluster bus between the instances of a multi-instance
+ * WebSocket broker mode.
+ *
+ * In "cluster" mode every instance keeps its in-process simple broker.
+ * Messages published to /topic on one instance are queued per destination,
+ * flushed in batches every few milliseconds and POSTed to the configured
+ * peers, which replay them into their own broker. Replayed messages carry
+ * the origin header so they are never forwarded again.
+ *
+ * In "relay" mode the external broker already delivers every message to
+ * every client, so the bus only carries the destinations with a remote
+ * listener (in-memory state such as the global chat buffer) and peers hand
+ * them to their listeners without replaying them into the broker.
+ */
+@Service
+public class ClusterBrokerBus {
+
+    private static final Logger logger = LoggerFactory.getLogger(ClusterBrokerBus.class);
+
+    public static final String ORIGIN_HEADER = "x-cluster-origin";
+    public static final String SECRET_HEADER = "X-Cluster-Secret";
+    public static final String PUBLISH_PATH = "/api/internal/cluster-bus/publish";
+
+    /**
+     * One forwarded broker message
+     */
+    public record Frame(byte[] payload, String contentType) {
+    }
+
+    /**
+     * Frames for a single destination, in publish order
+     */
+    public record Batch(String origin, String destination, List<Frame> frames) {
+    }
+
+    private final String instanceId = UUID.randomUUID().toString();
+    private final boolean enabled;
+    private final boolean replayToBroker;
+    private final List<String> peers;
+    private final byte[] secret;
+    private final int maxBatchSize;
+    private final int maxPending;
+
+    private final Map<String, ConcurrentLinkedQueue<Frame>> outbound = new ConcurrentHashMap<>();
+    private final AtomicInteger pending = new AtomicInteger();
+    private final AtomicLong dropped = new AtomicLong();
+    private final Map<String, List<Consumer<byte[]>>> remoteListeners = new ConcurrentHashMap<>();
+
+    private final WebClient webClient;
+    private ScheduledExecutorService flusher;
+
+    @Autowired
+    @Lazy
+    private SimpMessagingTemplate messagingTemplate;
+
+    public ClusterBrokerBus(WebClient.Builder webClientBuilder,
+            @Value("${app.websocket.broker.mode:simple}") String brokerMode,
+            @Value("${app.websocket.cluster.peers:}") String peers,
+            @Value("${app.websocket.cluster.secret:}") String secret,
+            @Value("${app.websocket.cluster.batch-window-ms:20}") long batchWindowMs,
+            @Value("${app.websocket.cluster.max-batch-size:200}") int maxBatchSize,
+            @Value("${app.websocket.cluster.max-pending:10000}") int maxPending) {
+        this.webClient = webClientBuilder.build();
+        this.peers = Arrays.stream(peers.split(","))
+                .map(String::trim)
+                .filter(peer -> !peer.isEmpty())
+                .map(peer -> peer.endsWith("/") ? peer.substring(0, peer.length() - 1) : peer)
+                .collect(Collectors.toList());
+        this.secret = secret.getBytes(StandardCharsets.UTF_8);
+        this.maxBatchSize = maxBatchSize;
+        this.maxPending = maxPending;
+        String mode = brokerMode.trim().toLowerCase();
+        this.replayToBroker = "cluster".equals(mode);
+        this.enabled = replayToBroker || "relay".equals(mode);
+
+        if (enabled) {
+            if (secret.isBlank()) {
+                logger.warn("Cluster bus enabled without app.websocket.cluster.secret, peers will reject our batches");
+            }
+            if (this.peers.isEmpty() && !replayToBroker) {
+                logger.warn("Relay broker mode without app.websocket.cluster.peers, "
+                        + "in-memory state (global chat buffer) only sees this instance's messages");
+            }
+            flusher = Executors.newSingleThreadScheduledExecutor(runnable -> {
+                Thread thread = new Thread(runnable, "cluster-bus-flusher");
+                thread.setDaemon(true);
+                return thread;
+            });
+            flusher.scheduleWithFixedDelay(this::flushSafely, batchWindowMs, batchWindowMs, TimeUnit.MILLISECONDS);
+            logger.info("Cluster broker bus started ({} mode, instance {}, peers {})", mode, instanceId, this.peers);
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        if (flusher != null) {
+            flusher.shutdown();
+            flushSafely();
+        }
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public int getPendingCount() {
+        return pending.get();
+    }
+
+    public long getDroppedCount() {
+        return dropped.get();
+    }
+
+    public boolean isValidSecret(String candidate) {
+        return enabled && secret.length > 0 && candidate != null
+                && MessageDigest.isEqual(secret, candidate.getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * Register a callback for messages replayed from other instances (e.g. to
+     * keep in-memory state such as the global chat buffer in sync)
+     */
+    public void onRemoteMessage(String destination, Consumer<byte[]> listener) {
+        remoteListeners.computeIfAbsent(destination, key -> new CopyOnWriteArrayList<>()).add(listener);
+    }
+
+    /**
+     * Queue a locally published broker message for the peers. In relay mode
+     * only destinations with a remote listener are forwarded.
+     */
+    public void publish(String destination, byte[] payload, String contentType) {
+        if (!enabled || peers.isEmpty() || (!replayToBroker && !remoteListeners.containsKey(destination))) {
+            return;
+        }
+        if (pending.incrementAndGet() > maxPending) {
+            pending.decrementAndGet();
+            dropped.incrementAndGet();
+            logger.warn("Cluster bus queue full, dropping message for {}", destination);
+            return;
+        }
+        outbound.computeIfAbsent(destination, key -> new ConcurrentLinkedQueue<>())
+                .add(new Frame(payload, contentType));
+    }
+
+    /**
+     * Replay batches received from a peer into the local broker (cluster
+     * mode) and hand them to the remote listeners
+     */
+    public void receive(List<Batch> batches) {
+        for (Batch batch : batches) {
+            if (instanceId.equals(batch.origin())) {
+                continue;
+            }
+            List<Consumer<byte[]>> listeners = remoteListeners.getOrDefault(batch.destination(), List.of());
+            for (Frame frame : batch.frames()) {
+                if (replayToBroker) {
+                    MessageBuilder<byte[]> builder = MessageBuilder.withPayload(frame.payload())
+                            .setHeader(ORIGIN_HEADER, batch.origin());
+                    if (frame.contentType() != null) {
+                        builder.setHeader(MessageHeaders.CONTENT_TYPE,
+                                MimeTypeUtils.parseMimeType(frame.contentType()));
+                    }
+                    Message<byte[]> message = builder.build();
+                    messagingTemplate.send(batch.destination(), message);
+                }
+
+                for (Consumer<byte[]> listener : listeners) {
+                    try {
+                        listener.accept(frame.payload());
+                    } catch (Exception e) {
+                        logger.warn("Remote message listener for {} failed: {}", batch.destination(), e.getMessage());
+                    }
+                }
+            }
+        }
+    }
+
+    private void flushSafely() {
+        try {
+            flush();
+        } catch (Exception e) {
+            logger.error("Cluster bus flush failed", e);
+        }
+    }
+
+    private void flush() {
+        List<Batch> batches = new ArrayList<>();
+        for (Map.Entry<String, ConcurrentLinkedQueue<Frame>> entry : outbound.entrySet()) {
+            List<Frame> frames = new ArrayList<>();
+            Frame frame;
+            while (frames.size() < maxBatchSize && (frame = entry.getValue().poll()) != null) {
+                frames.add(frame);
+            }
+            if (!frames.isEmpty()) {
+                pending.addAndGet(-frames.size());
+                batches.add(new Batch(instanceId, entry.getKey(), frames));
+            }
+        }
+        if (batches.isEmpty()) {
+            return;
+        }
+
+        String secretValue = new String(secret, StandardCharsets.UTF_8);
+        for (String peer : peers) {
+            webClient.post()
+                    .uri(peer + PUBLISH_PATH)
+                    .header(SECRET_HEADER, secretValue)
+                    .bodyValue(batches)
+                    .retrieve()
+                    .toBodilessEntity()
+                    .timeout(Duration.ofSeconds(5))
+                    .subscribe(
+                            response -> {
+                            },
+                            error -> logger.warn("Cluster bus delivery to {} failed: {}", peer, error.getMessage()));
+        }
+    }
+}
@@ -0,0 +1,281 @@
+package com.tcg.arena.service;
+
+import com.tcg.arena.dto.UserCollectionDTO;
+import com.tcg.arena.model.Rarity;
+import com.tcg.arena.model.TCGType;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.nio.charset.StandardCharsets;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.List;
+import java.util.function.Consumer;
+
+/**
+ * Read side of a user's collection: flat card rows from one user_cards /
+ * card_templates join, filtered and sorted in SQL.
+ *
+ * Pages use keyset pagination on (sort value, user card id): the cursor
+ * carries the last row's values, so a page costs the same wherever it is
+ * and rows added or removed meanwhile do not shift the next page. The
+ * export streams the same rows ordered by last modification, which lets a
+ * client sync incrementally with modifiedSince.
+ *
+ * Sort expressions never yield NULL (a NULL would drop the row from the
+ * keyset comparison), so nullable columns are coalesced to the same
+ * fallback in SQL and in the cursor. last_modified is backfilled at
+ * startup and set on every write, so it is sorted as the plain column and
+ * served by the (owner_id, last_modified, id) index.
+ */
+@Service
+public class CollectionQueryService {
+
+    private static final Logger logger = LoggerFactory.getLogger(CollectionQueryService.class);
+
+    public static final int DEFAULT_PAGE_SIZE = 50;
+    public static final int MAX_PAGE_SIZE = 200;
+
+    private static final int EXPORT_FETCH_SIZE = 500;
+
+    // Sort value of a card without a date
+    private static final LocalDateTime NO_DATE = LocalDateTime.of(1970, 1, 1, 0, 0);
+
+    private static final String SELECT_SQL = "SELECT uc.id, uc.card_template_id, ct.name, ct.tcg_type, ct.set_code, "
+            + "ct.card_number, ct.rarity, ct.image_url, ct.market_price, uc.condition, uc.is_graded, "
+            + "uc.grade_service, uc.grade_score, uc.purchase_price, COALESCE(uc.nationality, 'EN'), uc.deck_id, "
+            + "uc.date_added, uc.last_modified "
+            + "FROM user_cards uc JOIN card_templates ct ON ct.id = uc.card_template_id "
+            + "WHERE uc.owner_id = ?";
+
+    public enum Sort {
+        DATE_ADDED("COALESCE(uc.date_added, TIMESTAMP '1970-01-01 00:00:00')"),
+        LAST_MODIFIED("uc.last_modified"),
+        NAME("COALESCE(ct.name, '')"),
+        VALUE("COALESCE(ct.market_price, 0)");
+
+        private final String expression;
+
+        Sort(String expression) {
+            this.expression = expression;
+        }
+    }
+
+    /**
+     * Optional filters, all combined with AND
+     */
+    public static class Filter {
+        private TCGType tcgType;
+        private String setCode;
+        private Rarity rarity;
+        private Double minValue;
+        private Double maxValue;
+        private LocalDateTime modifiedSince;
+
+        public Filter(TCGType tcgType, String setCode, Rarity rarity, Double minValue, Double maxValue,
+                LocalDateTime modifiedSince) {
+            this.tcgType = tcgType;
+            this.setCode = setCode;
+            this.rarity = rarity;
+            this.minValue = minValue;
+            this.maxValue = maxValue;
+            this.modifiedSince = modifiedSince;
+        }
+    }
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    /**
+     * Same schema change as V46, for databases where migrations are not run.
+     * Runs once the JPA schema update created user_cards.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void ensureLastModified() {
+        try {
+            jdbcTemplate.execute("ALTER TABLE user_cards ADD COLUMN IF NOT EXISTS last_modified TIMESTAMP");
+            int backfilled = jdbcTemplate.update("UPDATE user_cards SET last_modified = COALESCE(date_added, NOW()) "
+                    + "WHERE last_modified IS NULL");
+            if (backfilled > 0) {
+                logger.info("Backfilled last_modified of {} user cards", backfilled);
+            }
+            jdbcTemplate.execute("CREATE INDEX IF NOT EXISTS idx_user_cards_owner_last_modified "
+                    + "ON user_cards (owner_id, last_modified, id)");
+        } catch (Exception e) {
+            logger.error("Failed to prepare user_cards.last_modified", e);
+        }
+    }
+
+    /**
+     * One page of the collection after the given cursor (null for the first
+     * page). Throws IllegalArgumentException for a malformed cursor.
+     */
+    public UserCollectionDTO.Page getCollectionPage(Long userId, Filter filter, Sort sort, boolean descending,
+            String cursor, Integer limit) {
+        int pageSize = limit != null ? Math.max(1, Math.min(limit, MAX_PAGE_SIZE)) : DEFAULT_PAGE_SIZE;
+
+        StringBuilder sql = new StringBuilder(SELECT_SQL);
+        List<Object> args = new ArrayList<>();
+        args.add(userId);
+        appendFilter(sql, args, filter);
+
+        if (cursor != null && !cursor.isEmpty()) {
+            Object[] position = decodeCursor(cursor, sort);
+            sql.append(" AND (").append(sort.expression).append(", uc.id) ")
+                    .append(descending ? "<" : ">").append(" (?, ?)");
+            args.add(position[1]);
+            args.add(position[0]);
+        }
+
+        String direction = descending ? " DESC" : " ASC";
+        sql.append(" ORDER BY ").append(sort.expression).append(direction).append(", uc.id").append(direction)
+                .append(" LIMIT ?");
+        // One extra row tells whether there is a next page
+        args.add(pageSize + 1);
+
+        List<UserCollectionDTO.Card> cards = jdbcTemplate.query(sql.toString(),
+                (rs, rowNum) -> mapCard(rs), args.toArray());
+
+        String nextCursor = null;
+        if (cards.size() > pageSize) {
+            cards = new ArrayList<>(cards.subList(0, pageSize));
+            nextCursor = encodeCursor(cards.get(pageSize - 1), sort);
+        }
+        return new UserCollectionDTO.Page(cards, nextCursor);
+    }
+
+    /**
+     * Stream every matching card, oldest modification first, without
+     * loading the collection in memory
+     */
+    @Transactional(readOnly = true)
+    public void streamCollection(Long userId, Filter filter, Consumer<UserCollectionDTO.Card> consumer) {
+        StringBuilder sql = new StringBuilder(SELECT_SQL);
+        List<Object> args = new ArrayList<>();
+        args.add(userId);
+        appendFilter(sql, args, filter);
+        sql.append(" ORDER BY ").append(Sort.LAST_MODIFIED.expression).append(", uc.id");
+
+        jdbcTemplate.query(con -> {
+            PreparedStatement ps = con.prepareStatement(sql.toString());
+            // Needs the surrounding transaction: the driver only streams with autocommit off
+            ps.setFetchSize(EXPORT_FETCH_SIZE);
+            for (int i = 0; i < args.size(); i++) {
+                ps.setObject(i + 1, args.get(i));
+            }
+            return ps;
+        }, rs -> {
+            consumer.accept(mapCard(rs));
+        });
+    }
+
+    private void appendFilter(StringBuilder sql, List<Object> args, Filter filter) {
+        if (filter == null) {
+            return;
+        }
+        if (filter.tcgType != null) {
+            sql.append(" AND ct.tcg_type = ?");
+            args.add(filter.tcgType.name());
+        }
+        if (filter.setCode != null && !filter.setCode.isEmpty()) {
+            sql.append(" AND ct.set_code = ?");
+            args.add(filter.setCode);
+        }
+        if (filter.rarity != null) {
+            sql.append(" AND ct.rarity = ?");
+            args.add(filter.rarity.name());
+        }
+        if (filter.minValue != null) {
+            sql.append(" AND ct.market_price >= ?");
+            args.add(filter.minValue);
+        }
+        if (filter.maxValue != null) {
+            sql.append(" AND ct.market_price <= ?");
+            args.add(filter.maxValue);
+        }
+        if (filter.modifiedSince != null) {
+            sql.append(" AND ").append(Sort.LAST_MODIFIED.expression).append(" > ?");
+            args.add(Timestamp.valueOf(filter.modifiedSince));
+        }
+    }
+
+    private static UserCollectionDTO.Card mapCard(ResultSet rs) throws SQLException {
+        UserCollectionDTO.Card card = new UserCollectionDTO.Card();
+        card.setId(rs.getLong(1));
+        card.setCardTemplateId(rs.getLong(2));
+        card.setName(rs.getString(3));
+        card.setTcgType(rs.getString(4));
+        card.setSetCode(rs.getString(5));
+        card.setCardNumber(rs.getString(6));
+        card.setRarity(rs.getString(7));
+        card.setImageUrl(rs.getString(8));
+        card.setMarketPrice(rs.getObject(9, Double.class));
+        card.setCondition(rs.getString(10));
+        card.setIsGraded(rs.getObject(11, Boolean.class));
+        card.setGradeService(rs.getString(12));
+        card.setGradeScore(rs.getObject(13, Integer.class));
+        card.setPurchasePrice(rs.getObject(14, Double.class));
+        card.setNationality(rs.getString(15));
+        card.setDeckId(rs.getObject(16, Long.class));
+        card.setDateAdded(rs.getObject(17, LocalDateTime.class));
+        card.setLastModified(rs.getObject(18, LocalDateTime.class));
+        return card;
+    }
+
+    // Cursor: base64url of "<user card id>|<sort value of the row>"
+    private static String encodeCursor(UserCollectionDTO.Card card, Sort sort) {
+        String value;
+        switch (sort) {
+            case LAST_MODIFIED:
+                value = orNoDate(card.getLastModified()).toString();
+                break;
+            case NAME:
+                value = card.getName() != null ? card.getName() : "";
+                break;
+            case VALUE:
+                value = String.valueOf(card.getMarketPrice() != null ? card.getMarketPrice() : 0.0);
+                break;
+            default:
+                value = orNoDate(card.getDateAdded()).toString();
+        }
+        return Base64.getUrlEncoder().withoutPadding()
+                .encodeToString((card.getId() + "|" + value).getBytes(StandardCharsets.UTF_8));
+    }
+
+    private static LocalDateTime orNoDate(LocalDateTime date) {
+        return date != null ? date : NO_DATE;
+    }
+
+    private static Object[] decodeCursor(String cursor, Sort sort) {
+        try {
+            String decoded = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+            String[] parts = decoded.split("\\|", 2);
+            Long id = Long.parseLong(parts[0]);
+            Object value;
+            switch (sort) {
+                case NAME:
+                    value = parts[1];
+                    break;
+                case VALUE:
+                    value = Double.parseDouble(parts[1]);
+                    break;
+                default:
+                    value = Timestamp.valueOf(LocalDateTime.parse(parts[1]));
+            }
+            return new Object[] { id, value };
+        } catch (RuntimeException e) {
+            throw new IllegalArgumentException("Invalid cursor");
+        }
+    }
+}
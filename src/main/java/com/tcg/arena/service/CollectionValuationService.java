@@ -0,0 +1,198 @@
+package com.tcg.arena.service;
+
+import com.tcg.arena.dto.CollectionValueDTO;
+import com.tcg.arena.model.CardTemplate;
+import com.tcg.arena.model.TCGType;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+import java.util.List;
+
+/**
+ * Materialized card count and market value of each user's collection, per
+ * TCG, in user_collection_values.
+ *
+ * A user's rows are built with one aggregate query the first time the value
+ * is read. From then on adding or removing a card adjusts the row of its TCG
+ * by one card and its current market price, and after every price refresh
+ * (JustTCG refresh or Magic delta import) the rows of that TCG are recomputed
+ * for all valued collections with one set-based statement (which also
+ * corrects any drift of the incremental updates).
+ * Each re-price appends the users' new totals to the collection value
+ * history in {@link PriceHistoryService}. Re-prices run one at a time across
+ * instances (transaction-scoped advisory lock), so each one reads the totals
+ * committed by the previous one and history samples stay in order.
+ */
+@Service
+public class CollectionValuationService {
+
+    private static final Logger logger = LoggerFactory.getLogger(CollectionValuationService.class);
+
+    private static final String MARKET_VALUE_SUM = "CAST(COALESCE(SUM(ct.market_price), 0) AS NUMERIC(14,2))";
+
+    private static final String MATERIALIZE_SQL = "INSERT INTO user_collection_values "
+            + "(user_id, tcg_type, card_count, market_value, updated_at) "
+            + "SELECT uc.owner_id, ct.tcg_type, COUNT(*), " + MARKET_VALUE_SUM + ", NOW() "
+            + "FROM user_cards uc JOIN card_templates ct ON ct.id = uc.card_template_id "
+            + "WHERE uc.owner_id = ? GROUP BY uc.owner_id, ct.tcg_type "
+            + "ON CONFLICT (user_id, tcg_type) DO NOTHING";
+
+    // Only users already materialized are adjusted, the others are built on first read
+    private static final String ADJUST_SQL = "INSERT INTO user_collection_values "
+            + "(user_id, tcg_type, card_count, market_value, updated_at) "
+            + "SELECT ?, ?, ?, ?, NOW() WHERE EXISTS (SELECT 1 FROM user_collection_values WHERE user_id = ?) "
+            + "ON CONFLICT (user_id, tcg_type) DO UPDATE SET "
+            + "card_count = user_collection_values.card_count + EXCLUDED.card_count, "
+            + "market_value = user_collection_values.market_value + EXCLUDED.market_value, "
+            + "updated_at = EXCLUDED.updated_at";
+
+    private static final String REPRICE_SQL = "INSERT INTO user_collection_values "
+            + "(user_id, tcg_type, card_count, market_value, updated_at) "
+            + "SELECT uc.owner_id, ct.tcg_type, COUNT(*), " + MARKET_VALUE_SUM + ", NOW() "
+            + "FROM user_cards uc JOIN card_templates ct ON ct.id = uc.card_template_id "
+            + "WHERE ct.tcg_type = ? AND uc.owner_id IN (SELECT DISTINCT user_id FROM user_collection_values) "
+            + "GROUP BY uc.owner_id, ct.tcg_type "
+            + "ON CONFLICT (user_id, tcg_type) DO UPDATE SET card_count = EXCLUDED.card_count, "
+            + "market_value = EXCLUDED.market_value, updated_at = EXCLUDED.updated_at";
+
+    private static final String CLEAR_EMPTY_SQL = "UPDATE user_collection_values v "
+            + "SET card_count = 0, market_value = 0, updated_at = NOW() "
+            + "WHERE v.tcg_type = ? AND v.card_count <> 0 AND NOT EXISTS (SELECT 1 FROM user_cards uc "
+            + "JOIN card_templates ct ON ct.id = uc.card_template_id "
+            + "WHERE uc.owner_id = v.user_id AND ct.tcg_type = v.tcg_type)";
+
+    private static final String USER_TOTALS_SQL = "SELECT user_id, SUM(market_value) FROM user_collection_values "
+            + "WHERE user_id IN (SELECT user_id FROM user_collection_values WHERE tcg_type = ?) GROUP BY user_id";
+
+    // Advisory lock key of repriceCollections
+    private static final long REPRICE_LOCK_KEY = PriceHistoryCodec.hash64("user_collection_values.reprice");
+
+    private static final String VALUES_SQL = "SELECT tcg_type, card_count, market_value FROM user_collection_values "
+            + "WHERE user_id = ? ORDER BY market_value DESC, tcg_type";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final PriceHistoryService priceHistoryService;
+
+    public CollectionValuationService(JdbcTemplate jdbcTemplate, PriceHistoryService priceHistoryService) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.priceHistoryService = priceHistoryService;
+        createTableIfNotExists();
+    }
+
+    // Same schema as V45, for databases where migrations are not run
+    private void createTableIfNotExists() {
+        try {
+            jdbcTemplate.execute("""
+                CREATE TABLE IF NOT EXISTS user_collection_values (
+                    user_id BIGINT NOT NULL,
+                    tcg_type VARCHAR(30) NOT NULL,
+                    card_count INTEGER NOT NULL DEFAULT 0,
+                    market_value NUMERIC(14,2) NOT NULL DEFAULT 0,
+                    updated_at TIMESTAMP NOT NULL DEFAULT NOW(),
+                    PRIMARY KEY (user_id, tcg_type)
+                )
+                """);
+            jdbcTemplate.execute(
+                    "CREATE INDEX IF NOT EXISTS idx_user_collection_values_tcg_type ON user_collection_values (tcg_type)");
+        } catch (Exception e) {
+            logger.error("Failed to create user_collection_values table", e);
+        }
+    }
+
+    /**
+     * Card count and market value of a user's collection, built on first call
+     */
+    @Transactional
+    public CollectionValueDTO getCollectionValue(Long userId) {
+        List<CollectionValueDTO.TcgValue> byTcg = loadValues(userId);
+        if (byTcg.isEmpty()) {
+            int rows = jdbcTemplate.update(MATERIALIZE_SQL, userId);
+            if (rows > 0) {
+                byTcg = loadValues(userId);
+                recordFirstSample(userId, byTcg);
+            }
+        }
+
+        long cardCount = 0;
+        BigDecimal marketValue = BigDecimal.ZERO;
+        for (CollectionValueDTO.TcgValue value : byTcg) {
+            cardCount += value.getCardCount();
+            marketValue = marketValue.add(value.getMarketValue());
+        }
+        return new CollectionValueDTO(cardCount, marketValue, byTcg);
+    }
+
+    public void cardAdded(Long userId, CardTemplate cardTemplate) {
+        adjust(userId, cardTemplate, 1);
+    }
+
+    public void cardRemoved(Long userId, CardTemplate cardTemplate) {
+        adjust(userId, cardTemplate, -1);
+    }
+
+    private void adjust(Long userId, CardTemplate cardTemplate, int cards) {
+        if (cardTemplate == null || cardTemplate.getTcgType() == null) {
+            return;
+        }
+        BigDecimal price = cardTemplate.getMarketPrice() != null
+                ? BigDecimal.valueOf(cardTemplate.getMarketPrice())
+                : BigDecimal.ZERO;
+        jdbcTemplate.update(ADJUST_SQL, userId, cardTemplate.getTcgType().name(), cards,
+                price.multiply(BigDecimal.valueOf(cards)), userId);
+    }
+
+    /**
+     * Recompute the collection rows of a TCG from the current prices and
+     * record the new totals of the users owning cards of it
+     */
+    @Transactional
+    public void repriceCollections(TCGType tcgType) {
+        long start = System.currentTimeMillis();
+        // Released at commit, after the history samples are written
+        jdbcTemplate.query("SELECT pg_advisory_xact_lock(?)", rs -> {
+        }, REPRICE_LOCK_KEY);
+        int repriced = jdbcTemplate.update(REPRICE_SQL, tcgType.name());
+        int cleared = jdbcTemplate.update(CLEAR_EMPTY_SQL, tcgType.name());
+
+        PriceHistoryService.Batch history = priceHistoryService
+                .newBatch(PriceHistoryService.SeriesType.COLLECTION_VALUE, Instant.now());
+        jdbcTemplate.query(USER_TOTALS_SQL, rs -> {
+            history.add(rs.getLong(1), rs.getBigDecimal(2).doubleValue());
+        }, tcgType.name());
+        history.flush();
+
+        logger.info("[COLLECTION VALUE] [{}] Re-priced {} collections ({} emptied), {} history samples in {}ms",
+                tcgType, repriced, cleared, history.getWritten(), System.currentTimeMillis() - start);
+    }
+
+    /**
+     * Recorded total values of a user's collection between from and to
+     */
+    public List<PriceHistoryService.PricePoint> getValueHistory(Long userId, Instant from, Instant to,
+            int maxPoints) {
+        return priceHistoryService.getSeries(PriceHistoryService.SeriesType.COLLECTION_VALUE, userId, from, to,
+                maxPoints);
+    }
+
+    private List<CollectionValueDTO.TcgValue> loadValues(Long userId) {
+        return jdbcTemplate.query(VALUES_SQL, (rs, rowNum) -> new CollectionValueDTO.TcgValue(
+                TCGType.valueOf(rs.getString(1)), rs.getInt(2), rs.getBigDecimal(3)), userId);
+    }
+
+    // History starts when the collection is first valued
+    private void recordFirstSample(Long userId, List<CollectionValueDTO.TcgValue> byTcg) {
+        double total = 0;
+        for (CollectionValueDTO.TcgValue value : byTcg) {
+            total += value.getMarketValue().doubleValue();
+        }
+        PriceHistoryService.Batch history = priceHistoryService
+                .newBatch(PriceHistoryService.SeriesType.COLLECTION_VALUE, Instant.now());
+        history.add(userId, total);
+        history.flush();
+    }
+}
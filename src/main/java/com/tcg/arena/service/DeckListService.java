@@ -0,0 +1,241 @@
+package com.tcg.arena.service;
+
+import com.tcg.arena.dto.DeckDiffDTO;
+import com.tcg.arena.dto.DeckListDTO;
+import com.tcg.arena.model.Deck;
+import com.tcg.arena.model.DeckType;
+import com.tcg.arena.model.TCGType;
+import com.tcg.arena.repository.DeckCardRepository;
+import com.tcg.arena.repository.DeckRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Locale;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Deck lists as text, in the formats players paste from other clients:
+ * MTG Arena/MTGO ("4 Lightning Bolt (M10) 146", "Sideboard" header or "SB:"
+ * prefix) and Pokemon TCG Live ("4 Pikachu ex SVI 57" under "Pokémon: 12"
+ * style headers). Set code and number are optional.
+ *
+ * Names are resolved through {@link CardNameDictionary} and the deck is
+ * written with one bulk diff, so an import is a handful of queries whatever
+ * the list size.
+ */
+@Service
+public class DeckListService {
+
+    private static final Logger logger = LoggerFactory.getLogger(DeckListService.class);
+
+    // "4 Name ...", "4x Name ..."
+    private static final Pattern CARD_LINE = Pattern.compile("^(\\d+)\\s*[xX]?\\s+(.+)$");
+    // "Lightning Bolt (M10) 146", number optional
+    private static final Pattern ARENA_PRINTING = Pattern.compile("^(.+?)\\s+\\(([^)]+)\\)(?:\\s+(\\S+))?$");
+    // "Pikachu ex SVI 57": upper case set code and collector number at the end
+    private static final Pattern PTCGL_PRINTING = Pattern.compile("^(.+?)\\s+([A-Z][A-Z0-9-]{1,7})\\s+([A-Za-z0-9-]+)$");
+    // "Pokémon: 12", "Sideboard", "Deck"
+    private static final Pattern HEADER_COUNT = Pattern.compile("[:\\s]*\\(?\\d*\\)?\\s*$");
+
+    // Highest quantity accepted on one line, larger ones are reported as line errors
+    private static final int MAX_QUANTITY = 999;
+
+    private static final List<String> SECTION_ORDER = List.of("MAIN", "SIDE", "EXTRA");
+
+    @Autowired
+    private CardNameDictionary cardNameDictionary;
+
+    @Autowired
+    private DeckService deckService;
+
+    @Autowired
+    private DeckRepository deckRepository;
+
+    @Autowired
+    private DeckCardRepository deckCardRepository;
+
+    /**
+     * Create a deck from a pasted list. Lines that cannot be resolved or have
+     * a quantity over the maximum are returned with the reason, not fatal; a list with no resolvable card is rejected.
+     */
+    @Transactional
+    public DeckListDTO.ImportResponse importDeckList(String text, String name, TCGType tcgType, DeckType deckType,
+            Long userId) {
+        long start = System.currentTimeMillis();
+
+        List<DeckDiffDTO.CardEntry> cards = new ArrayList<>();
+        List<DeckListDTO.UnresolvedLine> unresolved = new ArrayList<>();
+        int cardCount = 0;
+
+        String section = "MAIN";
+        String[] lines = text.split("\\r?\\n");
+        for (int i = 0; i < lines.length; i++) {
+            String line = lines[i].trim();
+            if (line.isEmpty() || line.startsWith("//") || line.startsWith("#")
+                    || line.toLowerCase(Locale.ROOT).startsWith("total cards")) {
+                continue;
+            }
+
+            String lineSection = section;
+            if (line.regionMatches(true, 0, "SB:", 0, 3)) {
+                line = line.substring(3).trim();
+                lineSection = "SIDE";
+            }
+
+            Matcher card = CARD_LINE.matcher(line);
+            if (!card.matches()) {
+                section = sectionOf(line);
+                continue;
+            }
+
+            // Too many digits would overflow an int, and is over the maximum anyway
+            String digits = card.group(1);
+            int quantity = digits.length() <= 4 ? Integer.parseInt(digits) : Integer.MAX_VALUE;
+            if (quantity > MAX_QUANTITY) {
+                unresolved.add(new DeckListDTO.UnresolvedLine(i + 1, lines[i],
+                        "Quantity over " + MAX_QUANTITY));
+                continue;
+            }
+            Long templateId = resolve(tcgType, card.group(2).trim());
+            if (templateId == null) {
+                unresolved.add(new DeckListDTO.UnresolvedLine(i + 1, lines[i], "Card not found"));
+            } else if (quantity > 0) {
+                cards.add(new DeckDiffDTO.CardEntry(templateId, quantity, lineSection));
+                cardCount += quantity;
+            }
+        }
+
+        if (cards.isEmpty()) {
+            throw new RuntimeException("No card of the deck list could be matched");
+        }
+
+        Deck deck = deckService.createDeck(name, null, tcgType, deckType, userId);
+        DeckDiffDTO.Request request = new DeckDiffDTO.Request();
+        request.setReplace(true);
+        request.setCards(cards);
+        Deck importedDeck = deckService.applyDeckDiff(deck.getId(), request, userId, false).getDeck();
+
+        logger.debug("Deck list imported: deckId={} userId={} tcgType={} lines={} cards={} unresolved={} in {}ms",
+                importedDeck.getId(), userId, tcgType, lines.length, cardCount, unresolved.size(),
+                System.currentTimeMillis() - start);
+        return new DeckListDTO.ImportResponse(importedDeck, cardCount, unresolved);
+    }
+
+    /**
+     * Rows of a deck in export order (main, side, extra, other sections),
+     * loaded with one query. Returns null when the deck does not exist.
+     */
+    @Transactional(readOnly = true)
+    public DeckListExport exportDeckList(Long deckId) {
+        Deck deck = deckRepository.findById(deckId).orElse(null);
+        if (deck == null) {
+            return null;
+        }
+        List<Object[]> rows = new ArrayList<>(deckCardRepository.findExportRowsByDeckId(deckId));
+        rows.sort(Comparator.comparingInt(row -> sectionRank((String) row[1])));
+        return new DeckListExport(deck.getTcgType(), rows);
+    }
+
+    private Long resolve(TCGType tcgType, String cardText) {
+        Matcher arena = ARENA_PRINTING.matcher(cardText);
+        if (arena.matches()) {
+            Long id = cardNameDictionary.resolve(tcgType, arena.group(1), arena.group(2), arena.group(3));
+            if (id != null) {
+                return id;
+            }
+        }
+        Matcher ptcgl = PTCGL_PRINTING.matcher(cardText);
+        if (ptcgl.matches()) {
+            Long id = cardNameDictionary.resolve(tcgType, ptcgl.group(1), ptcgl.group(2), ptcgl.group(3));
+            if (id != null) {
+                return id;
+            }
+        }
+        // No printing suffix, or the suffix is part of the name
+        return cardNameDictionary.resolve(tcgType, cardText, null, null);
+    }
+
+    private static String sectionOf(String header) {
+        String title = HEADER_COUNT.matcher(header).replaceAll("").toLowerCase(Locale.ROOT);
+        if (title.startsWith("side")) {
+            return "SIDE";
+        }
+        if (title.startsWith("extra")) {
+            return "EXTRA";
+        }
+        // Deck, Main, Commander, Pokémon, Trainer, Energy...
+        return "MAIN";
+    }
+
+    private static int sectionRank(String section) {
+        int rank = SECTION_ORDER.indexOf(section != null ? section : "MAIN");
+        return rank >= 0 ? rank : SECTION_ORDER.size();
+    }
+
+    /**
+     * Deck list text of a deck, written line by line. Pokemon decks use the
+     * Pokemon TCG Live format, the others the MTG Arena one with a header per
+     * section; both are accepted by importDeckList.
+     */
+    public static class DeckListExport {
+        private final TCGType tcgType;
+        private final List<Object[]> rows;
+
+        DeckListExport(TCGType tcgType, List<Object[]> rows) {
+            this.tcgType = tcgType;
+            this.rows = rows;
+        }
+
+        public void writeTo(Writer writer) throws IOException {
+            boolean ptcgl = tcgType == TCGType.POKEMON || tcgType == TCGType.POKEMON_JAPAN;
+            String currentSection = null;
+            for (Object[] row : rows) {
+                String section = row[1] != null ? (String) row[1] : "MAIN";
+                if (!ptcgl && !section.equals(currentSection)) {
+                    if (currentSection != null) {
+                        writer.write('\n');
+                    }
+                    writer.write(sectionTitle(section));
+                    writer.write('\n');
+                }
+                currentSection = section;
+
+                writer.write(String.valueOf(row[0]));
+                writer.write(' ');
+                writer.write((String) row[2]);
+                String setCode = (String) row[3];
+                if (setCode != null) {
+                    writer.write(ptcgl ? " " + setCode : " (" + setCode + ")");
+                    if (row[4] != null) {
+                        writer.write(' ');
+                        writer.write((String) row[4]);
+                    }
+                }
+                writer.write('\n');
+            }
+            writer.flush();
+        }
+
+        private static String sectionTitle(String section) {
+            switch (section) {
+                case "MAIN":
+                    return "Deck";
+                case "SIDE":
+                    return "Sideboard";
+                case "EXTRA":
+                    return "Extra";
+                default:
+                    return section.isEmpty() ? "Deck" : section.substring(0, 1) + section.substring(1).toLowerCase(Locale.ROOT);
+            }
+        }
+    }
+}
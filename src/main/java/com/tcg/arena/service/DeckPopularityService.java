@@ -0,0 +1,396 @@
+package com.tcg.arena.service;
+
+import com.tcg.arena.model.TCGType;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeSet;
+
+/**
+ * In-memory deck rankings: popular (total likes) and trending (likes with
+ * exponential time decay), overall and per TCG.
+ *
+ * Only visible decks with at least one like are ranked. The rankings are
+ * loaded at startup from decks and deck_likes and then kept sorted by the
+ * like, unlike and deck update paths (after commit), so reading the top K
+ * is a walk of K entries. A deck's TCG and hidden flag only change through
+ * deckUpdated; a like only brings them for a deck not tracked yet.
+ *
+ * Each instance only sees its own likes and deck updates. With several
+ * instances (cluster or relay broker mode) the rankings are therefore
+ * reloaded from the database every deck-popularity.rebuild-interval-ms.
+ * Changes applied while a load runs are replayed on the loaded rankings;
+ * one already in the loaded rows then counts twice until the next load.
+ *
+ * A trending score is the sum over the deck's likes of
+ * 2^((likedAt - EPOCH) / halfLife), kept as its natural log. Every score
+ * decays at the same rate, so the order never changes with time alone and
+ * a like or unlike only moves its own deck.
+ */
+@Service
+public class DeckPopularityService {
+
+    private static final Logger logger = LoggerFactory.getLogger(DeckPopularityService.class);
+
+    // Reference time of the trending scores, keeps the exponents small
+    private static final long EPOCH_SECONDS = LocalDateTime.of(2024, 1, 1, 0, 0)
+            .atZone(ZoneId.systemDefault()).toEpochSecond();
+
+    // Likes older than this many half-lives weigh less than 0.1% and are not loaded
+    private static final int LOADED_HALF_LIVES = 10;
+
+    private static final String LOAD_DECKS_SQL = "SELECT id, tcg_type, likes, is_hidden FROM decks WHERE likes > 0";
+
+    private static final String LOAD_LIKES_SQL = "SELECT l.deck_id, l.date_created FROM deck_likes l "
+            + "JOIN decks d ON d.id = l.deck_id WHERE l.date_created > ?";
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private ClusterBrokerBus clusterBus;
+
+    @Value("${deck-popularity.trending-half-life-hours:72}")
+    private double halfLifeHours;
+
+    // Replaced as a whole by every load, all guarded by the service lock
+    private Map<Long, DeckState> decks = new HashMap<>();
+    private Ranking popular = new Ranking();
+    private Ranking trending = new Ranking();
+    private Map<TCGType, Ranking> popularByTcg = new EnumMap<>(TCGType.class);
+    private Map<TCGType, Ranking> trendingByTcg = new EnumMap<>(TCGType.class);
+
+    // Changes applied while a load runs, replayed on the loaded rankings; null otherwise
+    private List<Runnable> changesWhileLoading;
+
+    private volatile boolean loaded = false;
+
+    public boolean isLoaded() {
+        return loaded;
+    }
+
+    /**
+     * Ids of the most liked visible decks, best first
+     */
+    public synchronized List<Long> getPopularDeckIds(TCGType tcgType, int limit) {
+        Ranking ranking = tcgType != null ? popularByTcg.get(tcgType) : popular;
+        return ranking != null ? ranking.top(limit) : List.of();
+    }
+
+    /**
+     * Ids of the visible decks with the most recent likes, best first
+     */
+    public synchronized List<Long> getTrendingDeckIds(TCGType tcgType, int limit) {
+        Ranking ranking = tcgType != null ? trendingByTcg.get(tcgType) : trending;
+        return ranking != null ? ranking.top(limit) : List.of();
+    }
+
+    /**
+     * Count a like. Likes and unlikes are applied as +1/-1: the after-commit
+     * hooks of two toggles on the same deck can run in either order, and
+     * deltas end on the same count whatever the order. tcgType and hidden,
+     * read when the like started, are only used for a deck not tracked yet.
+     */
+    public void likeAdded(Long deckId, TCGType tcgType, boolean hidden, LocalDateTime likedAt) {
+        double exponent = trendExponent(likedAt);
+        afterCommit(() -> apply(() -> applyLike(deckId, tcgType, hidden, 1, exponent, true)));
+    }
+
+    public void likeRemoved(Long deckId, TCGType tcgType, boolean hidden, LocalDateTime likedAt) {
+        // A like older than the loaded window was never added to the score
+        double exponent = likedAt != null && likedAt.isAfter(trendWindowStart().toLocalDateTime())
+                ? trendExponent(likedAt)
+                : Double.NaN;
+        afterCommit(() -> apply(() -> applyLike(deckId, tcgType, hidden, -1, exponent, false)));
+    }
+
+    /**
+     * Re-file a deck after its TCG or hidden flag changed
+     */
+    public void deckUpdated(Long deckId, TCGType tcgType, boolean hidden) {
+        afterCommit(() -> apply(() -> {
+            DeckState state = decks.get(deckId);
+            if (state == null) {
+                // Not ranked, but a like racing this change must not file the deck with its older view
+                decks.put(deckId, new DeckState(tcgType, hidden, 0));
+                return;
+            }
+            if (state.tcgType == tcgType && state.hidden == hidden) {
+                return;
+            }
+            // Scores of hidden decks are still kept up to date, they only leave the rankings
+            unrank(deckId, state);
+            state.tcgType = tcgType;
+            state.hidden = hidden;
+            rank(deckId, state);
+        }));
+    }
+
+    public void deckDeleted(Long deckId) {
+        afterCommit(() -> apply(() -> {
+            DeckState state = decks.remove(deckId);
+            if (state != null) {
+                unrank(deckId, state);
+            }
+        }));
+    }
+
+    /**
+     * Build the rankings from the decks with likes and the likes still
+     * weighing on the trending scores
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void loadRankings() {
+        long start = System.currentTimeMillis();
+        int[] counts = reload();
+        loaded = true;
+        logger.info("Deck rankings loaded: {} decks, {} recent likes in {}ms", counts[0], counts[1],
+                System.currentTimeMillis() - start);
+    }
+
+    /**
+     * Pick up the likes and deck updates of the other instances, see the
+     * class comment. Nothing to do with a single instance.
+     */
+    @Scheduled(fixedDelayString = "${deck-popularity.rebuild-interval-ms:300000}",
+            initialDelayString = "${deck-popularity.rebuild-interval-ms:300000}")
+    public void rebuildRankings() {
+        if (!clusterBus.isEnabled() || !loaded) {
+            return;
+        }
+        long start = System.currentTimeMillis();
+        int[] counts = reload();
+        logger.debug("Deck rankings rebuilt: {} decks, {} recent likes in {}ms", counts[0], counts[1],
+                System.currentTimeMillis() - start);
+    }
+
+    // Loaded decks and likes
+    private int[] reload() {
+        synchronized (this) {
+            changesWhileLoading = new ArrayList<>();
+        }
+        try {
+            Map<Long, DeckState> loadedDecks = new HashMap<>();
+            jdbcTemplate.query(LOAD_DECKS_SQL, rs -> {
+                String tcgType = rs.getString(2);
+                loadedDecks.put(rs.getLong(1), new DeckState(tcgType != null ? TCGType.valueOf(tcgType) : null,
+                        rs.getBoolean(4), rs.getLong(3)));
+            });
+
+            int[] likes = { 0 };
+            jdbcTemplate.query(LOAD_LIKES_SQL, rs -> {
+                DeckState state = loadedDecks.get(rs.getLong(1));
+                if (state != null) {
+                    state.trendLog = logAdd(state.trendLog, trendExponent(rs.getTimestamp(2).toLocalDateTime()));
+                    likes[0]++;
+                }
+            }, trendWindowStart());
+
+            synchronized (this) {
+                decks = new HashMap<>(loadedDecks);
+                popular = new Ranking();
+                trending = new Ranking();
+                popularByTcg = new EnumMap<>(TCGType.class);
+                trendingByTcg = new EnumMap<>(TCGType.class);
+                for (Map.Entry<Long, DeckState> entry : loadedDecks.entrySet()) {
+                    rank(entry.getKey(), entry.getValue());
+                }
+                changesWhileLoading.forEach(Runnable::run);
+            }
+            return new int[] { loadedDecks.size(), likes[0] };
+        } finally {
+            synchronized (this) {
+                changesWhileLoading = null;
+            }
+        }
+    }
+
+    private synchronized void apply(Runnable change) {
+        change.run();
+        if (changesWhileLoading != null) {
+            changesWhileLoading.add(change);
+        }
+    }
+
+    // Caller holds the lock
+    private void applyLike(Long deckId, TCGType tcgType, boolean hidden, int delta, double exponent,
+            boolean added) {
+        DeckState state = decks.get(deckId);
+        if (state == null) {
+            state = new DeckState(tcgType, hidden, 0);
+            decks.put(deckId, state);
+        } else {
+            unrank(deckId, state);
+        }
+        state.likes += delta;
+
+        if (added) {
+            state.trendLog = logAdd(state.trendLog, exponent);
+        } else if (!Double.isNaN(exponent)) {
+            state.trendLog = logSubtract(state.trendLog, exponent);
+        }
+        removeOrRank(deckId, state);
+    }
+
+    // Caller holds the lock. An unlike applied before its like leaves the
+    // count below zero until the like arrives, so only zero is forgotten.
+    private void removeOrRank(Long deckId, DeckState state) {
+        if (state.likes == 0) {
+            decks.remove(deckId);
+        } else {
+            rank(deckId, state);
+        }
+    }
+
+    // Caller holds the lock
+    private void rank(Long deckId, DeckState state) {
+        if (state.hidden || state.likes <= 0) {
+            return;
+        }
+        popular.set(deckId, state.likes);
+        if (state.trendLog != Double.NEGATIVE_INFINITY) {
+            trending.set(deckId, state.trendLog);
+        }
+        if (state.tcgType != null) {
+            popularByTcg.computeIfAbsent(state.tcgType, key -> new Ranking()).set(deckId, state.likes);
+            if (state.trendLog != Double.NEGATIVE_INFINITY) {
+                trendingByTcg.computeIfAbsent(state.tcgType, key -> new Ranking()).set(deckId, state.trendLog);
+            }
+        }
+    }
+
+    // Caller holds the lock
+    private void unrank(Long deckId, DeckState state) {
+        popular.remove(deckId);
+        trending.remove(deckId);
+        if (state.tcgType != null) {
+            Ranking byTcg = popularByTcg.get(state.tcgType);
+            if (byTcg != null) {
+                byTcg.remove(deckId);
+            }
+            byTcg = trendingByTcg.get(state.tcgType);
+            if (byTcg != null) {
+                byTcg.remove(deckId);
+            }
+        }
+    }
+
+    private Timestamp trendWindowStart() {
+        long windowSeconds = (long) (halfLifeHours * 3600 * LOADED_HALF_LIVES);
+        return Timestamp.from(Instant.now().minusSeconds(windowSeconds));
+    }
+
+    // ln(2^((t - EPOCH) / halfLife))
+    private double trendExponent(LocalDateTime likedAt) {
+        long seconds = likedAt.atZone(ZoneId.systemDefault()).toEpochSecond() - EPOCH_SECONDS;
+        return Math.log(2) * seconds / (halfLifeHours * 3600);
+    }
+
+    // ln(e^a + e^b) without overflow
+    private static double logAdd(double a, double b) {
+        if (a == Double.NEGATIVE_INFINITY) {
+            return b;
+        }
+        double max = Math.max(a, b);
+        return max + Math.log1p(Math.exp(Math.min(a, b) - max));
+    }
+
+    // ln(e^a - e^b), -infinity when nothing is left
+    private static double logSubtract(double a, double b) {
+        if (a == Double.NEGATIVE_INFINITY || b >= a - 1e-9) {
+            return Double.NEGATIVE_INFINITY;
+        }
+        return a + Math.log1p(-Math.exp(b - a));
+    }
+
+    private void afterCommit(Runnable action) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    action.run();
+                }
+            });
+        } else {
+            action.run();
+        }
+    }
+
+    private static class DeckState {
+        private TCGType tcgType;
+        private boolean hidden;
+        private long likes;
+        private double trendLog = Double.NEGATIVE_INFINITY;
+
+        DeckState(TCGType tcgType, boolean hidden, long likes) {
+            this.tcgType = tcgType;
+            this.hidden = hidden;
+            this.likes = likes;
+        }
+    }
+
+    /**
+     * Deck ids ordered by score (highest first, then newest deck). Not
+     * thread-safe, guarded by the service lock.
+     */
+    private static class Ranking {
+        private final Map<Long, Double> scores = new HashMap<>();
+        private final TreeSet<Entry> order = new TreeSet<>(Comparator.<Entry>comparingDouble(e -> e.score)
+                .reversed().thenComparing(e -> e.deckId, Comparator.reverseOrder()));
+
+        void set(Long deckId, double score) {
+            Double previous = scores.put(deckId, score);
+            if (previous != null) {
+                order.remove(new Entry(deckId, previous));
+            }
+            order.add(new Entry(deckId, score));
+        }
+
+        void remove(Long deckId) {
+            Double previous = scores.remove(deckId);
+            if (previous != null) {
+                order.remove(new Entry(deckId, previous));
+            }
+        }
+
+        List<Long> top(int limit) {
+            List<Long> ids = new ArrayList<>(Math.min(limit, order.size()));
+            for (Entry entry : order) {
+                if (ids.size() >= limit) {
+                    break;
+                }
+                ids.add(entry.deckId);
+            }
+            return ids;
+        }
+
+        private static class Entry {
+            private final Long deckId;
+            private final double score;
+
+            Entry(Long deckId, double score) {
+                this.deckId = deckId;
+                this.score = score;
+            }
+        }
+    }
+}
@@ -1,26 +1,48 @@
 package com.tcg.arena.service;
 
 import com.tcg.arena.dto.DeckCardUpdateDTO;
+import com.tcg.arena.dto.DeckDiffDTO;
 import com.tcg.arena.model.*;
 import com.tcg.arena.repository.CardTemplateRepository;
 import com.tcg.arena.repository.DeckCardRepository;
 import com.tcg.arena.repository.DeckRepository;
 import com.tcg.arena.repository.UserCardRepository;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.jdbc.core.JdbcTemplate;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
 import java.time.LocalDateTime;
 import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
 import java.util.stream.Collectors;
 
 @Service
 public class DeckService {
     private static final Logger logger = LoggerFactory.getLogger(DeckService.class);
 
+    private static final String INSERT_LIKE_SQL = "INSERT INTO deck_likes (deck_id, user_id, date_created) "
+            + "VALUES (?, ?, ?) ON CONFLICT (deck_id, user_id) DO NOTHING";
+
+    private static final String DELETE_LIKE_SQL = "DELETE FROM deck_likes WHERE deck_id = ? AND user_id = ? "
+            + "RETURNING date_created";
+
+    private static final int POPULAR_DECKS_LIMIT = 10;
+
+    private static final String INSERT_DECK_CARD_SQL = "INSERT INTO deck_cards (deck_id, card_id, quantity, "
+            + "card_name, card_image_url, condition, is_graded, grade_service, grade, nationality, section) "
+            + "VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?)";
+
     @Autowired
     private DeckRepository deckRepository;
 
@@ -48,6 +70,18 @@ public class DeckService {
     @Autowired
     private NotificationService notificationService;
 
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
+
+    @Autowired
+    private DeckPopularityService deckPopularityService;
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
     public List<Deck> getAllDecks() {
         return deckRepository.findAll();
     }
@@ -81,6 +115,8 @@ public class DeckService {
             deck.setDescription(deckDetails.getDescription());
             deck.setTags(deckDetails.getTags());
             Deck updatedDeck = deckRepository.save(deck);
+            deckPopularityService.deckUpdated(updatedDeck.getId(), updatedDeck.getTcgType(),
+                    Boolean.TRUE.equals(updatedDeck.getIsHidden()));
 
             userActivityService.logActivity(deck.getOwnerId(),
                     com.tcg.arena.model.ActivityType.DECK_UPDATED,
@@ -96,6 +132,7 @@ public class DeckService {
             Deck deck = deckOpt.get();
             userActivityService.logActivity(userId, ActivityType.DECK_DELETED, "Eliminato mazzo: " + deck.getName());
             deckRepository.deleteById(id);
+            deckPopularityService.deckDeleted(id);
             return true;
         }
         return false;
@@ -117,6 +154,7 @@ public class DeckService {
         Deck savedDeck = deckRepository.save(deck);
 
         userActivityService.logActivity(ownerId, ActivityType.DECK_CREATED, "Creato nuovo mazzo: " + name);
+        eventPublisher.publishEvent(new AchievementProgressEvent(ownerId, AchievementMetric.DECKS_CREATED, 1));
 
         // Award points for deck creation (+50 for first deck only)
         // Only for LISTA type decks (not system Collection/Wishlist decks)
@@ -134,45 +172,30 @@ public class DeckService {
     }
 
     public Deck addCardToDeck(Long deckId, Long cardId, int quantity, String section, Long userId) {
-        System.out.println("DeckService: Adding card " + cardId + " to deck " + deckId + " in section " + section
-                + " with quantity " + quantity + " for user " + userId);
-
         Deck deck = deckRepository.findById(deckId)
                 .orElseThrow(() -> new RuntimeException("Deck not found"));
 
-        System.out.println("DeckService: Found deck " + deck.getName());
-
         UserCard card = userCardRepository.findById(cardId)
                 .orElseThrow(() -> new RuntimeException("Card not found with ID: " + cardId
                         + ". Available cards for user " + userId + ": "
                         + userCardRepository.findByOwnerId(userId).stream().map(uc -> uc.getId().toString()).toList()));
 
-        System.out.println(
-                "DeckService: Found card " + card.getCardTemplate().getName() + " with ownerId "
-                        + card.getOwner().getId());
-
         // Verify the card belongs to the user
         if (!card.getOwner().getId().equals(userId)) {
             throw new RuntimeException("Card with ID " + cardId + " does not belong to user " + userId
                     + " (belongs to user " + card.getOwner().getId() + ")");
         }
 
-        System.out.println("DeckService: Card ownership verified");
-
         Long templateId = card.getCardTemplate().getId();
-        System.out.println("DeckService: Using templateId " + templateId + " for duplicate checks and storage");
 
         // Check if card exists in the same section
         List<DeckCard> existingCards = deckCardRepository.findByDeckId(deckId);
-        System.out.println("DeckService: Found " + existingCards.size() + " existing cards in deck");
 
         for (DeckCard existing : existingCards) {
-            System.out.println("DeckService: Checking existing card " + existing.getCardId() + " in section "
-                    + existing.getSection() + " vs templateId " + templateId + " in section " + section);
             if (existing.getCardId().equals(templateId) &&
                     (existing.getSection() == null ? section == null : existing.getSection().equals(section))) {
-                System.out.println("DeckService: Found existing card, incrementing quantity from "
-                        + existing.getQuantity() + " to " + (existing.getQuantity() + quantity));
+                logger.debug("Deck card quantity increased: deckId={} userId={} templateId={} section={} quantity={}",
+                        deckId, userId, templateId, section, existing.getQuantity() + quantity);
                 existing.setQuantity(existing.getQuantity() + quantity);
                 deckCardRepository.save(existing);
 
@@ -181,7 +204,6 @@ public class DeckService {
             }
         }
 
-        System.out.println("DeckService: Creating new deck card");
         DeckCard deckCard = new DeckCard();
         deckCard.setDeck(deck);
         deckCard.setCardId(templateId);
@@ -210,10 +232,160 @@ public class DeckService {
                 "Aggiunte " + quantity + "x " + card.getCardTemplate().getName() + " al mazzo '" + deck.getName()
                         + "' (" + deckCard.getSection() + ")");
 
-        System.out.println("DeckService: Successfully added card to deck");
+        logger.debug("Deck card added: deckId={} userId={} templateId={} section={} quantity={}",
+                deckId, userId, templateId, deckCard.getSection(), quantity);
         return savedDeck;
     }
 
+    /**
+     * Apply a card list to a deck in one transaction. The request is diffed
+     * against a map of the current rows keyed by (template, section), then
+     * applied as one DELETE, one UPDATE batch and one INSERT batch, with a
+     * single activity entry for the whole change.
+     */
+    @Transactional
+    public DeckDiffDTO.Response applyDeckDiff(Long deckId, DeckDiffDTO.Request request, Long userId) {
+        return applyDeckDiff(deckId, request, userId, true);
+    }
+
+    /**
+     * logActivity=false when the caller records its own activity for the
+     * change (deck list import logs the deck creation only)
+     */
+    @Transactional
+    public DeckDiffDTO.Response applyDeckDiff(Long deckId, DeckDiffDTO.Request request, Long userId,
+            boolean logActivity) {
+        Deck deck = deckRepository.findById(deckId)
+                .orElseThrow(() -> new RuntimeException("Deck not found"));
+        if (!deck.getOwnerId().equals(userId)) {
+            throw new RuntimeException("User " + userId + " does not own deck " + deckId);
+        }
+        boolean replace = Boolean.TRUE.equals(request.getReplace());
+
+        // Target quantity per template and section (repeated entries add up)
+        Map<String, Integer> target = new LinkedHashMap<>();
+        Map<String, DeckDiffDTO.CardEntry> targetEntries = new HashMap<>();
+        for (DeckDiffDTO.CardEntry entry : request.getCards()) {
+            if (entry.getCardId() == null || entry.getQuantity() == null || entry.getQuantity() < 0) {
+                throw new RuntimeException("Each card needs a card_id and a quantity >= 0");
+            }
+            String section = entry.getSection() != null ? entry.getSection() : "MAIN";
+            String key = deckCardKey(entry.getCardId(), section);
+            target.merge(key, entry.getQuantity(), Integer::sum);
+            targetEntries.putIfAbsent(key, new DeckDiffDTO.CardEntry(entry.getCardId(), null, section));
+        }
+
+        Map<String, DeckCard> current = new HashMap<>();
+        List<Long> toDelete = new ArrayList<>();
+        for (DeckCard deckCard : deckCardRepository.findByDeckId(deckId)) {
+            String key = deckCardKey(deckCard.getCardId(), deckCard.getSection() != null ? deckCard.getSection() : "MAIN");
+            if (current.putIfAbsent(key, deckCard) != null && (replace || target.containsKey(key))) {
+                // Duplicate row of a card the diff sets: the first row carries the quantity
+                toDelete.add(deckCard.getId());
+            }
+        }
+
+        List<Object[]> toUpdate = new ArrayList<>(); // quantity, deck card id
+        List<DeckDiffDTO.CardEntry> toInsert = new ArrayList<>();
+        for (Map.Entry<String, Integer> entry : target.entrySet()) {
+            DeckCard existing = current.get(entry.getKey());
+            int quantity = entry.getValue();
+            if (existing == null) {
+                if (quantity > 0) {
+                    DeckDiffDTO.CardEntry card = targetEntries.get(entry.getKey());
+                    toInsert.add(new DeckDiffDTO.CardEntry(card.getCardId(), quantity, card.getSection()));
+                }
+            } else if (quantity == 0) {
+                toDelete.add(existing.getId());
+            } else if (existing.getQuantity() != quantity) {
+                toUpdate.add(new Object[] { quantity, existing.getId() });
+            }
+        }
+        if (replace) {
+            current.forEach((key, deckCard) -> {
+                if (!target.containsKey(key)) {
+                    toDelete.add(deckCard.getId());
+                }
+            });
+        }
+
+        List<Object[]> insertRows = buildDeckCardRows(deckId, toInsert, userId);
+
+        // Bulk writes; the stale DeckCard entities are detached before reloading the deck
+        entityManager.flush();
+        entityManager.clear();
+        if (!toDelete.isEmpty()) {
+            jdbcTemplate.update("DELETE FROM deck_cards WHERE id = ANY (?)",
+                    ps -> ps.setArray(1, ps.getConnection().createArrayOf("bigint", toDelete.toArray())));
+        }
+        if (!toUpdate.isEmpty()) {
+            jdbcTemplate.batchUpdate("UPDATE deck_cards SET quantity = ? WHERE id = ?", toUpdate);
+        }
+        if (!insertRows.isEmpty()) {
+            jdbcTemplate.batchUpdate(INSERT_DECK_CARD_SQL, insertRows);
+        }
+
+        Deck updatedDeck = deckRepository.findById(deckId)
+                .orElseThrow(() -> new RuntimeException("Deck not found"));
+        int changes = toInsert.size() + toUpdate.size() + toDelete.size();
+        if (changes > 0) {
+            updatedDeck.setDateModified(LocalDateTime.now());
+            updatedDeck = deckRepository.save(updatedDeck);
+        }
+        if (changes > 0 && logActivity) {
+            userActivityService.logActivity(userId, ActivityType.DECK_UPDATED,
+                    "Mazzo '" + updatedDeck.getName() + "' aggiornato: " + toInsert.size() + " carte aggiunte, "
+                            + toUpdate.size() + " modificate, " + toDelete.size() + " rimosse");
+        }
+
+        logger.debug("Deck diff applied: deckId={} userId={} replace={} added={} updated={} removed={}",
+                deckId, userId, replace, toInsert.size(), toUpdate.size(), toDelete.size());
+        return new DeckDiffDTO.Response(updatedDeck, toInsert.size(), toUpdate.size(), toDelete.size());
+    }
+
+    /**
+     * deck_cards rows for new cards: name and image from the template,
+     * condition, grading and nationality from the user's own copy if any
+     * (same defaults as addCardTemplateToDeck)
+     */
+    private List<Object[]> buildDeckCardRows(Long deckId, List<DeckDiffDTO.CardEntry> cards, Long userId) {
+        if (cards.isEmpty()) {
+            return List.of();
+        }
+        Set<Long> templateIds = cards.stream().map(DeckDiffDTO.CardEntry::getCardId).collect(Collectors.toSet());
+        Map<Long, CardTemplate> templates = new HashMap<>();
+        cardTemplateRepository.findAllById(templateIds).forEach(t -> templates.put(t.getId(), t));
+        Map<Long, UserCard> ownedCards = new HashMap<>();
+        for (UserCard userCard : userCardRepository.findByOwnerIdAndCardTemplateIdIn(userId, templateIds)) {
+            ownedCards.putIfAbsent(userCard.getCardTemplate().getId(), userCard);
+        }
+
+        List<Object[]> rows = new ArrayList<>(cards.size());
+        for (DeckDiffDTO.CardEntry card : cards) {
+            CardTemplate template = templates.get(card.getCardId());
+            if (template == null) {
+                throw new RuntimeException("Card template not found: " + card.getCardId());
+            }
+            UserCard owned = ownedCards.get(card.getCardId());
+            CardCondition condition = owned != null && owned.getCondition() != null ? owned.getCondition()
+                    : CardCondition.MINT;
+            CardNationality nationality = owned != null && owned.getNationality() != null ? owned.getNationality()
+                    : CardNationality.EN;
+            rows.add(new Object[] {
+                    deckId, template.getId(), card.getQuantity(), template.getName(), template.getImageUrl(),
+                    condition.name(),
+                    owned != null && Boolean.TRUE.equals(owned.getIsGraded()),
+                    owned != null && owned.getGradeService() != null ? owned.getGradeService().name() : null,
+                    owned != null && owned.getGradeScore() != null ? owned.getGradeScore().toString() : null,
+                    nationality.name(), card.getSection() });
+        }
+        return rows;
+    }
+
+    private static String deckCardKey(Long templateId, String section) {
+        return templateId + "|" + section;
+    }
+
     public Deck addCardTemplateToDeck(Long deckId, Long templateId, String section, Long userId) {
         Deck deck = deckRepository.findById(deckId)
                 .orElseThrow(() -> new RuntimeException("Deck not found"));
@@ -295,38 +467,30 @@ public class DeckService {
     }
 
     public boolean removeCardFromDeck(Long deckId, Long cardId, Long userId) {
-        System.out.println("DeckService: Attempting to remove card template " + cardId + " from deck " + deckId
-                + " for user " + userId);
-
         Deck deck = deckRepository.findById(deckId).orElse(null);
         if (deck == null) {
-            System.out.println("DeckService: Deck " + deckId + " not found");
+            logger.debug("Deck card removal skipped, deck not found: deckId={} userId={}", deckId, userId);
             return false;
         }
 
         // Verify the user owns the deck
         if (!deck.getOwnerId().equals(userId)) {
-            System.out.println("DeckService: User " + userId + " does not own deck " + deckId);
+            logger.debug("Deck card removal denied, not the owner: deckId={} userId={}", deckId, userId);
             return false;
         }
 
         List<DeckCard> deckCards = deckCardRepository.findByDeckId(deckId);
-        System.out.println("DeckService: Found " + deckCards.size() + " cards in deck " + deckId);
 
         for (DeckCard deckCard : deckCards) {
-            System.out.println(
-                    "DeckService: Checking deckCard with cardId " + deckCard.getCardId() + " against target " + cardId);
             if (deckCard.getCardId().equals(cardId)) {
-                System.out.println("DeckService: Found matching deckCard with quantity " + deckCard.getQuantity());
+                logger.debug("Deck card removed: deckId={} userId={} templateId={} previousQuantity={}",
+                        deckId, userId, cardId, deckCard.getQuantity());
                 if (deckCard.getQuantity() > 1) {
                     // Decrement quantity instead of deleting
-                    System.out.println("DeckService: Decrementing quantity from " + deckCard.getQuantity() + " to "
-                            + (deckCard.getQuantity() - 1));
                     deckCard.setQuantity(deckCard.getQuantity() - 1);
                     deckCardRepository.save(deckCard);
                 } else {
                     // Remove the deck card entirely
-                    System.out.println("DeckService: Deleting deckCard as quantity is 1");
                     deckCardRepository.delete(deckCard);
                 }
 
@@ -341,8 +505,8 @@ public class DeckService {
             }
         }
 
-        System.out
-                .println("DeckService: No matching deckCard found for card template " + cardId + " in deck " + deckId);
+        logger.debug("Deck card removal skipped, card not in deck: deckId={} userId={} templateId={}",
+                deckId, userId, cardId);
         return false;
     }
 
@@ -606,6 +770,7 @@ public class DeckService {
             deck.setIsHidden(isHidden);
             deck.setDateModified(LocalDateTime.now());
             Deck updatedDeck = deckRepository.save(deck);
+            deckPopularityService.deckUpdated(deckId, updatedDeck.getTcgType(), Boolean.TRUE.equals(isHidden));
 
             String action = isHidden ? "nascosto" : "reso visibile";
             userActivityService.logActivity(userId, ActivityType.DECK_UPDATED,
@@ -625,39 +790,46 @@ public class DeckService {
     /**
      * Toggles the like status for a deck by a user.
      * Returns true if liked, false if unliked.
+     *
+     * The like row and the deck counter change with single statements
+     * (insert-if-absent / delete, likes = likes +/- 1), so concurrent toggles
+     * can neither lose nor double count a like.
      */
+    @Transactional
     public boolean toggleLike(Long deckId, Long userId) {
         Deck deck = deckRepository.findById(deckId)
                 .orElseThrow(() -> new RuntimeException("Deck not found"));
-
-        Optional<DeckLike> existingLike = deckLikeRepository.findByDeckIdAndUserId(deckId, userId);
-
-        if (existingLike.isPresent()) {
-            deckLikeRepository.delete(existingLike.get());
-            if (deck.getLikes() > 0) {
-                deck.setLikes(deck.getLikes() - 1);
-                deckRepository.save(deck);
+        boolean hidden = Boolean.TRUE.equals(deck.getIsHidden());
+
+        List<java.sql.Timestamp> removed = jdbcTemplate.queryForList(DELETE_LIKE_SQL, java.sql.Timestamp.class,
+                deckId, userId);
+        if (!removed.isEmpty()) {
+            if (jdbcTemplate.update("UPDATE decks SET likes = likes - 1 WHERE id = ? AND likes > 0", deckId) > 0) {
+                deckPopularityService.likeRemoved(deckId, deck.getTcgType(), hidden,
+                        removed.get(0).toLocalDateTime());
             }
             return false;
-        } else {
-            DeckLike newLike = new DeckLike(deckId, userId);
-            deckLikeRepository.save(newLike);
+        }
 
-            deck.setLikes(deck.getLikes() + 1);
-            deckRepository.save(deck);
+        LocalDateTime likedAt = LocalDateTime.now();
+        if (jdbcTemplate.update(INSERT_LIKE_SQL, deckId, userId, java.sql.Timestamp.valueOf(likedAt)) == 0) {
+            // Liked by a concurrent request in the meantime
+            return true;
+        }
+        jdbcTemplate.update("UPDATE decks SET likes = likes + 1 WHERE id = ?", deckId);
+        deckPopularityService.likeAdded(deckId, deck.getTcgType(), hidden, likedAt);
 
-            // Send notification to deck owner
-            // Find liker name
-            userRepository.findById(userId).ifPresent(liker -> {
-                notificationService.sendDeckLikeNotification(deck.getOwnerId(), deck.getName(), liker.getUsername());
-            });
+        // Send notification to deck owner
+        // Find liker name
+        userRepository.findById(userId).ifPresent(liker -> {
+            notificationService.sendDeckLikeNotification(deck.getOwnerId(), deck.getName(), liker.getUsername());
+        });
 
-            // Log activity
-            userActivityService.logActivity(userId, ActivityType.DECK_LIKED,
-                    "Messo mi piace al mazzo '" + deck.getName() + "'");
+        // Log activity
+        userActivityService.logActivity(userId, ActivityType.DECK_LIKED,
+                "Messo mi piace al mazzo '" + deck.getName() + "'");
 
-            return true;
-        }
+        return true;
     }
 
     public long getLikeCount(Long deckId) {
@@ -722,16 +894,52 @@ public class DeckService {
 
     /**
      * Get popular decks (top 10 by likes), optionally filtered by TCG.
-     * Only includes public, non-hidden decks.
+     * Only includes non-hidden decks. The ranking is read from
+     * DeckPopularityService; the database query is only used until it is
+     * loaded or when fewer than 10 decks have likes.
      */
     public List<Deck> getPopularDecks(Optional<TCGType> tcgType) {
+        if (deckPopularityService.isLoaded()) {
+            List<Long> deckIds = deckPopularityService.getPopularDeckIds(tcgType.orElse(null), POPULAR_DECKS_LIMIT);
+            if (deckIds.size() == POPULAR_DECKS_LIMIT) {
+                return withOwnerNames(findDecksInOrder(deckIds));
+            }
+        }
+
         List<Deck> decks;
         if (tcgType.isPresent()) {
             decks = deckRepository.findTop10ByTcgTypeAndIsHiddenFalseOrderByLikesDesc(tcgType.get());
         } else {
             decks = deckRepository.findTop10ByIsHiddenFalseOrderByLikesDesc();
         }
+        return withOwnerNames(decks);
+    }
+
+    /**
+     * Get trending decks: most liked recently, older likes weighing less
+     * (see DeckPopularityService). Only includes non-hidden decks.
+     */
+    public List<Deck> getTrendingDecks(Optional<TCGType> tcgType, int limit) {
+        List<Long> deckIds = deckPopularityService.getTrendingDeckIds(tcgType.orElse(null),
+                Math.max(1, Math.min(limit, 50)));
+        return withOwnerNames(findDecksInOrder(deckIds));
+    }
+
+    // Decks by id in the given order, decks deleted meanwhile are skipped
+    private List<Deck> findDecksInOrder(List<Long> deckIds) {
+        java.util.Map<Long, Deck> byId = deckRepository.findAllById(deckIds).stream()
+                .collect(Collectors.toMap(Deck::getId, deck -> deck));
+        List<Deck> decks = new ArrayList<>(deckIds.size());
+        for (Long deckId : deckIds) {
+            Deck deck = byId.get(deckId);
+            if (deck != null) {
+                decks.add(deck);
+            }
+        }
+        return decks;
+    }
 
+    private List<Deck> withOwnerNames(List<Deck> decks) {
         // Populate owner names
         if (!decks.isEmpty()) {
             List<Long> ownerIds = decks.stream().map(Deck::getOwnerId).distinct().collect(Collectors.toList());
@@ -1,5 +1,13 @@
 package com.tcg.arena.service;
 
+import com.github.benmanes.caffeine.cache.AsyncCache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.tcg.arena.model.GeocodingCacheEntry;
+import com.tcg.arena.repository.GeocodingCacheRepository;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 import org.springframework.web.client.RestTemplate;
 import org.springframework.http.HttpHeaders;
@@ -9,20 +17,86 @@ import org.springframework.http.ResponseEntity;
 import com.fasterxml.jackson.databind.JsonNode;
 import com.fasterxml.jackson.databind.ObjectMapper;
 
+import java.time.Duration;
+import java.util.Locale;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+
 /**
  * Service for reverse geocoding - converting coordinates to city/country
  * Uses OpenStreetMap Nominatim API (free, no API key required)
+ *
+ * Lookups are cached per quantized grid cell (~100m by default):
+ * - L1: bounded Caffeine cache, concurrent lookups for the same cell share one load
+ * - L2: geocoding_cache table, survives restarts
+ * - Upstream: single worker thread spacing calls by at least one second, as
+ *   required by the Nominatim usage policy. Bursts queue up instead of failing.
+ *
+ * Request threads wait at most max-wait-ms (a few seconds) for a lookup, and
+ * not at all when the upstream queue is longer than that: they get the
+ * fallback result while the queued lookup still fills the cache.
  */
 @Service
 public class GeocodingService {
 
+    private static final Logger logger = LoggerFactory.getLogger(GeocodingService.class);
+
     private static final String NOMINATIM_BASE_URL = "https://nominatim.openstreetmap.org/reverse";
+    private static final double METERS_PER_DEGREE_LATITUDE = 111_320d;
+
     private final RestTemplate restTemplate;
     private final ObjectMapper objectMapper;
+    private final GeocodingCacheRepository cacheRepository;
+
+    private final int gridMeters;
+    private final double latitudeStep;
+    private final long minIntervalMs;
+    private final long maxWaitMs;
+
+    private final AsyncCache<String, GeocodingResult> cache;
+    private final ExecutorService nominatimExecutor;
+
+    // Upstream lookups submitted to the worker and not finished yet
+    private final AtomicInteger upstreamQueued = new AtomicInteger();
+
+    // Only read/written by the single nominatim worker thread
+    private long lastUpstreamCallAt = 0L;
 
-    public GeocodingService() {
+    public GeocodingService(GeocodingCacheRepository cacheRepository,
+            @Value("${geocoding.cache.grid-meters:100}") int gridMeters,
+            @Value("${geocoding.cache.max-size:10000}") long maxSize,
+            @Value("${geocoding.nominatim.min-interval-ms:1000}") long minIntervalMs,
+            @Value("${geocoding.nominatim.max-wait-ms:3000}") long maxWaitMs) {
         this.restTemplate = new RestTemplate();
         this.objectMapper = new ObjectMapper();
+        this.cacheRepository = cacheRepository;
+        this.gridMeters = Math.max(gridMeters, 1);
+        this.latitudeStep = this.gridMeters / METERS_PER_DEGREE_LATITUDE;
+        this.minIntervalMs = minIntervalMs;
+        this.maxWaitMs = maxWaitMs;
+        this.cache = Caffeine.newBuilder()
+                .maximumSize(maxSize)
+                .expireAfterWrite(Duration.ofDays(30))
+                .recordStats()
+                .buildAsync();
+        this.nominatimExecutor = Executors.newSingleThreadExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "nominatim-geocoder");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        nominatimExecutor.shutdownNow();
     }
 
     /**
@@ -52,6 +126,12 @@ public class GeocodingService {
         }
     }
 
+    /**
+     * A grid cell: stable cache key plus the cell center used for the upstream query
+     */
+    record GridCell(String key, double latitude, double longitude) {
+    }
+
     /**
      * Reverse geocode coordinates to get city and country
      * 
@@ -61,11 +141,120 @@ public class GeocodingService {
      */
     public GeocodingResult reverseGeocode(Double latitude, Double longitude) {
         if (latitude == null || longitude == null) {
-            return new GeocodingResult("", "Italy", "");
+            return fallbackResult();
         }
 
+        GridCell cell = quantize(latitude, longitude);
         try {
-            String url = String.format("%s?lat=%f&lon=%f&format=json&addressdetails=1",
+            CompletableFuture<GeocodingResult> lookup = cache.get(cell.key(),
+                    (key, executor) -> loadCell(cell, executor));
+            if (!lookup.isDone() && upstreamQueued.get() * minIntervalMs > maxWaitMs) {
+                // Could not be served within maxWaitMs, the lookup still fills the cache
+                logger.debug("Geocoding queue at {} lookups, using fallback for cell {}", upstreamQueued.get(),
+                        cell.key());
+                return fallbackResult();
+            }
+            return lookup.get(maxWaitMs, TimeUnit.MILLISECONDS);
+        } catch (TimeoutException e) {
+            // The lookup stays queued and will still populate the cache
+            logger.warn("Geocoding for cell {} still queued after {}ms, using fallback", cell.key(), maxWaitMs);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause() != null ? e.getCause() : e;
+            logger.warn("Geocoding error for cell {}: {}", cell.key(), cause.getMessage());
+        }
+
+        // Fallback if geocoding fails
+        return fallbackResult();
+    }
+
+    /**
+     * Snap coordinates to a grid of roughly gridMeters x gridMeters. The longitude
+     * step is widened by 1/cos(latitude) so cells stay square away from the equator.
+     */
+    GridCell quantize(double latitude, double longitude) {
+        long latIndex = (long) Math.floor(latitude / latitudeStep);
+        double cellLatitude = (latIndex + 0.5) * latitudeStep;
+
+        double cosLatitude = Math.max(Math.cos(Math.toRadians(cellLatitude)), 0.01);
+        double longitudeStep = latitudeStep / cosLatitude;
+        long lonIndex = (long) Math.floor(longitude / longitudeStep);
+        double cellLongitude = (lonIndex + 0.5) * longitudeStep;
+
+        String key = gridMeters + ":" + latIndex + ":" + lonIndex;
+        return new GridCell(key, cellLatitude, cellLongitude);
+    }
+
+    /**
+     * Cache loader: persistent table first, then the rate-limited upstream queue
+     */
+    private CompletableFuture<GeocodingResult> loadCell(GridCell cell, Executor executor) {
+        return CompletableFuture
+                .supplyAsync(() -> findStored(cell.key()), executor)
+                .thenCompose(stored -> stored
+                        .map(entry -> CompletableFuture.completedFuture(
+                                new GeocodingResult(entry.getCity(), entry.getCountry(), entry.getFullAddress())))
+                        .orElseGet(() -> queueUpstream(cell)));
+    }
+
+    private CompletableFuture<GeocodingResult> queueUpstream(GridCell cell) {
+        upstreamQueued.incrementAndGet();
+        return CompletableFuture.supplyAsync(() -> {
+            try {
+                return fetchAndStore(cell);
+            } finally {
+                upstreamQueued.decrementAndGet();
+            }
+        }, nominatimExecutor);
+    }
+
+    private Optional<GeocodingCacheEntry> findStored(String cellKey) {
+        try {
+            return cacheRepository.findById(cellKey);
+        } catch (Exception e) {
+            logger.warn("Geocoding cache table lookup failed for {}: {}", cellKey, e.getMessage());
+            return Optional.empty();
+        }
+    }
+
+    /**
+     * Runs on the nominatim worker thread only
+     */
+    private GeocodingResult fetchAndStore(GridCell cell) {
+        try {
+            awaitUpstreamSlot();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new CompletionException(e);
+        }
+
+        GeocodingResult result = fetchFromNominatim(cell.latitude(), cell.longitude());
+        if (result == null) {
+            // Not cached: the failed future is evicted, next caller retries
+            throw new IllegalStateException("No address returned by Nominatim");
+        }
+
+        try {
+            cacheRepository.save(new GeocodingCacheEntry(
+                    cell.key(), result.getCity(), result.getCountry(), result.getFullAddress()));
+        } catch (Exception e) {
+            logger.warn("Failed to persist geocoding result for {}: {}", cell.key(), e.getMessage());
+        }
+        return result;
+    }
+
+    private void awaitUpstreamSlot() throws InterruptedException {
+        long waitMs = lastUpstreamCallAt + minIntervalMs - System.currentTimeMillis();
+        if (waitMs > 0) {
+            Thread.sleep(waitMs);
+        }
+        lastUpstreamCallAt = System.currentTimeMillis();
+    }
+
+    private GeocodingResult fetchFromNominatim(double latitude, double longitude) {
+        try {
+            String url = String.format(Locale.ROOT, "%s?lat=%f&lon=%f&format=json&addressdetails=1",
                     NOMINATIM_BASE_URL, latitude, longitude);
 
             // Nominatim requires a User-Agent header
@@ -94,18 +283,18 @@ public class GeocodingService {
                     // Get full display name
                     String fullAddress = root.has("display_name") ? root.get("display_name").asText() : "";
 
-                    System.out.println("📍 Reverse geocoding: " + latitude + ", " + longitude);
-                    System.out.println("   City: " + city);
-                    System.out.println("   Country: " + country);
+                    logger.debug("Reverse geocoding {}, {} -> city={}, country={}", latitude, longitude, city, country);
 
                     return new GeocodingResult(city, country, fullAddress);
                 }
             }
         } catch (Exception e) {
-            System.err.println("⚠️ Geocoding error: " + e.getMessage());
+            logger.warn("Nominatim request failed: {}", e.getMessage());
         }
+        return null;
+    }
 
-        // Fallback if geocoding fails
+    private GeocodingResult fallbackResult() {
         return new GeocodingResult("", "Italy", "");
     }
 
@@ -0,0 +1,130 @@
+package com.tcg.arena.service;
+
+import com.tcg.arena.dto.GlobalChatMessageDto;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Bounded buffer holding the last N global chat messages, ordered by id.
+ *
+ * Messages can arrive out of id order (ids are reserved by several
+ * instances, remote messages are replayed as they come), so each add inserts
+ * at the message's id position and, once full, drops the smallest id. Writes
+ * copy the array under a lock, which is cheap at chat rates; readers only
+ * read the published array and never block. Catch-up by id is therefore
+ * exact: every buffered message with a greater id is returned, whenever it
+ * arrived.
+ *
+ * Not a ring buffer: keeping the id order means inserting in the middle,
+ * which a lock-free ring cannot do, so writes are serialized and copy.
+ */
+public class GlobalChatBuffer {
+
+    private static final GlobalChatMessageDto[] EMPTY = new GlobalChatMessageDto[0];
+
+    private final int capacity;
+    private final Object writeLock = new Object();
+
+    // Sorted by id, oldest first, never longer than capacity; replaced on every write
+    private volatile GlobalChatMessageDto[] messages = EMPTY;
+
+    public GlobalChatBuffer(int requestedCapacity) {
+        this.capacity = Math.max(requestedCapacity, 1);
+    }
+
+    /**
+     * Insert a message at its id position. A message older than everything
+     * kept in a full buffer, or already buffered, is ignored.
+     */
+    public void add(GlobalChatMessageDto message) {
+        if (message.getId() == null) {
+            return;
+        }
+        synchronized (writeLock) {
+            GlobalChatMessageDto[] current = messages;
+            int index = indexAfter(current, message.getId() - 1);
+            if (index < current.length && message.getId().equals(current[index].getId())) {
+                return;
+            }
+
+            boolean full = current.length == capacity;
+            if (full && index == 0) {
+                return;
+            }
+            GlobalChatMessageDto[] next = new GlobalChatMessageDto[full ? capacity : current.length + 1];
+            // When full the oldest message (index 0) makes room
+            int drop = full ? 1 : 0;
+            System.arraycopy(current, drop, next, 0, index - drop);
+            next[index - drop] = message;
+            System.arraycopy(current, index, next, index - drop + 1, current.length - index);
+            messages = next;
+        }
+    }
+
+    /**
+     * All buffered messages, oldest first
+     */
+    public List<GlobalChatMessageDto> snapshot() {
+        return new ArrayList<>(Arrays.asList(messages));
+    }
+
+    /**
+     * The newest {@code limit} messages, oldest first
+     */
+    public List<GlobalChatMessageDto> latest(int limit) {
+        GlobalChatMessageDto[] current = messages;
+        int from = Math.max(0, current.length - limit);
+        return new ArrayList<>(Arrays.asList(current).subList(from, current.length));
+    }
+
+    /**
+     * Buffered messages with an id greater than {@code afterId}, oldest first
+     */
+    public List<GlobalChatMessageDto> after(long afterId) {
+        GlobalChatMessageDto[] current = messages;
+        int from = indexAfter(current, afterId);
+        return new ArrayList<>(Arrays.asList(current).subList(from, current.length));
+    }
+
+    /**
+     * Smallest buffered id, or null when the buffer is empty
+     */
+    public Long oldestId() {
+        GlobalChatMessageDto[] current = messages;
+        return current.length == 0 ? null : current[0].getId();
+    }
+
+    public boolean isEmpty() {
+        return messages.length == 0;
+    }
+
+    public int capacity() {
+        return capacity;
+    }
+
+    /**
+     * Seed the buffer (e.g. from the database at startup)
+     */
+    public void addAll(List<GlobalChatMessageDto> messages) {
+        for (GlobalChatMessageDto message : messages) {
+            add(message);
+        }
+    }
+
+    // Index of the first message with an id greater than afterId
+    private static int indexAfter(GlobalChatMessageDto[] sorted, long afterId) {
+        int low = 0;
+        int high = sorted.length;
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (sorted[mid].getId() <= afterId) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        return low;
+    }
+}
@@ -1,33 +1,64 @@
 package com.tcg.arena.service;
 
-import com.tcg.arena.config.CacheConfig;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
 import com.tcg.arena.dto.GlobalChatMessageDto;
 import com.tcg.arena.model.GlobalChatMessage;
 import com.tcg.arena.model.User;
 import com.tcg.arena.repository.GlobalChatRepository;
 import com.tcg.arena.repository.UserRepository;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
-import org.springframework.cache.annotation.CacheEvict;
-import org.springframework.cache.annotation.Cacheable;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Service;
 
-import java.time.LocalDateTime;
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
 import java.util.Collections;
+import java.util.Deque;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
-import java.util.concurrent.ConcurrentHashMap;
+import java.util.TreeMap;
 import java.util.stream.Collectors;
 
 /**
  * Service for global Arena Chat functionality.
  * Handles message creation, rate limiting, and retrieval.
+ *
+ * Reads (initial load and catch-up by id) are served from an in-memory
+ * buffer of the latest messages, ordered by id. Messages get their id from
+ * the database sequence and are persisted asynchronously by a write-behind
+ * flusher, so sending and broadcasting never wait on an insert.
+ *
+ * A single instance reserves ids in blocks. With a multi-instance broker
+ * mode ids are reserved one at a time, so ids from different instances stay
+ * close to send order. They do not follow it exactly: a message can still
+ * be published, received or persisted after one with a greater id. The
+ * buffer is therefore kept in id order, and catch-up merges the database
+ * with every buffered message past the client's id.
  */
 @Service
 public class GlobalChatService {
 
+    private static final Logger logger = LoggerFactory.getLogger(GlobalChatService.class);
+
     private static final int RATE_LIMIT_SECONDS = 20;
     private static final int MAX_MESSAGE_LENGTH = 500;
+    private static final int RECENT_MESSAGES_LIMIT = 50;
+    private static final int ID_BLOCK_SIZE = 50;
+    private static final int FLUSH_BATCH_SIZE = 500;
+
+    private static final String INSERT_MESSAGE_SQL = "INSERT INTO global_chat_messages "
+            + "(id, user_id, username, display_name, content, timestamp) VALUES (?, ?, ?, ?, ?, ?)";
 
     @Autowired
     private GlobalChatRepository chatRepository;
@@ -35,8 +66,65 @@ public class GlobalChatService {
     @Autowired
     private UserRepository userRepository;
 
-    // In-memory rate limit tracking (userId -> lastMessageTime)
-    private final Map<Long, LocalDateTime> userLastMessageTime = new ConcurrentHashMap<>();
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private ClusterBrokerBus clusterBus;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Value("${app.websocket.broker.mode:simple}")
+    private String brokerMode;
+
+    @Value("${global-chat.buffer-size:256}")
+    private int bufferSize;
+
+    @Value("${global-chat.write-behind.queue-capacity:10000}")
+    private int writeBehindCapacity;
+
+    private GlobalChatBuffer buffer;
+    private WriteBehindQueue<GlobalChatMessage> pendingWrites;
+    private int idBlockSize;
+
+    // Reserved message ids, guarded by idLock
+    private final Object idLock = new Object();
+    private final Deque<Long> reservedIds = new ArrayDeque<>();
+
+    // Rate limit tracking (userId -> lastMessageTime millis), entries expire with
+    // the rate limit window so the map stays bounded
+    private final Cache<Long, Long> userLastMessageTime = Caffeine.newBuilder()
+            .expireAfterWrite(Duration.ofSeconds(RATE_LIMIT_SECONDS))
+            .maximumSize(100_000)
+            .build();
+
+    @PostConstruct
+    public void init() {
+        buffer = new GlobalChatBuffer(bufferSize);
+        pendingWrites = new WriteBehindQueue<>("global chat message", writeBehindCapacity, FLUSH_BATCH_SIZE,
+                this::insertBatch);
+        idBlockSize = "simple".equalsIgnoreCase(brokerMode.trim()) ? ID_BLOCK_SIZE : 1;
+        try {
+            List<GlobalChatMessage> recent = chatRepository.findRecentMessages();
+            // Reverse to get chronological order (oldest first)
+            Collections.reverse(recent);
+            buffer.addAll(recent.stream().map(GlobalChatMessageDto::new).collect(Collectors.toList()));
+            logger.info("Global chat buffer warmed with {} messages (capacity {})", recent.size(), buffer.capacity());
+        } catch (Exception e) {
+            logger.warn("Could not warm global chat buffer: {}", e.getMessage());
+        }
+
+        // In cluster and relay broker modes, keep the buffer in sync with messages sent
+        // on other instances (inserted by id, they may arrive out of order)
+        clusterBus.onRemoteMessage("/topic/arena-chat", payload -> {
+            try {
+                buffer.add(objectMapper.readValue(payload, GlobalChatMessageDto.class));
+            } catch (Exception e) {
+                logger.warn("Could not read remote global chat message: {}", e.getMessage());
+            }
+        });
+    }
 
     /**
      * Send a new message to the global chat.
@@ -53,79 +141,151 @@ public class GlobalChatService {
             trimmedContent = trimmedContent.substring(0, MAX_MESSAGE_LENGTH);
         }
 
-        // Check rate limit
-        if (!canUserSendMessage(userId)) {
+        // Check and claim the rate limit slot atomically
+        if (userLastMessageTime.asMap().putIfAbsent(userId, System.currentTimeMillis()) != null) {
             return null; // Rate limited
         }
 
         // Get user info
         Optional<User> userOpt = userRepository.findById(userId);
         if (userOpt.isEmpty()) {
+            userLastMessageTime.invalidate(userId);
             throw new IllegalArgumentException("User not found");
         }
         User user = userOpt.get();
 
-        // Create and save message
         GlobalChatMessage message = new GlobalChatMessage(
                 userId,
                 user.getUsername(),
                 user.getDisplayName(),
                 user.getProfileImageUrl(),
                 trimmedContent);
-        message = chatRepository.save(message);
 
-        // Update rate limit tracker
-        userLastMessageTime.put(userId, LocalDateTime.now());
+        GlobalChatMessageDto dto;
+        synchronized (idLock) {
+            // Id assignment and publish happen in the same order on this instance
+            Long id = nextMessageId();
+            if (id != null) {
+                message.setId(id);
+                dto = toDto(message);
+                buffer.add(dto);
+            } else {
+                dto = null;
+            }
+        }
+
+        if (dto == null) {
+            // Sequence unavailable: fall back to a synchronous insert
+            message = chatRepository.save(message);
+            dto = toDto(message);
+            buffer.add(dto);
+        } else if (!pendingWrites.offer(message)) {
+            logger.warn("Global chat write-behind queue full, persisting message {} synchronously", message.getId());
+            pendingWrites.writeNow(List.of(message));
+        }
 
-        return new GlobalChatMessageDto(message);
+        return dto;
     }
 
     /**
      * Check if user can send a message (rate limit check).
      */
     public boolean canUserSendMessage(Long userId) {
-        LocalDateTime lastMessage = userLastMessageTime.get(userId);
-        if (lastMessage == null) {
-            return true;
-        }
-        return LocalDateTime.now().isAfter(lastMessage.plusSeconds(RATE_LIMIT_SECONDS));
+        return userLastMessageTime.getIfPresent(userId) == null;
     }
 
     /**
      * Get seconds remaining until user can send next message.
      */
     public int getSecondsUntilNextMessage(Long userId) {
-        LocalDateTime lastMessage = userLastMessageTime.get(userId);
+        Long lastMessage = userLastMessageTime.getIfPresent(userId);
         if (lastMessage == null) {
             return 0;
         }
-        LocalDateTime nextAllowed = lastMessage.plusSeconds(RATE_LIMIT_SECONDS);
-        if (LocalDateTime.now().isAfter(nextAllowed)) {
-            return 0;
-        }
-        return (int) java.time.Duration.between(LocalDateTime.now(), nextAllowed).getSeconds();
+        long remainingMs = lastMessage + RATE_LIMIT_SECONDS * 1000L - System.currentTimeMillis();
+        return remainingMs > 0 ? (int) (remainingMs / 1000) : 0;
     }
 
     /**
      * Get recent messages for initial load.
      */
-    @Cacheable(value = CacheConfig.GLOBAL_CHAT_CACHE, key = "'recent'")
     public List<GlobalChatMessageDto> getRecentMessages() {
-        List<GlobalChatMessage> messages = chatRepository.findRecentMessages();
-        // Reverse to get chronological order (oldest first)
-        Collections.reverse(messages);
-        return messages.stream()
-                .map(GlobalChatMessageDto::new)
-                .collect(Collectors.toList());
+        return buffer.latest(RECENT_MESSAGES_LIMIT);
     }
 
     /**
-     * Get messages after a specific ID (for sync after reconnect).
+     * Get messages after a specific ID (for sync after reconnect), in id order.
+     * Served from the buffer when it still covers afterId, otherwise merged
+     * from the database and the buffer. Without an id, the recent messages.
      */
-    @Cacheable(value = CacheConfig.GLOBAL_CHAT_CACHE, key = "'after_' + #afterId")
     public List<GlobalChatMessageDto> getMessagesAfterId(Long afterId) {
-        return chatRepository.findMessagesAfterId(afterId).stream()
-                .map(GlobalChatMessageDto::new)
-                .collect(Collectors.toList());
+        if (afterId == null) {
+            return getRecentMessages();
+        }
+        Long oldestBuffered = buffer.oldestId();
+        if (oldestBuffered != null && afterId >= oldestBuffered) {
+            return buffer.after(afterId);
+        }
+
+        // Buffered messages may not be flushed yet (here or on another instance),
+        // whatever their id: take all of them, deduplicated by id
+        Map<Long, GlobalChatMessageDto> merged = new TreeMap<>();
+        for (GlobalChatMessage message : chatRepository.findMessagesAfterId(afterId)) {
+            merged.put(message.getId(), new GlobalChatMessageDto(message));
+        }
+        for (GlobalChatMessageDto message : buffer.after(afterId)) {
+            merged.put(message.getId(), message);
+        }
+        return new ArrayList<>(merged.values());
+    }
+
+    /**
+     * Write-behind flusher: persists queued messages with JDBC batch inserts.
+     */
+    @Scheduled(fixedDelayString = "${global-chat.write-behind.flush-interval-ms:1000}")
+    public void flushPendingWrites() {
+        pendingWrites.flush();
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        flushPendingWrites();
+    }
+
+    private void insertBatch(List<GlobalChatMessage> messages) {
+        jdbcTemplate.batchUpdate(INSERT_MESSAGE_SQL, messages, messages.size(), (ps, message) -> {
+            ps.setLong(1, message.getId());
+            ps.setLong(2, message.getUserId());
+            ps.setString(3, message.getUsername());
+            ps.setString(4, message.getDisplayName());
+            ps.setString(5, message.getContent());
+            ps.setTimestamp(6, Timestamp.valueOf(message.getTimestamp()));
+        });
+    }
+
+    /**
+     * Next id from the table's sequence, reserving idBlockSize at a time.
+     * Must be called while holding idLock. Returns null if the sequence
+     * cannot be read.
+     */
+    private Long nextMessageId() {
+        if (reservedIds.isEmpty()) {
+            try {
+                reservedIds.addAll(jdbcTemplate.queryForList(
+                        "SELECT nextval(pg_get_serial_sequence('global_chat_messages', 'id')) "
+                                + "FROM generate_series(1, ?)",
+                        Long.class, idBlockSize));
+            } catch (Exception e) {
+                logger.warn("Could not reserve global chat message ids: {}", e.getMessage());
+                return null;
+            }
+        }
+        return reservedIds.pollFirst();
+    }
+
+    private GlobalChatMessageDto toDto(GlobalChatMessage message) {
+        GlobalChatMessageDto dto = new GlobalChatMessageDto(message);
+        dto.setUserAvatarUrl(message.getProfileImageUrl());
+        return dto;
     }
 }
@@ -216,6 +216,9 @@ public class GooglePlacesService {
         List<String> errors = new ArrayList<>();
         ApiRequestTracker requestTracker = new ApiRequestTracker();
 
+        // Built once per run, kept in sync below as shops get inserted
+        ShopDedupeIndex dedupeIndex = new ShopDedupeIndex(shopRepository.findAll());
+
         logger.info("Starting Google Places shop population for ITALY (dryRun: {}, maxRequests: {}, skipPlaceDetails: {})", 
                 dryRun, requestLimit, skipDetails);
 
@@ -245,7 +248,7 @@ public class GooglePlacesService {
 
                     for (Shop shop : shops) {
                         // Check if shop already exists by name and address similarity
-                        if (shopExists(shop)) {
+                        if (dedupeIndex.contains(shop)) {
                             logger.debug("Shop already exists: {}", shop.getName());
                             totalSkipped++;
                             continue;
@@ -257,6 +260,7 @@ public class GooglePlacesService {
                         } else {
                             logger.info("Would insert shop: {} - {}", shop.getName(), shop.getAddress());
                         }
+                        dedupeIndex.add(shop);
                         totalInserted++;
                     }
 
@@ -546,40 +550,4 @@ public class GooglePlacesService {
 
         shop.setServicesList(services);
     }
-
-    /**
-     * Check if shop already exists in database
-     */
-    private boolean shopExists(Shop shop) {
-        // Check by exact name and similar location (within 100 meters)
-        List<Shop> existingShops = shopRepository.findAll();
-        
-        for (Shop existing : existingShops) {
-            if (existing.getName().equalsIgnoreCase(shop.getName())) {
-                // Check distance
-                double distance = calculateDistance(
-                        existing.getLatitude(), existing.getLongitude(),
-                        shop.getLatitude(), shop.getLongitude()
-                );
-                if (distance < 0.1) { // Less than 100 meters
-                    return true;
-                }
-            }
-        }
-        return false;
-    }
-
-    /**
-     * Calculate distance between two coordinates in kilometers
-     */
-    private double calculateDistance(double lat1, double lon1, double lat2, double lon2) {
-        final int R = 6371; // Radius of the earth in km
-        double latDistance = Math.toRadians(lat2 - lat1);
-        double lonDistance = Math.toRadians(lon2 - lon1);
-        double a = Math.sin(latDistance / 2) * Math.sin(latDistance / 2)
-                + Math.cos(Math.toRadians(lat1)) * Math.cos(Math.toRadians(lat2))
-                * Math.sin(lonDistance / 2) * Math.sin(lonDistance / 2);
-        double c = 2 * Math.atan2(Math.sqrt(a), Math.sqrt(1 - a));
-        return R * c;
-    }
 }
@@ -314,6 +314,9 @@ public class HerePlacesService {
         List<String> errors = new ArrayList<>();
         int countriesProcessed = 0;
 
+        // Built once per run, kept in sync below as shops get inserted
+        ShopDedupeIndex dedupeIndex = new ShopDedupeIndex(shopRepository.findAll());
+
         logger.info("Starting HERE Places shop population for WORLDWIDE major cities (dryRun: {})", dryRun);
 
         String[] searchQueries = {
@@ -364,7 +367,7 @@ public class HerePlacesService {
                         for (Shop shop : shops) {
                             totalFound++;
 
-                            if (shopExists(shop)) {
+                            if (dedupeIndex.contains(shop)) {
                                 totalSkipped++;
                                 continue;
                             }
@@ -375,6 +378,7 @@ public class HerePlacesService {
                             } else {
                                 logger.info("Would insert: {} - {}", shop.getName(), shop.getAddress());
                             }
+                            dedupeIndex.add(shop);
                             totalInserted++;
                         }
 
@@ -661,39 +665,6 @@ public class HerePlacesService {
         shop.setTcgTypesList(tcgTypes);
     }
 
-    /**
-     * Check if shop already exists in database
-     */
-    private boolean shopExists(Shop shop) {
-        List<Shop> existingShops = shopRepository.findAll();
-
-        for (Shop existing : existingShops) {
-            if (existing.getName().equalsIgnoreCase(shop.getName())) {
-                double distance = calculateDistance(
-                        existing.getLatitude(), existing.getLongitude(),
-                        shop.getLatitude(), shop.getLongitude());
-                if (distance < 0.1) { // Less than 100 meters
-                    return true;
-                }
-            }
-        }
-        return false;
-    }
-
-    /**
-     * Calculate distance between two coordinates in kilometers
-     */
-    private double calculateDistance(double lat1, double lon1, double lat2, double lon2) {
-        final int R = 6371;
-        double latDistance = Math.toRadians(lat2 - lat1);
-        double lonDistance = Math.toRadians(lon2 - lon1);
-        double a = Math.sin(latDistance / 2) * Math.sin(latDistance / 2)
-                + Math.cos(Math.toRadians(lat1)) * Math.cos(Math.toRadians(lat2))
-                        * Math.sin(lonDistance / 2) * Math.sin(lonDistance / 2);
-        double c = 2 * Math.atan2(Math.sqrt(a), Math.sqrt(1 - a));
-        return R * c;
-    }
-
     /**
      * Build summary response
      */
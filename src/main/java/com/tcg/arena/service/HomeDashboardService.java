@@ -1,18 +1,17 @@
 package com.tcg.arena.service;
 
+import com.tcg.arena.dto.CollectionValueDTO;
 import com.tcg.arena.dto.HomeDashboardDTO;
 import com.tcg.arena.dto.NewsItemDTO;
 import com.tcg.arena.model.Deck;
 import com.tcg.arena.model.Shop;
 import com.tcg.arena.model.User;
-import com.tcg.arena.model.UserCard;
 import com.tcg.arena.model.Card;
 import com.tcg.arena.model.Tournament;
 import com.tcg.arena.model.CustomerRequest;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
 
-import java.math.BigDecimal;
 import java.util.List;
 
 @Service
@@ -25,7 +24,7 @@ public class HomeDashboardService {
     private TournamentService tournamentService;
 
     @Autowired
-    private UserCardService userCardService;
+    private CollectionValuationService collectionValuationService;
 
     @Autowired
     private ReservationService reservationService;
@@ -74,17 +73,10 @@ public class HomeDashboardService {
         }
         dashboard.setUpcomingTournamentsCount(upcomingTournamentsCount);
 
-        // 3. Collection Stats
-        List<UserCard> userCards = userCardService.getUserCardsByUserId(user.getId());
-        dashboard.setCollectionCount(userCards.size());
-
-        BigDecimal totalValue = BigDecimal.ZERO;
-        for (UserCard card : userCards) {
-            if (card.getCardTemplate() != null && card.getCardTemplate().getMarketPrice() != null) {
-                totalValue = totalValue.add(BigDecimal.valueOf(card.getCardTemplate().getMarketPrice()));
-            }
-        }
-        dashboard.setTotalCollectionValue(totalValue);
+        // 3. Collection Stats (materialized totals)
+        CollectionValueDTO collectionValue = collectionValuationService.getCollectionValue(user.getId());
+        dashboard.setCollectionCount(collectionValue.getCardCount());
+        dashboard.setTotalCollectionValue(collectionValue.getMarketValue());
 
         // 4. Deck Count
         try {
@@ -0,0 +1,162 @@
+package com.tcg.arena.service;
+
+import com.tcg.arena.model.Expansion;
+import com.tcg.arena.model.TCGSet;
+import com.tcg.arena.model.TCGType;
+import com.tcg.arena.repository.ExpansionRepository;
+import com.tcg.arena.repository.TCGSetRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Set and expansion dictionaries shared by the import workers.
+ *
+ * An import preloads the sets and expansions of its TCG in two queries. A miss
+ * creates the row with computeIfAbsent and an INSERT ... ON CONFLICT DO
+ * NOTHING upsert, so only callers asking for that same key wait and no
+ * import serializes on a global lock. Keys are interned set codes and
+ * expansion titles, kept per TCG type.
+ */
+@Component
+public class ImportLookupCache {
+
+    private static final Logger logger = LoggerFactory.getLogger(ImportLookupCache.class);
+
+    private static final String UPSERT_EXPANSION_SQL = "INSERT INTO expansions (title, tcg_type, modified_manually) "
+            + "VALUES (?, ?, false) ON CONFLICT (title, tcg_type) DO NOTHING";
+
+    private static final String UPSERT_SET_SQL = "INSERT INTO tcg_sets (name, set_code, expansion_id, card_count, "
+            + "release_date, release_date_modified_manually, description) VALUES (?, ?, ?, ?, ?, false, ?) "
+            + "ON CONFLICT (set_code) DO NOTHING";
+
+    // Fully built in the constructor, only the inner maps change afterwards
+    private final Map<TCGType, ConcurrentHashMap<String, Expansion>> expansionsByTitle = new EnumMap<>(TCGType.class);
+    private final ConcurrentHashMap<String, TCGSet> setsByCode = new ConcurrentHashMap<>();
+    // Sets already refreshed from API data since their last preload
+    private final Set<String> refreshedSetCodes = ConcurrentHashMap.newKeySet();
+
+    @Autowired
+    private ExpansionRepository expansionRepository;
+
+    @Autowired
+    private TCGSetRepository tcgSetRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    public ImportLookupCache() {
+        for (TCGType tcgType : TCGType.values()) {
+            expansionsByTitle.put(tcgType, new ConcurrentHashMap<>());
+        }
+    }
+
+    /**
+     * Load the sets and expansions of a TCG type, replacing what was cached for
+     * them. Called at the start of every import, so manual edits made between
+     * imports are picked up.
+     */
+    public void preload(TCGType tcgType) {
+        long start = System.currentTimeMillis();
+        ConcurrentHashMap<String, Expansion> expansions = expansionsByTitle.get(tcgType);
+        List<Expansion> loadedExpansions = expansionRepository.findByTcgType(tcgType);
+        for (Expansion expansion : loadedExpansions) {
+            expansions.put(expansion.getTitle().intern(), expansion);
+        }
+
+        List<TCGSet> loadedSets = tcgSetRepository.findAllWithExpansionByTcgType(tcgType);
+        for (TCGSet set : loadedSets) {
+            String setCode = set.getSetCode().intern();
+            setsByCode.put(setCode, set);
+            refreshedSetCodes.remove(setCode);
+        }
+
+        logger.info("[IMPORT] [{}] Lookup cache preloaded: {} expansions, {} sets in {}ms", tcgType,
+                loadedExpansions.size(), loadedSets.size(), System.currentTimeMillis() - start);
+    }
+
+    public Expansion getOrCreateExpansion(String title, TCGType tcgType) {
+        ConcurrentHashMap<String, Expansion> expansions = expansionsByTitle.get(tcgType);
+        Expansion expansion = expansions.get(title);
+        if (expansion != null) {
+            return expansion;
+        }
+        return expansions.computeIfAbsent(title.intern(), key -> upsertExpansion(key, tcgType));
+    }
+
+    /**
+     * The set with this code, from the cache or the database; null when it
+     * does not exist.
+     */
+    public TCGSet getSet(String setCode) {
+        TCGSet set = setsByCode.get(setCode);
+        if (set != null) {
+            return set;
+        }
+        set = tcgSetRepository.findBySetCode(setCode).orElse(null);
+        if (set != null) {
+            setsByCode.putIfAbsent(setCode.intern(), set);
+        }
+        return set;
+    }
+
+    /**
+     * The set with this code, created with the given values (and an expansion
+     * named like the set) when it does not exist yet.
+     */
+    public TCGSet getOrCreateSet(String setCode, String name, TCGType tcgType, int cardCount,
+            LocalDateTime releaseDate, String description) {
+        TCGSet set = setsByCode.get(setCode);
+        if (set != null) {
+            return set;
+        }
+        return setsByCode.computeIfAbsent(setCode.intern(),
+                key -> upsertSet(key, name, tcgType, cardCount, releaseDate, description));
+    }
+
+    /**
+     * Replace the cached instance of a set after it was saved.
+     */
+    public void putSet(TCGSet set) {
+        setsByCode.put(set.getSetCode().intern(), set);
+    }
+
+    /**
+     * True for the first caller since the set's last preload, which then
+     * refreshes the set from API data; false for everyone else.
+     */
+    public boolean claimRefresh(String setCode) {
+        return refreshedSetCodes.add(setCode);
+    }
+
+    private Expansion upsertExpansion(String title, TCGType tcgType) {
+        int inserted = jdbcTemplate.update(UPSERT_EXPANSION_SQL, title, tcgType.name());
+        if (inserted > 0) {
+            logger.debug("Created new Expansion: {}", title);
+        }
+        return expansionRepository.findByTitleAndTcgType(title, tcgType)
+                .orElseThrow(() -> new RuntimeException("Expansion not found after upsert: " + title));
+    }
+
+    private TCGSet upsertSet(String setCode, String name, TCGType tcgType, int cardCount,
+            LocalDateTime releaseDate, String description) {
+        Expansion expansion = getOrCreateExpansion(name, tcgType);
+        int inserted = jdbcTemplate.update(UPSERT_SET_SQL, name, setCode, expansion.getId(), cardCount,
+                Timestamp.valueOf(releaseDate), description);
+        if (inserted > 0) {
+            logger.debug("Created new TCGSet: {} ({})", name, setCode);
+        }
+        return tcgSetRepository.findBySetCode(setCode)
+                .orElseThrow(() -> new RuntimeException("TCGSet not found after upsert: " + setCode));
+    }
+}
@@ -10,6 +10,7 @@ import java.time.LocalDateTime;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
 
 /**
  * Collects and aggregates import statistics for all TCG types during nightly batch
@@ -21,14 +22,34 @@ public class ImportStatsCollector {
     private static final Logger logger = LoggerFactory.getLogger(ImportStatsCollector.class);
     
     private final ConcurrentHashMap<TCGType, ImportSummaryEmailDTO.TCGImportResult> currentBatchStats = new ConcurrentHashMap<>();
+    private final ConcurrentHashMap<TCGType, ChunkCounters> chunkCounters = new ConcurrentHashMap<>();
     private LocalDateTime batchStartTime;
     
+    /**
+     * Read/write/skip counts of the chunked batch import of one TCG type,
+     * summed over all set partitions.
+     */
+    public static class ChunkCounters {
+        private final AtomicLong read = new AtomicLong();
+        private final AtomicLong written = new AtomicLong();
+        private final AtomicLong skipped = new AtomicLong();
+        private final AtomicLong added = new AtomicLong();
+        private final AtomicLong updated = new AtomicLong();
+
+        public long getRead() { return read.get(); }
+        public long getWritten() { return written.get(); }
+        public long getSkipped() { return skipped.get(); }
+        public long getAdded() { return added.get(); }
+        public long getUpdated() { return updated.get(); }
+    }
+    
     /**
      * Reset statistics for a new batch run
      */
     public void resetBatch() {
         logger.info("Resetting import stats for new batch");
         currentBatchStats.clear();
+        chunkCounters.clear();
         batchStartTime = LocalDateTime.now();
     }
     
@@ -40,14 +61,86 @@ public class ImportStatsCollector {
         ImportSummaryEmailDTO.TCGImportResult result = new ImportSummaryEmailDTO.TCGImportResult(tcgType);
         result.setStatus("IN_PROGRESS");
         currentBatchStats.put(tcgType, result);
+        chunkCounters.put(tcgType, new ChunkCounters());
+    }
+    
+    /**
+     * Record the restart of a failed or stopped import for a TCG type. The
+     * counters of the previous execution are kept, since its completed
+     * partitions are not run again; they start from zero only when this
+     * process never saw that execution.
+     */
+    public void recordImportResume(TCGType tcgType) {
+        logger.info("Recording import restart for {}", tcgType.getDisplayName());
+        ImportSummaryEmailDTO.TCGImportResult previous = currentBatchStats.get(tcgType);
+        ImportSummaryEmailDTO.TCGImportResult result = new ImportSummaryEmailDTO.TCGImportResult(tcgType);
+        result.setStatus("IN_PROGRESS");
+        if (previous != null) {
+            result.setStartTime(previous.getStartTime());
+        }
+        currentBatchStats.put(tcgType, result);
+        ChunkCounters counters = chunkCounters.computeIfAbsent(tcgType, type -> new ChunkCounters());
+        result.setCardsProcessed((int) counters.getRead());
+        result.setCardsAdded((int) counters.getAdded());
+        result.setCardsUpdated((int) counters.getUpdated());
+        result.setErrors((int) counters.getSkipped());
+    }
+    
+    /**
+     * Record the counts of one committed chunk of the batch import. The
+     * in-progress result is updated too, so progress is visible while the
+     * job runs.
+     */
+    public void recordChunkProgress(TCGType tcgType, long read, long written, long skipped) {
+        ChunkCounters counters = chunkCounters.computeIfAbsent(tcgType, type -> new ChunkCounters());
+        counters.read.addAndGet(read);
+        counters.written.addAndGet(written);
+        counters.skipped.addAndGet(skipped);
+        
+        ImportSummaryEmailDTO.TCGImportResult result = currentBatchStats.get(tcgType);
+        if (result != null && "IN_PROGRESS".equals(result.getStatus())) {
+            result.setCardsProcessed((int) counters.getRead());
+            result.setErrors((int) counters.getSkipped());
+        }
+    }
+    
+    /**
+     * Record how many of the written cards were new templates and how many
+     * existing templates only had their prices updated
+     */
+    public void recordCardsWritten(TCGType tcgType, int added, int updated) {
+        ChunkCounters counters = chunkCounters.computeIfAbsent(tcgType, type -> new ChunkCounters());
+        counters.added.addAndGet(added);
+        counters.updated.addAndGet(updated);
+        
+        ImportSummaryEmailDTO.TCGImportResult result = currentBatchStats.get(tcgType);
+        if (result != null && "IN_PROGRESS".equals(result.getStatus())) {
+            result.setCardsAdded((int) counters.getAdded());
+            result.setCardsUpdated((int) counters.getUpdated());
+        }
+    }
+    
+    /**
+     * Chunk counters of the batch import for a TCG type (zero when none ran)
+     */
+    public ChunkCounters getChunkCounters(TCGType tcgType) {
+        return chunkCounters.getOrDefault(tcgType, new ChunkCounters());
     }
     
     /**
      * Record successful completion of an import
      */
     public void recordImportSuccess(TCGType tcgType, int cardsProcessed, int cardsAdded, int cardsUpdated) {
-        logger.info("Recording import success for {}: {} cards processed, {} added, {} updated", 
-            tcgType.getDisplayName(), cardsProcessed, cardsAdded, cardsUpdated);
+        recordImportSuccess(tcgType, cardsProcessed, cardsAdded, cardsUpdated, 0);
+    }
+    
+    /**
+     * Record successful completion of an import that skipped some cards
+     */
+    public void recordImportSuccess(TCGType tcgType, int cardsProcessed, int cardsAdded, int cardsUpdated,
+            int cardsSkipped) {
+        logger.info("Recording import success for {}: {} cards processed, {} added, {} updated, {} skipped", 
+            tcgType.getDisplayName(), cardsProcessed, cardsAdded, cardsUpdated, cardsSkipped);
         
         ImportSummaryEmailDTO.TCGImportResult result = currentBatchStats.get(tcgType);
         if (result != null) {
@@ -56,7 +149,7 @@ public class ImportStatsCollector {
             result.setCardsProcessed(cardsProcessed);
             result.setCardsAdded(cardsAdded);
             result.setCardsUpdated(cardsUpdated);
-            result.setErrors(0);
+            result.setErrors(cardsSkipped);
         } else {
             logger.warn("No import record found for {} when recording success", tcgType.getDisplayName());
         }
@@ -0,0 +1,116 @@
+package com.tcg.arena.service;
+
+import com.tcg.arena.config.CacheConfig;
+import com.tcg.arena.dto.InventoryCardDTO.InventoryStatsResponse;
+import com.tcg.arena.dto.InventoryCardDTO.TcgValueBreakdown;
+import com.tcg.arena.repository.InventoryCardRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.cache.annotation.Cacheable;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+
+/**
+ * Merchant inventory statistics, aggregated by the database in one grouped
+ * query (totals are the sum of the per-TCG rows) and cached per shop for a
+ * short time. Every inventory write evicts the shop's entry once its
+ * transaction committed: evicting earlier would let a concurrent read cache
+ * the statistics without the write until the entry expires.
+ */
+@Service
+public class InventoryAnalyticsService {
+
+    private static final Logger log = LoggerFactory.getLogger(InventoryAnalyticsService.class);
+
+    // Same threshold as the dashboard low stock list
+    private static final int LOW_STOCK_THRESHOLD = 5;
+
+    private final InventoryCardRepository inventoryCardRepository;
+    private final CacheManager cacheManager;
+
+    public InventoryAnalyticsService(InventoryCardRepository inventoryCardRepository, CacheManager cacheManager) {
+        this.inventoryCardRepository = inventoryCardRepository;
+        this.cacheManager = cacheManager;
+    }
+
+    /**
+     * Totals, low stock count and value by TCG of a shop inventory
+     */
+    @Transactional(readOnly = true)
+    @Cacheable(value = CacheConfig.INVENTORY_STATS_CACHE, key = "#shopId")
+    public InventoryStatsResponse getInventoryStats(Long shopId) {
+        long start = System.currentTimeMillis();
+
+        long totalItems = 0;
+        long totalQuantity = 0;
+        double totalValue = 0;
+        long lowStockCount = 0;
+        List<TcgValueBreakdown> valueByTcg = new ArrayList<>();
+
+        for (Object[] row : inventoryCardRepository.aggregateStatsByTcgType(shopId, LOW_STOCK_THRESHOLD)) {
+            long items = ((Number) row[1]).longValue();
+            long quantity = ((Number) row[2]).longValue();
+            double value = ((Number) row[3]).doubleValue();
+
+            totalItems += items;
+            totalQuantity += quantity;
+            totalValue += value;
+            lowStockCount += row[4] != null ? ((Number) row[4]).longValue() : 0;
+            valueByTcg.add(new TcgValueBreakdown((String) row[0], items, quantity, value));
+        }
+        valueByTcg.sort(Comparator.comparingDouble(TcgValueBreakdown::getTotalValue).reversed());
+
+        InventoryStatsResponse stats = new InventoryStatsResponse(totalItems, totalQuantity, totalValue,
+                lowStockCount);
+        stats.setValueByTcg(valueByTcg);
+
+        log.debug("Inventory stats for shop {} computed in {}ms", shopId, System.currentTimeMillis() - start);
+        return stats;
+    }
+
+    /**
+     * Drop the cached statistics of a shop after an inventory write (after
+     * commit when called inside a transaction)
+     */
+    public void evict(Long shopId) {
+        afterCommit(() -> {
+            Cache cache = cacheManager.getCache(CacheConfig.INVENTORY_STATS_CACHE);
+            if (cache != null) {
+                cache.evict(shopId);
+            }
+        });
+    }
+
+    /**
+     * Drop the cached statistics of every shop (writes spanning shops)
+     */
+    public void evictAll() {
+        afterCommit(() -> {
+            Cache cache = cacheManager.getCache(CacheConfig.INVENTORY_STATS_CACHE);
+            if (cache != null) {
+                cache.clear();
+            }
+        });
+    }
+
+    private void afterCommit(Runnable action) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    action.run();
+                }
+            });
+        } else {
+            action.run();
+        }
+    }
+}
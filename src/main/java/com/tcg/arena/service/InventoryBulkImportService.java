@@ -1,12 +1,13 @@
 package com.tcg.arena.service;
 
 import com.tcg.arena.dto.InventoryBulkImportDTO.*;
-import com.tcg.arena.dto.InventoryCardDTO.CreateInventoryCardRequest;
 import com.tcg.arena.model.CardNationality;
 import com.tcg.arena.model.CardTemplate;
 import com.tcg.arena.model.InventoryCard.CardCondition;
+import com.tcg.arena.model.InventoryImportJob;
 import com.tcg.arena.model.InventoryImportRequest;
 import com.tcg.arena.model.InventoryImportRequest.ImportStatus;
+import com.tcg.arena.model.JobStatus;
 import com.tcg.arena.repository.CardTemplateRepository;
 import com.tcg.arena.repository.InventoryImportRequestRepository;
 import org.slf4j.Logger;
@@ -15,9 +16,7 @@ import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 import org.springframework.web.multipart.MultipartFile;
 
-import java.io.BufferedReader;
 import java.io.IOException;
-import java.io.InputStreamReader;
 import java.nio.charset.StandardCharsets;
 import java.util.ArrayList;
 import java.util.List;
@@ -27,20 +26,23 @@ public class InventoryBulkImportService {
 
     private static final Logger log = LoggerFactory.getLogger(InventoryBulkImportService.class);
 
-    private static final String CSV_HEADER = "card_name,set_code,tcg_type,condition,quantity,price,nationality,notes";
+    private static final String CSV_HEADER = InventoryCsvImportService.CSV_HEADER;
     private static final String CSV_EXAMPLE = "Charizard,SV01,POKEMON,NEAR_MINT,2,9.99,EN,\"My first Charizard\"";
 
     private final InventoryImportRequestRepository importRequestRepository;
-    private final InventoryCardService inventoryCardService;
     private final CardTemplateRepository cardTemplateRepository;
+    private final InventoryCsvImportService csvImportService;
+    private final InventoryCardBatchWriter inventoryCardBatchWriter;
 
     public InventoryBulkImportService(
             InventoryImportRequestRepository importRequestRepository,
-            InventoryCardService inventoryCardService,
-            CardTemplateRepository cardTemplateRepository) {
+            CardTemplateRepository cardTemplateRepository,
+            InventoryCsvImportService csvImportService,
+            InventoryCardBatchWriter inventoryCardBatchWriter) {
         this.importRequestRepository = importRequestRepository;
-        this.inventoryCardService = inventoryCardService;
         this.cardTemplateRepository = cardTemplateRepository;
+        this.csvImportService = csvImportService;
+        this.inventoryCardBatchWriter = inventoryCardBatchWriter;
     }
 
     /**
@@ -62,52 +64,40 @@ public class InventoryBulkImportService {
     }
 
     /**
-     * Process bulk import from standard CSV template
+     * Process bulk import from standard CSV template, on the calling thread.
+     * Large files should go through startCSVImport instead.
      */
-    @Transactional
     public BulkImportResponse bulkImportFromCSV(Long shopId, MultipartFile file) throws IOException {
         log.info("Starting bulk import for shop: {}", shopId);
 
-        List<String> errors = new ArrayList<>();
-        int successCount = 0;
-        int totalRows = 0;
-
-        try (BufferedReader reader = new BufferedReader(
-                new InputStreamReader(file.getInputStream(), StandardCharsets.UTF_8))) {
-
-            String line;
-            int lineNumber = 0;
-
-            while ((line = reader.readLine()) != null) {
-                lineNumber++;
-
-                // Skip header, empty lines, and comments
-                if (lineNumber == 1 || line.trim().isEmpty() || line.trim().startsWith("#")) {
-                    continue;
-                }
-
-                totalRows++;
-
-                try {
-                    BulkImportRow row = parseCSVRow(line, lineNumber);
-                    processImportRow(shopId, row);
-                    successCount++;
-                } catch (Exception e) {
-                    String error = String.format("Row %d: %s", lineNumber, e.getMessage());
-                    errors.add(error);
-                    log.warn("Error processing row {}: {}", lineNumber, e.getMessage());
-                }
-            }
+        InventoryImportJob job = csvImportService.createJob(shopId, file.getOriginalFilename());
+        csvImportService.run(job, file.getBytes());
+        if (job.getStatus() == JobStatus.FAILED) {
+            throw new IOException(job.getMessage());
         }
 
-        String message = successCount == totalRows
-                ? "Import completato con successo"
-                : String.format("Import completato con %d errori", errors.size());
+        List<String> errors = new ArrayList<>();
+        for (InventoryImportJob.RowError rowError : job.getRowErrors()) {
+            errors.add(String.format("Row %d: %s", rowError.getLineNumber(), rowError.getError()));
+        }
 
         log.info("Bulk import completed for shop {}: {} success, {} errors",
-                shopId, successCount, errors.size());
+                shopId, job.getSuccessCount(), errors.size());
 
-        return new BulkImportResponse(totalRows, successCount, errors.size(), errors, message);
+        return new BulkImportResponse(job.getTotalRows(), job.getSuccessCount(), errors.size(), errors,
+                job.getMessage());
+    }
+
+    /**
+     * Start a bulk import from standard CSV template in the background.
+     * Progress and error report are available through the returned job id.
+     */
+    public InventoryImportJob startCSVImport(Long shopId, MultipartFile file) throws IOException {
+        log.info("Starting async bulk import for shop: {}", shopId);
+
+        InventoryImportJob job = csvImportService.createJob(shopId, file.getOriginalFilename());
+        csvImportService.runAsync(job, file.getBytes());
+        return job;
     }
 
     /**
@@ -146,149 +136,6 @@ public class InventoryBulkImportService {
         return importRequestRepository.findByShopIdOrderByCreatedAtDesc(shopId, null).getContent();
     }
 
-    /**
-     * Parse a CSV row into BulkImportRow
-     * Format:
-     * card_name,set_code,tcg_type,condition,quantity,price,nationality,notes
-     */
-    private BulkImportRow parseCSVRow(String line, int lineNumber) {
-        String[] parts = parseCSVLine(line);
-
-        if (parts.length < 6) {
-            throw new IllegalArgumentException(
-                    "Colonne insufficienti (minimo 6: card_name, set_code, tcg_type, condition, quantity, price)");
-        }
-
-        BulkImportRow row = new BulkImportRow();
-
-        // card_name (required)
-        String cardName = parts[0].trim();
-        if (cardName.isEmpty()) {
-            throw new IllegalArgumentException("card_name vuoto");
-        }
-        row.setCardName(cardName);
-
-        // set_code (required)
-        String setCode = parts[1].trim().toUpperCase();
-        if (setCode.isEmpty()) {
-            throw new IllegalArgumentException("set_code vuoto");
-        }
-        row.setSetCode(setCode);
-
-        // tcg_type (required)
-        String tcgType = parts[2].trim().toUpperCase();
-        if (tcgType.isEmpty()) {
-            throw new IllegalArgumentException("tcg_type vuoto");
-        }
-        row.setTcgType(tcgType);
-
-        // condition (required)
-        String condition = parts[3].trim().toUpperCase();
-        try {
-            CardCondition.valueOf(condition);
-            row.setCondition(condition);
-        } catch (IllegalArgumentException e) {
-            throw new IllegalArgumentException("Condizione non valida: " + parts[3]);
-        }
-
-        // quantity (required)
-        try {
-            row.setQuantity(Integer.parseInt(parts[4].trim()));
-        } catch (NumberFormatException e) {
-            throw new IllegalArgumentException("Quantità non valida: " + parts[4]);
-        }
-
-        // price (required)
-        try {
-            row.setPrice(Double.parseDouble(parts[5].trim()));
-        } catch (NumberFormatException e) {
-            throw new IllegalArgumentException("Prezzo non valido: " + parts[5]);
-        }
-
-        // nationality (optional, default EN)
-        if (parts.length > 6 && !parts[6].trim().isEmpty()) {
-            row.setNationality(parts[6].trim().toUpperCase());
-        } else {
-            row.setNationality("EN");
-        }
-
-        // notes (optional)
-        if (parts.length > 7) {
-            row.setNotes(parts[7].trim().replace("\"", ""));
-        }
-
-        return row;
-    }
-
-    /**
-     * Parse CSV line handling quoted values
-     */
-    private String[] parseCSVLine(String line) {
-        List<String> result = new ArrayList<>();
-        StringBuilder current = new StringBuilder();
-        boolean inQuotes = false;
-
-        for (char c : line.toCharArray()) {
-            if (c == '"') {
-                inQuotes = !inQuotes;
-            } else if (c == ',' && !inQuotes) {
-                result.add(current.toString());
-                current = new StringBuilder();
-            } else {
-                current.append(c);
-            }
-        }
-        result.add(current.toString());
-
-        return result.toArray(new String[0]);
-    }
-
-    /**
-     * Process a single import row - finds card by name (LIKE), setCode, and tcgType
-     */
-    private void processImportRow(Long shopId, BulkImportRow row) {
-        // Search for card template using LIKE match on name + exact match on setCode +
-        // tcgType
-        List<CardTemplate> matches = cardTemplateRepository.findByNameLikeAndSetCodeAndTcgType(
-                row.getCardName(),
-                row.getSetCode(),
-                row.getTcgType());
-
-        if (matches.isEmpty()) {
-            throw new IllegalArgumentException(String.format(
-                    "Carta non trovata: '%s' nel set '%s' (%s)",
-                    row.getCardName(), row.getSetCode(), row.getTcgType()));
-        }
-
-        if (matches.size() > 1) {
-            throw new IllegalArgumentException(String.format(
-                    "Più carte corrispondono a '%s' nel set '%s': trovate %d carte. Specifica un nome più preciso.",
-                    row.getCardName(), row.getSetCode(), matches.size()));
-        }
-
-        CardTemplate cardTemplate = matches.get(0);
-        row.setCardTemplateId(cardTemplate.getId());
-
-        CreateInventoryCardRequest request = new CreateInventoryCardRequest();
-        request.setCardTemplateId(cardTemplate.getId());
-        request.setShopId(shopId);
-        request.setCondition(CardCondition.valueOf(row.getCondition()));
-        request.setQuantity(row.getQuantity());
-        request.setPrice(row.getPrice());
-        request.setNotes(row.getNotes());
-
-        if (row.getNationality() != null) {
-            try {
-                request.setNationality(CardNationality.valueOf(row.getNationality()));
-            } catch (IllegalArgumentException e) {
-                request.setNationality(CardNationality.EN);
-            }
-        }
-
-        inventoryCardService.createInventoryCard(request);
-        log.debug("Imported card '{}' (ID: {}) for shop {}", cardTemplate.getName(), cardTemplate.getId(), shopId);
-    }
-
     /**
      * Bulk add all cards from a specific set
      */
@@ -329,7 +176,9 @@ public class InventoryBulkImportService {
     }
 
     /**
-     * Common method to process bulk add for a list of card templates
+     * Common method to process bulk add for a list of card templates.
+     * Templates already stocked in the same condition and nationality get
+     * their quantity increased instead of a second row.
      */
     private BulkImportResponse processBulkAdd(Long shopId, List<CardTemplate> templates,
             String condition, int quantity, double price, String nationality, String sourceDesc) {
@@ -340,9 +189,6 @@ public class InventoryBulkImportService {
                     "Nessuna carta trovata");
         }
 
-        List<String> errors = new ArrayList<>();
-        int successCount = 0;
-
         CardCondition cardCondition;
         try {
             cardCondition = CardCondition.valueOf(condition);
@@ -361,32 +207,19 @@ public class InventoryBulkImportService {
             }
         }
 
-        for (CardTemplate template : templates) {
-            try {
-                CreateInventoryCardRequest request = new CreateInventoryCardRequest();
-                request.setCardTemplateId(template.getId());
-                request.setShopId(shopId);
-                request.setCondition(cardCondition);
-                request.setQuantity(quantity);
-                request.setPrice(price);
-                request.setNationality(cardNationality);
-
-                inventoryCardService.createInventoryCard(request);
-                successCount++;
-            } catch (Exception e) {
-                String error = String.format("Carta '%s': %s", template.getName(), e.getMessage());
-                errors.add(error);
-                log.warn("Error adding card '{}' to inventory: {}", template.getName(), e.getMessage());
-            }
-        }
+        InventoryCardBatchWriter.Result result = inventoryCardBatchWriter.addAll(shopId, templates, cardCondition,
+                quantity, price, cardNationality);
+        int successCount = result.getCreatedCount() + result.getMergedCount();
 
-        String message = successCount == templates.size()
-                ? String.format("Import completato: %d carte aggiunte da %s", successCount, sourceDesc)
-                : String.format("Import completato con %d errori su %d carte", errors.size(), templates.size());
+        String message = String.format("Import completato: %d carte aggiunte da %s (%d nuove, %d già presenti)",
+                successCount, sourceDesc, result.getCreatedCount(), result.getMergedCount());
 
-        log.info("Bulk add for shop {} from {}: {} success, {} errors",
-                shopId, sourceDesc, successCount, errors.size());
+        log.info("Bulk add for shop {} from {}: {} created, {} merged",
+                shopId, sourceDesc, result.getCreatedCount(), result.getMergedCount());
 
-        return new BulkImportResponse(templates.size(), successCount, errors.size(), errors, message);
+        BulkImportResponse response = new BulkImportResponse(templates.size(), successCount, 0, List.of(), message);
+        response.setCreatedCount(result.getCreatedCount());
+        response.setMergedCount(result.getMergedCount());
+        return response;
     }
 }
@@ -0,0 +1,136 @@
+package com.tcg.arena.service;
+
+import com.tcg.arena.model.CardNationality;
+import com.tcg.arena.model.CardTemplate;
+import com.tcg.arena.model.InventoryCard.CardCondition;
+import com.tcg.arena.repository.InventoryCardRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+
+/**
+ * Set-oriented inventory writer for bulk adds (whole set, expansion or a
+ * selection of templates).
+ *
+ * Rows are built from the templates the caller already loaded. Templates the
+ * shop already stocks in the same condition and nationality get the quantity
+ * added to that row, the others get a new row: one lookup query plus one
+ * UPDATE batch and one INSERT batch, in a single transaction.
+ */
+@Component
+public class InventoryCardBatchWriter {
+
+    private static final Logger log = LoggerFactory.getLogger(InventoryCardBatchWriter.class);
+
+    private static final String INSERT_SQL = "INSERT INTO inventory_cards (id, card_template_id, shop_id, condition, "
+            + "price, quantity, nationality, created_at, updated_at) VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?)";
+
+    private static final String MERGE_SQL = "UPDATE inventory_cards SET quantity = quantity + ?, updated_at = ? "
+            + "WHERE id = ?";
+
+    // Template ids per merge lookup, keeps the IN list reasonable for whole expansions
+    private static final int LOOKUP_SLICE = 1000;
+
+    @Autowired
+    private InventoryCardRepository inventoryCardRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private InventoryAnalyticsService inventoryAnalyticsService;
+
+    /**
+     * Add quantity copies of every template to the shop inventory
+     */
+    @Transactional
+    public Result addAll(Long shopId, List<CardTemplate> templates, CardCondition condition, int quantity,
+            double price, CardNationality nationality) {
+        long start = System.currentTimeMillis();
+
+        Set<Long> templateIds = new LinkedHashSet<>();
+        for (CardTemplate template : templates) {
+            templateIds.add(template.getId());
+        }
+
+        // Existing row per template (oldest one if the shop has several)
+        Map<Long, String> mergeTargets = new HashMap<>();
+        List<Long> ids = new ArrayList<>(templateIds);
+        for (int from = 0; from < ids.size(); from += LOOKUP_SLICE) {
+            List<Long> slice = ids.subList(from, Math.min(from + LOOKUP_SLICE, ids.size()));
+            for (Object[] row : inventoryCardRepository.findMergeTargets(shopId, condition, nationality, slice)) {
+                mergeTargets.putIfAbsent((Long) row[0], (String) row[1]);
+            }
+        }
+
+        List<String> merged = new ArrayList<>(mergeTargets.values());
+        List<Long> created = new ArrayList<>(templateIds.size() - merged.size());
+        for (Long templateId : templateIds) {
+            if (!mergeTargets.containsKey(templateId)) {
+                created.add(templateId);
+            }
+        }
+
+        Timestamp now = Timestamp.valueOf(LocalDateTime.now());
+        if (!merged.isEmpty()) {
+            jdbcTemplate.batchUpdate(MERGE_SQL, merged, merged.size(), (ps, id) -> {
+                ps.setInt(1, quantity);
+                ps.setTimestamp(2, now);
+                ps.setString(3, id);
+            });
+        }
+        if (!created.isEmpty()) {
+            jdbcTemplate.batchUpdate(INSERT_SQL, created, created.size(), (ps, templateId) -> {
+                ps.setString(1, UUID.randomUUID().toString());
+                ps.setLong(2, templateId);
+                ps.setLong(3, shopId);
+                ps.setString(4, condition.name());
+                ps.setDouble(5, price);
+                ps.setInt(6, quantity);
+                ps.setString(7, nationality.name());
+                ps.setTimestamp(8, now);
+                ps.setTimestamp(9, now);
+            });
+        }
+
+        inventoryAnalyticsService.evict(shopId);
+
+        log.info("Bulk inventory write for shop {}: {} created, {} merged in {}ms",
+                shopId, created.size(), merged.size(), System.currentTimeMillis() - start);
+        return new Result(created.size(), merged.size());
+    }
+
+    /**
+     * Rows created and rows whose quantity was increased
+     */
+    public static class Result {
+        private final int createdCount;
+        private final int mergedCount;
+
+        public Result(int createdCount, int mergedCount) {
+            this.createdCount = createdCount;
+            this.mergedCount = mergedCount;
+        }
+
+        public int getCreatedCount() {
+            return createdCount;
+        }
+
+        public int getMergedCount() {
+            return mergedCount;
+        }
+    }
+}
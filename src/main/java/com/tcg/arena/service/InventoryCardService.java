@@ -24,10 +24,13 @@ public class InventoryCardService {
     
     private final InventoryCardRepository inventoryCardRepository;
     private final CardTemplateService cardTemplateService;
+    private final InventoryAnalyticsService inventoryAnalyticsService;
     
-    public InventoryCardService(InventoryCardRepository inventoryCardRepository, CardTemplateService cardTemplateService) {
+    public InventoryCardService(InventoryCardRepository inventoryCardRepository, CardTemplateService cardTemplateService,
+            InventoryAnalyticsService inventoryAnalyticsService) {
         this.inventoryCardRepository = inventoryCardRepository;
         this.cardTemplateService = cardTemplateService;
+        this.inventoryAnalyticsService = inventoryAnalyticsService;
     }
     
     /**
@@ -104,7 +107,9 @@ public class InventoryCardService {
         inventoryCard.setCreatedAt(now);
         inventoryCard.setUpdatedAt(now);
         
-        return inventoryCardRepository.save(inventoryCard);
+        InventoryCard saved = inventoryCardRepository.save(inventoryCard);
+        inventoryAnalyticsService.evict(saved.getShopId());
+        return saved;
     }
     
     /**
@@ -132,7 +137,9 @@ public class InventoryCardService {
             inventoryCard.setNationality(request.getNationality());
         }
         
-        return inventoryCardRepository.save(inventoryCard);
+        InventoryCard saved = inventoryCardRepository.save(inventoryCard);
+        inventoryAnalyticsService.evict(saved.getShopId());
+        return saved;
     }
     
     /**
@@ -142,11 +149,11 @@ public class InventoryCardService {
     public void deleteInventoryCard(String id) {
         log.info("Deleting inventory card: {}", id);
         
-        if (!inventoryCardRepository.existsById(id)) {
-            throw new RuntimeException("Inventory card not found: " + id);
-        }
+        InventoryCard inventoryCard = inventoryCardRepository.findById(id)
+            .orElseThrow(() -> new RuntimeException("Inventory card not found: " + id));
         
-        inventoryCardRepository.deleteById(id);
+        inventoryCardRepository.delete(inventoryCard);
+        inventoryAnalyticsService.evict(inventoryCard.getShopId());
     }
     
     /**
@@ -164,37 +171,17 @@ public class InventoryCardService {
         }
         
         inventoryCard.setQuantity(newQuantity);
-        return inventoryCardRepository.save(inventoryCard);
+        InventoryCard saved = inventoryCardRepository.save(inventoryCard);
+        inventoryAnalyticsService.evict(saved.getShopId());
+        return saved;
     }
     
     /**
-     * Get inventory statistics
+     * Get inventory statistics (aggregated in SQL, cached per shop)
      */
-    @Transactional(readOnly = true)
     public InventoryStatsResponse getInventoryStats(Long shopId) {
         log.info("Getting inventory stats for shop: {}", shopId);
-        
-        List<InventoryCard> allInventory = inventoryCardRepository.findByShopId(
-            shopId, 
-            Pageable.unpaged()
-        ).getContent();
-        
-        long totalItems = allInventory.size();
-        long totalQuantity = allInventory.stream()
-            .mapToLong(InventoryCard::getQuantity)
-            .sum();
-        double totalValue = allInventory.stream()
-            .mapToDouble(card -> card.getPrice() * card.getQuantity())
-            .sum();
-        
-        List<InventoryCard> lowStock = inventoryCardRepository.findLowStockItems(shopId, 5);
-        
-        return new InventoryStatsResponse(
-            totalItems,
-            totalQuantity,
-            totalValue,
-            lowStock.size()
-        );
+        return inventoryAnalyticsService.getInventoryStats(shopId);
     }
     
     /**
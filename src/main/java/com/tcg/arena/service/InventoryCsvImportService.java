@@ -0,0 +1,431 @@
+package com.tcg.arena.service;
+
+import com.tcg.arena.dto.InventoryBulkImportDTO.BulkImportRow;
+import com.tcg.arena.model.CardNationality;
+import com.tcg.arena.model.InventoryCard.CardCondition;
+import com.tcg.arena.model.InventoryImportJob;
+import com.tcg.arena.model.JobStatus;
+import com.tcg.arena.model.TCGType;
+import com.tcg.arena.repository.CardTemplateRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Async;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.BufferedReader;
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Chunked engine behind the CSV inventory import.
+ *
+ * The file is read line by line and handled in chunks: rows are validated,
+ * the card templates of all sets referenced by the chunk are loaded with one
+ * query (each set once per import), and the matched rows are inserted with a
+ * single JDBC batch in one transaction. Invalid or unmatched rows go to the
+ * job's error report, downloadable as CSV.
+ *
+ * Jobs are kept in memory, like AsyncImportService jobs, and dropped some
+ * time after they finish.
+ */
+@Service
+public class InventoryCsvImportService {
+
+    private static final Logger log = LoggerFactory.getLogger(InventoryCsvImportService.class);
+
+    static final String CSV_HEADER = "card_name,set_code,tcg_type,condition,quantity,price,nationality,notes";
+    private static final String ERROR_CSV_HEADER = "line,error," + CSV_HEADER;
+
+    private static final String INSERT_SQL = "INSERT INTO inventory_cards (id, card_template_id, shop_id, condition, "
+            + "price, quantity, notes, nationality, created_at, updated_at) VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?)";
+
+    private final Map<String, InventoryImportJob> jobs = new ConcurrentHashMap<>();
+
+    @Autowired
+    private CardTemplateRepository cardTemplateRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Autowired
+    private InventoryAnalyticsService inventoryAnalyticsService;
+
+    // Rows validated, resolved and inserted together
+    @Value("${inventory.import.chunk-size:500}")
+    private int chunkSize;
+
+    // How long a finished job (and its error report) stays available
+    @Value("${inventory.import.job-retention-minutes:60}")
+    private long jobRetentionMinutes;
+
+    /**
+     * Register a new job; finished jobs past their retention are dropped here
+     */
+    public InventoryImportJob createJob(Long shopId, String fileName) {
+        LocalDateTime expiry = LocalDateTime.now().minusMinutes(jobRetentionMinutes);
+        jobs.values().removeIf(job -> job.isFinished() && job.getEndTime().isBefore(expiry));
+
+        InventoryImportJob job = new InventoryImportJob(shopId, fileName);
+        jobs.put(job.getId(), job);
+        return job;
+    }
+
+    /**
+     * Job of a shop, null when unknown, expired or owned by another shop
+     */
+    public InventoryImportJob getJob(String jobId, Long shopId) {
+        InventoryImportJob job = jobs.get(jobId);
+        return job != null && job.getShopId().equals(shopId) ? job : null;
+    }
+
+    /**
+     * Run an import on the async executor. The content is passed as bytes
+     * because the uploaded file is gone once the request completes.
+     */
+    @Async
+    public void runAsync(InventoryImportJob job, byte[] content) {
+        run(job, content);
+    }
+
+    /**
+     * Run an import on the calling thread
+     */
+    public void run(InventoryImportJob job, byte[] content) {
+        job.setStatus(JobStatus.RUNNING);
+        job.setMessage("Import in corso...");
+        log.info("Starting CSV inventory import {} for shop {}", job.getId(), job.getShopId());
+
+        // (setCode|tcgType) -> candidates, loaded once per import
+        Map<String, List<TemplateCandidate>> candidatesBySet = new HashMap<>();
+        List<ParsedRow> chunk = new ArrayList<>(chunkSize);
+
+        try (BufferedReader reader = new BufferedReader(
+                new InputStreamReader(new ByteArrayInputStream(content), StandardCharsets.UTF_8))) {
+
+            String line;
+            int lineNumber = 0;
+
+            while ((line = reader.readLine()) != null) {
+                lineNumber++;
+
+                // Skip header, empty lines, and comments
+                if (lineNumber == 1 || line.trim().isEmpty() || line.trim().startsWith("#")) {
+                    continue;
+                }
+
+                job.setTotalRows(job.getTotalRows() + 1);
+                chunk.add(new ParsedRow(lineNumber, line));
+                if (chunk.size() >= chunkSize) {
+                    processChunk(job, chunk, candidatesBySet);
+                    chunk.clear();
+                }
+            }
+            processChunk(job, chunk, candidatesBySet);
+
+            job.setMessage(job.getErrorCount() == 0
+                    ? "Import completato con successo"
+                    : String.format("Import completato con %d errori", job.getErrorCount()));
+            job.setStatus(JobStatus.COMPLETED);
+        } catch (IOException | RuntimeException e) {
+            log.error("CSV inventory import {} failed: {}", job.getId(), e.getMessage(), e);
+            job.setMessage("Import fallito: " + e.getMessage());
+            job.setStatus(JobStatus.FAILED);
+        }
+
+        log.info("CSV inventory import {} for shop {}: {} rows, {} success, {} errors", job.getId(),
+                job.getShopId(), job.getTotalRows(), job.getSuccessCount(), job.getErrorCount());
+    }
+
+    /**
+     * Error report of a job: the failed rows as they were uploaded, preceded
+     * by their line number and the reason
+     */
+    public byte[] buildErrorReport(InventoryImportJob job) {
+        StringBuilder sb = new StringBuilder(ERROR_CSV_HEADER).append("\n");
+        for (InventoryImportJob.RowError rowError : job.getRowErrors()) {
+            sb.append(rowError.getLineNumber()).append(',').append(quote(rowError.getError())).append(',')
+                    .append(rowError.getLine()).append("\n");
+        }
+        return sb.toString().getBytes(StandardCharsets.UTF_8);
+    }
+
+    private void processChunk(InventoryImportJob job, List<ParsedRow> chunk,
+            Map<String, List<TemplateCandidate>> candidatesBySet) {
+        if (chunk.isEmpty()) {
+            return;
+        }
+
+        // Validate rows and collect the sets not seen yet
+        Set<String> missingSetCodes = new HashSet<>();
+        for (ParsedRow parsed : chunk) {
+            try {
+                parsed.row = parseCSVRow(parsed.line);
+                if (!candidatesBySet.containsKey(setKey(parsed.row.getSetCode(), parsed.row.getTcgType()))) {
+                    missingSetCodes.add(parsed.row.getSetCode());
+                }
+            } catch (IllegalArgumentException e) {
+                parsed.error = e.getMessage();
+            }
+        }
+
+        if (!missingSetCodes.isEmpty()) {
+            loadCandidates(missingSetCodes, candidatesBySet);
+        }
+
+        // Resolve templates in memory
+        List<ParsedRow> resolved = new ArrayList<>(chunk.size());
+        for (ParsedRow parsed : chunk) {
+            if (parsed.error != null) {
+                continue;
+            }
+            try {
+                parsed.row.setCardTemplateId(resolveTemplate(parsed.row, candidatesBySet));
+                resolved.add(parsed);
+            } catch (IllegalArgumentException e) {
+                parsed.error = e.getMessage();
+            }
+        }
+
+        int inserted = 0;
+        if (!resolved.isEmpty()) {
+            try {
+                insertRows(job.getShopId(), resolved);
+                inserted = resolved.size();
+                inventoryAnalyticsService.evict(job.getShopId());
+            } catch (RuntimeException e) {
+                log.warn("CSV inventory import {}: batch insert of {} rows failed: {}", job.getId(),
+                        resolved.size(), e.getMessage());
+                for (ParsedRow parsed : resolved) {
+                    parsed.error = "Errore di salvataggio: " + e.getMessage();
+                }
+            }
+        }
+
+        for (ParsedRow parsed : chunk) {
+            if (parsed.error != null) {
+                job.addRowError(parsed.lineNumber, parsed.error, parsed.line);
+            }
+        }
+        job.setSuccessCount(job.getSuccessCount() + inserted);
+        job.setProcessedRows(job.getProcessedRows() + chunk.size());
+    }
+
+    private void loadCandidates(Set<String> setCodes, Map<String, List<TemplateCandidate>> candidatesBySet) {
+        for (String setCode : setCodes) {
+            for (TCGType tcgType : TCGType.values()) {
+                candidatesBySet.putIfAbsent(setKey(setCode, tcgType.name()), new ArrayList<>());
+            }
+        }
+        for (Object[] row : cardTemplateRepository.findImportCandidatesBySetCodes(setCodes)) {
+            String setKey = setKey((String) row[2], ((TCGType) row[3]).name());
+            candidatesBySet.computeIfAbsent(setKey, key -> new ArrayList<>())
+                    .add(new TemplateCandidate((Long) row[0], ((String) row[1]).toLowerCase(Locale.ROOT)));
+        }
+    }
+
+    /**
+     * Same rule as findByNameLikeAndSetCodeAndTcgType: the card name must be
+     * contained in exactly one template name of the set. When several match,
+     * a template with exactly that name wins.
+     */
+    private Long resolveTemplate(BulkImportRow row, Map<String, List<TemplateCandidate>> candidatesBySet) {
+        String cardName = row.getCardName().toLowerCase(Locale.ROOT);
+        List<TemplateCandidate> candidates = candidatesBySet
+                .getOrDefault(setKey(row.getSetCode(), row.getTcgType()), List.of());
+
+        TemplateCandidate match = null;
+        TemplateCandidate exactMatch = null;
+        int matchCount = 0;
+        for (TemplateCandidate candidate : candidates) {
+            if (candidate.name.contains(cardName)) {
+                match = candidate;
+                matchCount++;
+                if (candidate.name.equals(cardName)) {
+                    exactMatch = exactMatch == null ? candidate : exactMatch;
+                }
+            }
+        }
+
+        if (matchCount == 0) {
+            throw new IllegalArgumentException(String.format(
+                    "Carta non trovata: '%s' nel set '%s' (%s)",
+                    row.getCardName(), row.getSetCode(), row.getTcgType()));
+        }
+        if (matchCount > 1 && exactMatch == null) {
+            throw new IllegalArgumentException(String.format(
+                    "Più carte corrispondono a '%s' nel set '%s': trovate %d carte. Specifica un nome più preciso.",
+                    row.getCardName(), row.getSetCode(), matchCount));
+        }
+        return matchCount > 1 ? exactMatch.id : match.id;
+    }
+
+    private void insertRows(Long shopId, List<ParsedRow> rows) {
+        Timestamp now = Timestamp.valueOf(LocalDateTime.now());
+        new TransactionTemplate(transactionManager).executeWithoutResult(status -> jdbcTemplate.batchUpdate(
+                INSERT_SQL, rows, rows.size(), (ps, parsed) -> {
+                    BulkImportRow row = parsed.row;
+                    ps.setString(1, UUID.randomUUID().toString());
+                    ps.setLong(2, row.getCardTemplateId());
+                    ps.setLong(3, shopId);
+                    ps.setString(4, row.getCondition());
+                    ps.setDouble(5, row.getPrice());
+                    ps.setInt(6, row.getQuantity());
+                    ps.setString(7, row.getNotes());
+                    ps.setString(8, nationality(row.getNationality()).name());
+                    ps.setTimestamp(9, now);
+                    ps.setTimestamp(10, now);
+                }));
+    }
+
+    private static CardNationality nationality(String value) {
+        if (value != null) {
+            try {
+                return CardNationality.valueOf(value);
+            } catch (IllegalArgumentException e) {
+                // Fallback to EN
+            }
+        }
+        return CardNationality.EN;
+    }
+
+    private static String setKey(String setCode, String tcgType) {
+        return setCode + "|" + tcgType;
+    }
+
+    private static String quote(String value) {
+        return "\"" + value.replace("\"", "\"\"") + "\"";
+    }
+
+    /**
+     * Parse a CSV row into BulkImportRow
+     * Format:
+     * card_name,set_code,tcg_type,condition,quantity,price,nationality,notes
+     */
+    private BulkImportRow parseCSVRow(String line) {
+        String[] parts = parseCSVLine(line);
+
+        if (parts.length < 6) {
+            throw new IllegalArgumentException(
+                    "Colonne insufficienti (minimo 6: card_name, set_code, tcg_type, condition, quantity, price)");
+        }
+
+        BulkImportRow row = new BulkImportRow();
+
+        // card_name (required)
+        String cardName = parts[0].trim();
+        if (cardName.isEmpty()) {
+            throw new IllegalArgumentException("card_name vuoto");
+        }
+        row.setCardName(cardName);
+
+        // set_code (required)
+        String setCode = parts[1].trim().toUpperCase();
+        if (setCode.isEmpty()) {
+            throw new IllegalArgumentException("set_code vuoto");
+        }
+        row.setSetCode(setCode);
+
+        // tcg_type (required)
+        String tcgType = parts[2].trim().toUpperCase();
+        if (tcgType.isEmpty()) {
+            throw new IllegalArgumentException("tcg_type vuoto");
+        }
+        row.setTcgType(tcgType);
+
+        // condition (required)
+        String condition = parts[3].trim().toUpperCase();
+        try {
+            CardCondition.valueOf(condition);
+            row.setCondition(condition);
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("Condizione non valida: " + parts[3]);
+        }
+
+        // quantity (required)
+        try {
+            row.setQuantity(Integer.parseInt(parts[4].trim()));
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("Quantità non valida: " + parts[4]);
+        }
+
+        // price (required)
+        try {
+            row.setPrice(Double.parseDouble(parts[5].trim()));
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("Prezzo non valido: " + parts[5]);
+        }
+
+        // nationality (optional, default EN)
+        if (parts.length > 6 && !parts[6].trim().isEmpty()) {
+            row.setNationality(parts[6].trim().toUpperCase());
+        } else {
+            row.setNationality("EN");
+        }
+
+        // notes (optional)
+        if (parts.length > 7) {
+            row.setNotes(parts[7].trim().replace("\"", ""));
+        }
+
+        return row;
+    }
+
+    /**
+     * Parse CSV line handling quoted values
+     */
+    private String[] parseCSVLine(String line) {
+        List<String> result = new ArrayList<>();
+        StringBuilder current = new StringBuilder();
+        boolean inQuotes = false;
+
+        for (char c : line.toCharArray()) {
+            if (c == '"') {
+                inQuotes = !inQuotes;
+            } else if (c == ',' && !inQuotes) {
+                result.add(current.toString());
+                current = new StringBuilder();
+            } else {
+                current.append(c);
+            }
+        }
+        result.add(current.toString());
+
+        return result.toArray(new String[0]);
+    }
+
+    private static class ParsedRow {
+        final int lineNumber;
+        final String line;
+        BulkImportRow row;
+        String error;
+
+        ParsedRow(int lineNumber, String line) {
+            this.lineNumber = lineNumber;
+            this.line = line;
+        }
+    }
+
+    private record TemplateCandidate(Long id, String name) {
+    }
+}
@@ -0,0 +1,513 @@
+package com.tcg.arena.service;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.tcg.arena.model.ApiKeyQuotaState;
+import com.tcg.arena.repository.ApiKeyQuotaStateRepository;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.MonoSink;
+import reactor.util.context.Context;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.*;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Function;
+
+/**
+ * Client-side request scheduler for the JustTCG API keys.
+ *
+ * Every outgoing request first acquires a {@link Lease} naming the key to use:
+ * - each key has a token bucket sized to its per-minute quota and a daily budget
+ * - requests are spread across keys with a smooth weighted round robin
+ * - used daily quota is persisted (tcg_api_key_quota) and reloaded on startup
+ * - waiting requests are served by priority lane, so admin reloads are not
+ *   stuck behind the nightly bulk import
+ *
+ * The lane is read from the Reactor context, see {@link #withPriority(Priority)}.
+ */
+@Service
+public class JustTcgRequestScheduler {
+
+    private static final Logger logger = LoggerFactory.getLogger(JustTcgRequestScheduler.class);
+
+    public static final String PRIORITY_CONTEXT_KEY = JustTcgRequestScheduler.class.getName() + ".priority";
+
+    private static final ObjectMapper OBJECT_MAPPER = new ObjectMapper();
+
+    // Upper bound for a single dispatcher wait, so quota resets are picked up promptly
+    private static final long MAX_PARK_NANOS = TimeUnit.SECONDS.toNanos(1);
+
+    /**
+     * Lanes in dispatch order: a waiting INTERACTIVE request is always served
+     * before any BULK request.
+     */
+    public enum Priority {
+        INTERACTIVE,
+        BULK
+    }
+
+    /**
+     * The key granted to a single request.
+     */
+    public record Lease(String keyName, String apiKey) {
+    }
+
+    private static final class KeyBucket {
+        final String name;
+        final String apiKey;
+        final String keyId;
+        final int minuteLimit;
+        final int dailyLimit;
+        final int weight;
+        final double refillPerNano;
+
+        double tokens;
+        long lastRefillNanos;
+        int currentWeight;
+        long blockedUntilMillis;
+
+        LocalDate quotaDay;
+        int usedToday;
+        boolean exhausted;
+        boolean dirty;
+
+        KeyBucket(String name, String apiKey, int minuteLimit, int dailyLimit, int weight) {
+            this.name = name;
+            this.apiKey = apiKey;
+            this.keyId = fingerprint(apiKey);
+            this.minuteLimit = Math.max(minuteLimit, 1);
+            this.dailyLimit = dailyLimit;
+            this.weight = Math.max(weight, 1);
+            this.refillPerNano = this.minuteLimit / (double) TimeUnit.MINUTES.toNanos(1);
+            this.tokens = this.minuteLimit;
+            this.lastRefillNanos = System.nanoTime();
+        }
+
+        void refill(long nowNanos) {
+            tokens = Math.min(minuteLimit, tokens + (nowNanos - lastRefillNanos) * refillPerNano);
+            lastRefillNanos = nowNanos;
+        }
+
+        boolean dailyQuotaLeft() {
+            return !exhausted && (dailyLimit <= 0 || usedToday < dailyLimit);
+        }
+
+        boolean canServe(long nowMillis) {
+            return dailyQuotaLeft() && blockedUntilMillis <= nowMillis && tokens >= 1d;
+        }
+    }
+
+    private static final class Waiter {
+        final MonoSink<Lease> sink;
+        volatile boolean cancelled;
+
+        Waiter(MonoSink<Lease> sink) {
+            this.sink = sink;
+        }
+    }
+
+    private final ApiKeyQuotaStateRepository quotaStateRepository;
+    private final List<KeyBucket> buckets = new ArrayList<>();
+    private final long rateLimitCooldownMs;
+    private final Set<String> quotaErrorCodes;
+
+    private final ReentrantLock lock = new ReentrantLock();
+    private final Condition changed = lock.newCondition();
+    private final EnumMap<Priority, ArrayDeque<Waiter>> lanes = new EnumMap<>(Priority.class);
+
+    private Thread dispatcher;
+    private volatile boolean running;
+
+    public JustTcgRequestScheduler(ApiKeyQuotaStateRepository quotaStateRepository,
+            @Value("${tcg.api.key:tcg_7683633d212d47ff9f396921a66ffb0c}") String apiKeyPrimary,
+            @Value("${tcg.api.key.secondary:tcg_b23de539c2c8414e854e73c449bf0e84}") String apiKeySecondary,
+            @Value("${tcg.api.key.tertiary:tcg_938debac20584990a7354ad04c4f068d}") String apiKeyTertiary,
+            @Value("${tcg.api.quota.primary.minute-limit:10}") int primaryMinuteLimit,
+            @Value("${tcg.api.quota.primary.daily-limit:1000}") int primaryDailyLimit,
+            @Value("${tcg.api.quota.primary.weight:1}") int primaryWeight,
+            @Value("${tcg.api.quota.secondary.minute-limit:10}") int secondaryMinuteLimit,
+            @Value("${tcg.api.quota.secondary.daily-limit:1000}") int secondaryDailyLimit,
+            @Value("${tcg.api.quota.secondary.weight:1}") int secondaryWeight,
+            @Value("${tcg.api.quota.tertiary.minute-limit:10}") int tertiaryMinuteLimit,
+            @Value("${tcg.api.quota.tertiary.daily-limit:1000}") int tertiaryDailyLimit,
+            @Value("${tcg.api.quota.tertiary.weight:1}") int tertiaryWeight,
+            @Value("${tcg.api.quota.rate-limit-cooldown-ms:60000}") long rateLimitCooldownMs,
+            @Value("${tcg.api.quota.exhausted-error-codes:DAILY_LIMIT_EXCEEDED,MONTHLY_LIMIT_EXCEEDED}") Set<String> quotaErrorCodes) {
+        this.quotaStateRepository = quotaStateRepository;
+        this.rateLimitCooldownMs = rateLimitCooldownMs;
+        this.quotaErrorCodes = quotaErrorCodes;
+        addKey("PRIMARY", apiKeyPrimary, primaryMinuteLimit, primaryDailyLimit, primaryWeight);
+        addKey("SECONDARY", apiKeySecondary, secondaryMinuteLimit, secondaryDailyLimit, secondaryWeight);
+        addKey("TERTIARY", apiKeyTertiary, tertiaryMinuteLimit, tertiaryDailyLimit, tertiaryWeight);
+        for (Priority priority : Priority.values()) {
+            lanes.put(priority, new ArrayDeque<>());
+        }
+    }
+
+    private void addKey(String name, String apiKey, int minuteLimit, int dailyLimit, int weight) {
+        if (apiKey == null || apiKey.isBlank()) {
+            return;
+        }
+        for (KeyBucket existing : buckets) {
+            if (existing.apiKey.equals(apiKey)) {
+                logger.warn("[API KEY] {} key is the same as {}, ignoring duplicate", name, existing.name);
+                return;
+            }
+        }
+        buckets.add(new KeyBucket(name, apiKey, minuteLimit, dailyLimit, weight));
+    }
+
+    @PostConstruct
+    void start() {
+        LocalDate today = today();
+        for (KeyBucket bucket : buckets) {
+            bucket.quotaDay = today;
+            try {
+                quotaStateRepository.findById(bucket.keyId)
+                        .filter(state -> today.equals(state.getQuotaDay()))
+                        .ifPresent(state -> {
+                            bucket.usedToday = state.getUsedToday();
+                            bucket.exhausted = state.isExhausted();
+                        });
+            } catch (Exception e) {
+                logger.warn("[API KEY] Could not load quota state for {} key: {}", bucket.name, e.getMessage());
+            }
+            logger.info("[API KEY] {} key: {}/min, daily {}/{}, weight {}{}", bucket.name, bucket.minuteLimit,
+                    bucket.usedToday, bucket.dailyLimit > 0 ? bucket.dailyLimit : "unlimited", bucket.weight,
+                    bucket.exhausted ? " (exhausted for today)" : "");
+        }
+
+        running = true;
+        dispatcher = new Thread(this::dispatchLoop, "justtcg-request-scheduler");
+        dispatcher.setDaemon(true);
+        dispatcher.start();
+    }
+
+    @PreDestroy
+    void stop() {
+        running = false;
+        if (dispatcher != null) {
+            dispatcher.interrupt();
+        }
+        persistQuotaState();
+    }
+
+    /**
+     * Context modifier selecting the lane for every request made by the
+     * decorated publisher, e.g.
+     * {@code flux.contextWrite(JustTcgRequestScheduler.withPriority(Priority.INTERACTIVE))}.
+     */
+    public static Function<Context, Context> withPriority(Priority priority) {
+        return context -> context.put(PRIORITY_CONTEXT_KEY, priority);
+    }
+
+    /**
+     * Acquire a key for one request, using the lane from the subscriber context
+     * (BULK when none is set). Completes as soon as a key has quota left.
+     */
+    public Mono<Lease> acquire() {
+        return Mono.deferContextual(context -> acquire(context.getOrDefault(PRIORITY_CONTEXT_KEY, Priority.BULK)));
+    }
+
+    public Mono<Lease> acquire(Priority priority) {
+        return Mono.create(sink -> {
+            Waiter waiter = new Waiter(sink);
+            sink.onCancel(() -> waiter.cancelled = true);
+            lock.lock();
+            try {
+                lanes.get(priority).addLast(waiter);
+                changed.signal();
+            } finally {
+                lock.unlock();
+            }
+        });
+    }
+
+    /**
+     * Record an HTTP 429 for the key of the given lease. The error code of the
+     * response tells the limits apart: a daily or monthly limit parks the key
+     * until the next UTC day, anything else (including a body that is not JSON)
+     * is treated as a per-minute limit and cools the key down briefly.
+     */
+    public void reportRateLimited(Lease lease, String responseBody) {
+        String errorCode = errorCode(responseBody);
+        boolean quotaExhausted = errorCode != null && quotaErrorCodes.contains(errorCode);
+        lock.lock();
+        try {
+            for (KeyBucket bucket : buckets) {
+                if (bucket.name.equals(lease.keyName())) {
+                    bucket.tokens = 0;
+                    if (quotaExhausted) {
+                        bucket.exhausted = true;
+                        bucket.dirty = true;
+                        logger.warn("[API KEY] {} key exhausted its quota for today", bucket.name);
+                    } else {
+                        bucket.blockedUntilMillis = System.currentTimeMillis() + rateLimitCooldownMs;
+                        logger.warn("[API KEY] {} key rate limited, cooling down for {}ms", bucket.name,
+                                rateLimitCooldownMs);
+                    }
+                }
+            }
+            changed.signal();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * True while at least one key still has daily quota, i.e. a retry after a
+     * 429 can eventually be served.
+     */
+    public boolean hasAvailableKey() {
+        lock.lock();
+        try {
+            rollDay(today());
+            return buckets.stream().anyMatch(KeyBucket::dailyQuotaLeft);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Per-key usage snapshot for diagnostics.
+     */
+    public List<Map<String, Object>> getKeyStatus() {
+        lock.lock();
+        try {
+            List<Map<String, Object>> status = new ArrayList<>();
+            long nowNanos = System.nanoTime();
+            for (KeyBucket bucket : buckets) {
+                bucket.refill(nowNanos);
+                Map<String, Object> entry = new LinkedHashMap<>();
+                entry.put("key", bucket.name);
+                entry.put("minuteLimit", bucket.minuteLimit);
+                entry.put("tokens", (int) bucket.tokens);
+                entry.put("dailyLimit", bucket.dailyLimit);
+                entry.put("usedToday", bucket.usedToday);
+                entry.put("exhausted", !bucket.dailyQuotaLeft());
+                entry.put("weight", bucket.weight);
+                status.add(entry);
+            }
+            return status;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${tcg.api.quota.persist-interval-ms:30000}")
+    public void persistQuotaState() {
+        List<ApiKeyQuotaState> dirty = new ArrayList<>();
+        lock.lock();
+        try {
+            for (KeyBucket bucket : buckets) {
+                if (!bucket.dirty) {
+                    continue;
+                }
+                ApiKeyQuotaState state = new ApiKeyQuotaState(bucket.keyId, bucket.name);
+                state.setQuotaDay(bucket.quotaDay);
+                state.setUsedToday(bucket.usedToday);
+                state.setExhausted(bucket.exhausted);
+                state.setUpdatedAt(LocalDateTime.now());
+                dirty.add(state);
+                bucket.dirty = false;
+            }
+        } finally {
+            lock.unlock();
+        }
+        if (dirty.isEmpty()) {
+            return;
+        }
+        try {
+            quotaStateRepository.saveAll(dirty);
+        } catch (Exception e) {
+            logger.warn("[API KEY] Could not persist quota state: {}", e.getMessage());
+            lock.lock();
+            try {
+                buckets.forEach(bucket -> bucket.dirty = true);
+            } finally {
+                lock.unlock();
+            }
+        }
+    }
+
+    // ===================== Dispatcher =====================
+
+    private void dispatchLoop() {
+        while (running) {
+            Waiter granted = null;
+            Lease lease = null;
+            List<Waiter> rejected = null;
+            lock.lock();
+            try {
+                Waiter next = peekNextWaiter();
+                if (next == null) {
+                    changed.await();
+                    continue;
+                }
+                rollDay(today());
+                if (buckets.stream().noneMatch(KeyBucket::dailyQuotaLeft)) {
+                    rejected = drainWaiters();
+                } else {
+                    KeyBucket bucket = pickBucket();
+                    if (bucket == null) {
+                        changed.awaitNanos(nanosUntilNextPermit());
+                        continue;
+                    }
+                    bucket.tokens -= 1d;
+                    bucket.usedToday++;
+                    bucket.dirty = true;
+                    granted = pollNextWaiter();
+                    lease = new Lease(bucket.name, bucket.apiKey);
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            } finally {
+                lock.unlock();
+            }
+
+            if (granted != null) {
+                granted.sink.success(lease);
+            }
+            if (rejected != null) {
+                logger.warn("[API KEY] All API keys exhausted for today, rejecting {} queued request(s)",
+                        rejected.size());
+                for (Waiter waiter : rejected) {
+                    waiter.sink.error(new RuntimeException(
+                            "TCG API error: HTTP 429 - daily quota exhausted on all API keys"));
+                }
+            }
+        }
+    }
+
+    private Waiter peekNextWaiter() {
+        for (ArrayDeque<Waiter> lane : lanes.values()) {
+            while (!lane.isEmpty() && lane.peekFirst().cancelled) {
+                lane.pollFirst();
+            }
+            if (!lane.isEmpty()) {
+                return lane.peekFirst();
+            }
+        }
+        return null;
+    }
+
+    private Waiter pollNextWaiter() {
+        for (ArrayDeque<Waiter> lane : lanes.values()) {
+            if (!lane.isEmpty()) {
+                return lane.pollFirst();
+            }
+        }
+        return null;
+    }
+
+    private List<Waiter> drainWaiters() {
+        List<Waiter> drained = new ArrayList<>();
+        for (ArrayDeque<Waiter> lane : lanes.values()) {
+            drained.addAll(lane);
+            lane.clear();
+        }
+        return drained;
+    }
+
+    /**
+     * Smooth weighted round robin over the keys that can serve a request right
+     * now, so a weight 2 key gets twice the traffic without bursting.
+     */
+    private KeyBucket pickBucket() {
+        long nowNanos = System.nanoTime();
+        long nowMillis = System.currentTimeMillis();
+        KeyBucket best = null;
+        int totalWeight = 0;
+        for (KeyBucket bucket : buckets) {
+            bucket.refill(nowNanos);
+            if (!bucket.canServe(nowMillis)) {
+                continue;
+            }
+            bucket.currentWeight += bucket.weight;
+            totalWeight += bucket.weight;
+            if (best == null || bucket.currentWeight > best.currentWeight) {
+                best = bucket;
+            }
+        }
+        if (best != null) {
+            best.currentWeight -= totalWeight;
+        }
+        return best;
+    }
+
+    private long nanosUntilNextPermit() {
+        long nowMillis = System.currentTimeMillis();
+        long wait = MAX_PARK_NANOS;
+        for (KeyBucket bucket : buckets) {
+            if (!bucket.dailyQuotaLeft()) {
+                continue;
+            }
+            long bucketWait = 0L;
+            if (bucket.blockedUntilMillis > nowMillis) {
+                bucketWait = TimeUnit.MILLISECONDS.toNanos(bucket.blockedUntilMillis - nowMillis);
+            }
+            if (bucket.tokens < 1d) {
+                bucketWait = Math.max(bucketWait, (long) ((1d - bucket.tokens) / bucket.refillPerNano));
+            }
+            wait = Math.min(wait, bucketWait);
+        }
+        return Math.max(wait, 1L);
+    }
+
+    private void rollDay(LocalDate today) {
+        for (KeyBucket bucket : buckets) {
+            if (!today.equals(bucket.quotaDay)) {
+                bucket.quotaDay = today;
+                bucket.usedToday = 0;
+                bucket.exhausted = false;
+                bucket.dirty = true;
+            }
+        }
+    }
+
+    // The "code" of a JustTCG error body, top level or nested under "error"
+    static String errorCode(String responseBody) {
+        if (responseBody == null || responseBody.isBlank()) {
+            return null;
+        }
+        try {
+            JsonNode root = OBJECT_MAPPER.readTree(responseBody);
+            JsonNode code = root.path("code");
+            if (!code.isTextual()) {
+                code = root.path("error").path("code");
+            }
+            return code.isTextual() ? code.asText() : null;
+        } catch (Exception e) {
+            return null;
+        }
+    }
+
+    private static LocalDate today() {
+        // JustTCG daily quotas reset at midnight UTC
+        return LocalDate.now(ZoneOffset.UTC);
+    }
+
+    private static String fingerprint(String apiKey) {
+        try {
+            byte[] hash = MessageDigest.getInstance("SHA-256").digest(apiKey.getBytes(StandardCharsets.UTF_8));
+            return HexFormat.of().formatHex(hash, 0, 16);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
+    }
+}
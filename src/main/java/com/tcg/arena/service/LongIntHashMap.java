@@ -0,0 +1,124 @@
+package com.tcg.arena.service;
+
+/**
+ * Open addressing long -> int hash map without boxing, shared by the
+ * in-memory tables that key on ids or 64-bit hashes (card key sets, price
+ * snapshots, streak counters).
+ *
+ * Linear probing over a power-of-two table kept at most half full. Keys are
+ * spread with a Fibonacci multiply, so sequential ids and hashes whose low
+ * bits collide both land on different slots. Keys must be non-zero (0 marks
+ * a free slot); entries are never removed.
+ *
+ * Not thread-safe: callers own their instance or guard it with their lock.
+ */
+public final class LongIntHashMap {
+
+    private static final long FREE = 0L;
+
+    private long[] keys;
+    private int[] values;
+    private int size;
+
+    public LongIntHashMap(int expectedSize) {
+        int capacity = Integer.highestOneBit(Math.max(expectedSize, 8) * 2 - 1) << 1;
+        keys = new long[capacity];
+        values = new int[capacity];
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public boolean containsKey(long key) {
+        return keys[slot(keys, key)] == key;
+    }
+
+    public int get(long key, int missing) {
+        int slot = slot(keys, key);
+        return keys[slot] == key ? values[slot] : missing;
+    }
+
+    public void put(long key, int value) {
+        int slot = insert(key); // May resize, read values after it
+        values[slot] = value;
+    }
+
+    /**
+     * @return true if the key was not present and the value was stored
+     */
+    public boolean putIfAbsent(long key, int value) {
+        int slot = slot(keys, key);
+        if (keys[slot] == key) {
+            return false;
+        }
+        put(key, value);
+        return true;
+    }
+
+    public void addTo(long key, int delta) {
+        int slot = insert(key);
+        values[slot] += delta;
+    }
+
+    public void forEach(Consumer consumer) {
+        for (int i = 0; i < keys.length; i++) {
+            if (keys[i] != FREE) {
+                consumer.accept(keys[i], values[i]);
+            }
+        }
+    }
+
+    int capacity() {
+        return keys.length;
+    }
+
+    // Slot of the key, added with value 0 when missing
+    private int insert(long key) {
+        int slot = slot(keys, key);
+        if (keys[slot] != key) {
+            keys[slot] = key;
+            values[slot] = 0;
+            if (++size * 2 > keys.length) {
+                resize();
+                slot = slot(keys, key);
+            }
+        }
+        return slot;
+    }
+
+    private void resize() {
+        long[] oldKeys = keys;
+        int[] oldValues = values;
+        keys = new long[oldKeys.length * 2];
+        values = new int[oldValues.length * 2];
+        for (int i = 0; i < oldKeys.length; i++) {
+            if (oldKeys[i] != FREE) {
+                int slot = slot(keys, oldKeys[i]);
+                keys[slot] = oldKeys[i];
+                values[slot] = oldValues[i];
+            }
+        }
+    }
+
+    // Slot holding the key, or the free slot where it belongs
+    private static int slot(long[] keys, long key) {
+        if (key == FREE) {
+            throw new IllegalArgumentException("0 is not a valid key");
+        }
+        int mask = keys.length - 1;
+        int slot = homeSlot(key, mask);
+        while (keys[slot] != FREE && keys[slot] != key) {
+            slot = (slot + 1) & mask;
+        }
+        return slot;
+    }
+
+    static int homeSlot(long key, int mask) {
+        return (int) ((key * 0x9E3779B97F4A7C15L) >>> 32) & mask;
+    }
+
+    public interface Consumer {
+        void accept(long key, int value);
+    }
+}
@@ -2,35 +2,48 @@ package com.tcg.arena.service;
 
 import com.tcg.arena.dto.NewsItemDTO;
 import com.tcg.arena.model.BroadcastNews;
-import com.tcg.arena.model.Shop;
 import com.tcg.arena.model.ShopNews;
 import com.tcg.arena.model.User;
-import com.tcg.arena.repository.BroadcastNewsRepository;
 import com.tcg.arena.repository.ShopNewsRepository;
-import com.tcg.arena.repository.ShopRepository;
-import com.tcg.arena.model.NewsType;
 import com.tcg.arena.model.TCGType;
 import com.tcg.arena.model.NewsCategory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.stereotype.Service;
 
 import java.time.LocalDateTime;
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.Comparator;
+import java.util.Iterator;
 import java.util.List;
+import java.util.PriorityQueue;
+import java.util.function.Predicate;
 import java.util.stream.Collectors;
 
+/**
+ * News feeds of a user: broadcast news merged with the news of the shops the
+ * user is subscribed to.
+ *
+ * Both sources come already sorted by (pinned, startDate): broadcast news
+ * from BroadcastNewsService's in-memory snapshot, shop news from one query
+ * over all subscribed shops. The feed is a k-way merge of the sorted
+ * sources that stops as soon as limit items are taken.
+ */
 @Service
 public class NewsAggregationService {
 
-        @Autowired
-        private BroadcastNewsRepository broadcastNewsRepository;
+        // Pinned first, then by start date descending. Must match the ORDER BY of the
+        // source queries (NULL pinned as false, NULL dates last) for the merge to be sorted.
+        private static final Comparator<NewsItemDTO> TIMELINE_ORDER = Comparator
+                        .comparing((NewsItemDTO n) -> Boolean.TRUE.equals(n.getIsPinned()), Comparator.reverseOrder())
+                        .thenComparing(NewsItemDTO::getStartDate, Comparator.nullsLast(Comparator.reverseOrder()));
 
         @Autowired
-        private ShopNewsRepository shopNewsRepository;
+        private BroadcastNewsService broadcastNewsService;
 
         @Autowired
-        private ShopRepository shopRepository;
+        private ShopNewsRepository shopNewsRepository;
 
         @Autowired
         private ShopSubscriptionService shopSubscriptionService;
@@ -39,54 +52,19 @@ public class NewsAggregationService {
          * Get aggregated news for a user (broadcast + subscribed shops)
          */
         public List<NewsItemDTO> getAggregatedNews(User user, int limit) {
-                List<NewsItemDTO> allNews = new ArrayList<>();
                 LocalDateTime now = LocalDateTime.now();
 
-                // 1. Get active broadcast news
-                List<BroadcastNews> broadcastNews = broadcastNewsRepository.findActiveNews(now);
-
-                allNews.addAll(broadcastNews.stream()
-                                .filter(n -> n.getIsGlobal() || (n.getLanguage() != null
-                                                && n.getLanguage().equalsIgnoreCase(user.getLocale())))
-                                .map(NewsItemDTO::new)
-                                .collect(Collectors.toList()));
-
-                // 2. Get subscribed shops
-                List<Long> subscribedShopIds = shopSubscriptionService.getUserSubscriptions(user.getId())
-                                .stream()
-                                .map(subscription -> subscription.getShopId())
-                                .collect(Collectors.toList());
-
-                // 3. Get active news from subscribed shops
-                for (Long shopId : subscribedShopIds) {
-                        List<ShopNews> shopNews = shopNewsRepository.findActiveNewsByShopId(shopId, now);
-                        Shop shop = shopRepository.findById(shopId).orElse(null);
-                        String shopName = shop != null ? shop.getName() : "Unknown Shop";
-
-                        allNews.addAll(shopNews.stream()
-                                        .map(news -> new NewsItemDTO(news, shopName))
-                                        .collect(Collectors.toList()));
-                }
-
-                // 4. Sort by pinned first, then by start date descending
-                allNews.sort(Comparator
-                                .comparing(NewsItemDTO::getIsPinned, Comparator.reverseOrder())
-                                .thenComparing(NewsItemDTO::getStartDate, Comparator.reverseOrder()));
+                Iterator<NewsItemDTO> broadcastNews = broadcastNews(n -> languageMatches(n, user));
+                Iterator<NewsItemDTO> shopNews = subscribedShopNews(user, null, now, limit);
 
-                // 5. Limit results
-                return allNews.stream()
-                                .limit(limit)
-                                .collect(Collectors.toList());
+                return mergeTimelines(List.of(broadcastNews, shopNews), limit);
         }
 
         /**
          * Get aggregated news without user context (only broadcast)
          */
         public List<NewsItemDTO> getPublicNews(int limit) {
-                LocalDateTime now = LocalDateTime.now();
-                List<BroadcastNews> broadcastNews = broadcastNewsRepository.findActiveNews(now);
-
-                return broadcastNews.stream()
+                return broadcastNewsService.getActiveNewsCached().stream()
                                 .map(NewsItemDTO::new)
                                 .limit(limit)
                                 .collect(Collectors.toList());
@@ -96,73 +74,106 @@ public class NewsAggregationService {
          * Get filtered news based on category and TCG type
          */
         public List<NewsItemDTO> getFilteredNews(User user, NewsCategory category, TCGType tcgType, int limit) {
-                List<NewsItemDTO> allNews = new ArrayList<>();
                 LocalDateTime now = LocalDateTime.now();
+                List<Iterator<NewsItemDTO>> sources = new ArrayList<>(2);
 
                 // 1. Handle Broadcast News
                 if (category == NewsCategory.ALL || category == NewsCategory.GENERAL
                                 || category == NewsCategory.TCG_SPECIFIC) {
-                        List<BroadcastNews> broadcastNews = broadcastNewsRepository.findActiveNews(now);
-
-                        allNews.addAll(broadcastNews.stream()
-                                        .filter(n -> {
-                                                // Language Filter: Include if Global OR matches User Language
-                                                boolean languageMatch = n.getIsGlobal() ||
-                                                                (n.getLanguage() != null && n.getLanguage()
-                                                                                .equalsIgnoreCase(user.getLocale()));
-
-                                                if (!languageMatch)
-                                                        return false;
-
-                                                if (category == NewsCategory.GENERAL)
-                                                        return n.getTcgType() == null;
-                                                if (category == NewsCategory.TCG_SPECIFIC)
-                                                        return n.getTcgType() != null && (tcgType == null
-                                                                        || n.getTcgType() == tcgType);
-                                                if (tcgType != null)
-                                                        return n.getTcgType() == tcgType;
-                                                return true;
-                                        })
-                                        .map(NewsItemDTO::new)
-                                        .collect(Collectors.toList()));
+                        sources.add(broadcastNews(n -> {
+                                // Language Filter: Include if Global OR matches User Language
+                                if (!languageMatches(n, user))
+                                        return false;
+
+                                if (category == NewsCategory.GENERAL)
+                                        return n.getTcgType() == null;
+                                if (category == NewsCategory.TCG_SPECIFIC)
+                                        return n.getTcgType() != null && (tcgType == null
+                                                        || n.getTcgType() == tcgType);
+                                if (tcgType != null)
+                                        return n.getTcgType() == tcgType;
+                                return true;
+                        }));
                 }
 
                 // 2. Handle Shop News
+                // Shop news are considered local/relevant to the user by subscription, so we
+                // don't filter by language here (assuming shop speaks user's language).
+                // All shop news if specifically requested, otherwise by TCG type if given.
                 if (category == NewsCategory.ALL || category == NewsCategory.SHOP
                                 || (category == NewsCategory.TCG_SPECIFIC && tcgType != null)) {
-                        List<Long> subscribedShopIds = shopSubscriptionService.getUserSubscriptions(user.getId())
-                                        .stream()
-                                        .map(subscription -> subscription.getShopId())
-                                        .collect(Collectors.toList());
-
-                        for (Long shopId : subscribedShopIds) {
-                                List<ShopNews> shopNews = shopNewsRepository.findActiveNewsByShopId(shopId, now);
-                                Shop shop = shopRepository.findById(shopId).orElse(null);
-                                String shopName = shop != null ? shop.getName() : "Unknown Shop";
-
-                                allNews.addAll(shopNews.stream()
-                                                .filter(n -> {
-                                                        // Shop news are considered local/relevant to the user by
-                                                        // subscription,
-                                                        // so we don't filter by language here (assuming shop speaks
-                                                        // user's language)
-                                                        if (category == NewsCategory.SHOP)
-                                                                return true; // All shop news if specifically requested
-                                                        if (tcgType != null)
-                                                                return n.getTcgType() == tcgType;
-                                                        return true;
-                                                })
-                                                .map(news -> new NewsItemDTO(news, shopName))
-                                                .collect(Collectors.toList()));
-                        }
+                        TCGType shopTcgType = category == NewsCategory.SHOP ? null : tcgType;
+                        sources.add(subscribedShopNews(user, shopTcgType, now, limit));
                 }
 
-                // 3. Sort and Limit
-                return allNews.stream()
-                                .sorted(Comparator
-                                                .comparing(NewsItemDTO::getIsPinned, Comparator.reverseOrder())
-                                                .thenComparing(NewsItemDTO::getStartDate, Comparator.reverseOrder()))
-                                .limit(limit)
+                // 3. Merge and Limit
+                return mergeTimelines(sources, limit);
+        }
+
+        private Iterator<NewsItemDTO> broadcastNews(Predicate<BroadcastNews> filter) {
+                return broadcastNewsService.getActiveNewsCached().stream()
+                                .filter(filter)
+                                .map(NewsItemDTO::new)
+                                .iterator();
+        }
+
+        /**
+         * Active news of all the user's subscribed shops, at most limit items,
+         * in timeline order (one query)
+         */
+        private Iterator<NewsItemDTO> subscribedShopNews(User user, TCGType tcgType, LocalDateTime now, int limit) {
+                List<Long> subscribedShopIds = shopSubscriptionService.getUserSubscriptions(user.getId())
+                                .stream()
+                                .map(subscription -> subscription.getShopId())
                                 .collect(Collectors.toList());
+                if (subscribedShopIds.isEmpty() || limit <= 0) {
+                        return Collections.emptyIterator();
+                }
+
+                List<Object[]> rows = shopNewsRepository.findActiveNewsWithShopNameByShopIds(subscribedShopIds, now,
+                                tcgType != null ? tcgType.name() : null, PageRequest.of(0, limit));
+                return rows.stream()
+                                .map(row -> new NewsItemDTO((ShopNews) row[0],
+                                                row[1] != null ? (String) row[1] : "Unknown Shop"))
+                                .iterator();
+        }
+
+        private static boolean languageMatches(BroadcastNews news, User user) {
+                return news.getIsGlobal() || (news.getLanguage() != null
+                                && news.getLanguage().equalsIgnoreCase(user.getLocale()));
+        }
+
+        /**
+         * K-way merge of sources already in timeline order, stopping after
+         * limit items. The heap holds at most one pending item per source.
+         */
+        private static List<NewsItemDTO> mergeTimelines(List<Iterator<NewsItemDTO>> sources, int limit) {
+                PriorityQueue<TimelineHead> heads = new PriorityQueue<>(Math.max(1, sources.size()),
+                                (a, b) -> TIMELINE_ORDER.compare(a.item, b.item));
+                for (Iterator<NewsItemDTO> source : sources) {
+                        if (source.hasNext()) {
+                                heads.add(new TimelineHead(source.next(), source));
+                        }
+                }
+
+                List<NewsItemDTO> merged = new ArrayList<>(Math.max(0, limit));
+                while (merged.size() < limit && !heads.isEmpty()) {
+                        TimelineHead head = heads.poll();
+                        merged.add(head.item);
+                        if (head.source.hasNext()) {
+                                heads.add(new TimelineHead(head.source.next(), head.source));
+                        }
+                }
+                return merged;
+        }
+
+        private static class TimelineHead {
+                private final NewsItemDTO item;
+                private final Iterator<NewsItemDTO> source;
+
+                TimelineHead(NewsItemDTO item, Iterator<NewsItemDTO> source) {
+                        this.item = item;
+                        this.source = source;
+                }
         }
 }
@@ -345,6 +345,21 @@ public class NotificationService {
         logger.info("Sent level up notification to user {} - new level {}", userId, newLevel);
     }
 
+    /**
+     * Notifica quando un utente sblocca un achievement
+     */
+    public void sendAchievementUnlockedNotification(Long userId, String achievementName) {
+        String title = getMessage("notification.achievement.unlocked.title", null, userId);
+        String message = getMessage("notification.achievement.unlocked.message", new Object[] { achievementName },
+                userId);
+
+        java.util.Map<String, String> data = new java.util.HashMap<>();
+        data.put("type", "achievement_unlocked");
+
+        sendPushNotification(userId, title, message, data);
+        logger.info("Sent achievement unlocked notification to user {} for '{}'", userId, achievementName);
+    }
+
     // ========== HELPER METHODS ==========
 
     /**
@@ -82,6 +82,9 @@ public class OpenStreetMapService {
         List<String> errors = new ArrayList<>();
         int regionsProcessed = 0;
 
+        // Built once per run, kept in sync below as shops get inserted
+        ShopDedupeIndex dedupeIndex = new ShopDedupeIndex(shopRepository.findAll());
+
         logger.info("Starting OpenStreetMap shop population for ITALY by regions (dryRun: {})", dryRun);
 
         for (Map.Entry<String, double[]> region : ITALIAN_REGIONS.entrySet()) {
@@ -116,7 +119,7 @@ public class OpenStreetMapService {
                                 continue;
                             }
 
-                            if (shopExists(shop)) {
+                            if (dedupeIndex.contains(shop)) {
                                 totalSkipped++;
                                 continue;
                             }
@@ -127,6 +130,7 @@ public class OpenStreetMapService {
                             } else {
                                 logger.info("Would insert: {} - {}", shop.getName(), shop.getAddress());
                             }
+                            dedupeIndex.add(shop);
                             totalInserted++;
 
                         } catch (Exception e) {
@@ -348,39 +352,6 @@ public class OpenStreetMapService {
         shop.setTcgTypesList(tcgTypes);
     }
 
-    /**
-     * Check if shop already exists in database
-     */
-    private boolean shopExists(Shop shop) {
-        List<Shop> existingShops = shopRepository.findAll();
-
-        for (Shop existing : existingShops) {
-            if (existing.getName().equalsIgnoreCase(shop.getName())) {
-                double distance = calculateDistance(
-                        existing.getLatitude(), existing.getLongitude(),
-                        shop.getLatitude(), shop.getLongitude());
-                if (distance < 0.1) { // Less than 100 meters
-                    return true;
-                }
-            }
-        }
-        return false;
-    }
-
-    /**
-     * Calculate distance between two coordinates in kilometers
-     */
-    private double calculateDistance(double lat1, double lon1, double lat2, double lon2) {
-        final int R = 6371;
-        double latDistance = Math.toRadians(lat2 - lat1);
-        double lonDistance = Math.toRadians(lon2 - lon1);
-        double a = Math.sin(latDistance / 2) * Math.sin(latDistance / 2)
-                + Math.cos(Math.toRadians(lat1)) * Math.cos(Math.toRadians(lat2))
-                        * Math.sin(lonDistance / 2) * Math.sin(lonDistance / 2);
-        double c = 2 * Math.atan2(Math.sqrt(a), Math.sqrt(1 - a));
-        return R * c;
-    }
-
     /**
      * Build summary response
      */
@@ -0,0 +1,41 @@
+package com.tcg.arena.service;
+
+/**
+ * Published by {@link PointsLedger} after a points balance change is
+ * committed. Carries the balance before and after the change, so listeners
+ * (leaderboards, level-up notifications) do not have to re-read the user.
+ */
+public class PointsBalanceChangedEvent {
+
+    private final Long userId;
+    private final int previousBalance;
+    private final int newBalance;
+    private final String description;
+
+    public PointsBalanceChangedEvent(Long userId, int previousBalance, int newBalance, String description) {
+        this.userId = userId;
+        this.previousBalance = previousBalance;
+        this.newBalance = newBalance;
+        this.description = description;
+    }
+
+    public Long getUserId() {
+        return userId;
+    }
+
+    public int getPreviousBalance() {
+        return previousBalance;
+    }
+
+    public int getNewBalance() {
+        return newBalance;
+    }
+
+    public int getDelta() {
+        return newBalance - previousBalance;
+    }
+
+    public String getDescription() {
+        return description;
+    }
+}
@@ -0,0 +1,218 @@
+package com.tcg.arena.service;
+
+import com.tcg.arena.model.ActivityType;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.Timestamp;
+import java.sql.Types;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Points balances and their history.
+ *
+ * Balances change with a single atomic UPDATE ... RETURNING, so concurrent
+ * awards cannot overwrite each other (no read-modify-write of the User
+ * entity). The reward_transactions row and the user activity of a change are
+ * queued once the surrounding transaction commits and written in JDBC
+ * batches by a write-behind flusher; reward redemptions, which drive the
+ * fulfillment workflow, are inserted synchronously. A
+ * {@link PointsBalanceChangedEvent} is published after commit.
+ */
+@Service
+public class PointsLedger {
+
+    private static final Logger logger = LoggerFactory.getLogger(PointsLedger.class);
+
+    private static final int FLUSH_BATCH_SIZE = 500;
+
+    private static final String CREDIT_SQL = "UPDATE users SET points = points + ? WHERE id = ? RETURNING points";
+
+    private static final String DEBIT_SQL = "UPDATE users SET points = points - ? WHERE id = ? AND points >= ? "
+            + "RETURNING points";
+
+    private static final String INSERT_TRANSACTION_SQL = "INSERT INTO reward_transactions "
+            + "(user_id, points_change, description, reward_id, timestamp, status) VALUES (?, ?, ?, ?, ?, 'PENDING')";
+
+    private static final String SUM_EARNED_SQL = "SELECT COALESCE(SUM(points_change), 0) FROM reward_transactions "
+            + "WHERE user_id = ? AND points_change > 0";
+
+    private static final String INSERT_ACTIVITY_SQL = "INSERT INTO user_activities "
+            + "(user_id, activity_type, description, timestamp) VALUES (?, ?, ?, ?)";
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
+
+    @Value("${points-ledger.write-behind.queue-capacity:10000}")
+    private int writeBehindCapacity;
+
+    private WriteBehindQueue<LedgerEntry> pendingWrites;
+
+    @PostConstruct
+    public void init() {
+        pendingWrites = new WriteBehindQueue<>("points change", writeBehindCapacity, FLUSH_BATCH_SIZE,
+                this::insertBatch);
+    }
+
+    /**
+     * Add points (negative values are allowed and may bring the balance below
+     * zero). Returns the new balance, or null if the user does not exist.
+     * activityType may be null when the change should not show in the feed.
+     */
+    public Integer credit(Long userId, int points, String description, ActivityType activityType,
+            String activityDescription) {
+        Integer balance = jdbcTemplate.query(CREDIT_SQL, rs -> rs.next() ? rs.getInt(1) : null, points, userId);
+        if (balance != null) {
+            record(new LedgerEntry(userId, points, description, null, activityType, activityDescription),
+                    balance - points, balance);
+        }
+        return balance;
+    }
+
+    /**
+     * Remove points if the balance covers them. Returns the new balance, or
+     * null if the user does not exist or has fewer points. A debit for a
+     * reward (rewardId set) is recorded synchronously.
+     */
+    public Integer debit(Long userId, int points, String description, Long rewardId, ActivityType activityType,
+            String activityDescription) {
+        Integer balance = jdbcTemplate.query(DEBIT_SQL, rs -> rs.next() ? rs.getInt(1) : null,
+                points, userId, points);
+        if (balance != null) {
+            record(new LedgerEntry(userId, -points, description, rewardId, activityType, activityDescription),
+                    balance + points, balance);
+        }
+        return balance;
+    }
+
+    private void record(LedgerEntry entry, int previousBalance, int newBalance) {
+        if (entry.rewardId != null) {
+            pendingWrites.writeNow(List.of(entry));
+        }
+
+        Runnable afterCommit = () -> {
+            if (entry.rewardId == null && !pendingWrites.offer(entry)) {
+                logger.warn("Points ledger write-behind queue full, recording change for user {} synchronously",
+                        entry.userId);
+                pendingWrites.writeNow(List.of(entry));
+            }
+            eventPublisher.publishEvent(
+                    new PointsBalanceChangedEvent(entry.userId, previousBalance, newBalance, entry.description));
+        };
+
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    afterCommit.run();
+                }
+            });
+        } else {
+            afterCommit.run();
+        }
+    }
+
+    /**
+     * Write-behind flusher: persists queued ledger rows and activities with
+     * JDBC batch inserts, both tables in one transaction.
+     */
+    @Scheduled(fixedDelayString = "${points-ledger.write-behind.flush-interval-ms:1000}")
+    public void flushPendingWrites() {
+        pendingWrites.flush();
+    }
+
+    /**
+     * Total points a user has earned (positive changes), including the
+     * changes still queued for the write-behind flusher. Changes the
+     * database rejected are in neither and are not counted.
+     */
+    public long sumPointsEarned(Long userId) {
+        // A batch being flushed is in neither the queue nor the table until committed
+        synchronized (pendingWrites) {
+            Long earned = jdbcTemplate.queryForObject(SUM_EARNED_SQL, Long.class, userId);
+            long[] total = { earned != null ? earned : 0 };
+            pendingWrites.forEach(entry -> {
+                if (entry.userId.equals(userId) && entry.pointsChange > 0) {
+                    total[0] += entry.pointsChange;
+                }
+            });
+            return total[0];
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        flushPendingWrites();
+    }
+
+    private void insertBatch(List<LedgerEntry> entries) {
+        List<LedgerEntry> activities = new ArrayList<>(entries.size());
+        for (LedgerEntry entry : entries) {
+            if (entry.activityType != null) {
+                activities.add(entry);
+            }
+        }
+
+        new TransactionTemplate(transactionManager).executeWithoutResult(status -> {
+            jdbcTemplate.batchUpdate(INSERT_TRANSACTION_SQL, entries, entries.size(), (ps, entry) -> {
+                ps.setLong(1, entry.userId);
+                ps.setInt(2, entry.pointsChange);
+                ps.setString(3, entry.description);
+                if (entry.rewardId != null) {
+                    ps.setLong(4, entry.rewardId);
+                } else {
+                    ps.setNull(4, Types.BIGINT);
+                }
+                ps.setTimestamp(5, Timestamp.valueOf(entry.timestamp));
+            });
+            if (!activities.isEmpty()) {
+                jdbcTemplate.batchUpdate(INSERT_ACTIVITY_SQL, activities, activities.size(), (ps, entry) -> {
+                    ps.setLong(1, entry.userId);
+                    ps.setString(2, entry.activityType.name());
+                    ps.setString(3, entry.activityDescription);
+                    ps.setTimestamp(4, Timestamp.valueOf(entry.timestamp));
+                });
+            }
+        });
+    }
+
+    private static class LedgerEntry {
+        private final Long userId;
+        private final int pointsChange;
+        private final String description;
+        private final Long rewardId;
+        private final ActivityType activityType;
+        private final String activityDescription;
+        private final LocalDateTime timestamp = LocalDateTime.now();
+
+        LedgerEntry(Long userId, int pointsChange, String description, Long rewardId, ActivityType activityType,
+                String activityDescription) {
+            this.userId = userId;
+            this.pointsChange = pointsChange;
+            this.description = description;
+            this.rewardId = rewardId;
+            this.activityType = activityType;
+            this.activityDescription = activityDescription;
+        }
+    }
+}
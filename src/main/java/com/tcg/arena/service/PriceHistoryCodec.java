@@ -0,0 +1,118 @@
+package com.tcg.arena.service;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Encoding of price history blocks.
+ *
+ * A block is the byte concatenation of its samples, each sample being
+ * varint(seconds since previous sample) followed by zigzag varint(cents minus
+ * previous cents). The first sample of a block is relative to the block start
+ * and to 0 cents. A daily sample with an unchanged price costs 4 bytes, and
+ * appending never needs to rewrite what is already stored.
+ */
+public final class PriceHistoryCodec {
+
+    private PriceHistoryCodec() {
+    }
+
+    /**
+     * Decoded samples of a block, in time order.
+     */
+    public static final class Samples {
+        public final long[] epochSeconds;
+        public final long[] cents;
+        public final int size;
+
+        Samples(long[] epochSeconds, long[] cents, int size) {
+            this.epochSeconds = epochSeconds;
+            this.cents = cents;
+            this.size = size;
+        }
+    }
+
+    public static byte[] encodeSample(long secondsDelta, long centsDelta) {
+        ByteArrayOutputStream out = new ByteArrayOutputStream(8);
+        writeVarint(out, secondsDelta);
+        writeVarint(out, zigzag(centsDelta));
+        return out.toByteArray();
+    }
+
+    public static Samples decode(byte[] data, long blockStartEpochSeconds, int expectedSamples) {
+        long[] times = new long[Math.max(expectedSamples, 4)];
+        long[] values = new long[times.length];
+        int size = 0;
+        long time = blockStartEpochSeconds;
+        long value = 0L;
+        int pos = 0;
+        while (pos < data.length) {
+            long[] read = readVarint(data, pos);
+            time += read[0];
+            pos = (int) read[1];
+            read = readVarint(data, pos);
+            value += unzigzag(read[0]);
+            pos = (int) read[1];
+            if (size == times.length) {
+                times = java.util.Arrays.copyOf(times, size * 2);
+                values = java.util.Arrays.copyOf(values, size * 2);
+            }
+            times[size] = time;
+            values[size] = value;
+            size++;
+        }
+        return new Samples(times, values, size);
+    }
+
+    public static long toCents(double price) {
+        return Math.round(price * 100d);
+    }
+
+    public static double fromCents(long cents) {
+        return cents / 100d;
+    }
+
+    /**
+     * 64-bit FNV-1a of a string id, used as series key for string identified
+     * series (Arena variants).
+     */
+    public static long hash64(String value) {
+        long hash = 0xcbf29ce484222325L;
+        for (byte b : value.getBytes(StandardCharsets.UTF_8)) {
+            hash ^= (b & 0xff);
+            hash *= 0x100000001b3L;
+        }
+        return hash;
+    }
+
+    private static void writeVarint(ByteArrayOutputStream out, long value) {
+        while ((value & ~0x7FL) != 0) {
+            out.write((int) ((value & 0x7F) | 0x80));
+            value >>>= 7;
+        }
+        out.write((int) value);
+    }
+
+    // Returns { value, next position }
+    private static long[] readVarint(byte[] data, int pos) {
+        long result = 0L;
+        int shift = 0;
+        while (pos < data.length) {
+            byte b = data[pos++];
+            result |= (long) (b & 0x7F) << shift;
+            if ((b & 0x80) == 0) {
+                break;
+            }
+            shift += 7;
+        }
+        return new long[] { result, pos };
+    }
+
+    private static long zigzag(long value) {
+        return (value << 1) ^ (value >> 63);
+    }
+
+    private static long unzigzag(long value) {
+        return (value >>> 1) ^ -(value & 1);
+    }
+}
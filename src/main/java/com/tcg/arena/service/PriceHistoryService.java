@@ -0,0 +1,396 @@
+package com.tcg.arena.service;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+
+import java.sql.Date;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.ZoneOffset;
+import java.util.*;
+
+/**
+ * Append-only price history for card templates and Arena variants.
+ *
+ * Samples live in price_history_blocks, one row per series and calendar month
+ * (UTC). The row's data column is a {@link PriceHistoryCodec} block, so
+ * appending is a bytea concatenation and a sample usually takes 3-5 bytes.
+ * Each row also keeps min/max/sum/count of its samples, updated on append, so
+ * rolling windows only decode the blocks cut by the window start. Appends are
+ * conditional on the block's last_ts, so concurrent writers cannot chain
+ * deltas onto the same tail.
+ */
+@Service
+public class PriceHistoryService {
+
+    private static final Logger logger = LoggerFactory.getLogger(PriceHistoryService.class);
+
+    private static final long SECONDS_PER_DAY = 86_400L;
+    private static final int[] STAT_WINDOW_DAYS = { 7, 30, 90, 365 };
+    private static final int MAX_POINTS = 1000;
+    // Retries of a sample whose block was appended or created concurrently
+    private static final int MAX_APPEND_ATTEMPTS = 5;
+
+    /**
+     * Kind of series; the code is stored in series_type.
+     */
+    public enum SeriesType {
+        CARD_TEMPLATE(1),
+        ARENA_VARIANT(2),
+        // Total market value of a user's collection, keyed by user id
+        COLLECTION_VALUE(3);
+
+        private final int code;
+
+        SeriesType(int code) {
+            this.code = code;
+        }
+
+        public int getCode() {
+            return code;
+        }
+    }
+
+    /**
+     * One chart point: a single sample, or a downsampled bucket of samples.
+     */
+    public record PricePoint(Instant time, double min, double max, double avg, double last, int samples) {
+    }
+
+    public record WindowStats(int days, Double min, Double max, Double avg, int samples) {
+    }
+
+    private final JdbcTemplate jdbcTemplate;
+    private final int batchSize;
+
+    public PriceHistoryService(JdbcTemplate jdbcTemplate,
+            @Value("${price-history.batch-size:500}") int batchSize) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.batchSize = Math.max(batchSize, 1);
+        createTableIfNotExists();
+    }
+
+    private void createTableIfNotExists() {
+        try {
+            jdbcTemplate.execute("""
+                CREATE TABLE IF NOT EXISTS price_history_blocks (
+                    series_type SMALLINT NOT NULL,
+                    series_key BIGINT NOT NULL,
+                    block_start DATE NOT NULL,
+                    sample_count INTEGER NOT NULL,
+                    first_ts BIGINT NOT NULL,
+                    last_ts BIGINT NOT NULL,
+                    last_cents BIGINT NOT NULL,
+                    min_cents BIGINT NOT NULL,
+                    max_cents BIGINT NOT NULL,
+                    sum_cents BIGINT NOT NULL,
+                    data BYTEA NOT NULL,
+                    PRIMARY KEY (series_type, series_key, block_start)
+                )
+                """);
+        } catch (Exception e) {
+            logger.error("Failed to create price_history_blocks table", e);
+        }
+    }
+
+    // ===================== Series keys =====================
+
+    /**
+     * Series key of one price field (see {@link CardPrices}) of a card template.
+     */
+    public static long templateSeries(long templateId, int field) {
+        return templateId * 16 + field;
+    }
+
+    public static long arenaVariantSeries(String variantId) {
+        return PriceHistoryCodec.hash64(variantId);
+    }
+
+    // ===================== Writing =====================
+
+    /**
+     * Start collecting samples taken at the same instant. Not thread-safe; call
+     * {@link Batch#flush()} when done.
+     */
+    public Batch newBatch(SeriesType type, Instant sampledAt) {
+        return new Batch(type, sampledAt);
+    }
+
+    public final class Batch {
+        private final SeriesType type;
+        private final long sampledAt;
+        private final LocalDate blockStart;
+        // Last price wins when a series is added twice
+        private final Map<Long, Long> pending = new LinkedHashMap<>();
+        private int written;
+
+        private Batch(SeriesType type, Instant sampledAt) {
+            this.type = type;
+            this.sampledAt = sampledAt.getEpochSecond();
+            this.blockStart = blockStartOf(this.sampledAt);
+        }
+
+        public void add(long seriesKey, double price) {
+            if (Double.isNaN(price) || Double.isInfinite(price)) {
+                return;
+            }
+            pending.put(seriesKey, PriceHistoryCodec.toCents(price));
+            if (pending.size() >= batchSize) {
+                flush();
+            }
+        }
+
+        public void flush() {
+            if (pending.isEmpty()) {
+                return;
+            }
+            try {
+                written += appendSamples(type, blockStart, sampledAt, pending);
+            } catch (Exception e) {
+                logger.warn("[PRICE HISTORY] Could not append {} {} samples: {}", pending.size(), type,
+                        e.getMessage());
+            }
+            pending.clear();
+        }
+
+        /**
+         * Samples written so far (repeated timestamps are skipped).
+         */
+        public int getWritten() {
+            return written;
+        }
+    }
+
+    /**
+     * Append one sample per series. The tail (last_ts, last_cents) is read
+     * without a lock, so the append only applies while last_ts is unchanged;
+     * a series appended or created meanwhile by another writer is retried
+     * from its new tail.
+     */
+    private int appendSamples(SeriesType type, LocalDate blockStart, long sampledAt, Map<Long, Long> samples) {
+        Map<Long, Long> remaining = samples;
+        int written = 0;
+        for (int attempt = 0; attempt < MAX_APPEND_ATTEMPTS && !remaining.isEmpty(); attempt++) {
+            Map<Long, Long> conflicts = new LinkedHashMap<>();
+            written += tryAppendSamples(type, blockStart, sampledAt, remaining, conflicts);
+            remaining = conflicts;
+        }
+        if (!remaining.isEmpty()) {
+            logger.warn("[PRICE HISTORY] Gave up on {} {} samples after {} concurrent write conflicts",
+                    remaining.size(), type, MAX_APPEND_ATTEMPTS);
+        }
+        return written;
+    }
+
+    private int tryAppendSamples(SeriesType type, LocalDate blockStart, long sampledAt, Map<Long, Long> samples,
+            Map<Long, Long> conflicts) {
+        List<Long> keys = new ArrayList<>(samples.keySet());
+        String placeholders = String.join(",", Collections.nCopies(keys.size(), "?"));
+        List<Object> args = new ArrayList<>(keys.size() + 2);
+        args.add(type.getCode());
+        args.add(Date.valueOf(blockStart));
+        args.addAll(keys);
+
+        // Tail of the existing blocks: deltas are relative to the last sample
+        Map<Long, long[]> tails = new HashMap<>();
+        jdbcTemplate.query("SELECT series_key, last_ts, last_cents FROM price_history_blocks "
+                + "WHERE series_type = ? AND block_start = ? AND series_key IN (" + placeholders + ")",
+                rs -> {
+                    tails.put(rs.getLong(1), new long[] { rs.getLong(2), rs.getLong(3) });
+                }, args.toArray());
+
+        long blockStartEpoch = blockStart.atStartOfDay(ZoneOffset.UTC).toEpochSecond();
+        List<Object[]> updates = new ArrayList<>();
+        List<Long> updateKeys = new ArrayList<>();
+        List<Object[]> inserts = new ArrayList<>();
+        List<Long> insertKeys = new ArrayList<>();
+        for (Map.Entry<Long, Long> sample : samples.entrySet()) {
+            long cents = sample.getValue();
+            long[] tail = tails.get(sample.getKey());
+            if (tail == null) {
+                byte[] data = PriceHistoryCodec.encodeSample(sampledAt - blockStartEpoch, cents);
+                inserts.add(new Object[] { type.getCode(), sample.getKey(), Date.valueOf(blockStart), sampledAt,
+                        sampledAt, cents, cents, cents, cents, data });
+                insertKeys.add(sample.getKey());
+            } else if (sampledAt > tail[0]) {
+                byte[] data = PriceHistoryCodec.encodeSample(sampledAt - tail[0], cents - tail[1]);
+                updates.add(new Object[] { data, sampledAt, cents, cents, cents, cents, type.getCode(),
+                        sample.getKey(), Date.valueOf(blockStart), tail[0] });
+                updateKeys.add(sample.getKey());
+            }
+        }
+
+        int written = 0;
+        if (!updates.isEmpty()) {
+            int[] counts = jdbcTemplate.batchUpdate("UPDATE price_history_blocks SET data = data || ?, "
+                    + "sample_count = sample_count + 1, last_ts = ?, last_cents = ?, "
+                    + "min_cents = LEAST(min_cents, ?), max_cents = GREATEST(max_cents, ?), sum_cents = sum_cents + ? "
+                    + "WHERE series_type = ? AND series_key = ? AND block_start = ? AND last_ts = ?", updates);
+            written += collectConflicts(counts, updateKeys, samples, conflicts);
+        }
+        if (!inserts.isEmpty()) {
+            int[] counts = jdbcTemplate.batchUpdate("INSERT INTO price_history_blocks (series_type, series_key, "
+                    + "block_start, sample_count, first_ts, last_ts, last_cents, min_cents, max_cents, sum_cents, data) "
+                    + "VALUES (?, ?, ?, 1, ?, ?, ?, ?, ?, ?, ?) "
+                    + "ON CONFLICT (series_type, series_key, block_start) DO NOTHING", inserts);
+            // A conflict means another writer created the block first: append to it instead
+            written += collectConflicts(counts, insertKeys, samples, conflicts);
+        }
+        return written;
+    }
+
+    // Rows that were not changed go to conflicts; returns the number written
+    private static int collectConflicts(int[] counts, List<Long> keys, Map<Long, Long> samples,
+            Map<Long, Long> conflicts) {
+        int written = 0;
+        for (int i = 0; i < counts.length; i++) {
+            if (counts[i] == 0) {
+                conflicts.put(keys.get(i), samples.get(keys.get(i)));
+            } else {
+                written++;
+            }
+        }
+        return written;
+    }
+
+    // ===================== Reading =====================
+
+    private record Block(long startEpoch, int sampleCount, long firstTs, long minCents, long maxCents,
+            long sumCents, byte[] data) {
+    }
+
+    private List<Block> loadBlocks(SeriesType type, long seriesKey, long fromEpoch, long toEpoch) {
+        return jdbcTemplate.query("SELECT block_start, sample_count, first_ts, min_cents, max_cents, sum_cents, data "
+                + "FROM price_history_blocks WHERE series_type = ? AND series_key = ? "
+                + "AND block_start BETWEEN ? AND ? ORDER BY block_start",
+                (rs, rowNum) -> new Block(
+                        rs.getDate(1).toLocalDate().atStartOfDay(ZoneOffset.UTC).toEpochSecond(),
+                        rs.getInt(2), rs.getLong(3), rs.getLong(4), rs.getLong(5), rs.getLong(6),
+                        rs.getBytes(7)),
+                type.getCode(), seriesKey, Date.valueOf(blockStartOf(fromEpoch)),
+                Date.valueOf(blockStartOf(toEpoch)));
+    }
+
+    /**
+     * Samples of a series between from and to (inclusive). When there are more
+     * samples than maxPoints they are downsampled into maxPoints equal time
+     * buckets carrying min/max/avg/last.
+     */
+    public List<PricePoint> getSeries(SeriesType type, long seriesKey, Instant from, Instant to, int maxPoints) {
+        long fromEpoch = from.getEpochSecond();
+        long toEpoch = to.getEpochSecond();
+        if (toEpoch < fromEpoch) {
+            return List.of();
+        }
+
+        long[] times = new long[64];
+        long[] cents = new long[64];
+        int size = 0;
+        for (Block block : loadBlocks(type, seriesKey, fromEpoch, toEpoch)) {
+            PriceHistoryCodec.Samples samples = PriceHistoryCodec.decode(block.data(), block.startEpoch(),
+                    block.sampleCount());
+            for (int i = 0; i < samples.size; i++) {
+                long t = samples.epochSeconds[i];
+                if (t < fromEpoch || t > toEpoch) {
+                    continue;
+                }
+                if (size == times.length) {
+                    times = Arrays.copyOf(times, size * 2);
+                    cents = Arrays.copyOf(cents, size * 2);
+                }
+                times[size] = t;
+                cents[size] = samples.cents[i];
+                size++;
+            }
+        }
+
+        int points = Math.min(Math.max(maxPoints, 1), MAX_POINTS);
+        List<PricePoint> result = new ArrayList<>(Math.min(size, points));
+        if (size <= points) {
+            for (int i = 0; i < size; i++) {
+                double price = PriceHistoryCodec.fromCents(cents[i]);
+                result.add(new PricePoint(Instant.ofEpochSecond(times[i]), price, price, price, price, 1));
+            }
+            return result;
+        }
+
+        // Downsample into equal time buckets, skipping empty ones
+        double bucketSeconds = (toEpoch - fromEpoch + 1) / (double) points;
+        int i = 0;
+        while (i < size) {
+            int bucket = (int) ((times[i] - fromEpoch) / bucketSeconds);
+            long min = cents[i];
+            long max = cents[i];
+            long sum = 0L;
+            int count = 0;
+            long last = cents[i];
+            while (i < size && (int) ((times[i] - fromEpoch) / bucketSeconds) == bucket) {
+                min = Math.min(min, cents[i]);
+                max = Math.max(max, cents[i]);
+                sum += cents[i];
+                last = cents[i];
+                count++;
+                i++;
+            }
+            long bucketStart = fromEpoch + (long) (bucket * bucketSeconds);
+            result.add(new PricePoint(Instant.ofEpochSecond(bucketStart), PriceHistoryCodec.fromCents(min),
+                    PriceHistoryCodec.fromCents(max), PriceHistoryCodec.fromCents(sum) / count,
+                    PriceHistoryCodec.fromCents(last), count));
+        }
+        return result;
+    }
+
+    /**
+     * Rolling min/max/avg over the last 7, 30, 90 and 365 days. Blocks fully
+     * inside a window contribute their stored aggregates; only the block cut
+     * by the window start is decoded.
+     */
+    public List<WindowStats> getRollingStats(SeriesType type, long seriesKey) {
+        long now = Instant.now().getEpochSecond();
+        long oldestStart = now - SECONDS_PER_DAY * STAT_WINDOW_DAYS[STAT_WINDOW_DAYS.length - 1];
+        List<Block> blocks = loadBlocks(type, seriesKey, oldestStart, now);
+
+        List<WindowStats> stats = new ArrayList<>(STAT_WINDOW_DAYS.length);
+        for (int days : STAT_WINDOW_DAYS) {
+            long windowStart = now - SECONDS_PER_DAY * days;
+            long min = Long.MAX_VALUE;
+            long max = Long.MIN_VALUE;
+            long sum = 0L;
+            int count = 0;
+            for (Block block : blocks) {
+                if (block.firstTs() >= windowStart) {
+                    min = Math.min(min, block.minCents());
+                    max = Math.max(max, block.maxCents());
+                    sum += block.sumCents();
+                    count += block.sampleCount();
+                    continue;
+                }
+                PriceHistoryCodec.Samples samples = PriceHistoryCodec.decode(block.data(), block.startEpoch(),
+                        block.sampleCount());
+                for (int i = 0; i < samples.size; i++) {
+                    if (samples.epochSeconds[i] >= windowStart) {
+                        long value = samples.cents[i];
+                        min = Math.min(min, value);
+                        max = Math.max(max, value);
+                        sum += value;
+                        count++;
+                    }
+                }
+            }
+            if (count == 0) {
+                stats.add(new WindowStats(days, null, null, null, 0));
+            } else {
+                stats.add(new WindowStats(days, PriceHistoryCodec.fromCents(min), PriceHistoryCodec.fromCents(max),
+                        PriceHistoryCodec.fromCents(sum) / count, count));
+            }
+        }
+        return stats;
+    }
+
+    private static LocalDate blockStartOf(long epochSeconds) {
+        return Instant.ofEpochSecond(epochSeconds).atZone(ZoneOffset.UTC).toLocalDate().withDayOfMonth(1);
+    }
+}
@@ -0,0 +1,81 @@
+package com.tcg.arena.service;
+
+import java.util.Arrays;
+
+/**
+ * Compact in-memory snapshot of the current card_templates prices for one TCG,
+ * used by the price-only refresh to diff API data without loading entities.
+ *
+ * Rows hold the template id and its {@link CardPrices} vector in primitive
+ * arrays; rows are found through a {@link LongIntHashMap} from a 64-bit hash
+ * of the card's natural key (name, set code, card number) to the row index.
+ */
+public final class PriceSnapshot {
+
+    private long[] templateIds;
+    private double[] prices;
+    private int size;
+
+    // Key hash -> row index
+    private final LongIntHashMap rowsByKey;
+
+    public PriceSnapshot(int expectedSize) {
+        int rows = Math.max(expectedSize, 16);
+        this.templateIds = new long[rows];
+        this.prices = new double[rows * CardPrices.FIELDS];
+        this.rowsByKey = new LongIntHashMap(rows);
+    }
+
+    /**
+     * Add a template. A second template with the same natural key is ignored,
+     * the first one wins like findByNameAndSetCodeAndCardNumberIncludingNA.
+     */
+    public void add(String name, String setCode, String cardNumber, long templateId, double[] rowPrices) {
+        if (!rowsByKey.putIfAbsent(keyHash(name, setCode, cardNumber), size)) {
+            return;
+        }
+        if (size == templateIds.length) {
+            templateIds = Arrays.copyOf(templateIds, size * 2);
+            prices = Arrays.copyOf(prices, size * 2 * CardPrices.FIELDS);
+        }
+        templateIds[size] = templateId;
+        System.arraycopy(rowPrices, 0, prices, size * CardPrices.FIELDS, CardPrices.FIELDS);
+        size++;
+    }
+
+    /**
+     * Row index for a card, or -1 when the card is not in the snapshot.
+     */
+    public int rowOf(String name, String setCode, String cardNumber) {
+        return rowsByKey.get(keyHash(name, setCode, cardNumber), -1);
+    }
+
+    public long templateId(int row) {
+        return templateIds[row];
+    }
+
+    public void copyPrices(int row, double[] target) {
+        System.arraycopy(prices, row * CardPrices.FIELDS, target, 0, CardPrices.FIELDS);
+    }
+
+    public boolean differs(int row, double[] candidate) {
+        return CardPrices.differs(prices, row * CardPrices.FIELDS, candidate);
+    }
+
+    /**
+     * Store new prices for a row, so a card repeated across pages is only
+     * written once.
+     */
+    public void update(int row, double[] rowPrices) {
+        System.arraycopy(rowPrices, 0, prices, row * CardPrices.FIELDS, CardPrices.FIELDS);
+    }
+
+    public int size() {
+        return size;
+    }
+
+    // Same key hash as the import's CardKeySet; never 0, which the index does not accept
+    static long keyHash(String name, String setCode, String cardNumber) {
+        return CardKeySet.hash(name, setCode, cardNumber);
+    }
+}
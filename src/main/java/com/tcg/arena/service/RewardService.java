@@ -1,6 +1,7 @@
 package com.tcg.arena.service;
 
 import com.tcg.arena.config.CacheConfig;
+import com.tcg.arena.model.ActivityType;
 import com.tcg.arena.model.Reward;
 import com.tcg.arena.model.RewardTransaction;
 import com.tcg.arena.model.User;
@@ -11,6 +12,7 @@ import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.cache.annotation.CacheEvict;
 import org.springframework.cache.annotation.Cacheable;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
 import java.time.LocalDateTime;
 import java.util.List;
@@ -29,7 +31,7 @@ public class RewardService {
     private UserRepository userRepository;
 
     @Autowired
-    private UserActivityService userActivityService;
+    private PointsLedger pointsLedger;
 
     @Autowired
     private NotificationService notificationService;
@@ -57,59 +59,23 @@ public class RewardService {
         return rewardRepository.save(reward);
     }
 
+    @Transactional
     public boolean redeemReward(Long userId, Long rewardId) {
-        Optional<User> userOpt = userRepository.findById(userId);
         Optional<Reward> rewardOpt = rewardRepository.findById(rewardId);
-
-        if (userOpt.isPresent() && rewardOpt.isPresent()) {
-            User user = userOpt.get();
-            Reward reward = rewardOpt.get();
-
-            if (user.getPoints() >= reward.getCostPoints()) {
-                // Deduct points
-                user.setPoints(user.getPoints() - reward.getCostPoints());
-                userRepository.save(user);
-
-                // Log transaction
-                RewardTransaction transaction = new RewardTransaction();
-                transaction.setUserId(userId);
-                transaction.setPointsChange(-reward.getCostPoints());
-                transaction.setDescription("Redeemed: " + reward.getName());
-                transaction.setRewardId(rewardId);
-                transaction.setTimestamp(LocalDateTime.now());
-                transactionRepository.save(transaction);
-
-                // Log activity
-                userActivityService.logActivity(userId,
-                        com.tcg.arena.model.ActivityType.REWARD_REDEEMED,
-                        "Riscattato premio: " + reward.getName());
-
-                return true;
-            }
+        if (rewardOpt.isEmpty()) {
+            return false;
         }
-        return false;
+        Reward reward = rewardOpt.get();
+
+        // Atomic debit, fails without changes when the balance is too low
+        Integer balance = pointsLedger.debit(userId, reward.getCostPoints(), "Redeemed: " + reward.getName(),
+                rewardId, ActivityType.REWARD_REDEEMED, "Riscattato premio: " + reward.getName());
+        return balance != null;
     }
 
     public void earnPoints(Long userId, Integer points, String description) {
-        Optional<User> userOpt = userRepository.findById(userId);
-        if (userOpt.isPresent()) {
-            User user = userOpt.get();
-            user.setPoints(user.getPoints() + points);
-            userRepository.save(user);
-
-            // Log transaction
-            RewardTransaction transaction = new RewardTransaction();
-            transaction.setUserId(userId);
-            transaction.setPointsChange(points);
-            transaction.setDescription(description);
-            transaction.setTimestamp(LocalDateTime.now());
-            transactionRepository.save(transaction);
-
-            // Log activity
-            userActivityService.logActivity(userId,
-                    com.tcg.arena.model.ActivityType.POINTS_EARNED,
-                    "Guadagnati " + points + " punti: " + description);
-        }
+        pointsLedger.credit(userId, points, description, ActivityType.POINTS_EARNED,
+                "Guadagnati " + points + " punti: " + description);
     }
 
     public List<RewardTransaction> getUserTransactionHistory(Long userId) {
@@ -192,24 +158,9 @@ public class RewardService {
     }
 
     public void deductPoints(Long userId, Integer points, String description) {
-        Optional<User> userOpt = userRepository.findById(userId);
-        if (userOpt.isPresent()) {
-            User user = userOpt.get();
-            if (user.getPoints() < points) {
-                throw new RuntimeException("Insufficient points");
-            }
-            user.setPoints(user.getPoints() - points);
-            userRepository.save(user);
-
-            // Log transaction
-            RewardTransaction transaction = new RewardTransaction();
-            transaction.setUserId(userId);
-            transaction.setPointsChange(-points);
-            transaction.setDescription(description);
-            transaction.setTimestamp(LocalDateTime.now());
-            transactionRepository.save(transaction);
-        } else {
-            throw new RuntimeException("User not found");
+        Integer balance = pointsLedger.debit(userId, points, description, null, null, null);
+        if (balance == null) {
+            throw new RuntimeException(userRepository.existsById(userId) ? "Insufficient points" : "User not found");
         }
     }
-}
\ No newline at end of file
+}
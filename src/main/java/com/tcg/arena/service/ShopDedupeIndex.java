@@ -0,0 +1,141 @@
+package com.tcg.arena.service;
+
+import com.tcg.arena.model.Shop;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * In-memory duplicate detector used by the shop population imports
+ * (Google Places, HERE, OpenStreetMap).
+ *
+ * Built once per import run from the existing shops, then kept up to date
+ * with {@link #add(Shop)} as new shops are inserted. Shops are bucketed by
+ * normalized name and a ~100m grid cell, so {@link #contains(Shop)} only
+ * checks the 3x3 neighbouring cells for the same name instead of scanning the
+ * whole shop table.
+ *
+ * Not thread-safe: each import run owns its own instance.
+ */
+public class ShopDedupeIndex {
+
+    /** Two shops with the same name closer than this are the same shop */
+    private static final double DUPLICATE_DISTANCE_KM = 0.1;
+
+    private static final double KM_PER_DEGREE_LATITUDE = 111.32;
+    private static final double LATITUDE_STEP = DUPLICATE_DISTANCE_KM / KM_PER_DEGREE_LATITUDE;
+
+    private final Map<String, List<double[]>> buckets = new HashMap<>();
+    private int size = 0;
+    // Bucket lookups and distance checks done by contains(), for tests
+    private long probes = 0;
+
+    public ShopDedupeIndex(Collection<Shop> existingShops) {
+        for (Shop shop : existingShops) {
+            add(shop);
+        }
+    }
+
+    /**
+     * Check if a shop with the same normalized name exists within 100 meters
+     */
+    public boolean contains(Shop shop) {
+        String name = normalizeName(shop.getName());
+        if (name.isEmpty() || shop.getLatitude() == null || shop.getLongitude() == null) {
+            return false;
+        }
+
+        double latitude = shop.getLatitude();
+        double longitude = shop.getLongitude();
+        long latIndex = latitudeIndex(latitude);
+
+        for (long row = latIndex - 1; row <= latIndex + 1; row++) {
+            long lonIndex = longitudeIndex(row, longitude);
+            for (long column = lonIndex - 1; column <= lonIndex + 1; column++) {
+                List<double[]> bucket = buckets.get(bucketKey(name, row, column));
+                probes++;
+                if (bucket == null) {
+                    continue;
+                }
+                for (double[] coords : bucket) {
+                    probes++;
+                    if (calculateDistance(coords[0], coords[1], latitude, longitude) < DUPLICATE_DISTANCE_KM) {
+                        return true;
+                    }
+                }
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Register a shop (existing or just inserted) in the index
+     */
+    public void add(Shop shop) {
+        String name = normalizeName(shop.getName());
+        if (name.isEmpty() || shop.getLatitude() == null || shop.getLongitude() == null) {
+            return;
+        }
+
+        double latitude = shop.getLatitude();
+        double longitude = shop.getLongitude();
+        long row = latitudeIndex(latitude);
+        long column = longitudeIndex(row, longitude);
+
+        buckets.computeIfAbsent(bucketKey(name, row, column), key -> new ArrayList<>(1))
+                .add(new double[] { latitude, longitude });
+        size++;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    long getProbes() {
+        return probes;
+    }
+
+    static String normalizeName(String name) {
+        if (name == null) {
+            return "";
+        }
+        return name.trim().replaceAll("\\s+", " ").toLowerCase(Locale.ROOT);
+    }
+
+    private static long latitudeIndex(double latitude) {
+        return (long) Math.floor(latitude / LATITUDE_STEP);
+    }
+
+    /**
+     * Longitude cells are widened by 1/cos(latitude) of their row so every cell
+     * is at least 100m wide, which keeps the 3x3 neighbourhood check exact.
+     */
+    private static long longitudeIndex(long latIndex, double longitude) {
+        double rowLatitude = Math.max(Math.abs(latIndex), Math.abs(latIndex + 1)) * LATITUDE_STEP;
+        double cosLatitude = Math.max(Math.cos(Math.toRadians(Math.min(rowLatitude, 89.0))), 0.01);
+        double longitudeStep = LATITUDE_STEP / cosLatitude;
+        return (long) Math.floor(longitude / longitudeStep);
+    }
+
+    private static String bucketKey(String normalizedName, long row, long column) {
+        return normalizedName + '|' + row + '|' + column;
+    }
+
+    /**
+     * Calculate distance between two coordinates in kilometers
+     */
+    static double calculateDistance(double lat1, double lon1, double lat2, double lon2) {
+        final int R = 6371; // Radius of the earth in km
+        double latDistance = Math.toRadians(lat2 - lat1);
+        double lonDistance = Math.toRadians(lon2 - lon1);
+        double a = Math.sin(latDistance / 2) * Math.sin(latDistance / 2)
+                + Math.cos(Math.toRadians(lat1)) * Math.cos(Math.toRadians(lat2))
+                        * Math.sin(lonDistance / 2) * Math.sin(lonDistance / 2);
+        double c = 2 * Math.atan2(Math.sqrt(a), Math.sqrt(1 - a));
+        return R * c;
+    }
+}
@@ -5,13 +5,41 @@ import com.tcg.arena.model.User;
 import com.tcg.arena.model.UserRatingStreak;
 import com.tcg.arena.repository.UserRatingStreakRepository;
 import com.tcg.arena.repository.UserRepository;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
 
 import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
-
+import java.util.TreeSet;
+
+/**
+ * Card rating streaks and vote counts.
+ *
+ * Each user's last vote day is kept in memory, so the streak row is read
+ * and written once per user per day; vote counts are added to total_votes
+ * by a periodic batch. Vote and streak leaderboards are kept sorted in
+ * memory and updated on every change.
+ *
+ * Each instance only sees the votes it handles. With several instances
+ * (cluster or relay broker mode) the leaderboards and last active days are
+ * therefore reloaded from user_rating_streak, where every instance flushes
+ * its votes, every streaks.leaderboard-rebuild-interval-ms: instances agree
+ * within the flush plus rebuild intervals.
+ */
 @Service
 public class StreakService {
 
@@ -26,6 +54,15 @@ public class StreakService {
 
     private static final int[] MILESTONES = { 20, 30, 40, 50, 100, 365 };
 
+    private static final int NO_DAY = Integer.MIN_VALUE;
+    private static final int NO_SCORE = Integer.MIN_VALUE;
+
+    private static final String ADD_VOTES_SQL = "UPDATE user_rating_streak SET total_votes = total_votes + ? WHERE user_id = ?";
+
+    private static final String LOAD_STREAKS_SQL = "SELECT user_id, total_votes, current_streak, last_rating_date FROM user_rating_streak";
+
+    private static final Logger logger = LoggerFactory.getLogger(StreakService.class);
+
     @Autowired
     private UserRatingStreakRepository streakRepository;
 
@@ -35,61 +72,197 @@ public class StreakService {
     @Autowired
     private RewardService rewardService;
 
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private ClusterBrokerBus clusterBus;
+
+    // Epoch day of each user's last recorded vote day
+    private final LongIntHashMap lastActiveDays = new LongIntHashMap(1024);
+
+    // Votes counted but not yet written to total_votes
+    private final Object pendingVotesLock = new Object();
+    private LongIntHashMap pendingVotes = new LongIntHashMap(16);
+
+    private final Leaderboard votesLeaderboard = new Leaderboard();
+    private final Leaderboard streakLeaderboard = new Leaderboard();
+    private volatile boolean leaderboardsLoaded = false;
+
     /**
      * Records voting activity for a user and updates their streak.
      * Should be called after each vote submission.
      * Returns bonus points awarded if a milestone was reached.
+     *
+     * Only the first vote of the day reads and writes the streak row; the
+     * following ones just count a vote, flushed to total_votes in batches.
      */
     @Transactional
     public int recordActivity(Long userId) {
-        User user = userRepository.findById(userId)
-                .orElseThrow(() -> new RuntimeException("User not found"));
+        int today = (int) LocalDate.now().toEpochDay();
+
+        int lastActiveDay;
+        synchronized (lastActiveDays) {
+            lastActiveDay = lastActiveDays.get(userId, NO_DAY);
+        }
+        if (lastActiveDay == today) {
+            afterCommit(() -> countVote(userId));
+            return 0;
+        }
 
-        UserRatingStreak streak = streakRepository.findByUser(user)
+        UserRatingStreak streak = streakRepository.findByUserId(userId)
                 .orElseGet(() -> {
+                    User user = userRepository.findById(userId)
+                            .orElseThrow(() -> new RuntimeException("User not found"));
                     UserRatingStreak newStreak = new UserRatingStreak();
                     newStreak.setUser(user);
                     return newStreak;
                 });
 
-        LocalDate today = LocalDate.now();
+        LocalDate todayDate = LocalDate.ofEpochDay(today);
         LocalDate lastRatingDate = streak.getLastRatingDate();
 
         int bonusPointsAwarded = 0;
 
-        // Increment total votes always
-        streak.incrementTotalVotes();
-
         if (lastRatingDate == null) {
             // First ever rating
             streak.setCurrentStreak(1);
             streak.setLongestStreak(1);
             streak.setTotalRatingDays(1);
-            streak.setStreakStartDate(today);
-        } else if (lastRatingDate.equals(today)) {
-            // Already rated today, no streak change
-            // Just increment votes (already done above)
-        } else if (lastRatingDate.equals(today.minusDays(1))) {
+            streak.setStreakStartDate(todayDate);
+        } else if (lastRatingDate.equals(todayDate)) {
+            // Already rated today (e.g. after a restart), no streak change
+        } else if (lastRatingDate.equals(todayDate.minusDays(1))) {
             // Consecutive day - increment streak
             streak.incrementStreak();
             streak.setTotalRatingDays(streak.getTotalRatingDays() + 1);
 
             // Check for milestone bonus
-            bonusPointsAwarded = checkAndAwardMilestone(streak.getCurrentStreak(), user);
+            bonusPointsAwarded = checkAndAwardMilestone(streak.getCurrentStreak(), userId);
         } else {
             // Streak broken - reset
             streak.resetStreak();
             streak.setCurrentStreak(1);
             streak.setTotalRatingDays(streak.getTotalRatingDays() + 1);
-            streak.setStreakStartDate(today);
+            streak.setStreakStartDate(todayDate);
         }
 
-        streak.setLastRatingDate(today);
+        streak.setLastRatingDate(todayDate);
         streakRepository.save(streak);
 
+        int currentStreak = streak.getCurrentStreak();
+        afterCommit(() -> {
+            synchronized (lastActiveDays) {
+                lastActiveDays.put(userId, today);
+            }
+            streakLeaderboard.set(userId, currentStreak);
+            countVote(userId);
+        });
+
         return bonusPointsAwarded;
     }
 
+    private void countVote(Long userId) {
+        synchronized (pendingVotesLock) {
+            pendingVotes.addTo(userId, 1);
+        }
+        votesLeaderboard.add(userId, 1);
+    }
+
+    private void afterCommit(Runnable action) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    action.run();
+                }
+            });
+        } else {
+            action.run();
+        }
+    }
+
+    /**
+     * Write the votes counted since the last flush to total_votes
+     */
+    @Scheduled(fixedDelayString = "${streaks.flush-interval-ms:5000}")
+    public void flushVotes() {
+        LongIntHashMap batch;
+        synchronized (pendingVotesLock) {
+            if (pendingVotes.size() == 0) {
+                return;
+            }
+            batch = pendingVotes;
+            pendingVotes = new LongIntHashMap(16);
+        }
+
+        List<Object[]> rows = new ArrayList<>(batch.size());
+        batch.forEach((userId, votes) -> rows.add(new Object[] { votes, userId }));
+        try {
+            jdbcTemplate.batchUpdate(ADD_VOTES_SQL, rows);
+        } catch (Exception e) {
+            logger.error("Failed to flush votes of {} users: {}", rows.size(), e.getMessage());
+            synchronized (pendingVotesLock) {
+                batch.forEach(pendingVotes::addTo);
+            }
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        flushVotes();
+    }
+
+    /**
+     * Load the last active days and both leaderboards with one scan of the
+     * streak table. Until then leaderboards are read from the database.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void loadLeaderboards() {
+        long start = System.currentTimeMillis();
+        int users = readLeaderboards();
+        leaderboardsLoaded = true;
+        logger.info("Streak leaderboards loaded: {} users in {}ms", users, System.currentTimeMillis() - start);
+    }
+
+    /**
+     * Pick up the votes and streaks of the other instances, see the class
+     * comment. Nothing to do with a single instance.
+     */
+    @Scheduled(fixedDelayString = "${streaks.leaderboard-rebuild-interval-ms:60000}",
+            initialDelayString = "${streaks.leaderboard-rebuild-interval-ms:60000}")
+    public void rebuildLeaderboards() {
+        if (!clusterBus.isEnabled() || !leaderboardsLoaded) {
+            return;
+        }
+        long start = System.currentTimeMillis();
+        int users = readLeaderboards();
+        logger.debug("Streak leaderboards rebuilt: {} users in {}ms", users, System.currentTimeMillis() - start);
+    }
+
+    // Scores are the stored values plus the votes this instance has not flushed yet
+    private int readLeaderboards() {
+        List<Object[]> rows = jdbcTemplate.query(LOAD_STREAKS_SQL, (rs, rowNum) -> new Object[] {
+                rs.getLong(1), rs.getInt(2), rs.getInt(3), rs.getObject(4, LocalDate.class) });
+
+        synchronized (lastActiveDays) {
+            for (Object[] row : rows) {
+                if (row[3] != null) {
+                    lastActiveDays.put((Long) row[0], (int) ((LocalDate) row[3]).toEpochDay());
+                }
+            }
+        }
+        for (Object[] row : rows) {
+            int pendingVoteCount;
+            synchronized (pendingVotesLock) {
+                pendingVoteCount = pendingVotes.get((Long) row[0], 0);
+            }
+            votesLeaderboard.set((Long) row[0], (Integer) row[1] + pendingVoteCount);
+            streakLeaderboard.set((Long) row[0], (Integer) row[2]);
+        }
+        return rows.size();
+    }
+
     /**
      * Gets streak statistics for a user.
      */
@@ -126,10 +299,15 @@ public class StreakService {
         long usersWithMoreVotes = streakRepository.countByTotalVotesGreaterThan(streak.getTotalVotes());
         int rank = (int) usersWithMoreVotes + 1;
 
+        int pendingVoteCount;
+        synchronized (pendingVotesLock) {
+            pendingVoteCount = pendingVotes.get(userId, 0);
+        }
+
         return new UserRatingStreakDTO(
                 currentStreak,
                 streak.getLongestStreak(),
-                streak.getTotalVotes(),
+                streak.getTotalVotes() + pendingVoteCount,
                 streak.getStreakBreaks(),
                 streak.getTotalRatingDays(),
                 streak.getLastRatingDate(),
@@ -142,11 +320,11 @@ public class StreakService {
     /**
      * Checks if user reached a milestone and awards bonus points.
      */
-    private int checkAndAwardMilestone(int currentStreak, User user) {
+    private int checkAndAwardMilestone(int currentStreak, Long userId) {
         Integer bonus = MILESTONE_BONUSES.get(currentStreak);
         if (bonus != null) {
             rewardService.earnPoints(
-                    user.getId(),
+                    userId,
                     bonus,
                     "Rating Streak Milestone: " + currentStreak + " days");
             return bonus;
@@ -154,13 +332,13 @@ public class StreakService {
         return 0;
     }
 
-    /**
-     * Calculates the next milestone target for a given streak.
-     */
     /**
      * Gets the leaderboard based on total votes.
      */
     public java.util.List<com.tcg.arena.dto.UserLeaderboardDTO> getVotesLeaderboard(int page, int size) {
+        if (leaderboardsLoaded) {
+            return toLeaderboardDTOs(votesLeaderboard.page(page, size), page, size);
+        }
         org.springframework.data.domain.Pageable pageable = org.springframework.data.domain.PageRequest.of(page, size);
         org.springframework.data.domain.Page<UserRatingStreak> streaks = streakRepository
                 .findAllByOrderByTotalVotesDesc(pageable);
@@ -175,6 +353,9 @@ public class StreakService {
      * Gets the leaderboard based on current streak.
      */
     public java.util.List<com.tcg.arena.dto.UserLeaderboardDTO> getStreakLeaderboard(int page, int size) {
+        if (leaderboardsLoaded) {
+            return toLeaderboardDTOs(streakLeaderboard.page(page, size), page, size);
+        }
         org.springframework.data.domain.Pageable pageable = org.springframework.data.domain.PageRequest.of(page, size);
         org.springframework.data.domain.Page<UserRatingStreak> streaks = streakRepository
                 .findAllByOrderByCurrentStreakDesc(pageable);
@@ -185,6 +366,32 @@ public class StreakService {
                 .collect(java.util.stream.Collectors.toList());
     }
 
+    // One user query for the page, ranks from the position in the board
+    private java.util.List<com.tcg.arena.dto.UserLeaderboardDTO> toLeaderboardDTOs(List<Leaderboard.Entry> entries,
+            int page, int size) {
+        Map<Long, User> users = new HashMap<>();
+        for (User user : userRepository.findAllById(entries.stream().map(e -> e.userId).toList())) {
+            users.put(user.getId(), user);
+        }
+
+        java.util.List<com.tcg.arena.dto.UserLeaderboardDTO> result = new ArrayList<>(entries.size());
+        for (int i = 0; i < entries.size(); i++) {
+            Leaderboard.Entry entry = entries.get(i);
+            User user = users.get(entry.userId);
+            if (user == null) {
+                continue;
+            }
+            result.add(new com.tcg.arena.dto.UserLeaderboardDTO(
+                    (page * size) + i + 1,
+                    user.getId(),
+                    user.getUsername(),
+                    user.getProfileImageUrl(),
+                    entry.score,
+                    user.getIsPremium()));
+        }
+        return result;
+    }
+
     private com.tcg.arena.dto.UserLeaderboardDTO mapToLeaderboardDTO(UserRatingStreak streak, int score, int page,
             int size, int index) {
         User user = streak.getUser();
@@ -211,4 +418,56 @@ public class StreakService {
         // Beyond all milestones, return next 365 interval
         return ((currentStreak / 365) + 1) * 365;
     }
+
+    /**
+     * Scores of all users ordered by score (highest first, then user id),
+     * updated in place on every change so a page is a walk from the top.
+     */
+    static final class Leaderboard {
+        private final LongIntHashMap scores = new LongIntHashMap(1024);
+        private final TreeSet<Entry> ranking = new TreeSet<>(
+                Comparator.<Entry>comparingInt(e -> e.score).reversed().thenComparingLong(e -> e.userId));
+
+        synchronized void set(long userId, int score) {
+            int previous = scores.get(userId, NO_SCORE);
+            if (previous == score) {
+                return;
+            }
+            if (previous != NO_SCORE) {
+                ranking.remove(new Entry(userId, previous));
+            }
+            scores.put(userId, score);
+            ranking.add(new Entry(userId, score));
+        }
+
+        synchronized void add(long userId, int delta) {
+            int previous = scores.get(userId, NO_SCORE);
+            set(userId, previous == NO_SCORE ? delta : previous + delta);
+        }
+
+        synchronized List<Entry> page(int page, int size) {
+            List<Entry> result = new ArrayList<>(size);
+            int skip = page * size;
+            for (Entry entry : ranking) {
+                if (skip > 0) {
+                    skip--;
+                } else if (result.size() < size) {
+                    result.add(entry);
+                } else {
+                    break;
+                }
+            }
+            return result;
+        }
+
+        static final class Entry {
+            final long userId;
+            final int score;
+
+            Entry(long userId, int score) {
+                this.userId = userId;
+                this.score = score;
+            }
+        }
+    }
 }
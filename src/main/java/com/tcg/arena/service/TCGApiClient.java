@@ -21,12 +21,13 @@ import org.springframework.transaction.annotation.Transactional;
 import org.springframework.web.reactive.function.client.WebClient;
 import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Schedulers;
 
 import java.time.Duration;
+import java.time.Instant;
 import java.time.LocalDateTime;
 import java.time.format.DateTimeFormatter;
 import java.util.*;
-import java.util.concurrent.ConcurrentHashMap;
 import java.util.stream.Collectors;
 
 /**
@@ -37,17 +38,18 @@ import java.util.stream.Collectors;
  * - Full hierarchy management (Expansion → TCGSet → CardTemplate)
  * - Paginated requests with cursor support
  * - Duplicate prevention at all levels
- * - Rate limiting to avoid API throttling
+ * - Quota-aware key scheduling to avoid API throttling (JustTcgRequestScheduler)
  */
 @Service
 public class TCGApiClient {
 
     private static final Logger logger = LoggerFactory.getLogger(TCGApiClient.class);
 
-    // Rate limiting: delay between API calls (ms) -> 5s to avoid 429 rate limit
+    // Delay between consecutive sets during bulk imports (ms). Per-request pacing
+    // against the API quotas is done by JustTcgRequestScheduler.
     private static final long API_DELAY_MS = 1000;
     // Page size for card fetching
-    private static final int PAGE_SIZE = 100;
+    public static final int PAGE_SIZE = 100;
     // Progress logging interval
     private static final int LOG_PROGRESS_EVERY_N_PAGES = 10;
 
@@ -101,10 +103,6 @@ public class TCGApiClient {
     private final WebClient webClient;
     private final WebClient scryfallWebClient;
 
-    // Cache to avoid repeated DB lookups during import
-    private final Map<String, Expansion> expansionCache = new ConcurrentHashMap<>();
-    private final Map<String, com.tcg.arena.model.TCGSet> tcgSetCache = new ConcurrentHashMap<>();
-
     @Autowired
     private CardTemplateRepository cardTemplateRepository;
 
@@ -127,103 +125,44 @@ public class TCGApiClient {
     private TCGSetRepository tcgSetRepository;
 
     @Autowired
-    private com.tcg.arena.repository.ImportProgressRepository importProgressRepository;
+    private InventoryAnalyticsService inventoryAnalyticsService;
 
-    @Value("${tcg.api.key:tcg_7683633d212d47ff9f396921a66ffb0c}")
-    private String apiKeyPrimary;
+    @Autowired
+    private CardNameDictionary cardNameDictionary;
 
-    @Value("${tcg.api.key.secondary:tcg_b23de539c2c8414e854e73c449bf0e84}")
-    private String apiKeySecondary;
+    // Set/expansion dictionaries shared by the import workers (no global lock)
+    @Autowired
+    private ImportLookupCache importLookups;
 
-    @Value("${tcg.api.key.tertiary:tcg_938debac20584990a7354ad04c4f068d}")
-    private String apiKeyTertiary;
+    @Autowired
+    private com.tcg.arena.repository.ImportProgressRepository importProgressRepository;
 
-    // Track which API key is currently active
-    private volatile int activeKeyIndex = 0; // 0=primary, 1=secondary, 2=tertiary
-    private volatile long lastKeySwitch = 0;
-    private static final long KEY_SWITCH_COOLDOWN_MS = 60 * 60 * 1000; // 1 hour cooldown before switching back
+    // Hands out API keys per request (token buckets, weighting, priority lanes)
+    @Autowired
+    private JustTcgRequestScheduler requestScheduler;
 
-    /**
-     * Get the current active API key.
-     * Automatically switches back to primary key after cooldown period.
-     */
-    private String getActiveApiKey() {
-        // Check if we should switch back to primary key after cooldown
-        if (activeKeyIndex > 0 && (System.currentTimeMillis() - lastKeySwitch) > KEY_SWITCH_COOLDOWN_MS) {
-            logger.info("[API KEY] Cooldown expired, switching back to PRIMARY key");
-            activeKeyIndex = 0;
-        }
-
-        String key;
-        String keyType;
-        switch (activeKeyIndex) {
-            case 0:
-                key = apiKeyPrimary;
-                keyType = "PRIMARY";
-                break;
-            case 1:
-                key = apiKeySecondary;
-                keyType = "SECONDARY";
-                break;
-            case 2:
-                key = apiKeyTertiary;
-                keyType = "TERTIARY";
-                break;
-            default:
-                key = apiKeyPrimary;
-                keyType = "PRIMARY";
-                activeKeyIndex = 0;
-        }
+    @Autowired
+    private com.tcg.arena.repository.MagicSetSyncStateRepository magicSetSyncStateRepository;
 
-        return key;
-    }
+    @Autowired
+    private org.springframework.jdbc.core.JdbcTemplate jdbcTemplate;
 
-    /**
-     * Switch to the next available API key when rate limited.
-     * Cycles through: Primary -> Secondary -> Tertiary -> Primary (if all
-     * exhausted)
-     * Returns true if switch was successful (moved to a different key).
-     */
-    private synchronized boolean switchToNextApiKey() {
-        int previousIndex = activeKeyIndex;
-        activeKeyIndex = (activeKeyIndex + 1) % 3; // Cycle through 0, 1, 2
-
-        String newKeyType;
-        switch (activeKeyIndex) {
-            case 0:
-                newKeyType = "PRIMARY";
-                break;
-            case 1:
-                newKeyType = "SECONDARY";
-                break;
-            case 2:
-                newKeyType = "TERTIARY";
-                break;
-            default:
-                newKeyType = "PRIMARY";
-        }
+    @Autowired
+    private io.micrometer.core.instrument.MeterRegistry meterRegistry;
 
-        logger.warn("[API KEY] Rate limit hit! Switching to {} API key (was {})",
-                newKeyType, previousIndex == 0 ? "PRIMARY" : previousIndex == 1 ? "SECONDARY" : "TERTIARY");
-        lastKeySwitch = System.currentTimeMillis();
+    // Magic sets re-fetched from Scryfall in parallel by importMagicDelta
+    @Value("${scryfall.delta.set-concurrency:2}")
+    private int scryfallDeltaConcurrency;
 
-        return activeKeyIndex != previousIndex;
-    }
+    // Unchanged Magic sets synced longer ago than this are re-fetched for their prices
+    @Value("${scryfall.delta.price-max-age-days:7}")
+    private int scryfallPriceMaxAgeDays;
 
-    /**
-     * Check if error is a rate limit and switch key if needed.
-     * Returns true if should retry with new key (i.e., we switched keys).
-     * Returns false if we were already on tertiary key (no point retrying).
-     */
-    private boolean handleRateLimitError(Throwable throwable) {
-        if (throwable instanceof RuntimeException) {
-            String message = throwable.getMessage();
-            if (message != null && message.contains("HTTP 429")) {
-                return switchToNextApiKey(); // Only retry if we actually switched
-            }
-        }
-        return false;
-    }
+    @Autowired
+    private PriceHistoryService priceHistoryService;
+
+    @Autowired
+    private CollectionValuationService collectionValuationService;
 
     // Mapping from internal TCGType to TCG game IDs (from /games endpoint)
     private static final Map<TCGType, String> TCG_TYPE_TO_GAME_ID = Map.ofEntries(
@@ -353,6 +292,8 @@ public class TCGApiClient {
         public String set_type;
         public String block;
         public String parent_set_code;
+        public String search_uri; // Paged search of the set's cards
+        public boolean digital;
     }
 
     @JsonIgnoreProperties(ignoreUnknown = true)
@@ -436,12 +377,12 @@ public class TCGApiClient {
      * Get all available games from TCG to discover valid game IDs
      */
     public Mono<List<TCGGame>> getGames() {
-        return webClient.get()
+        return requestScheduler.acquire().flatMap(lease -> webClient.get()
                 .uri("/games")
-                .header("x-api-key", getActiveApiKey())
+                .header("x-api-key", lease.apiKey())
                 .retrieve()
                 .bodyToMono(TCGGame[].class)
-                .map(games -> List.of(games))
+                .map(games -> List.of(games)))
                 .doOnSuccess(games -> logger.info("Available TCG games: {}",
                         games.stream().map(g -> g.id + " (" + g.name + ")").toList()))
                 .onErrorResume(e -> {
@@ -457,8 +398,7 @@ public class TCGApiClient {
         return getSetsPage(gameId, null)
                 .expand(response -> {
                     if (response.hasMore && response.nextCursor != null) {
-                        return getSetsPage(gameId, response.nextCursor)
-                                .delaySubscription(Duration.ofMillis(API_DELAY_MS));
+                        return getSetsPage(gameId, response.nextCursor);
                     }
                     return Mono.empty();
                 })
@@ -466,9 +406,9 @@ public class TCGApiClient {
     }
 
     private Mono<TCGSetsResponse> getSetsPage(String gameId, String cursor) {
-        // Use Mono.defer to rebuild the request on each retry (so the API key is
-        // re-evaluated)
-        return Mono.defer(() -> webClient.get()
+        // Each retry re-subscribes and acquires a fresh lease from the scheduler,
+        // which may hand out a different key
+        return Mono.defer(() -> requestScheduler.acquire().flatMap(lease -> webClient.get()
                 .uri(uriBuilder -> {
                     var builder = uriBuilder.path("/sets").queryParam("game", gameId);
                     if (cursor != null) {
@@ -476,14 +416,17 @@ public class TCGApiClient {
                     }
                     return builder.build();
                 })
-                .header("x-api-key", getActiveApiKey())
+                .header("x-api-key", lease.apiKey())
                 .retrieve()
                 .onStatus(status -> status.isError(), response -> {
                     return response.bodyToMono(String.class)
+                            .defaultIfEmpty("")
                             .flatMap(body -> {
+                                if (response.statusCode().value() == 429) {
+                                    requestScheduler.reportRateLimited(lease, body);
+                                }
                                 logger.error("[TCG API ERROR] getSetsPage for {}: HTTP {} - Response body: {}",
                                         gameId, response.statusCode().value(), body);
-                                // Don't switch key here - let retryWhen handle it
                                 return Mono.error(new RuntimeException(
                                         "TCG API error: HTTP " + response.statusCode().value() + " - " + body));
                             });
@@ -491,16 +434,16 @@ public class TCGApiClient {
                 .bodyToMono(TCGSetsResponse.class)
                 .timeout(Duration.ofMinutes(10)) // Add timeout to prevent hanging requests
                 .doOnSuccess(resp -> logger.info("Fetched sets for {}: {} sets found, hasMore: {}",
-                        gameId, resp.getSets().size(), resp.hasMore)))
+                        gameId, resp.getSets().size(), resp.hasMore))))
                 .retryWhen(reactor.util.retry.Retry.backoff(5, Duration.ofSeconds(5))
                         .maxBackoff(Duration.ofMinutes(2))
                         .filter(throwable -> {
                             if (throwable instanceof RuntimeException) {
                                 String message = throwable.getMessage();
                                 if (message != null && message.contains("HTTP 429")) {
-                                    // Only retry if we successfully switched keys
-                                    // If already on tertiary, don't retry (all keys exhausted)
-                                    return switchToNextApiKey();
+                                    // The scheduler parks the limited key; retry only while
+                                    // some key still has quota left today
+                                    return requestScheduler.hasAvailableKey();
                                 }
                                 // Always retry 500 errors
                                 return message != null && message.contains("HTTP 500");
@@ -509,15 +452,8 @@ public class TCGApiClient {
                         })
                         .onRetryExhaustedThrow((retryBackoffSpec, retrySignal) -> retrySignal.failure())
                         .doBeforeRetry(retrySignal -> {
-                            String keyType = switch (activeKeyIndex) {
-                                case 0 -> "PRIMARY";
-                                case 1 -> "SECONDARY";
-                                case 2 -> "TERTIARY";
-                                default -> "UNKNOWN";
-                            };
-                            logger.warn("Retrying getSetsPage for {} - attempt {} ({}) [Key: {}]",
-                                    gameId, retrySignal.totalRetries() + 1, retrySignal.failure().getMessage(),
-                                    keyType);
+                            logger.warn("Retrying getSetsPage for {} - attempt {} ({})",
+                                    gameId, retrySignal.totalRetries() + 1, retrySignal.failure().getMessage());
                         }))
                 .onErrorResume(e -> {
                     logger.error("Error fetching sets for {}: {}", gameId, e.getMessage(), e);
@@ -527,17 +463,18 @@ public class TCGApiClient {
 
     /**
      * Get all cards for a set with offset-based pagination.
-     * Continues fetching until zero results are returned.
+     * Continues fetching until zero results are returned. A page that still
+     * fails after its retries fails the flux: an empty page would end the set
+     * as if it were complete.
      */
     public Flux<TCGCard> getAllCardsForSet(String setId) {
-        return getCardsPageBySet(setId, 0)
+        return fetchCardsPageForSet(setId, 0)
                 .expand(response -> {
                     List<TCGCard> cards = response.getCards();
                     // Continue until we get zero results
                     if (!cards.isEmpty()) {
                         int nextOffset = response.currentOffset + PAGE_SIZE;
-                        return getCardsPageBySet(setId, nextOffset)
-                                .delaySubscription(Duration.ofMillis(API_DELAY_MS));
+                        return fetchCardsPageForSet(setId, nextOffset);
                     }
                     logger.debug("[API] Set {} pagination complete at offset {}", setId, response.currentOffset);
                     return Mono.empty();
@@ -565,8 +502,7 @@ public class TCGApiClient {
                     List<TCGCard> cards = response.getCards();
                     if (response.hasMore && !cards.isEmpty()) {
                         int nextOffset = response.currentOffset + PAGE_SIZE;
-                        return getCardsPageByGame(gameId, nextOffset)
-                                .delaySubscription(Duration.ofMillis(API_DELAY_MS));
+                        return getCardsPageByGame(gameId, nextOffset);
                     }
                     logger.debug("[API] End of pagination reached at offset: {}", response.currentOffset);
                     return Mono.empty();
@@ -582,23 +518,26 @@ public class TCGApiClient {
     }
 
     private Mono<TCGCardsResponse> getCardsPageByGame(String gameId, int offset) {
-        // Use Mono.defer to rebuild the request on each retry, so the API key is
-        // re-evaluated
-        return Mono.defer(() -> webClient.get()
+        // Each retry re-subscribes and acquires a fresh lease from the scheduler,
+        // which may hand out a different key
+        return Mono.defer(() -> requestScheduler.acquire().flatMap(lease -> webClient.get()
                 .uri(uriBuilder -> uriBuilder
                         .path("/cards")
                         .queryParam("game", gameId)
                         .queryParam("limit", PAGE_SIZE)
                         .queryParam("offset", offset)
                         .build())
-                .header("x-api-key", getActiveApiKey())
+                .header("x-api-key", lease.apiKey())
                 .retrieve()
                 .onStatus(status -> status.isError(), response -> {
                     return response.bodyToMono(String.class)
+                            .defaultIfEmpty("")
                             .flatMap(body -> {
+                                if (response.statusCode().value() == 429) {
+                                    requestScheduler.reportRateLimited(lease, body);
+                                }
                                 logger.error("[API] HTTP {} for {} at offset {} - {}",
                                         response.statusCode().value(), gameId, offset, body);
-                                // Don't switch key here - let retryWhen handle it
                                 return Mono.error(new RuntimeException(
                                         "TCG API error: HTTP " + response.statusCode().value() + " - " + body));
                             });
@@ -608,15 +547,15 @@ public class TCGApiClient {
                     response.currentOffset = offset;
                     return response;
                 })
-                .timeout(Duration.ofMinutes(10))).retryWhen(reactor.util.retry.Retry.backoff(5, Duration.ofSeconds(5))
+                .timeout(Duration.ofMinutes(10)))).retryWhen(reactor.util.retry.Retry.backoff(5, Duration.ofSeconds(5))
                         .maxBackoff(Duration.ofMinutes(2))
                         .filter(throwable -> {
                             if (throwable instanceof RuntimeException) {
                                 String message = throwable.getMessage();
                                 if (message != null && message.contains("HTTP 429")) {
-                                    // Only retry if we successfully switched keys
-                                    // If already on tertiary, don't retry (all keys exhausted)
-                                    return switchToNextApiKey();
+                                    // The scheduler parks the limited key; retry only while
+                                    // some key still has quota left today
+                                    return requestScheduler.hasAvailableKey();
                                 }
                                 // Always retry 500 errors
                                 return message != null && message.contains("HTTP 500");
@@ -625,17 +564,10 @@ public class TCGApiClient {
                         })
                         .onRetryExhaustedThrow((retryBackoffSpec, retrySignal) -> retrySignal.failure())
                         .doBeforeRetry(retrySignal -> {
-                            String keyType = switch (activeKeyIndex) {
-                                case 0 -> "PRIMARY";
-                                case 1 -> "SECONDARY";
-                                case 2 -> "TERTIARY";
-                                default -> "UNKNOWN";
-                            };
-                            logger.warn("[API] RETRY {}/5 for {} at offset {} - {} [Key: {}]",
+                            logger.warn("[API] RETRY {}/5 for {} at offset {} - {}",
                                     retrySignal.totalRetries() + 1, gameId, offset,
                                     retrySignal.failure().getMessage().substring(0,
-                                            Math.min(50, retrySignal.failure().getMessage().length())),
-                                    keyType);
+                                            Math.min(50, retrySignal.failure().getMessage().length())));
                         }))
                 .onErrorResume(e -> {
                     logger.error("[API] FAILED for {} at offset {}: {}", gameId, offset, e.getMessage());
@@ -646,27 +578,32 @@ public class TCGApiClient {
     }
 
     /**
-     * Fetch a page of cards for a set using offset-based pagination
+     * Fetch a page of cards for a set, with retries but without error fallback:
+     * once retries are exhausted the error is propagated, so that a failed
+     * page fails (and can restart) the set's import instead of ending it.
      */
-    private Mono<TCGCardsResponse> getCardsPageBySet(String setId, int offset) {
-        // Use Mono.defer to rebuild the request on each retry, so the API key is
-        // re-evaluated
-        return Mono.defer(() -> webClient.get()
+    public Mono<TCGCardsResponse> fetchCardsPageForSet(String setId, int offset) {
+        // Each retry re-subscribes and acquires a fresh lease from the scheduler,
+        // which may hand out a different key
+        return Mono.defer(() -> requestScheduler.acquire().flatMap(lease -> webClient.get()
                 .uri(uriBuilder -> uriBuilder
                         .path("/cards")
                         .queryParam("set", setId)
                         .queryParam("limit", PAGE_SIZE)
                         .queryParam("offset", offset)
                         .build())
-                .header("x-api-key", getActiveApiKey())
+                .header("x-api-key", lease.apiKey())
                 .retrieve()
                 .onStatus(status -> status.isError(), response -> {
                     return response.bodyToMono(String.class)
+                            .defaultIfEmpty("")
                             .flatMap(body -> {
+                                if (response.statusCode().value() == 429) {
+                                    requestScheduler.reportRateLimited(lease, body);
+                                }
                                 logger.error(
-                                        "[TCG API ERROR] getCardsPageBySet for set {}: HTTP {} - Response body: {}",
+                                        "[TCG API ERROR] fetchCardsPageForSet for set {}: HTTP {} - Response body: {}",
                                         setId, response.statusCode().value(), body);
-                                // Don't switch key here - let retryWhen handle it
                                 return Mono.error(new RuntimeException(
                                         "TCG API error: HTTP " + response.statusCode().value() + " - " + body));
                             });
@@ -677,15 +614,15 @@ public class TCGApiClient {
                     resp.currentOffset = offset;
                     logger.debug("Fetched cards page for set {}, offset: {}, count: {}, hasMore: {}",
                             setId, offset, resp.getCards().size(), resp.hasMore);
-                })).retryWhen(reactor.util.retry.Retry.backoff(5, Duration.ofSeconds(5))
+                }))).retryWhen(reactor.util.retry.Retry.backoff(5, Duration.ofSeconds(5))
                         .maxBackoff(Duration.ofMinutes(2))
                         .filter(throwable -> {
                             if (throwable instanceof RuntimeException) {
                                 String message = throwable.getMessage();
                                 if (message != null && message.contains("HTTP 429")) {
-                                    // Only retry if we successfully switched keys
-                                    // If already on tertiary, don't retry (all keys exhausted)
-                                    return switchToNextApiKey();
+                                    // The scheduler parks the limited key; retry only while
+                                    // some key still has quota left today
+                                    return requestScheduler.hasAvailableKey();
                                 }
                                 // Always retry 500 errors
                                 return message != null && message.contains("HTTP 500");
@@ -694,88 +631,45 @@ public class TCGApiClient {
                         })
                         .onRetryExhaustedThrow((retryBackoffSpec, retrySignal) -> retrySignal.failure())
                         .doBeforeRetry(retrySignal -> {
-                            String keyType = switch (activeKeyIndex) {
-                                case 0 -> "PRIMARY";
-                                case 1 -> "SECONDARY";
-                                case 2 -> "TERTIARY";
-                                default -> "UNKNOWN";
-                            };
-                            logger.warn("Retrying getCardsPageBySet for set {} - attempt {} ({}) [Key: {}]",
-                                    setId, retrySignal.totalRetries() + 1, retrySignal.failure().getMessage(),
-                                    keyType);
-                        }))
-                .onErrorResume(e -> {
-                    logger.error("Error fetching cards for set {}: {}", setId, e.getMessage(), e);
-                    TCGCardsResponse errorResponse = new TCGCardsResponse();
-                    errorResponse.currentOffset = offset;
-                    return Mono.just(errorResponse);
-                });
+                            logger.warn("Retrying fetchCardsPageForSet for set {} - attempt {} ({})",
+                                    setId, retrySignal.totalRetries() + 1, retrySignal.failure().getMessage());
+                        }));
     }
 
     // ===================== Import Logic =====================
 
     /**
-     * Import cards for NEW sets and EMPTY sets (sets with 0 cards) for a specific
-     * TCG type.
-     * Instead of offset-based pagination, this method:
-     * 1. Fetches all sets from the API
-     * 2. Identifies which sets are NEW (not in database) or EMPTY (in database but
-     * with 0 cards)
-     * 3. Identifies sets with MISSING CARDS (cardCount in DB differs from actual
-     * cards)
-     * 4. For each new/empty set, fetches all cards using the set parameter
-     * 5. For sets with missing cards, only imports the delta (cards not already in
-     * DB)
-     * 6. If a card fails to save, continues with the next card (no interruption)
+     * Sets of a TCG that need a card import: sets NEW to the database, EMPTY
+     * sets (0 cards) and sets left pending by an interrupted run, de-duplicated
+     * by set id. The partitioned batch import creates one partition per set.
      */
-    public Mono<Integer> importCardsForTCG(TCGType tcgType) {
-        // Special handling for Magic using Scryfall
-        if (tcgType == TCGType.MAGIC) {
-            return importMagicCards();
-        }
-
+    public Mono<List<TCGSet>> getSetsToImport(TCGType tcgType) {
         String gameId = TCG_TYPE_TO_GAME_ID.get(tcgType);
         if (gameId == null) {
-            logger.warn("[IMPORT] TCG type {} not supported", tcgType);
-            return Mono.just(0);
+            return Mono.just(Collections.emptyList());
         }
 
-        // Clear caches at start of import
-        expansionCache.clear();
-        tcgSetCache.clear();
-
-        logger.info("╔══════════════════════════════════════════════════════════════");
-        logger.info("║ IMPORT START (NEW + EMPTY + DELTA SETS MODE): {}", tcgType.getDisplayName().toUpperCase());
-        logger.info("╠══════════════════════════════════════════════════════════════");
-        logger.info("║ Game ID: {}", gameId);
-        logger.info("╚══════════════════════════════════════════════════════════════");
-
-        // Track statistics
-        final ImportStats stats = new ImportStats(tcgType.getDisplayName(), gameId, 0);
-
         // Load existing setCode from database for this TCG type
         Set<String> existingSetCodes = tcgSetRepository.findAllSetCodesByTcgType(tcgType);
         logger.info("[IMPORT] [{}] Found {} existing sets in database", tcgType, existingSetCodes.size());
 
         // Load sets with 0 cards (empty sets that need card import)
-        List<com.tcg.arena.model.TCGSet> emptySetsInDb = tcgSetRepository.findEmptySetsByTcgType(tcgType);
-        logger.info("[IMPORT] [{}] Found {} existing sets with 0 cards", tcgType, emptySetsInDb.size());
-
-        // Optimized: Fetch card counts for all sets in a single query
-        List<Object[]> setCountsRaw = cardTemplateRepository.countByTcgTypeGroupedBySetCode(tcgType);
-        Map<String, Long> actualCardCounts = setCountsRaw.stream()
-                .collect(Collectors.toMap(
-                        row -> (String) row[0],
-                        row -> (Long) row[1]));
-        logger.info("[IMPORT] [{}] Retrieved card counts for {} sets", tcgType, actualCardCounts.size());
-
+        Set<String> emptySetCodes = tcgSetRepository.findEmptySetsByTcgType(tcgType).stream()
+                .map(com.tcg.arena.model.TCGSet::getSetCode)
+                .collect(Collectors.toSet());
+        logger.info("[IMPORT] [{}] Found {} existing sets with 0 cards", tcgType, emptySetCodes.size());
+
+        // Sets left unfinished by a previous (crashed) run
+        Set<String> checkpointedSetCodes = loadPendingSetCodes(tcgType);
+        if (!checkpointedSetCodes.isEmpty()) {
+            logger.info("[IMPORT] [{}] Resuming {} sets left pending by the previous run", tcgType,
+                    checkpointedSetCodes.size());
+        }
 
         // NON si fa più delta: importiamo solo set nuovi o con 0 carte
-
-        // Step 1: Fetch all sets from API
         return getAllSets(gameId)
             .collectList()
-            .flatMap(apiSets -> {
+            .map(apiSets -> {
                 logger.info("[IMPORT] [{}] PHASE 1: Fetched {} sets from API", tcgType, apiSets.size());
 
                 // Identify NEW sets (not in database)
@@ -785,45 +679,36 @@ public class TCGApiClient {
 
                 // Identify empty sets from API (sets in DB con 0 carte)
                 List<TCGSet> emptyApiSets = apiSets.stream()
-                    .filter(apiSet -> emptySetsInDb.stream()
-                        .anyMatch(dbSet -> dbSet.getSetCode().equals(apiSet.id)))
+                    .filter(apiSet -> emptySetCodes.contains(apiSet.id))
                     .toList();
 
-                // Solo questi set vanno importati
-                List<TCGSet> setsForFullImport = new java.util.ArrayList<>();
-                setsForFullImport.addAll(newSets);
-                setsForFullImport.addAll(emptyApiSets);
-
-                if (setsForFullImport.isEmpty()) {
-                logger.info("[IMPORT] [{}] No new or empty sets found. Import complete.", tcgType);
-                return Mono.just(0);
-                }
-
-                logger.info("[IMPORT] [{}] PHASE 2: Found {} NEW sets, {} EMPTY sets",
-                    tcgType, newSets.size(), emptyApiSets.size());
+                // Sets interrupted mid-import last time (already have some cards)
+                List<TCGSet> resumedSets = apiSets.stream()
+                    .filter(apiSet -> checkpointedSetCodes.contains(apiSet.id)
+                        && existingSetCodes.contains(apiSet.id)
+                        && !emptySetCodes.contains(apiSet.id))
+                    .toList();
 
-                for (TCGSet set : newSets) {
-                logger.info("[IMPORT] [{}]   - NEW: {} ({})", tcgType, set.name, set.id);
-                }
-                for (TCGSet set : emptyApiSets) {
-                logger.info("[IMPORT] [{}]   - EMPTY: {} ({})", tcgType, set.name, set.id);
+                // Solo questi set vanno importati (keyed by set id, the API may repeat a set)
+                Map<String, TCGSet> setsById = new LinkedHashMap<>();
+                newSets.forEach(set -> setsById.putIfAbsent(set.id, set));
+                emptyApiSets.forEach(set -> setsById.putIfAbsent(set.id, set));
+                resumedSets.forEach(set -> setsById.putIfAbsent(set.id, set));
+
+                if (!setsById.isEmpty()) {
+                    logger.info("[IMPORT] [{}] PHASE 2: Found {} NEW sets, {} EMPTY sets, {} RESUMED sets",
+                        tcgType, newSets.size(), emptyApiSets.size(), resumedSets.size());
+                    for (TCGSet set : newSets) {
+                        logger.info("[IMPORT] [{}]   - NEW: {} ({})", tcgType, set.name, set.id);
+                    }
+                    for (TCGSet set : emptyApiSets) {
+                        logger.info("[IMPORT] [{}]   - EMPTY: {} ({})", tcgType, set.name, set.id);
+                    }
+                    for (TCGSet set : resumedSets) {
+                        logger.info("[IMPORT] [{}]   - RESUMED: {} ({})", tcgType, set.name, set.id);
+                    }
                 }
-
-                // Importa solo questi set
-                return Flux.fromIterable(setsForFullImport)
-                    .concatMap(apiSet -> importCardsForSet(apiSet, tcgType, stats))
-                    .reduce(0, Integer::sum)
-                    .doOnSuccess(total -> {
-                    stats.newCardsSaved = total;
-                    logImportCompleteNewSets(tcgType, stats, setsForFullImport.size());
-                    });
-            })
-            .doOnError(e -> {
-                logger.error("[IMPORT] [{}] FATAL ERROR: {}", tcgType, e.getMessage(), e);
-            })
-            .doFinally(signal -> {
-                expansionCache.clear();
-                tcgSetCache.clear();
+                return (List<TCGSet>) new ArrayList<>(setsById.values());
             });
     }
 
@@ -846,8 +731,8 @@ public class TCGApiClient {
         logger.info("[RELOAD] Starting reload for set '{}' (code: {}, tcg: {})",
                 dbSet.getName(), setCode, tcgType.getDisplayName());
 
-        // Load existing card keys for this set (name|||setCode|||cardNumber)
-        Set<String> existingCardKeys = cardTemplateRepository.findAllCardKeysBySetCode(setCode);
+        // Load existing card keys for this set (name, setCode, cardNumber)
+        CardKeySet existingCardKeys = loadCardKeys(setCode);
         logger.info("[RELOAD] Set '{}' has {} existing cards in DB", dbSet.getName(), existingCardKeys.size());
 
         final int[] savedCount = { 0 };
@@ -862,11 +747,8 @@ public class TCGApiClient {
                         return;
                     }
 
-                    // Build composite key for this card
-                    String cardKey = card.name + "|||" + setCode + "|||" + (card.number != null ? card.number : "");
-
-                    // Skip if card already exists
-                    if (existingCardKeys.contains(cardKey)) {
+                    // Skip if card already exists (same natural key as saveCardIfNotExists)
+                    if (existingCardKeys.contains(card.name, setCode, card.number != null ? card.number : "N/A")) {
                         skippedCount[0]++;
                         return;
                     }
@@ -885,6 +767,7 @@ public class TCGApiClient {
                                 card.name, setCode, e.getMessage());
                     }
                 })
+                .contextWrite(JustTcgRequestScheduler.withPriority(JustTcgRequestScheduler.Priority.INTERACTIVE))
                 .blockLast(Duration.ofMinutes(30)); // Block and wait for completion
 
         logger.info("[RELOAD] Set '{}' completed: {} new cards, {} skipped, {} errors",
@@ -936,6 +819,7 @@ public class TCGApiClient {
         try {
             apiSet = getAllSets(gameId)
                     .filter(set -> setCode.equals(set.id))
+                    .contextWrite(JustTcgRequestScheduler.withPriority(JustTcgRequestScheduler.Priority.INTERACTIVE))
                     .blockFirst(Duration.ofMinutes(5)); // Get the first matching set
         } catch (Exception e) {
             logger.error("[RESET] Error fetching sets from API for game '{}': {}", gameId, e.getMessage());
@@ -948,6 +832,8 @@ public class TCGApiClient {
                     gameId);
             try {
                 List<TCGSet> availableSets = getAllSets(gameId)
+                        .contextWrite(
+                                JustTcgRequestScheduler.withPriority(JustTcgRequestScheduler.Priority.INTERACTIVE))
                         .collectList()
                         .block(Duration.ofMinutes(2));
                 logger.warn("[RESET] Available sets in API for game '{}' (first 10): {}", gameId,
@@ -985,6 +871,9 @@ public class TCGApiClient {
         // 3. Delete inventory cards for cards in this set
         logger.info("[RESET] Deleting inventory cards for cards in set '{}'", dbSet.getName());
         int deletedInventoryCount = inventoryCardRepository.deleteByCardTemplateSetCode(setCode);
+        if (deletedInventoryCount > 0) {
+            inventoryAnalyticsService.evictAll();
+        }
         logger.info("[RESET] Deleted {} inventory cards for set '{}'", deletedInventoryCount, dbSet.getName());
 
         // 4. Delete user cards for cards in this set
@@ -1034,6 +923,7 @@ public class TCGApiClient {
                         errorsCount[0]++;
                         logger.error("[RESET] Error importing cards for set '{}': {}", setName, error.getMessage());
                     })
+                    .contextWrite(JustTcgRequestScheduler.withPriority(JustTcgRequestScheduler.Priority.INTERACTIVE))
                     .block(Duration.ofMinutes(30)); // Block and wait for completion
 
             logger.info("[RESET] Card import completed for '{}' - imported: {}, errors: {}",
@@ -1081,8 +971,8 @@ public class TCGApiClient {
 
         final com.tcg.arena.model.TCGSet finalTcgSet = tcgSet;
 
-        // Load existing card keys for this set (name|||setCode|||cardNumber)
-        Set<String> existingCardKeys = cardTemplateRepository.findAllCardKeysBySetCode(apiSet.id);
+        // Load existing card keys for this set (name, setCode, cardNumber)
+        CardKeySet existingCardKeys = loadCardKeys(apiSet.id);
         logger.info("[IMPORT] [{}] Set '{}' has {} existing cards in DB", tcgType, apiSet.name,
                 existingCardKeys.size());
 
@@ -1098,11 +988,8 @@ public class TCGApiClient {
                         return Mono.just(0);
                     }
 
-                    // Build composite key for this card
-                    String cardKey = card.name + "|||" + apiSet.id + "|||" + (card.number != null ? card.number : "");
-
-                    // Skip if card already exists
-                    if (existingCardKeys.contains(cardKey)) {
+                    // Skip if card already exists (same natural key as saveCardIfNotExists)
+                    if (existingCardKeys.contains(card.name, apiSet.id, card.number != null ? card.number : "N/A")) {
                         skippedInSet[0]++;
                         return Mono.just(0);
                     }
@@ -1155,8 +1042,10 @@ public class TCGApiClient {
         final int[] savedInSet = { 0 };
         final int[] errorsInSet = { 0 };
 
-        // Fetch all cards for this set using pagination
+        // Fetch all cards for this set using pagination. Card saves are blocking JPA
+        // calls, keep them off the HTTP event loop shared by parallel sets.
         return getAllCardsForSet(apiSet.id)
+                .publishOn(Schedulers.boundedElastic())
                 .concatMap(card -> {
                     if (card == null || card.name == null) {
                         errorsInSet[0]++;
@@ -1169,7 +1058,9 @@ public class TCGApiClient {
                             return Mono.just(1);
                         } else {
                             // Card already exists (updated prices)
-                            stats.pricesUpdated++;
+                            synchronized (stats) {
+                                stats.pricesUpdated++;
+                            }
                             return Mono.just(0);
                         }
                     } catch (Exception e) {
@@ -1182,30 +1073,17 @@ public class TCGApiClient {
                 })
                 .reduce(0, Integer::sum)
                 .doOnSuccess(count -> {
-                    stats.totalCardsProcessed += savedInSet[0] + errorsInSet[0];
-                    stats.errors += errorsInSet[0];
+                    // Sets may run in parallel, stats is shared between them
+                    synchronized (stats) {
+                        stats.totalCardsProcessed += savedInSet[0] + errorsInSet[0];
+                        stats.errors += errorsInSet[0];
+                    }
                     logger.info("[IMPORT] [{}] Set '{}' completed: {} new cards, {} errors",
                             tcgType, apiSet.name, savedInSet[0], errorsInSet[0]);
                 })
                 .delaySubscription(Duration.ofMillis(API_DELAY_MS)); // Rate limiting between sets
     }
 
-    /**
-     * Log completion for new sets import mode
-     */
-    private void logImportCompleteNewSets(TCGType tcgType, ImportStats stats, int setsProcessed) {
-        logger.info("╔══════════════════════════════════════════════════════════════");
-        logger.info("║ IMPORT COMPLETED (NEW SETS MODE): {}", tcgType.getDisplayName().toUpperCase());
-        logger.info("╠══════════════════════════════════════════════════════════════");
-        logger.info("║ Duration      : {}", stats.formatElapsedTime());
-        logger.info("║ Sets Processed: {}", setsProcessed);
-        logger.info("║ New Cards     : {}", stats.newCardsSaved);
-        logger.info("║ Prices Updated: {}", stats.pricesUpdated);
-        logger.info("║ Errors        : {}", stats.errors);
-        logger.info("║ Avg Speed     : {} cards/sec", String.format("%.1f", stats.getCardsPerSecond()));
-        logger.info("╚══════════════════════════════════════════════════════════════");
-    }
-
     // ===================== Logging Helpers =====================
 
     private void logImportStart(TCGType tcgType, String gameId, int startOffset, ImportProgress progress) {
@@ -1369,148 +1247,108 @@ public class TCGApiClient {
     }
 
     /**
-     * Get or create TCGSet for a card (simplified method for direct card import)
+     * Add sets to the pending set checkpoint of a TCG, when the partitioned
+     * batch import creates their partitions. They stay pending, and are
+     * picked up by getSetsToImport, until removePendingSetCode.
      */
-    @Transactional
-    private synchronized com.tcg.arena.model.TCGSet getOrCreateTCGSetForCard(String setId, String setName,
-            TCGType tcgType) {
-        // Check cache first
-        if (tcgSetCache.containsKey(setId)) {
-            return tcgSetCache.get(setId);
+    public synchronized void addPendingSetCodes(TCGType tcgType, Collection<String> setCodes) {
+        Set<String> pendingSetCodes = loadPendingSetCodes(tcgType);
+        if (pendingSetCodes.addAll(setCodes)) {
+            savePendingSetCodes(tcgType, pendingSetCodes);
         }
+    }
 
-        // Check database for existing set by setCode
-        Optional<com.tcg.arena.model.TCGSet> existingSet = tcgSetRepository.findBySetCode(setId);
-        if (existingSet.isPresent()) {
-            com.tcg.arena.model.TCGSet existing = existingSet.get();
-
-            // Preserve manually modified release date - don't update from API for this
-            // method
-            // since we don't have the API data here
-            logger.debug("Using existing TCGSet: {} (release date preserved: {})",
-                    existing.getName(), existing.getReleaseDate());
-
-            tcgSetCache.put(setId, existing);
-            return existing;
+    /**
+     * Remove one fully imported set from the pending set checkpoint of a TCG
+     */
+    public synchronized void removePendingSetCode(TCGType tcgType, String setCode) {
+        Set<String> pendingSetCodes = loadPendingSetCodes(tcgType);
+        if (pendingSetCodes.remove(setCode)) {
+            savePendingSetCodes(tcgType, pendingSetCodes);
         }
-
-        // Get or create the parent Expansion
-        Expansion expansion = getOrCreateExpansion(setName, tcgType);
-
-        // Create new TCGSet
-        com.tcg.arena.model.TCGSet tcgSet = new com.tcg.arena.model.TCGSet();
-        tcgSet.setName(setName);
-        tcgSet.setSetCode(setId);
-        tcgSet.setExpansion(expansion);
-        tcgSet.setCardCount(0);
-        tcgSet.setReleaseDate(LocalDateTime.now());
-
-        tcgSet = tcgSetRepository.save(tcgSet);
-        tcgSetCache.put(setId, tcgSet);
-
-        logger.debug("Created new TCGSet: {} ({})", tcgSet.getName(), tcgSet.getSetCode());
-        return tcgSet;
     }
 
     /**
-     * Get or create TCGSet and its parent Expansion
-     * Uses caching to avoid repeated DB lookups
+     * Set codes checkpointed as pending by the last set import for this TCG.
      */
-    @Transactional
-    private synchronized com.tcg.arena.model.TCGSet getOrCreateTCGSet(TCGSet tcgSet, TCGType tcgType) {
-        // Check cache first
-        String cacheKey = tcgSet.id;
-        if (tcgSetCache.containsKey(cacheKey)) {
-            return tcgSetCache.get(cacheKey);
-        }
-
-        // Check database for existing set by setCode
-        Optional<com.tcg.arena.model.TCGSet> existingSet = tcgSetRepository.findBySetCode(tcgSet.id);
-        if (existingSet.isPresent()) {
-            com.tcg.arena.model.TCGSet existing = existingSet.get();
-
-            // If manually modified, preserve ALL fields - don't update anything from API
-            if (existing.getReleaseDateModifiedManually() != null && existing.getReleaseDateModifiedManually()) {
-                logger.debug("Set '{}' was manually modified - preserving all fields (date: {})",
-                        existing.getName(), existing.getReleaseDate());
-                tcgSetCache.put(cacheKey, existing);
-                return existing;
-            }
-
-            // Update fields from API only if not manually modified
-            existing.setName(tcgSet.name);
-            existing.setReleaseDate(parseReleaseDate(tcgSet.releaseDate));
-            existing.setCardCount(tcgSet.cardsCount != null ? tcgSet.cardsCount : existing.getCardCount());
+    private Set<String> loadPendingSetCodes(TCGType tcgType) {
+        return importProgressRepository.findByTcgType(tcgType)
+                .map(ImportProgress::getPendingSetCodes)
+                .filter(codes -> !codes.isBlank())
+                .map(codes -> (Set<String>) new HashSet<>(Arrays.asList(codes.split(","))))
+                .orElseGet(HashSet::new);
+    }
 
-            // Save the updated set
-            com.tcg.arena.model.TCGSet updatedSet = tcgSetRepository.save(existing);
-            tcgSetCache.put(cacheKey, updatedSet);
-            return updatedSet;
+    /**
+     * Persist the set codes still to import. Called as the parallel set
+     * partitions start and finish, hence synchronized.
+     */
+    private synchronized void savePendingSetCodes(TCGType tcgType, Set<String> pendingSetCodes) {
+        try {
+            ImportProgress p = importProgressRepository.findByTcgType(tcgType)
+                    .orElseGet(() -> new ImportProgress(tcgType));
+            p.setPendingSetCodes(pendingSetCodes.isEmpty() ? null : String.join(",", pendingSetCodes));
+            importProgressRepository.saveAndFlush(p);
+        } catch (Exception e) {
+            logger.warn("[DB] [{}] Could not checkpoint pending sets: {}", tcgType, e.getMessage());
         }
+    }
 
-        // Get or create the parent Expansion
-        Expansion expansion = getOrCreateExpansion(tcgSet.name, tcgType);
-
-        // Create new TCGSet
-        com.tcg.arena.model.TCGSet newTcgSet = new com.tcg.arena.model.TCGSet();
-        newTcgSet.setName(tcgSet.name);
-        newTcgSet.setSetCode(tcgSet.id);
-        newTcgSet.setExpansion(expansion);
-        newTcgSet.setCardCount(tcgSet.cardsCount != null ? tcgSet.cardsCount : 0);
-        newTcgSet.setReleaseDate(parseReleaseDate(tcgSet.releaseDate));
-
-        newTcgSet = tcgSetRepository.save(newTcgSet);
-        tcgSetCache.put(cacheKey, newTcgSet);
-
-        logger.debug("Created new TCGSet: {} ({})", newTcgSet.getName(), newTcgSet.getSetCode());
-        return newTcgSet;
+    /**
+     * Create (or refresh) the database set and expansion of an API set before
+     * its cards are imported by the partitioned batch import.
+     */
+    public com.tcg.arena.model.TCGSet prepareSetForImport(TCGSet apiSet, TCGType tcgType) {
+        return getOrCreateTCGSet(apiSet, tcgType);
     }
 
     /**
-     * Get or create Expansion
-     * Synchronized to prevent race conditions and duplicate creations
-     * If expansion was manually modified, preserves all fields
+     * Get or create TCGSet and its parent Expansion through the import lookup
+     * cache, without a global lock. The first import worker to touch a set
+     * after the preload refreshes its name, release date and card count from
+     * the API, unless the set was modified manually.
      */
-    @Transactional
-    private synchronized Expansion getOrCreateExpansion(String name, TCGType tcgType) {
-        String cacheKey = name + "_" + tcgType.name();
+    private com.tcg.arena.model.TCGSet getOrCreateTCGSet(TCGSet tcgSet, TCGType tcgType) {
+        LocalDateTime releaseDate = parseReleaseDate(tcgSet.releaseDate);
+        com.tcg.arena.model.TCGSet dbSet = importLookups.getOrCreateSet(tcgSet.id, tcgSet.name, tcgType,
+                tcgSet.cardsCount != null ? tcgSet.cardsCount : 0, releaseDate, null);
 
-        if (expansionCache.containsKey(cacheKey)) {
-            return expansionCache.get(cacheKey);
+        if (!importLookups.claimRefresh(tcgSet.id)) {
+            return dbSet;
         }
 
-        // Check database - look for existing expansion by title and tcgType
-        Expansion existing = expansionRepository.findByTitle(name);
-        if (existing != null && existing.getTcgType() == tcgType) {
-            // If manually modified, preserve all fields - don't update anything
-            if (existing.getModifiedManually() != null && existing.getModifiedManually()) {
-                logger.debug("Expansion '{}' was manually modified - preserving all fields", existing.getTitle());
-            }
-            expansionCache.put(cacheKey, existing);
-            return existing;
+        // If manually modified, preserve ALL fields - don't update anything from API
+        if (dbSet.getReleaseDateModifiedManually() != null && dbSet.getReleaseDateModifiedManually()) {
+            logger.debug("Set '{}' was manually modified - preserving all fields (date: {})",
+                    dbSet.getName(), dbSet.getReleaseDate());
+            return dbSet;
         }
 
-        // Create new Expansion
-        try {
-            Expansion expansion = new Expansion();
-            expansion.setTitle(name);
-            expansion.setTcgType(tcgType);
+        Integer cardCount = tcgSet.cardsCount != null ? tcgSet.cardsCount : dbSet.getCardCount();
+        if (Objects.equals(dbSet.getName(), tcgSet.name) && Objects.equals(dbSet.getReleaseDate(), releaseDate)
+                && Objects.equals(dbSet.getCardCount(), cardCount)) {
+            return dbSet;
+        }
 
-            expansion = expansionRepository.save(expansion);
-            expansionCache.put(cacheKey, expansion);
+        // Update fields from API only if not manually modified
+        dbSet.setName(tcgSet.name);
+        dbSet.setReleaseDate(releaseDate);
+        dbSet.setCardCount(cardCount);
+        com.tcg.arena.model.TCGSet updatedSet = tcgSetRepository.save(dbSet);
+        importLookups.putSet(updatedSet);
+        return updatedSet;
+    }
 
-            logger.debug("Created new Expansion: {}", name);
-            return expansion;
-        } catch (Exception e) {
-            // Handle duplicate key violation - fetch existing record
-            logger.debug("Expansion already exists (constraint violation), fetching: {}", name);
-            Expansion existing2 = expansionRepository.findByTitle(name);
-            if (existing2 != null && existing2.getTcgType() == tcgType) {
-                expansionCache.put(cacheKey, existing2);
-                return existing2;
-            }
-            throw e;
+    /**
+     * Card natural keys of a set, hashed (see CardKeySet)
+     */
+    private CardKeySet loadCardKeys(String setCode) {
+        List<Object[]> rows = cardTemplateRepository.findCardKeyPartsBySetCode(setCode);
+        CardKeySet keys = new CardKeySet(rows.size());
+        for (Object[] row : rows) {
+            keys.add((String) row[0], (String) row[1], (String) row[2]);
         }
+        return keys;
     }
 
     /**
@@ -1575,58 +1413,9 @@ public class TCGApiClient {
      * Extract and set all prices from TCG variants
      */
     private void setPricesFromVariants(CardTemplate template, List<TCGVariant> variants) {
-        if (variants == null || variants.isEmpty()) {
-            return;
-        }
-
-        Double lowPrice = null;
-        Double highPrice = null;
-
-        for (TCGVariant variant : variants) {
-            if (variant.price == null)
-                continue;
-
-            String condition = variant.condition != null ? variant.condition.toLowerCase() : "";
-            String printing = variant.printing != null ? variant.printing.toLowerCase() : "";
-            boolean isFoil = printing.contains("foil") || printing.contains("holo");
-
-            // Track price range
-            if (lowPrice == null || variant.price < lowPrice)
-                lowPrice = variant.price;
-            if (highPrice == null || variant.price > highPrice)
-                highPrice = variant.price;
-
-            // Set condition-specific prices
-            if (condition.contains("near mint") || condition.equals("nm")) {
-                if (isFoil) {
-                    template.setPriceFoilNearMint(variant.price);
-                } else {
-                    template.setPriceNearMint(variant.price);
-                    template.setMarketPrice(variant.price); // NM is market price
-                }
-            } else if (condition.contains("lightly") || condition.equals("lp")) {
-                template.setPriceLightlyPlayed(variant.price);
-            } else if (condition.contains("moderately") || condition.equals("mp")) {
-                template.setPriceModeratelyPlayed(variant.price);
-            } else if (condition.contains("heavily") || condition.equals("hp")) {
-                template.setPriceHeavilyPlayed(variant.price);
-            } else if (condition.contains("damaged") || condition.equals("dmg")) {
-                template.setPriceDamaged(variant.price);
-            }
-
-            // Set foil price for any foil variant
-            if (isFoil && template.getPriceFoil() == null) {
-                template.setPriceFoil(variant.price);
-            }
-        }
-
-        // Set price range
-        template.setPriceLow(lowPrice);
-        template.setPriceHigh(highPrice);
-
-        // If no NM price found, use first available as market price
-        if (template.getMarketPrice() == null && lowPrice != null) {
-            template.setMarketPrice(lowPrice);
+        double[] prices = CardPrices.of(template);
+        if (CardPrices.applyVariants(prices, variants)) {
+            CardPrices.copyTo(prices, template);
         }
     }
 
@@ -1686,7 +1475,7 @@ public class TCGApiClient {
         }
     }
 
-    private Rarity mapRarity(String rarityStr) {
+    public Rarity mapRarity(String rarityStr) {
         if (rarityStr == null)
             return Rarity.COMMON;
 
@@ -1725,6 +1514,13 @@ public class TCGApiClient {
         return new ArrayList<>(TCG_TYPE_TO_GAME_ID.keySet());
     }
 
+    /**
+     * JustTCG game id for a TCG type, or null when the type is not supported.
+     */
+    public String getGameId(TCGType tcgType) {
+        return TCG_TYPE_TO_GAME_ID.get(tcgType);
+    }
+
     /**
      * Check if there are new data available in the API beyond the current offset
      * This is used to determine if a "completed" import should be resumed
@@ -1765,9 +1561,8 @@ public class TCGApiClient {
         return Mono.fromCallable(() -> {
             logger.info("Starting Magic import using Scryfall");
 
-            // Clear caches
-            expansionCache.clear();
-            tcgSetCache.clear();
+            // Fresh set/expansion dictionaries
+            importLookups.preload(TCGType.MAGIC);
 
             try {
                 // Import sets first
@@ -1779,40 +1574,358 @@ public class TCGApiClient {
             } catch (Exception e) {
                 logger.error("Error during Magic import: {}", e.getMessage(), e);
                 return 0;
+            } finally {
+                cardNameDictionary.invalidate(TCGType.MAGIC);
             }
         });
     }
 
     /**
-     * Import Magic delta using Scryfall search API (only new cards since last
-     * import)
+     * Import Magic delta: compares every Scryfall set against the fingerprint
+     * stored by the last sync (MagicSetSyncState) and re-fetches only the sets
+     * that changed, plus the sets whose prices are older than
+     * scryfall.delta.price-max-age-days, with bounded concurrency. New cards
+     * are inserted, existing ones get their changed prices written and a
+     * price history sample. Collections are re-priced when a price changed.
      */
     public Mono<Integer> importMagicDelta() {
         return Mono.fromCallable(() -> {
-            logger.info("Starting Magic delta import using Scryfall search API");
+            logger.info("Starting Magic delta import using Scryfall set fingerprints");
 
             try {
-                // Clear caches
-                expansionCache.clear();
-                tcgSetCache.clear();
-
-                // Import sets first (if needed)
-                importMagicSets();
-
-                // Get last import date for delta
-                LocalDateTime lastImport = getLastMagicImportDate();
-                String dateQuery = lastImport.format(DateTimeFormatter.ISO_LOCAL_DATE);
+                // Fresh set/expansion dictionaries
+                importLookups.preload(TCGType.MAGIC);
 
-                // Search for new cards since last import
-                return searchAndImportNewMagicCards("date:>" + dateQuery);
+                return runMagicDelta();
 
             } catch (Exception e) {
                 logger.error("Error during Magic delta import: {}", e.getMessage(), e);
                 return 0;
+            } finally {
+                cardNameDictionary.invalidate(TCGType.MAGIC);
             }
         });
     }
 
+    private int runMagicDelta() {
+        long startTime = System.currentTimeMillis();
+        List<ScryfallSet> scryfallSets = fetchScryfallSets();
+        if (scryfallSets.isEmpty()) {
+            return 0;
+        }
+
+        // Create sets missing from the database
+        Set<String> knownSetCodes = tcgSetRepository.findAllSetCodesByTcgType(TCGType.MAGIC);
+        for (ScryfallSet set : scryfallSets) {
+            if (!knownSetCodes.contains(set.code)) {
+                try {
+                    saveScryfallSet(set, TCGType.MAGIC);
+                } catch (Exception e) {
+                    logger.warn("Error saving set {}: {}", set.name, e.getMessage());
+                }
+            }
+        }
+
+        Map<String, MagicSetSyncState> syncStates = new HashMap<>();
+        for (MagicSetSyncState state : magicSetSyncStateRepository.findAll()) {
+            syncStates.put(state.getSetCode(), state);
+        }
+        Map<String, Long> localCardCounts = new HashMap<>();
+        for (Object[] row : cardTemplateRepository.countByTcgTypeGroupedBySetCode(TCGType.MAGIC)) {
+            localCardCounts.put((String) row[0], (Long) row[1]);
+        }
+
+        List<ScryfallSet> changedSets = new ArrayList<>();
+        List<MagicSetSyncState> baselines = new ArrayList<>();
+        LocalDateTime pricesStaleBefore = LocalDateTime.now().minusDays(scryfallPriceMaxAgeDays);
+        int skipped = 0;
+        int priceStale = 0;
+        for (ScryfallSet set : scryfallSets) {
+            if (set.digital || set.card_count == 0) {
+                skipped++;
+                continue;
+            }
+            long fingerprint = scryfallSetFingerprint(set);
+            MagicSetSyncState state = syncStates.get(set.code);
+            if (state != null && state.getContentHash() == fingerprint) {
+                // The set list carries no price signal, the age of the last sync stands in for it
+                if (state.getLastSyncedAt() != null && state.getLastSyncedAt().isAfter(pricesStaleBefore)) {
+                    skipped++;
+                    continue;
+                }
+                priceStale++;
+            }
+            long localCount = localCardCounts.getOrDefault(set.code, 0L);
+            if (state == null && localCount >= set.card_count) {
+                // Already complete (e.g. from the bulk import): record a baseline, no fetch
+                baselines.add(newMagicSyncState(set, fingerprint, (int) localCount));
+                skipped++;
+                continue;
+            }
+            changedSets.add(set);
+        }
+        if (!baselines.isEmpty()) {
+            magicSetSyncStateRepository.saveAll(baselines);
+            logger.info("[MAGIC DELTA] Recorded baseline fingerprints for {} complete sets", baselines.size());
+        }
+
+        logger.info("[MAGIC DELTA] {} Scryfall sets: {} changed ({} for prices only), {} unchanged",
+                scryfallSets.size(), changedSets.size(), priceStale, skipped);
+
+        java.util.concurrent.atomic.AtomicInteger failed = new java.util.concurrent.atomic.AtomicInteger();
+        java.util.concurrent.atomic.AtomicInteger pricesChanged = new java.util.concurrent.atomic.AtomicInteger();
+        Integer added = Flux.fromIterable(changedSets)
+                .flatMap(set -> Mono.fromCallable(() -> refreshMagicSet(set, pricesChanged))
+                        .subscribeOn(Schedulers.boundedElastic())
+                        .onErrorResume(e -> {
+                            // State is not updated, the set is retried by the next run
+                            failed.incrementAndGet();
+                            logger.warn("[MAGIC DELTA] Set {} failed: {}", set.code, e.getMessage());
+                            return Mono.just(0);
+                        }), Math.max(1, scryfallDeltaConcurrency))
+                .reduce(0, Integer::sum)
+                .block(Duration.ofHours(2));
+
+        if (pricesChanged.get() > 0) {
+            try {
+                collectionValuationService.repriceCollections(TCGType.MAGIC);
+            } catch (Exception e) {
+                logger.error("[MAGIC DELTA] Collection re-price failed: {}", e.getMessage(), e);
+            }
+        }
+
+        int refreshed = changedSets.size() - failed.get();
+        meterRegistry.counter("tcgarena.import.magic.sets", "result", "skipped").increment(skipped);
+        meterRegistry.counter("tcgarena.import.magic.sets", "result", "refreshed").increment(refreshed);
+        meterRegistry.counter("tcgarena.import.magic.sets", "result", "failed").increment(failed.get());
+
+        int total = added != null ? added : 0;
+        logger.info("[MAGIC DELTA] Completed in {}s | Sets refreshed: {} | Skipped: {} | Failed: {} | New cards: {}"
+                + " | Prices changed: {}", (System.currentTimeMillis() - startTime) / 1000, refreshed, skipped,
+                failed.get(), total, pricesChanged.get());
+        return total;
+    }
+
+    /**
+     * Re-fetch one Magic set from Scryfall and upsert its cards, then record
+     * its fingerprint. Returns the number of new cards and adds the number of
+     * cards whose prices changed to pricesChanged.
+     */
+    private int refreshMagicSet(ScryfallSet set, java.util.concurrent.atomic.AtomicInteger pricesChanged) {
+        com.tcg.arena.model.TCGSet tcgSet = importLookups.getSet(set.code);
+        if (tcgSet == null) {
+            throw new RuntimeException("TCGSet not found for Magic set " + set.code);
+        }
+
+        List<ScryfallCard> cards = fetchScryfallSetCards(set);
+        PriceSnapshot existingCards = loadMagicSetPrices(set.code);
+        CardKeySet seenKeys = new CardKeySet(cards.size());
+        List<CardTemplate> newCards = new ArrayList<>();
+        List<Object[]> priceUpdates = new ArrayList<>();
+        LocalDateTime now = LocalDateTime.now();
+        double[] candidate = new double[CardPrices.FIELDS];
+        PriceHistoryService.Batch history = priceHistoryService
+                .newBatch(PriceHistoryService.SeriesType.CARD_TEMPLATE, Instant.now());
+        int pricesSeen = 0;
+
+        for (ScryfallCard card : cards) {
+            if (card.digital || card.oversized || card.name == null) {
+                continue;
+            }
+            String cardNumber = card.collector_number != null ? card.collector_number : "N/A";
+            long cardKey = CardKeySet.hash(card.name, card.set, cardNumber);
+            if (!seenKeys.add(cardKey)) {
+                continue;
+            }
+
+            int row = existingCards.rowOf(card.name, card.set, cardNumber);
+            if (row >= 0) {
+                pricesSeen++;
+                diffScryfallPrices(card, existingCards, row, candidate, priceUpdates, now, history);
+                continue;
+            }
+
+            CardTemplate template = new CardTemplate();
+            template.setName(card.name);
+            template.setTcgType(TCGType.MAGIC);
+            template.setSetCode(card.set);
+            template.setExpansion(tcgSet.getExpansion());
+            template.setCardNumber(cardNumber);
+            template.setRarity(mapRarity(card.rarity));
+            template.setDescription(card.oracle_text);
+            template.setImageUrl(getScryfallImageUrl(card));
+            template.setTcgplayerId(card.id); // Save Scryfall ID here
+            template.setDateCreated(now);
+            setPricesFromScryfall(template, card);
+            template.setLastPriceUpdate(now);
+            newCards.add(template);
+        }
+
+        if (!newCards.isEmpty()) {
+            cardTemplateRepository.saveAll(newCards);
+        }
+        if (!priceUpdates.isEmpty()) {
+            jdbcTemplate.batchUpdate(MAGIC_PRICE_UPDATE_SQL, priceUpdates, MAGIC_PRICE_UPDATE_TYPES);
+            pricesChanged.addAndGet(priceUpdates.size());
+        }
+        history.flush();
+        meterRegistry.counter("tcgarena.import.magic.cards", "result", "added").increment(newCards.size());
+        meterRegistry.counter("tcgarena.import.magic.cards", "result", "updated").increment(priceUpdates.size());
+        meterRegistry.counter("tcgarena.import.magic.cards", "result", "unchanged")
+                .increment(pricesSeen - priceUpdates.size());
+
+        magicSetSyncStateRepository.save(newMagicSyncState(set, scryfallSetFingerprint(set),
+                existingCards.size() + newCards.size()));
+        logger.info("[MAGIC DELTA] Set '{}' ({}) refreshed: {} new cards, {} prices updated, {} unchanged",
+                set.name, set.code, newCards.size(), priceUpdates.size(), pricesSeen - priceUpdates.size());
+        return newCards.size();
+    }
+
+    /**
+     * Queue the update of an existing card whose Scryfall prices differ from
+     * the stored ones, and sample them in the price history. A price missing
+     * from Scryfall keeps its stored value. Scryfall only has the market and
+     * foil prices, the condition prices are left to the JustTCG refresh.
+     */
+    private void diffScryfallPrices(ScryfallCard card, PriceSnapshot existingCards, int row, double[] candidate,
+            List<Object[]> priceUpdates, LocalDateTime now, PriceHistoryService.Batch history) {
+        existingCards.copyPrices(row, candidate);
+        Double usd = parseScryfallPrice(card, card.prices != null ? card.prices.usd : null);
+        Double usdFoil = parseScryfallPrice(card, card.prices != null ? card.prices.usd_foil : null);
+        if (usd != null) {
+            candidate[CardPrices.MARKET] = usd;
+        }
+        if (usdFoil != null) {
+            candidate[CardPrices.FOIL] = usdFoil;
+        }
+
+        long templateId = existingCards.templateId(row);
+        history.add(PriceHistoryService.templateSeries(templateId, CardPrices.MARKET), candidate[CardPrices.MARKET]);
+        history.add(PriceHistoryService.templateSeries(templateId, CardPrices.FOIL), candidate[CardPrices.FOIL]);
+
+        if (existingCards.differs(row, candidate)) {
+            priceUpdates.add(new Object[] { usd, usdFoil, java.sql.Timestamp.valueOf(now), templateId });
+        }
+    }
+
+    // Stored prices of a Magic set's cards, by natural key
+    private PriceSnapshot loadMagicSetPrices(String setCode) {
+        // Sized for a large set, the snapshot grows past it
+        PriceSnapshot snapshot = new PriceSnapshot(512);
+        double[] prices = new double[CardPrices.FIELDS];
+        jdbcTemplate.query(MAGIC_SET_PRICES_SQL, rs -> {
+            for (int i = 0; i < CardPrices.FIELDS; i++) {
+                double value = rs.getDouble(5 + i);
+                prices[i] = rs.wasNull() ? Double.NaN : value;
+            }
+            snapshot.add(rs.getString(2), rs.getString(3), rs.getString(4), rs.getLong(1), prices);
+        }, setCode);
+        return snapshot;
+    }
+
+    private static final String MAGIC_SET_PRICES_SQL = "SELECT id, name, set_code, card_number, "
+            + String.join(", ", CardPrices.COLUMNS) + " FROM card_templates WHERE set_code = ?";
+
+    private static final String MAGIC_PRICE_UPDATE_SQL = "UPDATE card_templates SET "
+            + "market_price = COALESCE(?, market_price), price_foil = COALESCE(?, price_foil), "
+            + "last_price_update = ? WHERE id = ?";
+
+    private static final int[] MAGIC_PRICE_UPDATE_TYPES = { java.sql.Types.DOUBLE, java.sql.Types.DOUBLE,
+            java.sql.Types.TIMESTAMP, java.sql.Types.BIGINT };
+
+    // Pause between Scryfall search pages, as asked by the Scryfall API guidelines
+    private static final long SCRYFALL_DELAY_MS = 100;
+
+    /**
+     * Scryfall exposes no per-set update timestamp, the set list metadata is
+     * the change signal: card_count grows while a set is being previewed.
+     */
+    private static long scryfallSetFingerprint(ScryfallSet set) {
+        return PriceHistoryCodec.hash64(set.code + "|" + set.name + "|" + set.card_count + "|"
+                + set.released_at + "|" + set.set_type + "|" + set.parent_set_code);
+    }
+
+    private static MagicSetSyncState newMagicSyncState(ScryfallSet set, long fingerprint, int importedCards) {
+        MagicSetSyncState state = new MagicSetSyncState(set.code);
+        state.setContentHash(fingerprint);
+        state.setCardCount(set.card_count);
+        state.setImportedCards(importedCards);
+        state.setLastSyncedAt(LocalDateTime.now());
+        return state;
+    }
+
+    private List<ScryfallSet> fetchScryfallSets() {
+        try {
+            ScryfallSetsResponse response = scryfallWebClient.get()
+                    .uri("/sets")
+                    .retrieve()
+                    .bodyToMono(ScryfallSetsResponse.class)
+                    .block(Duration.ofSeconds(30));
+            if (response == null || response.data == null) {
+                logger.warn("No sets data from Scryfall");
+                return Collections.emptyList();
+            }
+            return response.data;
+        } catch (Exception e) {
+            logger.error("Error fetching Magic sets from Scryfall: {}", e.getMessage(), e);
+            return Collections.emptyList();
+        }
+    }
+
+    /**
+     * All printings of a set, following the search pages. Scryfall answers
+     * 404 for a set without (paper) cards.
+     */
+    private List<ScryfallCard> fetchScryfallSetCards(ScryfallSet set) {
+        List<ScryfallCard> cards = new ArrayList<>();
+        java.net.URI next = set.search_uri != null ? java.net.URI.create(set.search_uri) : null;
+        boolean first = true;
+
+        while (first || next != null) {
+            Mono<ScryfallSearchResponse> request = (next != null
+                    ? scryfallWebClient.get().uri(next)
+                    : scryfallWebClient.get().uri(uriBuilder -> uriBuilder
+                            .path("/cards/search")
+                            .queryParam("q", "e:" + set.code)
+                            .queryParam("unique", "prints")
+                            .queryParam("include_extras", true)
+                            .build()))
+                    .retrieve()
+                    .onStatus(status -> status.value() == 404, response -> Mono.empty())
+                    .bodyToMono(ScryfallSearchResponse.class);
+            ScryfallSearchResponse response = request.block(Duration.ofSeconds(30));
+            first = false;
+
+            if (response == null || response.data == null) {
+                break;
+            }
+            cards.addAll(response.data);
+            next = response.has_more && response.next_page != null ? java.net.URI.create(response.next_page) : null;
+
+            if (next != null) {
+                try {
+                    Thread.sleep(SCRYFALL_DELAY_MS);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    throw new RuntimeException("Interrupted while fetching Magic set " + set.code, e);
+                }
+            }
+        }
+        return cards;
+    }
+
+    private Double parseScryfallPrice(ScryfallCard card, String price) {
+        if (price == null) {
+            return null;
+        }
+        try {
+            return Double.parseDouble(price);
+        } catch (NumberFormatException e) {
+            logger.warn("Invalid price format for card {}: {}", card.name, e.getMessage());
+            return null;
+        }
+    }
+
     /**
      * Import Magic sets from Scryfall
      */
@@ -1852,26 +1965,15 @@ public class TCGApiClient {
      * Save Scryfall set to database
      */
     private void saveScryfallSet(ScryfallSet scryfallSet, TCGType tcgType) {
-        // Check if set already exists
-        Optional<com.tcg.arena.model.TCGSet> existing = tcgSetRepository.findBySetCode(scryfallSet.code);
-        if (existing.isPresent()) {
+        // Existing sets are left untouched
+        if (importLookups.getSet(scryfallSet.code) != null) {
             logger.debug("Set {} already exists, skipping", scryfallSet.name);
             return;
         }
 
-        // Get or create expansion
-        Expansion expansion = getOrCreateExpansion(scryfallSet.name, tcgType);
-
-        // Create TCGSet
-        com.tcg.arena.model.TCGSet tcgSet = new com.tcg.arena.model.TCGSet();
-        tcgSet.setName(scryfallSet.name);
-        tcgSet.setSetCode(scryfallSet.code);
-        tcgSet.setExpansion(expansion);
-        tcgSet.setCardCount(scryfallSet.card_count);
-        tcgSet.setReleaseDate(parseReleaseDate(scryfallSet.released_at));
-        tcgSet.setDescription(scryfallSet.set_type);
-
-        tcgSetRepository.save(tcgSet);
+        // Create TCGSet (and its expansion) with an upsert
+        importLookups.getOrCreateSet(scryfallSet.code, scryfallSet.name, tcgType, scryfallSet.card_count,
+                parseReleaseDate(scryfallSet.released_at), scryfallSet.set_type);
         logger.debug("Saved Scryfall set: {}", scryfallSet.name);
     }
 
@@ -1926,13 +2028,9 @@ public class TCGApiClient {
             // Load existing card keys in memory for fast lookup
             logger.info("Loading existing card keys for duplicate checking...");
             List<Object[]> existingKeys = cardTemplateRepository.findAllCardKeys();
-            Set<String> existingCardKeys = new HashSet<>();
+            CardKeySet existingCardKeys = new CardKeySet(existingKeys.size());
             for (Object[] key : existingKeys) {
-                String name = (String) key[0];
-                String setCode = (String) key[1];
-                String cardNumber = (String) key[2];
-                String compositeKey = name + "|" + setCode + "|" + cardNumber;
-                existingCardKeys.add(compositeKey);
+                existingCardKeys.add((String) key[0], (String) key[1], (String) key[2]);
             }
             logger.info("Loaded {} existing card keys", existingCardKeys.size());
 
@@ -1946,10 +2044,7 @@ public class TCGApiClient {
                 String cardNumber = card.collector_number != null ? card.collector_number : "N/A";
 
                 // Get TCGSet
-                com.tcg.arena.model.TCGSet tcgSet = tcgSetCache.computeIfAbsent(card.set, setCode -> {
-                    Optional<com.tcg.arena.model.TCGSet> opt = tcgSetRepository.findBySetCode(setCode);
-                    return opt.orElse(null);
-                });
+                com.tcg.arena.model.TCGSet tcgSet = importLookups.getSet(card.set);
 
                 if (tcgSet == null) {
                     logger.warn("TCGSet not found for card {} in set {}", card.name, card.set);
@@ -1957,8 +2052,7 @@ public class TCGApiClient {
                 }
 
                 // Check if card already exists using in-memory lookup
-                String compositeKey = card.name + "|" + card.set + "|" + cardNumber;
-                if (existingCardKeys.contains(compositeKey)) {
+                if (existingCardKeys.contains(card.name, card.set, cardNumber)) {
                     skipped++;
                     continue;
                 }
@@ -2027,152 +2121,6 @@ public class TCGApiClient {
         }
     }
 
-    /**
-     * Get the last import date for Magic cards
-     */
-    private LocalDateTime getLastMagicImportDate() {
-        // Try to get from ImportProgress, fallback to 30 days ago
-        Optional<ImportProgress> progress = importProgressRepository.findByTcgType(TCGType.MAGIC);
-        if (progress.isPresent() && progress.get().getLastUpdated() != null) {
-            return progress.get().getLastUpdated().toLocalDate().atStartOfDay();
-        }
-        // Fallback: 30 days ago to be safe
-        return LocalDateTime.now().minusDays(30);
-    }
-
-    /**
-     * Search and import new Magic cards using Scryfall API
-     */
-    private int searchAndImportNewMagicCards(String query) {
-        logger.info("Searching Scryfall for: {}", query);
-
-        try {
-            final int[] totalImported = { 0 };
-            int page = 1;
-            boolean hasMore = true;
-
-            while (hasMore) {
-                final int currentPage = page;
-                ScryfallSearchResponse response = scryfallWebClient.get()
-                        .uri(uriBuilder -> uriBuilder
-                                .path("/cards/search")
-                                .queryParam("q", query)
-                                .queryParam("page", currentPage)
-                                .queryParam("unique", "prints") // Include all printings
-                                .build())
-                        .retrieve()
-                        .bodyToMono(ScryfallSearchResponse.class)
-                        .block(Duration.ofSeconds(30));
-
-                if (response == null || response.data == null || response.data.isEmpty()) {
-                    break;
-                }
-
-                logger.info("Processing page {}: {} cards", page, response.data.size());
-
-                for (ScryfallCard card : response.data) {
-                    try {
-                        if (saveScryfallCard(card, TCGType.MAGIC)) {
-                            totalImported[0]++;
-                        }
-                    } catch (Exception e) {
-                        logger.warn("Error saving card {}: {}", card.name, e.getMessage());
-                    }
-                }
-
-                hasMore = response.has_more;
-                page++;
-
-                // Safety limit to avoid infinite loops
-                if (page > 100) {
-                    logger.warn("Reached page limit (100), stopping search");
-                    break;
-                }
-            }
-
-            logger.info("Delta import completed: {} new cards imported", totalImported[0]);
-            return totalImported[0];
-
-        } catch (Exception e) {
-            logger.error("Error searching new Magic cards: {}", e.getMessage(), e);
-            return 0;
-        }
-    }
-
-    /**
-     * Save Scryfall card to database
-     */
-    private boolean saveScryfallCard(ScryfallCard card, TCGType tcgType) {
-        // Skip digital/oversized cards
-        if (card.digital || card.oversized) {
-            return false;
-        }
-
-        String cardNumber = card.collector_number != null ? card.collector_number : "N/A";
-
-        // Check for existing card
-        List<CardTemplate> existing = cardTemplateRepository.findByNameAndSetCodeAndCardNumber(
-                card.name, card.set, cardNumber);
-
-        if (!existing.isEmpty()) {
-            // Update existing card with Scryfall data
-            CardTemplate existingCard = existing.get(0);
-            updateCardWithScryfallData(existingCard, card);
-            return false; // Not new
-        }
-
-        // Get TCGSet
-        com.tcg.arena.model.TCGSet tcgSet = tcgSetCache.computeIfAbsent(card.set, setCode -> {
-            Optional<com.tcg.arena.model.TCGSet> opt = tcgSetRepository.findBySetCode(setCode);
-            return opt.orElse(null);
-        });
-
-        if (tcgSet == null) {
-            logger.warn("TCGSet not found for card {} in set {}", card.name, card.set);
-            return false;
-        }
-
-        // Create new CardTemplate
-        CardTemplate template = new CardTemplate();
-        template.setName(card.name);
-        template.setTcgType(tcgType);
-        template.setSetCode(card.set);
-        template.setExpansion(tcgSet.getExpansion());
-        template.setCardNumber(cardNumber);
-        template.setRarity(mapRarity(card.rarity));
-        template.setDescription(card.oracle_text);
-        template.setImageUrl(getScryfallImageUrl(card));
-        template.setTcgplayerId(card.id); // Save Scryfall ID here
-        template.setDateCreated(LocalDateTime.now());
-
-        // Set prices
-        setPricesFromScryfall(template, card);
-
-        cardTemplateRepository.save(template);
-        logger.debug("Saved new Scryfall card: {}", card.name);
-        return true;
-    }
-
-    /**
-     * Update existing card with Scryfall data
-     */
-    private void updateCardWithScryfallData(CardTemplate template, ScryfallCard card) {
-        // Update Scryfall ID if not set
-        if (template.getTcgplayerId() == null) {
-            template.setTcgplayerId(card.id);
-        }
-
-        // Update image URL if not set
-        if (template.getImageUrl() == null) {
-            template.setImageUrl(getScryfallImageUrl(card));
-        }
-
-        // Update prices
-        setPricesFromScryfall(template, card);
-
-        cardTemplateRepository.save(template);
-    }
-
     /**
      * Get image URL from Scryfall card
      */
@@ -2469,6 +2417,9 @@ public class TCGApiClient {
         // 3. Delete inventory cards for cards in this set
         logger.info("[TCGDEX RESET] Deleting inventory cards for cards in set '{}'", dbSet.getName());
         int deletedInventoryCount = inventoryCardRepository.deleteByCardTemplateSetCode(setCode);
+        if (deletedInventoryCount > 0) {
+            inventoryAnalyticsService.evictAll();
+        }
         logger.info("[TCGDEX RESET] Deleted {} inventory cards for set '{}'", deletedInventoryCount, dbSet.getName());
 
         // 4. Delete user cards for cards in this set
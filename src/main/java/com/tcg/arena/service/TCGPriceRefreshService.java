@@ -0,0 +1,243 @@
+package com.tcg.arena.service;
+
+import com.tcg.arena.config.CacheConfig;
+import com.tcg.arena.model.JobStatus;
+import com.tcg.arena.model.PriceRefreshRun;
+import com.tcg.arena.model.TCGType;
+import com.tcg.arena.repository.PriceRefreshRunRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Async;
+import org.springframework.stereotype.Service;
+import reactor.core.scheduler.Schedulers;
+
+import java.sql.Timestamp;
+import java.sql.Types;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Price-only refresh of existing card templates from the JustTCG API.
+ *
+ * Unlike the set import this never creates templates and never goes through
+ * saveCardIfNotExists: it walks /cards?game= page by page, diffs each card's
+ * variants against an in-memory {@link PriceSnapshot} of the current prices
+ * and writes only the rows whose prices actually changed, with batched
+ * UPDATEs. Cards unknown to the database are counted and left to the import.
+ *
+ * last_price_update is only bumped for rows that changed. Every matched card
+ * also appends one sample per priced condition to {@link PriceHistoryService}.
+ */
+@Service
+public class TCGPriceRefreshService {
+
+    private static final Logger logger = LoggerFactory.getLogger(TCGPriceRefreshService.class);
+
+    private static final String SNAPSHOT_SQL = "SELECT id, name, set_code, card_number, "
+            + String.join(", ", CardPrices.COLUMNS) + " FROM card_templates WHERE tcg_type = ?";
+
+    private static final String UPDATE_SQL = "UPDATE card_templates SET "
+            + String.join(" = ?, ", CardPrices.COLUMNS) + " = ?, last_price_update = ? WHERE id = ?";
+
+    private static final int[] UPDATE_TYPES = updateTypes();
+
+    private static final String[] PRICE_CACHES = {
+            CacheConfig.CARD_TEMPLATES_CACHE, CacheConfig.CARD_TEMPLATE_BY_ID_CACHE,
+            CacheConfig.CARD_SEARCH_CACHE, CacheConfig.EXPANSION_CARDS_CACHE,
+            CacheConfig.SET_CARDS_CACHE, CacheConfig.MARKET_PRICE_CACHE };
+
+    @Autowired
+    private TCGApiClient tcgApiClient;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private PriceRefreshRunRepository priceRefreshRunRepository;
+
+    @Autowired
+    private CacheManager cacheManager;
+
+    @Autowired
+    private PriceHistoryService priceHistoryService;
+
+    @Autowired
+    private CollectionValuationService collectionValuationService;
+
+    @Value("${tcg.price-refresh.batch-size:500}")
+    private int batchSize;
+
+    /**
+     * Fire-and-forget variant for the admin endpoint; the run shows up in
+     * {@link #getRecentRuns()}.
+     */
+    @Async
+    public void refreshPricesAsync(TCGType tcgType) {
+        refreshPrices(tcgType);
+    }
+
+    /**
+     * Refresh prices of all existing templates of a TCG.
+     *
+     * @return the persisted run with its change counts
+     */
+    public PriceRefreshRun refreshPrices(TCGType tcgType) {
+        String gameId = tcgApiClient.getGameId(tcgType);
+        if (gameId == null) {
+            throw new RuntimeException(tcgType.getDisplayName() + " is not supported by TCG API");
+        }
+
+        PriceRefreshRun run = priceRefreshRunRepository.save(new PriceRefreshRun(tcgType));
+        long startTime = System.currentTimeMillis();
+        logger.info("[PRICE REFRESH] [{}] Starting price-only refresh (run {})", tcgType, run.getId());
+
+        try {
+            PriceSnapshot snapshot = loadSnapshot(tcgType);
+            logger.info("[PRICE REFRESH] [{}] Snapshot loaded: {} templates in {}ms", tcgType, snapshot.size(),
+                    System.currentTimeMillis() - startTime);
+
+            List<Object[]> pendingUpdates = new ArrayList<>(batchSize);
+            double[] candidate = new double[CardPrices.FIELDS];
+            Timestamp now = Timestamp.valueOf(LocalDateTime.now());
+            PriceHistoryService.Batch history = priceHistoryService
+                    .newBatch(PriceHistoryService.SeriesType.CARD_TEMPLATE, Instant.now());
+
+            tcgApiClient.getCardPagesForGame(gameId, 0)
+                    .publishOn(Schedulers.boundedElastic())
+                    .doOnNext(page -> {
+                        run.setPagesFetched(run.getPagesFetched() + 1);
+                        for (TCGApiClient.TCGCard card : page.getCards()) {
+                            diffCard(card, snapshot, candidate, run, pendingUpdates, now, history);
+                        }
+                        if (pendingUpdates.size() >= batchSize) {
+                            flush(pendingUpdates);
+                        }
+                    })
+                    .blockLast(Duration.ofHours(3));
+            flush(pendingUpdates);
+            history.flush();
+
+            run.setStatus(JobStatus.COMPLETED);
+        } catch (Exception e) {
+            logger.error("[PRICE REFRESH] [{}] Failed: {}", tcgType, e.getMessage(), e);
+            run.setStatus(JobStatus.FAILED);
+            String message = e.getMessage() != null ? e.getMessage() : e.getClass().getSimpleName();
+            run.setErrorMessage(message.length() > 1000 ? message.substring(0, 1000) : message);
+        } finally {
+            run.setFinishedAt(LocalDateTime.now());
+            priceRefreshRunRepository.save(run);
+            if (run.getCardsChanged() > 0) {
+                evictPriceCaches();
+                repriceCollections(tcgType);
+            }
+        }
+
+        logger.info(
+                "[PRICE REFRESH] [{}] {} in {}s | Pages: {} | Cards: {} | Changed: {} | Unchanged: {} | Unmatched: {}",
+                tcgType, run.getStatus(), (System.currentTimeMillis() - startTime) / 1000, run.getPagesFetched(),
+                run.getCardsSeen(), run.getCardsChanged(), run.getCardsUnchanged(), run.getCardsUnmatched());
+        return run;
+    }
+
+    public List<PriceRefreshRun> getRecentRuns() {
+        return priceRefreshRunRepository.findTop50ByOrderByStartedAtDesc();
+    }
+
+    private void repriceCollections(TCGType tcgType) {
+        try {
+            collectionValuationService.repriceCollections(tcgType);
+        } catch (Exception e) {
+            logger.error("[PRICE REFRESH] [{}] Collection re-price failed: {}", tcgType, e.getMessage(), e);
+        }
+    }
+
+    private PriceSnapshot loadSnapshot(TCGType tcgType) {
+        Integer count = jdbcTemplate.queryForObject("SELECT COUNT(*) FROM card_templates WHERE tcg_type = ?",
+                Integer.class, tcgType.name());
+        PriceSnapshot snapshot = new PriceSnapshot(count != null ? count : 0);
+        double[] row = new double[CardPrices.FIELDS];
+        jdbcTemplate.query(SNAPSHOT_SQL, rs -> {
+            for (int i = 0; i < CardPrices.FIELDS; i++) {
+                double value = rs.getDouble(5 + i);
+                row[i] = rs.wasNull() ? Double.NaN : value;
+            }
+            snapshot.add(rs.getString(2), rs.getString(3), rs.getString(4), rs.getLong(1), row);
+        }, tcgType.name());
+        return snapshot;
+    }
+
+    private void diffCard(TCGApiClient.TCGCard card, PriceSnapshot snapshot, double[] candidate,
+            PriceRefreshRun run, List<Object[]> pendingUpdates, Timestamp now, PriceHistoryService.Batch history) {
+        if (card == null || card.name == null) {
+            return;
+        }
+        run.setCardsSeen(run.getCardsSeen() + 1);
+
+        // Same natural key as saveCardIfNotExists
+        String cardNumber = card.number != null ? card.number : "N/A";
+        int row = snapshot.rowOf(card.name, card.set, cardNumber);
+        if (row < 0) {
+            run.setCardsUnmatched(run.getCardsUnmatched() + 1);
+            return;
+        }
+
+        snapshot.copyPrices(row, candidate);
+        boolean changed = CardPrices.applyVariants(candidate, card.variants) && snapshot.differs(row, candidate);
+
+        // One history sample per condition and refresh, changed or not
+        long templateId = snapshot.templateId(row);
+        for (int field = 0; field < CardPrices.HISTORY_FIELDS; field++) {
+            history.add(PriceHistoryService.templateSeries(templateId, field), candidate[field]);
+        }
+
+        if (!changed) {
+            run.setCardsUnchanged(run.getCardsUnchanged() + 1);
+            return;
+        }
+
+        snapshot.update(row, candidate);
+        Object[] args = new Object[CardPrices.FIELDS + 2];
+        for (int i = 0; i < CardPrices.FIELDS; i++) {
+            args[i] = CardPrices.toObject(candidate[i]);
+        }
+        args[CardPrices.FIELDS] = now;
+        args[CardPrices.FIELDS + 1] = templateId;
+        pendingUpdates.add(args);
+        run.setCardsChanged(run.getCardsChanged() + 1);
+    }
+
+    private void flush(List<Object[]> pendingUpdates) {
+        if (pendingUpdates.isEmpty()) {
+            return;
+        }
+        jdbcTemplate.batchUpdate(UPDATE_SQL, pendingUpdates, UPDATE_TYPES);
+        logger.debug("[PRICE REFRESH] Flushed {} price updates", pendingUpdates.size());
+        pendingUpdates.clear();
+    }
+
+    private void evictPriceCaches() {
+        for (String cacheName : PRICE_CACHES) {
+            Cache cache = cacheManager.getCache(cacheName);
+            if (cache != null) {
+                cache.clear();
+            }
+        }
+    }
+
+    private static int[] updateTypes() {
+        int[] types = new int[CardPrices.FIELDS + 2];
+        Arrays.fill(types, 0, CardPrices.FIELDS, Types.DOUBLE);
+        types[CardPrices.FIELDS] = Types.TIMESTAMP;
+        types[CardPrices.FIELDS + 1] = Types.BIGINT;
+        return types;
+    }
+}
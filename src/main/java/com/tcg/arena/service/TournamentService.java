@@ -5,6 +5,7 @@ import com.tcg.arena.model.*;
 import com.tcg.arena.repository.TournamentParticipantRepository;
 import com.tcg.arena.repository.TournamentRepository;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.cache.annotation.CacheEvict;
 import org.springframework.cache.annotation.Cacheable;
 import org.springframework.stereotype.Service;
@@ -47,6 +48,9 @@ public class TournamentService {
     @Autowired
     private GeocodingService geocodingService;
 
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
+
     @Cacheable(value = CacheConfig.TOURNAMENTS_CACHE, key = "'all'")
     public List<Tournament> getAllTournaments() {
         List<Tournament> tournaments = tournamentRepository.findAllByOrderByStartDateAsc();
@@ -803,6 +807,11 @@ public class TournamentService {
                     sendWinnerNotification(participant, tournament, placementText, pointsToAward);
                 }
             }
+
+            if (placement.getPlacement() == 1 && participant.getUserId() != null) {
+                eventPublisher.publishEvent(
+                        new AchievementProgressEvent(participant.getUserId(), AchievementMetric.TOURNAMENTS_WON, 1));
+            }
         }
 
         // Change status to COMPLETED
@@ -6,31 +6,108 @@ import com.tcg.arena.model.User;
 import com.tcg.arena.model.UserActivity;
 import com.tcg.arena.repository.UserActivityRepository;
 import com.tcg.arena.repository.UserRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Service;
-import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
 
+import java.sql.Timestamp;
 import java.time.LocalDateTime;
+import java.util.EnumSet;
 import java.util.List;
 import java.util.Map;
-import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.stream.Collectors;
 
+/**
+ * User activity feed.
+ *
+ * Activities are not inserted by the caller: logActivity queues them (after
+ * the caller's transaction commits, so rolled back actions leave no trace)
+ * and a scheduled writer persists the queue with JDBC batch inserts. When the
+ * queue is full, low-priority activities (profile, preferences and deck
+ * edits) are coalesced with an equal pending one or dropped, and make room
+ * for the others. Activities the database rejects are dropped without
+ * holding up the rest (see {@link WriteBehindQueue}). Queue depth and drops
+ * are exported to Micrometer.
+ */
 @Service
 public class UserActivityService {
 
+    private static final Logger logger = LoggerFactory.getLogger(UserActivityService.class);
+
+    private static final int FLUSH_BATCH_SIZE = 500;
+
+    private static final String INSERT_ACTIVITY_SQL = "INSERT INTO user_activities "
+            + "(user_id, activity_type, description, timestamp, metadata) VALUES (?, ?, ?, ?, ?)";
+
+    // Frequent edits, losing some of them under load is acceptable
+    private static final Set<ActivityType> LOW_PRIORITY_TYPES = EnumSet.of(
+            ActivityType.USER_PREFERENCES_UPDATED,
+            ActivityType.USER_PROFILE_UPDATED,
+            ActivityType.DECK_UPDATED);
+
     @Autowired
     private UserActivityRepository userActivityRepository;
 
     @Autowired
     private UserRepository userRepository;
 
-    @Transactional
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Value("${user-activity.write-behind.queue-capacity:20000}")
+    private int writeBehindCapacity;
+
+    private WriteBehindQueue<UserActivity> pendingWrites;
+
+    // userId:activityType -> queued low-priority activities with that key
+    private final Map<String, Integer> pendingLowPriority = new ConcurrentHashMap<>();
+
+    private Counter coalescedCounter;
+    private Counter droppedCounter;
+
+    @PostConstruct
+    public void init() {
+        pendingWrites = new WriteBehindQueue<UserActivity>("user activity", writeBehindCapacity, FLUSH_BATCH_SIZE,
+                this::insertBatch).onRemoved(this::releaseCoalesceKey);
+
+        Gauge.builder("tcgarena.activity.queue", pendingWrites, WriteBehindQueue::size)
+                .description("User activities waiting to be persisted")
+                .register(meterRegistry);
+        coalescedCounter = Counter.builder("tcgarena.activity.discarded")
+                .tag("reason", "coalesced")
+                .description("Low-priority activities discarded while an equal one was queued")
+                .register(meterRegistry);
+        droppedCounter = Counter.builder("tcgarena.activity.discarded")
+                .tag("reason", "dropped")
+                .description("Low-priority activities discarded because the queue was full")
+                .register(meterRegistry);
+        FunctionCounter.builder("tcgarena.activity.discarded", pendingWrites, WriteBehindQueue::getDroppedCount)
+                .tag("reason", "failed")
+                .description("Activities the database rejected")
+                .register(meterRegistry);
+    }
+
     public void logActivity(Long userId, ActivityType activityType, String description) {
         logActivity(userId, activityType, description, null);
     }
 
-    @Transactional
     public void logActivity(Long userId, ActivityType activityType, String description, String metadata) {
         UserActivity activity = new UserActivity();
         activity.setUserId(userId);
@@ -39,7 +116,81 @@ public class UserActivityService {
         activity.setTimestamp(LocalDateTime.now());
         activity.setMetadata(metadata);
 
-        userActivityRepository.save(activity);
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    enqueue(activity);
+                }
+            });
+        } else {
+            enqueue(activity);
+        }
+    }
+
+    private void enqueue(UserActivity activity) {
+        boolean lowPriority = LOW_PRIORITY_TYPES.contains(activity.getActivityType());
+        if (pendingWrites.offer(activity)) {
+            if (lowPriority) {
+                pendingLowPriority.merge(coalesceKey(activity), 1, Integer::sum);
+            }
+            return;
+        }
+
+        if (lowPriority) {
+            if (pendingLowPriority.containsKey(coalesceKey(activity))) {
+                coalescedCounter.increment();
+            } else {
+                droppedCounter.increment();
+            }
+            return;
+        }
+
+        // Full: evict a queued low-priority activity, else write this one now
+        UserActivity evicted = evictLowPriority();
+        if (evicted != null && pendingWrites.offer(activity)) {
+            droppedCounter.increment();
+            return;
+        }
+        logger.warn("User activity queue full, writing activity of user {} synchronously", activity.getUserId());
+        pendingWrites.writeNow(List.of(activity));
+    }
+
+    private UserActivity evictLowPriority() {
+        return pendingWrites.removeFirst(queued -> LOW_PRIORITY_TYPES.contains(queued.getActivityType()));
+    }
+
+    /**
+     * Write-behind flusher: persists queued activities with JDBC batch inserts
+     */
+    @Scheduled(fixedDelayString = "${user-activity.write-behind.flush-interval-ms:1000}")
+    public void flushPendingWrites() {
+        pendingWrites.flush();
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        flushPendingWrites();
+    }
+
+    private void insertBatch(List<UserActivity> activities) {
+        jdbcTemplate.batchUpdate(INSERT_ACTIVITY_SQL, activities, activities.size(), (ps, activity) -> {
+            ps.setLong(1, activity.getUserId());
+            ps.setString(2, activity.getActivityType().name());
+            ps.setString(3, activity.getDescription());
+            ps.setTimestamp(4, Timestamp.valueOf(activity.getTimestamp()));
+            ps.setString(5, activity.getMetadata());
+        });
+    }
+
+    private void releaseCoalesceKey(UserActivity activity) {
+        if (LOW_PRIORITY_TYPES.contains(activity.getActivityType())) {
+            pendingLowPriority.computeIfPresent(coalesceKey(activity), (key, count) -> count > 1 ? count - 1 : null);
+        }
+    }
+
+    private static String coalesceKey(UserActivity activity) {
+        return activity.getUserId() + ":" + activity.getActivityType();
     }
 
     public List<UserActivityDTO> getUserActivities(Long userId) {
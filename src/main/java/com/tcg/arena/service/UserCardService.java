@@ -48,6 +48,12 @@ public class UserCardService {
     @Autowired
     private ShopRepository shopRepository;
 
+    @Autowired
+    private InventoryAnalyticsService inventoryAnalyticsService;
+
+    @Autowired
+    private CollectionValuationService collectionValuationService;
+
     public List<UserCard> getAllUserCards() {
         return userCardRepository.findAll()
                 .stream()
@@ -130,6 +136,7 @@ public class UserCardService {
             removeFromShopInventory(userCard);
 
             userCardRepository.deleteById(id);
+            collectionValuationService.cardRemoved(userCard.getOwner().getId(), userCard.getCardTemplate());
             return true;
         }
         return false;
@@ -143,6 +150,7 @@ public class UserCardService {
         userCard.setIsGraded(false);
         userCard.setDateAdded(LocalDateTime.now());
         UserCard savedCard = userCardRepository.save(userCard);
+        collectionValuationService.cardAdded(owner.getId(), cardTemplate);
 
         // Add to collection deck if it exists
         try {
@@ -272,6 +280,7 @@ public class UserCardService {
                     inventoryCard.setPrice(userCard.getPurchasePrice() * 1.2); // 20% markup
                 }
                 inventoryCardRepository.save(inventoryCard);
+                inventoryAnalyticsService.evict(shopId);
                 logger.info("Updated shop inventory card quantity for card {} in shop {}", cardTemplateId, shopId);
             } else {
                 // Create new inventory card
@@ -293,6 +302,7 @@ public class UserCardService {
                 inventoryCard.setCreatedAt(LocalDateTime.now());
                 inventoryCard.setUpdatedAt(LocalDateTime.now());
                 inventoryCardRepository.save(inventoryCard);
+                inventoryAnalyticsService.evict(shopId);
                 logger.info("Created new shop inventory card for card {} in shop {}", cardTemplateId, shopId);
             }
         } catch (Exception e) {
@@ -349,6 +359,7 @@ public class UserCardService {
                     inventoryCardRepository.delete(inventoryCard);
                     logger.info("Removed shop inventory card for card {} from shop {}", cardTemplateId, shopId);
                 }
+                inventoryAnalyticsService.evict(shopId);
             }
         } catch (Exception e) {
             logger.error("Error removing card from shop inventory: " + e.getMessage(), e);
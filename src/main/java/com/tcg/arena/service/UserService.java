@@ -6,7 +6,10 @@ import com.tcg.arena.model.User;
 import com.tcg.arena.model.UserStats;
 import com.tcg.arena.repository.UserRepository;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
 import org.springframework.cache.annotation.Cacheable;
+import org.springframework.context.event.EventListener;
 import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.stereotype.Service;
@@ -36,6 +39,9 @@ public class UserService {
     @Autowired
     private NotificationService notificationService;
 
+    @Autowired
+    private CacheManager cacheManager;
+
     public List<User> getAllUsers() {
         return userRepository.findAllByOrderByDateJoinedDesc();
     }
@@ -76,6 +82,28 @@ public class UserService {
                 .collect(Collectors.toList());
     }
 
+    /**
+     * Drop the cached points leaderboards when a balance change can alter the
+     * top 50: the user is in it, or the new balance reaches its last entry.
+     */
+    @EventListener
+    public void onPointsBalanceChanged(PointsBalanceChangedEvent event) {
+        Cache cache = cacheManager.getCache(CacheConfig.LEADERBOARD_CACHE);
+        if (cache == null) {
+            return;
+        }
+        List<?> leaderboard = cache.get("points", List.class);
+        if (leaderboard != null && leaderboard.size() >= 50) {
+            User last = (User) leaderboard.get(leaderboard.size() - 1);
+            boolean listed = leaderboard.stream().anyMatch(u -> event.getUserId().equals(((User) u).getId()));
+            if (!listed && event.getNewBalance() < last.getPoints()) {
+                return;
+            }
+        }
+        cache.evict("points");
+        cache.evict("pointsWithStats");
+    }
+
     public Optional<User> getUserById(Long id) {
         return userRepository.findById(id);
     }
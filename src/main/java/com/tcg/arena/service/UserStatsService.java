@@ -5,6 +5,7 @@ import com.tcg.arena.model.UserStats;
 import com.tcg.arena.model.TCGType;
 import com.tcg.arena.model.Deck;
 import com.tcg.arena.repository.UserStatsRepository;
+import com.tcg.arena.repository.DeckCardRepository;
 import com.tcg.arena.repository.DeckRepository;
 import com.tcg.arena.repository.TournamentParticipantRepository;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -28,6 +29,9 @@ public class UserStatsService {
     @Autowired
     private DeckRepository deckRepository;
 
+    @Autowired
+    private DeckCardRepository deckCardRepository;
+
     @Autowired
     private TournamentParticipantRepository tournamentParticipantRepository;
 
@@ -69,17 +73,12 @@ public class UserStatsService {
     private UserStats updateUserStats(UserStats stats) {
         User user = stats.getUser();
 
-        // Calculate total cards in all decks (sum of DeckCard quantities)
-        List<Deck> userDecks = deckRepository.findByOwnerIdOrderByDateCreatedDesc(user.getId());
-        int totalCards = userDecks.stream()
-                .flatMap(deck -> deck.getCards().stream())
-                .mapToInt(deckCard -> deckCard.getQuantity() != null ? deckCard.getQuantity() : 0)
-                .sum();
-        stats.setTotalCards(totalCards);
+        // Calculate total cards in all decks (sum of DeckCard quantities, one aggregate query)
+        stats.setTotalCards((int) deckCardRepository.sumQuantityByDeckOwnerId(user.getId()));
 
         // Calculate total decks
-        int totalDecks = deckRepository.findByOwnerIdOrderByDateCreatedDesc(user.getId()).size();
-        stats.setTotalDecks(totalDecks);
+        List<Deck> userDecks = deckRepository.findByOwnerIdOrderByDateCreatedDesc(user.getId());
+        stats.setTotalDecks(userDecks.size());
 
         // Calculate tournament stats
         var tournamentStats = calculateTournamentStats(user.getId());
@@ -93,7 +92,7 @@ public class UserStatsService {
         stats.setWinRate(winRate);
 
         // Determine favorite TCG type
-        TCGType favoriteType = determineFavoriteTCGType(user);
+        TCGType favoriteType = determineFavoriteTCGType(user, userDecks);
         stats.setFavoriteTCGType(favoriteType);
 
         // Update last activity
@@ -114,9 +113,8 @@ public class UserStatsService {
         return Map.of("total", total, "wins", wins, "losses", losses);
     }
 
-    private TCGType determineFavoriteTCGType(User user) {
+    private TCGType determineFavoriteTCGType(User user, List<Deck> decks) {
         // Count decks by TCG type
-        var decks = deckRepository.findByOwnerIdOrderByDateCreatedDesc(user.getId());
         var typeCount = decks.stream()
                 .filter(d -> d.getTcgType() != null)
                 .collect(Collectors.groupingBy(Deck::getTcgType, Collectors.counting()));
@@ -0,0 +1,189 @@
+package com.tcg.arena.service;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.dao.DataAccessException;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.transaction.TransactionException;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.LinkedBlockingDeque;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
+import java.util.function.Predicate;
+
+/**
+ * Bounded queue of rows waiting for a write-behind flusher, shared by the
+ * services that insert off the request path (activities, chat messages,
+ * points ledger, achievement unlocks).
+ *
+ * {@link #flush()} hands the queue to the writer in batches. When a batch
+ * fails its rows are written one by one, so a row the database rejects
+ * (constraint, length, null) or that cannot even be bound is dropped, logged
+ * and counted instead of blocking every row behind it. Any other failure
+ * (database down, timeout) puts the rows not written yet back at the head of
+ * the queue, in their original order, for the next flush.
+ *
+ * A flush holds the queue's monitor while a batch is out of the queue and
+ * not yet written, so a caller synchronizing on the queue sees each row
+ * either queued or written.
+ */
+public class WriteBehindQueue<T> {
+
+    private static final Logger logger = LoggerFactory.getLogger(WriteBehindQueue.class);
+
+    private final String name;
+    private final int batchSize;
+    private final Consumer<List<T>> writer;
+    private final LinkedBlockingDeque<T> pending;
+    private final AtomicLong dropped = new AtomicLong();
+
+    // Called once for every row leaving the queue, written or dropped
+    private Consumer<T> onRemoved = item -> {
+    };
+
+    /**
+     * @param name      what the rows are, for the logs (e.g. "user activity")
+     * @param writer    inserts a batch, throwing on failure
+     */
+    public WriteBehindQueue(String name, int capacity, int batchSize, Consumer<List<T>> writer) {
+        this.name = name;
+        this.batchSize = Math.max(batchSize, 1);
+        this.writer = writer;
+        this.pending = new LinkedBlockingDeque<>(Math.max(capacity, 1));
+    }
+
+    public WriteBehindQueue<T> onRemoved(Consumer<T> onRemoved) {
+        this.onRemoved = onRemoved;
+        return this;
+    }
+
+    /**
+     * Queue a row, false when the queue is full
+     */
+    public boolean offer(T item) {
+        return pending.offerLast(item);
+    }
+
+    public int size() {
+        return pending.size();
+    }
+
+    /**
+     * Rows dropped because they could not be written
+     */
+    public long getDroppedCount() {
+        return dropped.get();
+    }
+
+    public void forEach(Consumer<T> action) {
+        pending.forEach(action);
+    }
+
+    /**
+     * Take the first queued row matching the predicate out of the queue, or
+     * null when there is none
+     */
+    public T removeFirst(Predicate<T> predicate) {
+        Iterator<T> it = pending.iterator();
+        while (it.hasNext()) {
+            T queued = it.next();
+            if (predicate.test(queued) && pending.removeFirstOccurrence(queued)) {
+                onRemoved.accept(queued);
+                return queued;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Write the queued rows, batch by batch, until the queue is empty or the
+     * database is unavailable
+     */
+    public void flush() {
+        List<T> batch = new ArrayList<>(batchSize);
+        while (true) {
+            synchronized (this) {
+                if (pending.drainTo(batch, batchSize) == 0) {
+                    return;
+                }
+                if (!writeBatch(batch)) {
+                    return;
+                }
+            }
+            batch.clear();
+        }
+    }
+
+    /**
+     * Write rows now, bypassing the queue (e.g. when it is full). Rows that
+     * cannot be written are logged and dropped.
+     */
+    public void writeNow(List<T> items) {
+        try {
+            writer.accept(items);
+        } catch (RuntimeException e) {
+            items.forEach(item -> drop(item, e));
+        }
+    }
+
+    // False when the database is unavailable and the unwritten rows were put back
+    private boolean writeBatch(List<T> batch) {
+        try {
+            writer.accept(batch);
+            batch.forEach(onRemoved);
+            return true;
+        } catch (RuntimeException e) {
+            if (batch.size() > 1) {
+                logger.warn("Failed to persist {} {} rows, retrying one by one: {}", batch.size(), name,
+                        e.getMessage());
+            }
+        }
+
+        for (int i = 0; i < batch.size(); i++) {
+            T item = batch.get(i);
+            try {
+                writer.accept(List.of(item));
+                onRemoved.accept(item);
+            } catch (RuntimeException e) {
+                if (isRowError(e)) {
+                    drop(item, e);
+                    continue;
+                }
+                logger.error("Failed to persist {} rows, retrying later: {}", name, e.getMessage());
+                requeue(batch.subList(i, batch.size()));
+                return false;
+            }
+        }
+        return true;
+    }
+
+    // Put rows back in front, keeping their order
+    private void requeue(List<T> items) {
+        for (int i = items.size() - 1; i >= 0; i--) {
+            if (!pending.offerFirst(items.get(i))) {
+                logger.error("Write-behind queue of {} rows full, dropping an unsaved row", name);
+                dropped.incrementAndGet();
+                onRemoved.accept(items.get(i));
+            }
+        }
+    }
+
+    private void drop(T item, RuntimeException e) {
+        dropped.incrementAndGet();
+        onRemoved.accept(item);
+        logger.error("Dropping {} row that cannot be written ({} dropped so far): {}", name, dropped.get(),
+                e.getMessage());
+    }
+
+    // A row the database rejects, or a bug binding it, fails the same way on
+    // every retry. Connection, lock and transaction failures may pass later.
+    private static boolean isRowError(RuntimeException e) {
+        if (e instanceof DataIntegrityViolationException) {
+            return true;
+        }
+        return !(e instanceof DataAccessException) && !(e instanceof TransactionException);
+    }
+}
@@ -0,0 +1,8 @@
+-- V37: Persistent reverse-geocoding cache keyed by quantized coordinate cell
+CREATE TABLE IF NOT EXISTS geocoding_cache (
+    cell_key VARCHAR(64) PRIMARY KEY,
+    city VARCHAR(255),
+    country VARCHAR(255),
+    full_address VARCHAR(1000),
+    created_at TIMESTAMP NOT NULL DEFAULT NOW()
+);
@@ -0,0 +1,15 @@
+-- V38: Index-backed chat history paging and per-participant read watermarks
+
+-- Cursor paging (before/after message id) and watermark unread counts
+CREATE INDEX IF NOT EXISTS idx_chat_messages_conversation_id_id ON chat_messages(conversation_id, id);
+
+CREATE TABLE IF NOT EXISTS chat_read_markers (
+    id BIGSERIAL PRIMARY KEY,
+    conversation_id BIGINT NOT NULL,
+    user_id BIGINT NOT NULL,
+    last_read_message_id BIGINT NOT NULL,
+    updated_at TIMESTAMP NOT NULL DEFAULT NOW(),
+    CONSTRAINT chat_read_markers_conversation_user_unique UNIQUE (conversation_id, user_id)
+);
+
+CREATE INDEX IF NOT EXISTS idx_chat_read_markers_user ON chat_read_markers(user_id);
@@ -0,0 +1,9 @@
+-- V39: Persisted daily quota usage per JustTCG API key (keyed by fingerprint, not the key itself)
+CREATE TABLE IF NOT EXISTS tcg_api_key_quota (
+    key_id VARCHAR(32) PRIMARY KEY,
+    key_name VARCHAR(32) NOT NULL,
+    quota_day DATE NOT NULL,
+    used_today INTEGER NOT NULL DEFAULT 0,
+    exhausted BOOLEAN NOT NULL DEFAULT FALSE,
+    updated_at TIMESTAMP NOT NULL DEFAULT NOW()
+);
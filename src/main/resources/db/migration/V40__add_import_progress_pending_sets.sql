@@ -0,0 +1,2 @@
+-- V40: Per-set checkpoint for the JustTCG set import (sets still pending in the current run)
+ALTER TABLE import_progress ADD COLUMN IF NOT EXISTS pending_set_codes TEXT;
@@ -0,0 +1,16 @@
+-- V41: Per-run change counts of the price-only refresh
+CREATE TABLE IF NOT EXISTS price_refresh_runs (
+    id BIGSERIAL PRIMARY KEY,
+    tcg_type VARCHAR(50) NOT NULL,
+    status VARCHAR(20) NOT NULL,
+    started_at TIMESTAMP NOT NULL,
+    finished_at TIMESTAMP,
+    pages_fetched INTEGER NOT NULL DEFAULT 0,
+    cards_seen INTEGER NOT NULL DEFAULT 0,
+    cards_changed INTEGER NOT NULL DEFAULT 0,
+    cards_unchanged INTEGER NOT NULL DEFAULT 0,
+    cards_unmatched INTEGER NOT NULL DEFAULT 0,
+    error_message VARCHAR(1000)
+);
+
+CREATE INDEX IF NOT EXISTS idx_price_refresh_runs_started_at ON price_refresh_runs (started_at);
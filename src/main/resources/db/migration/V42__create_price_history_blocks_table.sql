@@ -0,0 +1,15 @@
+-- V42: Append-only price history, one delta+varint encoded block per series and month
+CREATE TABLE IF NOT EXISTS price_history_blocks (
+    series_type SMALLINT NOT NULL,
+    series_key BIGINT NOT NULL,
+    block_start DATE NOT NULL,
+    sample_count INTEGER NOT NULL,
+    first_ts BIGINT NOT NULL,
+    last_ts BIGINT NOT NULL,
+    last_cents BIGINT NOT NULL,
+    min_cents BIGINT NOT NULL,
+    max_cents BIGINT NOT NULL,
+    sum_cents BIGINT NOT NULL,
+    data BYTEA NOT NULL,
+    PRIMARY KEY (series_type, series_key, block_start)
+);
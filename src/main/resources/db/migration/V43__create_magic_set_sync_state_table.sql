@@ -0,0 +1,8 @@
+-- V43: Last synced Scryfall fingerprint per Magic set, drives the nightly delta import
+CREATE TABLE IF NOT EXISTS magic_set_sync_state (
+    set_code VARCHAR(16) PRIMARY KEY,
+    content_hash BIGINT NOT NULL,
+    card_count INTEGER NOT NULL DEFAULT 0,
+    imported_cards INTEGER NOT NULL DEFAULT 0,
+    last_synced_at TIMESTAMP NOT NULL DEFAULT NOW()
+);
@@ -0,0 +1,16 @@
+-- V44: Per-user achievement counters, flushed by AchievementEngine as deltas
+CREATE TABLE IF NOT EXISTS user_achievement_counters (
+    id BIGSERIAL PRIMARY KEY,
+    user_id BIGINT NOT NULL,
+    metric VARCHAR(30) NOT NULL,
+    counter_value BIGINT NOT NULL DEFAULT 0,
+    updated_at TIMESTAMP NOT NULL DEFAULT NOW(),
+    CONSTRAINT uk_user_achievement_counters_user_metric UNIQUE (user_id, metric)
+);
+
+-- One row per unlocked achievement, AchievementEngine inserts with ON CONFLICT DO NOTHING
+DELETE FROM user_achievements a USING user_achievements b
+WHERE a.user_id = b.user_id AND a.achievement_id = b.achievement_id AND a.id > b.id;
+
+CREATE UNIQUE INDEX IF NOT EXISTS uk_user_achievements_user_achievement
+    ON user_achievements (user_id, achievement_id);
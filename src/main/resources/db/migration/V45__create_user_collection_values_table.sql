@@ -0,0 +1,11 @@
+-- V45: Materialized collection totals per user and TCG, kept by CollectionValuationService
+CREATE TABLE IF NOT EXISTS user_collection_values (
+    user_id BIGINT NOT NULL,
+    tcg_type VARCHAR(30) NOT NULL,
+    card_count INTEGER NOT NULL DEFAULT 0,
+    market_value NUMERIC(14,2) NOT NULL DEFAULT 0,
+    updated_at TIMESTAMP NOT NULL DEFAULT NOW(),
+    PRIMARY KEY (user_id, tcg_type)
+);
+
+CREATE INDEX IF NOT EXISTS idx_user_collection_values_tcg_type ON user_collection_values (tcg_type);
@@ -0,0 +1,6 @@
+-- V46: Last modification time of user cards, for keyset pages and incremental collection sync
+ALTER TABLE user_cards ADD COLUMN IF NOT EXISTS last_modified TIMESTAMP;
+
+UPDATE user_cards SET last_modified = COALESCE(date_added, NOW()) WHERE last_modified IS NULL;
+
+CREATE INDEX IF NOT EXISTS idx_user_cards_owner_last_modified ON user_cards (owner_id, last_modified, id);
@@ -0,0 +1,184 @@
+package com.tcg.arena.service;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import com.sun.net.httpserver.HttpServer;
+import com.tcg.arena.dto.GlobalChatMessageDto;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.messaging.Message;
+import org.springframework.messaging.simp.SimpMessageHeaderAccessor;
+import org.springframework.messaging.simp.SimpMessagingTemplate;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.web.reactive.function.client.WebClient;
+
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+import java.util.stream.Collectors;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * ClusterBrokerBus between two instances. The peer is a local HTTP server
+ * feeding a second bus, and each bus sends to a broker stand-in: a
+ * SimpMessagingTemplate over a channel that records the messages.
+ */
+class ClusterBrokerBusTest {
+
+    private static final String CHAT = "/topic/arena-chat";
+    private static final String OTHER = "/topic/chat/42";
+
+    private final ObjectMapper objectMapper = new ObjectMapper().registerModule(new JavaTimeModule());
+
+    private HttpServer peerServer;
+    private ClusterBrokerBus sender;
+    private ClusterBrokerBus peer;
+    private final BlockingQueue<Message<?>> peerBroker = new LinkedBlockingQueue<>();
+    private final BlockingQueue<byte[]> peerChatListener = new LinkedBlockingQueue<>();
+
+    @BeforeEach
+    void startPeerServer() throws Exception {
+        peerServer = HttpServer.create(new InetSocketAddress("localhost", 0), 0);
+        peerServer.createContext(ClusterBrokerBus.PUBLISH_PATH, exchange -> {
+            try {
+                if (peer.isValidSecret(exchange.getRequestHeaders().getFirst(ClusterBrokerBus.SECRET_HEADER))) {
+                    peer.receive(objectMapper.readValue(exchange.getRequestBody(),
+                            new TypeReference<List<ClusterBrokerBus.Batch>>() {
+                            }));
+                    exchange.sendResponseHeaders(202, -1);
+                } else {
+                    exchange.sendResponseHeaders(403, -1);
+                }
+            } finally {
+                exchange.close();
+            }
+        });
+        peerServer.start();
+    }
+
+    @AfterEach
+    void stop() {
+        if (sender != null) {
+            sender.shutdown();
+        }
+        if (peer != null) {
+            peer.shutdown();
+        }
+        peerServer.stop(0);
+    }
+
+    @Test
+    void clusterModeReplaysEveryTopicIntoThePeerBroker() throws Exception {
+        startBuses("cluster");
+
+        sender.publish(OTHER, bytes("hello"), "application/json");
+        sender.publish(CHAT, bytes("chat"), "application/json");
+
+        List<Message<?>> replayed = List.of(nextBrokerMessage(), nextBrokerMessage());
+        assertThat(replayed).extracting(message -> SimpMessageHeaderAccessor.getDestination(message.getHeaders()))
+                .containsExactlyInAnyOrder(OTHER, CHAT);
+        assertThat(replayed).allSatisfy(message ->
+                assertThat(message.getHeaders()).containsKey(ClusterBrokerBus.ORIGIN_HEADER));
+        assertThat(text(peerChatListener.poll(5, TimeUnit.SECONDS))).isEqualTo("chat");
+    }
+
+    @Test
+    void relayModeOnlyFeedsRemoteListeners() throws Exception {
+        startBuses("relay");
+
+        sender.publish(OTHER, bytes("not forwarded"), "application/json");
+        sender.publish(CHAT, bytes("chat"), "application/json");
+
+        assertThat(text(peerChatListener.poll(5, TimeUnit.SECONDS))).isEqualTo("chat");
+        // The external broker delivers to clients, nothing is replayed into the peer's broker
+        assertThat(peerBroker.poll(200, TimeUnit.MILLISECONDS)).isNull();
+        assertThat(sender.getPendingCount()).isZero();
+    }
+
+    @Test
+    void ownBatchesAreNotReplayed() {
+        startBuses("cluster");
+        String origin = (String) ReflectionTestUtils.getField(peer, "instanceId");
+
+        peer.receive(List.of(new ClusterBrokerBus.Batch(origin, CHAT,
+                List.of(new ClusterBrokerBus.Frame(bytes("loop"), null)))));
+
+        assertThat(peerBroker).isEmpty();
+        assertThat(peerChatListener).isEmpty();
+    }
+
+    @Test
+    void remoteChatMessagesAreBufferedInIdOrder() throws Exception {
+        GlobalChatBuffer buffer = new GlobalChatBuffer(3);
+        startBuses("relay", payload -> {
+            try {
+                buffer.add(objectMapper.readValue(payload, GlobalChatMessageDto.class));
+            } catch (Exception e) {
+                throw new IllegalStateException(e);
+            }
+        });
+
+        // Ids reserved by two instances, arriving out of order
+        for (long id : new long[] { 11, 14, 12, 10, 13 }) {
+            sender.publish(CHAT, objectMapper.writeValueAsBytes(message(id)), "application/json");
+        }
+        for (int i = 0; i < 5; i++) {
+            assertThat(peerChatListener.poll(5, TimeUnit.SECONDS)).isNotNull();
+        }
+
+        assertThat(buffer.snapshot().stream().map(GlobalChatMessageDto::getId).collect(Collectors.toList()))
+                .containsExactly(12L, 13L, 14L);
+        assertThat(buffer.oldestId()).isEqualTo(12L);
+        assertThat(buffer.after(12).stream().map(GlobalChatMessageDto::getId).collect(Collectors.toList()))
+                .containsExactly(13L, 14L);
+    }
+
+    private void startBuses(String mode) {
+        startBuses(mode, payload -> {
+        });
+    }
+
+    // chatListener runs on the peer before the message is handed to peerChatListener
+    private void startBuses(String mode, Consumer<byte[]> chatListener) {
+        String peerUrl = "http://localhost:" + peerServer.getAddress().getPort();
+        sender = new ClusterBrokerBus(WebClient.builder(), mode, peerUrl, "secret", 5, 200, 1000);
+        peer = new ClusterBrokerBus(WebClient.builder(), mode, "http://localhost:1", "secret", 5, 200, 1000);
+        ReflectionTestUtils.setField(peer, "messagingTemplate", new SimpMessagingTemplate((message, timeout) -> {
+            peerBroker.add(message);
+            return true;
+        }));
+        // Both instances run the same code, so they register the same listeners
+        sender.onRemoteMessage(CHAT, payload -> {
+        });
+        peer.onRemoteMessage(CHAT, chatListener);
+        peer.onRemoteMessage(CHAT, peerChatListener::add);
+    }
+
+    private Message<?> nextBrokerMessage() throws InterruptedException {
+        Message<?> message = peerBroker.poll(5, TimeUnit.SECONDS);
+        assertThat(message).isNotNull();
+        return message;
+    }
+
+    private static GlobalChatMessageDto message(long id) {
+        GlobalChatMessageDto dto = new GlobalChatMessageDto();
+        dto.setId(id);
+        dto.setContent("message " + id);
+        return dto;
+    }
+
+    private static byte[] bytes(String text) {
+        return text.getBytes(StandardCharsets.UTF_8);
+    }
+
+    private static String text(byte[] payload) {
+        return payload != null ? new String(payload, StandardCharsets.UTF_8) : null;
+    }
+}
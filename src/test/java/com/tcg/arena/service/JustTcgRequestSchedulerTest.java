@@ -0,0 +1,161 @@
+package com.tcg.arena.service;
+
+import com.sun.net.httpserver.HttpServer;
+import com.tcg.arena.model.ApiKeyQuotaState;
+import com.tcg.arena.repository.ApiKeyQuotaStateRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.ZoneOffset;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.function.Function;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * TCGApiClient and JustTcgRequestScheduler against a local mock JustTCG
+ * server answering /cards per API key, so every 429 path is deterministic.
+ */
+class JustTcgRequestSchedulerTest {
+
+    private static final String PRIMARY_KEY = "tcg_primary";
+    private static final String SECONDARY_KEY = "tcg_secondary";
+    private static final String CARDS_PAGE = "{\"data\":[{\"id\":\"card-1\",\"name\":\"Card\"}],\"hasMore\":false}";
+
+    private HttpServer server;
+    private final List<String> requestKeys = new CopyOnWriteArrayList<>();
+    // Response (status and body) for the n-th request, by API key
+    private volatile Function<String, Response> responses;
+
+    private final ApiKeyQuotaStateRepository quotaStateRepository = mock(ApiKeyQuotaStateRepository.class);
+    private JustTcgRequestScheduler scheduler;
+    private TCGApiClient client;
+
+    private record Response(int status, String body) {
+    }
+
+    @BeforeEach
+    void startServer() throws Exception {
+        when(quotaStateRepository.findById(any())).thenReturn(Optional.empty());
+        server = HttpServer.create(new InetSocketAddress("localhost", 0), 0);
+        server.createContext("/cards", exchange -> {
+            try {
+                String key = exchange.getRequestHeaders().getFirst("x-api-key");
+                requestKeys.add(key);
+                Response response = responses.apply(key);
+                byte[] body = response.body().getBytes(StandardCharsets.UTF_8);
+                exchange.getResponseHeaders().add("Content-Type", "application/json");
+                exchange.sendResponseHeaders(response.status(), body.length);
+                try (OutputStream out = exchange.getResponseBody()) {
+                    out.write(body);
+                }
+            } finally {
+                exchange.close();
+            }
+        });
+        server.start();
+    }
+
+    @AfterEach
+    void stop() {
+        if (scheduler != null) {
+            scheduler.stop();
+        }
+        server.stop(0);
+    }
+
+    @Test
+    void perMinuteLimitCoolsTheKeyDownAndRetriesOnAnotherKey() {
+        startClient(PRIMARY_KEY, SECONDARY_KEY);
+        // The message mentions the quota, only the code says it is a per-minute limit
+        responses = key -> PRIMARY_KEY.equals(key)
+                ? new Response(429, "{\"error\":\"Too many requests for your quota\",\"code\":\"RATE_LIMIT_EXCEEDED\"}")
+                : new Response(200, CARDS_PAGE);
+
+        TCGApiClient.TCGCardsResponse page = client.fetchCardsPageForSet("set-1", 0).block(Duration.ofSeconds(30));
+
+        assertThat(page.getCards()).hasSize(1);
+        assertThat(requestKeys).containsExactly(PRIMARY_KEY, SECONDARY_KEY);
+        assertThat(scheduler.hasAvailableKey()).isTrue();
+        assertThat(status("PRIMARY").get("exhausted")).isEqualTo(false);
+    }
+
+    @Test
+    void dailyLimitExhaustsTheKeyAndStopsRetrying() {
+        startClient(PRIMARY_KEY, "");
+        responses = key -> new Response(429, "{\"error\":{\"message\":\"Daily limit reached\","
+                + "\"code\":\"DAILY_LIMIT_EXCEEDED\"}}");
+
+        assertThatThrownBy(() -> client.fetchCardsPageForSet("set-1", 0).block(Duration.ofSeconds(30)))
+                .hasMessageContaining("HTTP 429");
+
+        // No key has quota left, so the 429 is not retried
+        assertThat(requestKeys).containsExactly(PRIMARY_KEY);
+        assertThat(scheduler.hasAvailableKey()).isFalse();
+        assertThat(status("PRIMARY").get("exhausted")).isEqualTo(true);
+
+        // Queued requests are rejected without reaching the API
+        assertThatThrownBy(() -> scheduler.acquire(JustTcgRequestScheduler.Priority.INTERACTIVE)
+                .block(Duration.ofSeconds(5)))
+                .hasMessageContaining("daily quota exhausted");
+        assertThat(requestKeys).hasSize(1);
+    }
+
+    @Test
+    void nonJsonRateLimitIsAPerMinuteLimit() {
+        startClient(PRIMARY_KEY, "");
+        scheduler.reportRateLimited(new JustTcgRequestScheduler.Lease("PRIMARY", PRIMARY_KEY),
+                "<html>429 Too Many Requests - quota</html>");
+
+        assertThat(scheduler.hasAvailableKey()).isTrue();
+        assertThat(JustTcgRequestScheduler.errorCode("{\"code\":\"MONTHLY_LIMIT_EXCEEDED\"}"))
+                .isEqualTo("MONTHLY_LIMIT_EXCEEDED");
+        assertThat(JustTcgRequestScheduler.errorCode("quota exceeded")).isNull();
+    }
+
+    @Test
+    void exhaustedStateSurvivesARestart() {
+        ApiKeyQuotaState state = new ApiKeyQuotaState("fingerprint", "PRIMARY");
+        state.setQuotaDay(LocalDate.now(ZoneOffset.UTC));
+        state.setUsedToday(1000);
+        state.setExhausted(true);
+        when(quotaStateRepository.findById(any())).thenReturn(Optional.of(state));
+        startClient(PRIMARY_KEY, "");
+        responses = key -> new Response(200, CARDS_PAGE);
+
+        assertThatThrownBy(() -> client.fetchCardsPageForSet("set-1", 0).block(Duration.ofSeconds(30)))
+                .hasMessageContaining("daily quota exhausted");
+        assertThat(requestKeys).isEmpty();
+    }
+
+    private void startClient(String primaryKey, String secondaryKey) {
+        scheduler = new JustTcgRequestScheduler(quotaStateRepository, primaryKey, secondaryKey, "",
+                10, 1000, 1, 10, 1000, 1, 10, 1000, 1, 200,
+                Set.of("DAILY_LIMIT_EXCEEDED", "MONTHLY_LIMIT_EXCEEDED"));
+        scheduler.start();
+        client = new TCGApiClient("http://localhost:" + server.getAddress().getPort(), "http://localhost:1");
+        ReflectionTestUtils.setField(client, "requestScheduler", scheduler);
+    }
+
+    private Map<String, Object> status(String keyName) {
+        return scheduler.getKeyStatus().stream()
+                .filter(entry -> keyName.equals(entry.get("key")))
+                .findFirst()
+                .orElseThrow();
+    }
+}
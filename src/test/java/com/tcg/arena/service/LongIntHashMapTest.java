@@ -0,0 +1,112 @@
+package com.tcg.arena.service;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * LongIntHashMap and the tables built on it (CardKeySet, PriceSnapshot):
+ * keys sharing a home slot, growth past the initial capacity, and the
+ * reserved 0 key.
+ */
+class LongIntHashMapTest {
+
+    @Test
+    void keysWithTheSameHomeSlotAreKeptApart() {
+        LongIntHashMap map = new LongIntHashMap(8);
+        int mask = map.capacity() - 1;
+        List<Long> colliding = keysWithHomeSlot(3, mask, 6);
+
+        for (int i = 0; i < colliding.size(); i++) {
+            map.put(colliding.get(i), i + 1);
+        }
+        map.put(colliding.get(2), 30);
+        map.addTo(colliding.get(4), 10);
+
+        assertThat(map.size()).isEqualTo(colliding.size());
+        assertThat(map.get(colliding.get(0), -1)).isEqualTo(1);
+        assertThat(map.get(colliding.get(2), -1)).isEqualTo(30);
+        assertThat(map.get(colliding.get(4), -1)).isEqualTo(15);
+        assertThat(map.get(colliding.get(5), -1)).isEqualTo(6);
+        // Probing for a missing key with the same home slot stops at the first free slot
+        assertThat(map.get(keysWithHomeSlot(3, mask, 7).get(6), -1)).isEqualTo(-1);
+        assertThat(map.putIfAbsent(colliding.get(1), 99)).isFalse();
+        assertThat(map.get(colliding.get(1), -1)).isEqualTo(2);
+    }
+
+    @Test
+    void growsPastTheExpectedSizeWithoutLosingEntries() {
+        LongIntHashMap map = new LongIntHashMap(8);
+        int initialCapacity = map.capacity();
+        Map<Long, Integer> expected = new HashMap<>();
+        Random random = new Random(7);
+        for (int i = 0; i < 50_000; i++) {
+            // Sequential ids and random hashes, the two kinds of keys in use
+            long key = i % 2 == 0 ? i + 1 : random.nextLong() | 1L;
+            map.addTo(key, i);
+            expected.merge(key, i, Integer::sum);
+        }
+
+        assertThat(map.capacity()).isGreaterThan(initialCapacity);
+        assertThat(map.size() * 2).isLessThanOrEqualTo(map.capacity());
+        assertThat(map.size()).isEqualTo(expected.size());
+        expected.forEach((key, value) -> assertThat(map.get(key, -1)).as("key %d", key).isEqualTo(value));
+
+        Map<Long, Integer> visited = new HashMap<>();
+        map.forEach(visited::put);
+        assertThat(visited).isEqualTo(expected);
+    }
+
+    @Test
+    void zeroIsNotAKey() {
+        LongIntHashMap map = new LongIntHashMap(8);
+
+        assertThatThrownBy(() -> map.put(0L, 1)).isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> map.get(0L, -1)).isInstanceOf(IllegalArgumentException.class);
+        assertThat(map.size()).isZero();
+    }
+
+    @Test
+    void cardKeySetAndPriceSnapshotGrowFromATinyExpectedSize() {
+        CardKeySet keys = new CardKeySet(1);
+        PriceSnapshot snapshot = new PriceSnapshot(1);
+        double[] prices = new double[CardPrices.FIELDS];
+        for (int i = 0; i < 5_000; i++) {
+            assertThat(keys.add("Card " + i, "SET", String.valueOf(i))).isTrue();
+            prices[CardPrices.MARKET] = i;
+            snapshot.add("Card " + i, "SET", String.valueOf(i), 1_000 + i, prices);
+        }
+        // The first template with a natural key wins
+        snapshot.add("Card 42", "SET", "42", 9_999, prices);
+
+        assertThat(keys.add("Card 42", "SET", "42")).isFalse();
+        assertThat(keys.size()).isEqualTo(5_000);
+        assertThat(keys.contains("Card 4999", "SET", "4999")).isTrue();
+        assertThat(keys.contains("Card 5000", "SET", "5000")).isFalse();
+
+        assertThat(snapshot.size()).isEqualTo(5_000);
+        int row = snapshot.rowOf("Card 42", "SET", "42");
+        assertThat(snapshot.templateId(row)).isEqualTo(1_042);
+        double[] stored = new double[CardPrices.FIELDS];
+        snapshot.copyPrices(row, stored);
+        assertThat(stored[CardPrices.MARKET]).isEqualTo(42.0);
+        assertThat(snapshot.rowOf("Card 5000", "SET", "5000")).isEqualTo(-1);
+    }
+
+    private static List<Long> keysWithHomeSlot(int slot, int mask, int count) {
+        List<Long> keys = new ArrayList<>(count);
+        for (long key = 1; keys.size() < count; key++) {
+            if (LongIntHashMap.homeSlot(key, mask) == slot) {
+                keys.add(key);
+            }
+        }
+        return keys;
+    }
+}
@@ -0,0 +1,126 @@
+package com.tcg.arena.service;
+
+import com.tcg.arena.model.Shop;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Simulated 10k-place population import against a city with existing shops:
+ * every candidate is checked and, when new, inserted, like the Google Places,
+ * HERE and OpenStreetMap imports do. The index must give the same answers as
+ * the full scan it replaced (checked on a sample, the scan is too slow for
+ * all 10k) and do a small fraction of the scan's work extrapolated from that
+ * sample. Work is counted in shop comparisons rather than timed, so the test
+ * does not depend on the machine it runs on.
+ */
+class ShopDedupeIndexBenchmarkTest {
+
+    private static final int EXISTING_SHOPS = 5_000;
+    private static final int CANDIDATES = 10_000;
+    private static final int SCAN_SAMPLE_EVERY = 10;
+
+    // The index must do less than this fraction of the full scan's comparisons
+    private static final int MIN_SPEEDUP = 100;
+
+    // Milan, about 20km x 20km
+    private static final double CENTER_LATITUDE = 45.4642;
+    private static final double CENTER_LONGITUDE = 9.1900;
+    private static final double SPREAD_DEGREES = 0.09;
+
+    // About 40m, well inside the 100m duplicate distance
+    private static final double JITTER_DEGREES = 0.0003;
+
+    @Test
+    void tenThousandPlaceImportMatchesFullScan() {
+        Random random = new Random(42);
+        List<Shop> existing = new ArrayList<>(EXISTING_SHOPS);
+        for (int i = 0; i < EXISTING_SHOPS; i++) {
+            existing.add(shop(nameOf(random), randomLatitude(random), randomLongitude(random)));
+        }
+
+        // A third of the candidates are the same place seen again (other keyword, other provider)
+        List<Shop> candidates = new ArrayList<>(CANDIDATES);
+        for (int i = 0; i < CANDIDATES; i++) {
+            if (random.nextInt(3) == 0) {
+                Shop known = existing.get(random.nextInt(existing.size()));
+                candidates.add(shop(known.getName().toUpperCase(),
+                        known.getLatitude() + (random.nextDouble() - 0.5) * JITTER_DEGREES,
+                        known.getLongitude() + (random.nextDouble() - 0.5) * JITTER_DEGREES));
+            } else {
+                candidates.add(shop(nameOf(random), randomLatitude(random), randomLongitude(random)));
+            }
+        }
+
+        ShopDedupeIndex index = new ShopDedupeIndex(existing);
+        boolean[] indexDuplicate = new boolean[CANDIDATES];
+        for (int i = 0; i < CANDIDATES; i++) {
+            indexDuplicate[i] = index.contains(candidates.get(i));
+            if (!indexDuplicate[i]) {
+                index.add(candidates.get(i));
+            }
+        }
+
+        // The replaced implementation: scan every shop for each candidate
+        List<Shop> table = new ArrayList<>(existing);
+        long[] scanComparisons = { 0 };
+        int sampled = 0;
+        int duplicates = 0;
+        for (int i = 0; i < CANDIDATES; i++) {
+            Shop candidate = candidates.get(i);
+            if (i % SCAN_SAMPLE_EVERY == 0) {
+                boolean scanDuplicate = scanExists(table, candidate, scanComparisons);
+                assertThat(indexDuplicate[i]).as("candidate %d (%s)", i, candidate.getName())
+                        .isEqualTo(scanDuplicate);
+                sampled++;
+            }
+            if (indexDuplicate[i]) {
+                duplicates++;
+            } else {
+                table.add(candidate);
+            }
+        }
+
+        assertThat(duplicates).isGreaterThan(CANDIDATES / 5);
+        assertThat(index.size()).isEqualTo(EXISTING_SHOPS + CANDIDATES - duplicates);
+        // The scan compares a candidate with every shop, the index only looks at 9 cells
+        assertThat(index.getProbes() * MIN_SPEEDUP).isLessThan(scanComparisons[0] * CANDIDATES / sampled);
+    }
+
+    private static boolean scanExists(List<Shop> shops, Shop shop, long[] comparisons) {
+        for (Shop existing : shops) {
+            comparisons[0]++;
+            if (existing.getName().equalsIgnoreCase(shop.getName())
+                    && ShopDedupeIndex.calculateDistance(existing.getLatitude(), existing.getLongitude(),
+                            shop.getLatitude(), shop.getLongitude()) < 0.1) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    // Few distinct names, like chains and generic "Game Store" names, so names alone do not dedupe
+    private static String nameOf(Random random) {
+        return "Game Store " + random.nextInt(500);
+    }
+
+    private static double randomLatitude(Random random) {
+        return CENTER_LATITUDE + (random.nextDouble() - 0.5) * SPREAD_DEGREES * 2;
+    }
+
+    private static double randomLongitude(Random random) {
+        return CENTER_LONGITUDE + (random.nextDouble() - 0.5) * SPREAD_DEGREES * 2;
+    }
+
+    private static Shop shop(String name, double latitude, double longitude) {
+        Shop shop = new Shop();
+        shop.setName(name);
+        shop.setLatitude(latitude);
+        shop.setLongitude(longitude);
+        return shop;
+    }
+}